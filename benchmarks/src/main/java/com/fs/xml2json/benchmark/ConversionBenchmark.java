@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConverterService;
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full conversion by {@link ConverterService} in both directions, with shared engine and with engine
+ * created for every conversion (cost of looking up factories, which matters for small documents).
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ConversionBenchmark {
+
+    /**
+     * Type of source document, XML is converted to JSON and JSON to XML.
+     */
+    @Param({"XML", "JSON"})
+    public FileTypeEnum source;
+
+    /**
+     * Engine: <code>shared</code> or <code>perConversion</code>.
+     */
+    @Param({"shared", "perConversion"})
+    public String engine;
+
+    /**
+     * Number of records in document.
+     */
+    @Param({"10", "10000"})
+    public int records;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private ConverterService service;
+    private byte[] document;
+
+    /**
+     * Creates document and service.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, XMLStreamException {
+        document = source == FileTypeEnum.XML ? Documents.xml(records) : Documents.json(records);
+        service = new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine());
+    }
+
+    /**
+     * Converts document.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be converted
+     */
+    @Benchmark
+    public int convert(Throughput throughput) throws IOException, XMLStreamException {
+        output.reset();
+        ConverterService converter = "perConversion".equals(engine)
+                ? new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine()) : service;
+        converter.convert(new ByteArrayInputStream(document), output, source);
+        throughput.add(document.length);
+        return output.size();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import de.odysseus.staxon.json.JsonXMLConfigBuilder;
+import de.odysseus.staxon.json.JsonXMLOutputFactory;
+import de.odysseus.staxon.util.XMLStreamCopier;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copying of XML to JSON writer with event objects (<code>XMLEventWriter.add(XMLEventReader)</code>)
+ * and cursor by cursor ({@link XMLStreamCopier}). Both copies use the same factories and config.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CopyBenchmark {
+
+    /**
+     * Number of records in document.
+     */
+    @Param({"1000"})
+    public int records;
+
+    private final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+    private final JsonXMLOutputFactory outputFactory = new JsonXMLOutputFactory(new JsonXMLConfigBuilder()
+            .autoArray(false)
+            .autoPrimitive(true)
+            .prettyPrint(true)
+            .build());
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private byte[] xml;
+
+    /**
+     * Creates document.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, XMLStreamException {
+        xml = Documents.xml(records);
+    }
+
+    /**
+     * Copies events as event objects.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws XMLStreamException if document cannot be converted
+     */
+    @Benchmark
+    public int eventCopy(Throughput throughput) throws XMLStreamException {
+        output.reset();
+        XMLEventReader reader = inputFactory.createXMLEventReader(new ByteArrayInputStream(xml));
+        XMLEventWriter writer = outputFactory.createXMLEventWriter(output);
+        writer.add(reader);
+        writer.close();
+        reader.close();
+        throughput.add(xml.length);
+        return output.size();
+    }
+
+    /**
+     * Copies events cursor by cursor.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws XMLStreamException if document cannot be converted
+     */
+    @Benchmark
+    public int cursorCopy(Throughput throughput) throws XMLStreamException {
+        output.reset();
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(xml));
+        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(output);
+        new XMLStreamCopier(reader, writer, "UTF-8").copy();
+        writer.close();
+        reader.close();
+        throughput.add(xml.length);
+        return output.size();
+    }
+}
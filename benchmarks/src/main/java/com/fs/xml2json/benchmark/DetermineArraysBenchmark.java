@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import com.fs.xml2json.util.XmlUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Determining of arrays before XML to JSON conversion ({@link XmlUtils#determineArrays}), whole document
+ * and sample of the first records.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DetermineArraysBenchmark {
+
+    private static final int SAMPLE_RECORDS = 100;
+
+    /**
+     * Number of records in document.
+     */
+    @Param({"1000", "100000"})
+    public int records;
+
+    private byte[] xml;
+
+    /**
+     * Creates document.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, XMLStreamException {
+        xml = Documents.xml(records);
+    }
+
+    /**
+     * Determines arrays by whole document.
+     *
+     * @param throughput counter of processed bytes
+     * @return paths of arrays
+     * @throws XMLStreamException if document is not valid XML
+     */
+    @Benchmark
+    public List<String> determineArrays(Throughput throughput) throws XMLStreamException {
+        List<String> arrays = XmlUtils.determineArrays(new ByteArrayInputStream(xml));
+        throughput.add(xml.length);
+        return arrays;
+    }
+
+    /**
+     * Determines arrays by the first records, throughput is counted by whole document.
+     *
+     * @param throughput counter of processed bytes
+     * @return paths of arrays
+     * @throws XMLStreamException if document is not valid XML
+     */
+    @Benchmark
+    public List<String> determineSampleArrays(Throughput throughput) throws XMLStreamException {
+        List<String> arrays = XmlUtils.determineArrays(new ByteArrayInputStream(xml), SAMPLE_RECORDS,
+                Long.MAX_VALUE);
+        throughput.add(xml.length);
+        return arrays;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.util.CorpusGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Synthetic documents of benchmarks. Documents are generated by {@link CorpusGenerator} with fixed seed
+ * and shape, so every run converts the same data: records with attributes, nested objects, repeated
+ * elements (arrays), numbers and text which must be escaped.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class Documents {
+
+    /**
+     * Path of records.
+     */
+    public static final String RECORD_PATH = "/" + CorpusGenerator.ROOT + "/" + CorpusGenerator.RECORD;
+
+    private static final long SEED = 20171112L;
+
+    /**
+     * Private constructor.
+     */
+    private Documents() {
+    }
+
+    /**
+     * Creates XML-document.
+     *
+     * @param records number of records
+     * @return UTF-8 encoded XML
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be written
+     */
+    public static byte[] xml(int records) throws IOException, XMLStreamException {
+        return generate(records, FileTypeEnum.XML);
+    }
+
+    /**
+     * Creates JSON-document with the same data as the XML-document.
+     *
+     * @param records number of records
+     * @return UTF-8 encoded JSON
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be written
+     */
+    public static byte[] json(int records) throws IOException, XMLStreamException {
+        return generate(records, FileTypeEnum.JSON);
+    }
+
+    /**
+     * Generates document.
+     *
+     * @param records number of records
+     * @param type type of document
+     * @return UTF-8 encoded document
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be written
+     */
+    private static byte[] generate(int records, FileTypeEnum type) throws IOException, XMLStreamException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CorpusGenerator.builder().seed(SEED).records(records).build().write(output, type, Long.MAX_VALUE);
+        return output.toByteArray();
+    }
+}
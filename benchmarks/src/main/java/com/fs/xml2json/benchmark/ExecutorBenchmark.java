@@ -0,0 +1,200 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.fs.xml2json.benchmark;
+
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.service.ConversionExecutor;
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConverterService;
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Batch of conversions run by {@link ConversionExecutor} with pool of platform threads and with virtual
+ * threads, as in batch, watch and server modes. Source documents may be read with latency, which simulates
+ * slow disk or network: with latency of 2 ms and documents of 100 records reading dominates conversion,
+ * platform threads wait for it, while virtual threads keep {@link ConversionExecutor#DEFAULT_IN_FLIGHT_PER_THREAD}
+ * times more documents in flight.
+ * <p>Virtual threads require Java 21, on older JVMs run
+ * <code>java -jar benchmarks.jar ExecutorBenchmark -p executor=platform</code>.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutorBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * Executor: <code>platform</code> or <code>virtual</code>.
+     */
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    /**
+     * Number of conversions run simultaneously.
+     */
+    @Param({"4"})
+    public int threads;
+
+    /**
+     * Latency (in microseconds) of reading every 8 KB of source document.
+     */
+    @Param({"0", "100", "2000"})
+    public int latency;
+
+    /**
+     * Number of records of document.
+     */
+    @Param({"100", "1000"})
+    public int records;
+
+    /**
+     * Number of documents converted in one operation.
+     */
+    @Param({"64"})
+    public int documents;
+
+    private ConversionExecutor conversionExecutor;
+    private ConverterService service;
+    private byte[] document;
+
+    /**
+     * Creates document, service and executor.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, XMLStreamException {
+        boolean virtual = "virtual".equals(executor);
+        if (virtual && !ConversionExecutor.isVirtualThreadsAvailable()) {
+            throw new IllegalStateException("Virtual threads require Java 21, run with -p executor=platform");
+        }
+        document = Documents.xml(records);
+        service = new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine());
+        conversionExecutor = new ConversionExecutor("BenchmarkWorker", threads, Integer.MAX_VALUE, virtual);
+    }
+
+    /**
+     * Stops executor.
+     *
+     * @throws InterruptedException if thread is interrupted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        conversionExecutor.shutdown();
+        conversionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Converts batch of documents and waits for all of them.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws InterruptedException if thread is interrupted
+     * @throws ExecutionException if document cannot be converted
+     */
+    @Benchmark
+    public long convertBatch(Throughput throughput) throws InterruptedException, ExecutionException {
+        List<Future<Long>> futures = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            futures.add(conversionExecutor.submit(() -> {
+                DiscardingOutputStream output = new DiscardingOutputStream();
+                service.convert(new SlowInputStream(document, latency), output, FileTypeEnum.XML);
+                return output.count;
+            }));
+        }
+        long written = 0;
+        for (Future<Long> future : futures) {
+            written += future.get();
+        }
+        throughput.add((long) document.length * documents);
+        return written;
+    }
+
+    /**
+     * Input stream which waits before reading every chunk.
+     */
+    private static final class SlowInputStream extends ByteArrayInputStream {
+
+        private final long latencyNanos;
+        private int nextChunk;
+
+        SlowInputStream(byte[] bytes, int latency) {
+            super(bytes);
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latency);
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            // not synchronized, waiting in monitor would pin carrier of virtual thread
+            if (latencyNanos > 0 && pos >= nextChunk && pos < count) {
+                LockSupport.parkNanos(latencyNanos);
+                nextChunk = pos + CHUNK_SIZE;
+            }
+            return super.read(bytes, offset, Math.min(length, CHUNK_SIZE));
+        }
+    }
+
+    /**
+     * Output stream which counts and discards written bytes.
+     */
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+}
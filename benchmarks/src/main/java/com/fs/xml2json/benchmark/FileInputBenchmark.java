@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import com.fs.xml2json.io.MappedFileInputStream;
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.util.CorpusGenerator;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading of source file through buffered stream and memory-mapped stream ({@link MappedFileInputStream}),
+ * with file in page cache (warm) and after page cache has been dropped (cold).
+ * <p>Cold benchmark writes <code>/proc/sys/vm/drop_caches</code> before every read, so it runs on Linux
+ * as root only: <code>java -jar benchmarks.jar FileInputBenchmark.readCold</code>.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class FileInputBenchmark {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long SEED = 20171112L;
+
+    /**
+     * Input stream: <code>buffered</code> or <code>mapped</code>.
+     */
+    @Param({"buffered", "mapped"})
+    public String input;
+
+    /**
+     * Size of file in megabytes.
+     */
+    @Param({"256"})
+    public int megabytes;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private Path file;
+
+    /**
+     * Page cache which is dropped before every read.
+     */
+    @State(Scope.Thread)
+    public static class ColdCache {
+
+        private static final Path DROP_CACHES = Paths.get("/proc/sys/vm/drop_caches");
+
+        /**
+         * Drops clean pages of page cache.
+         */
+        @Setup(Level.Invocation)
+        public void dropPageCache() {
+            try {
+                Files.write(DROP_CACHES, "1".getBytes(StandardCharsets.US_ASCII));
+            } catch (IOException ex) {
+                throw new IllegalStateException("Cold cache requires Linux and root to write " + DROP_CACHES, ex);
+            }
+        }
+    }
+
+    /**
+     * Generates file of XML records and writes it to disk.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be written
+     */
+    @Setup(Level.Trial)
+    public void createFile() throws IOException, XMLStreamException {
+        file = Files.createTempFile("xml2json-benchmark", ".xml");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            CorpusGenerator.builder().seed(SEED).build().write(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), BUFFER_SIZE), FileTypeEnum.XML, megabytes * 1024L * 1024L);
+            // pages must be clean, otherwise they are not dropped
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Deletes file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Reads file which is in page cache.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of read bytes
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public long readWarm(Throughput throughput) throws IOException {
+        return read(throughput);
+    }
+
+    /**
+     * Reads file which is not in page cache.
+     *
+     * @param cache page cache, dropped before read
+     * @param throughput counter of processed bytes
+     * @return number of read bytes
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public long readCold(ColdCache cache, Throughput throughput) throws IOException {
+        return read(throughput);
+    }
+
+    /**
+     * Reads whole file.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of read bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private long read(Throughput throughput) throws IOException {
+        long bytes = 0;
+        try (InputStream stream = "mapped".equals(input) ? new MappedFileInputStream(file)
+                : new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            int n;
+            while ((n = stream.read(buffer)) > 0) {
+                bytes += n;
+            }
+        }
+        throughput.add(bytes);
+        return bytes;
+    }
+}
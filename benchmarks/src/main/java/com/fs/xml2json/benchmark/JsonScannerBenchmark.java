@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamSource;
+import de.odysseus.staxon.json.stream.JsonStreamToken;
+import de.odysseus.staxon.json.stream.impl.JsonStreamFactoryImpl;
+import de.odysseus.staxon.json.stream.jackson.JacksonStreamFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tokenizing of JSON by staxon scanner (<code>Yylex</code>, <code>JsonStreamSourceImpl</code>) and by Jackson.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonScannerBenchmark {
+
+    /**
+     * JSON stream factory: staxon scanner or Jackson.
+     */
+    @Param({"default", "jackson"})
+    public String factory;
+
+    /**
+     * Number of records in document.
+     */
+    @Param({"1000"})
+    public int records;
+
+    private JsonStreamFactory streamFactory;
+    private byte[] json;
+
+    /**
+     * Creates document and factory.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, XMLStreamException {
+        json = Documents.json(records);
+        streamFactory = "jackson".equals(factory) ? new JacksonStreamFactory() : new JsonStreamFactoryImpl();
+    }
+
+    /**
+     * Reads all tokens of document.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of tokens
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    public int scan(Throughput throughput) throws IOException {
+        int tokens = 0;
+        try (JsonStreamSource source = streamFactory.createJsonStreamSource(new ByteArrayInputStream(json))) {
+            JsonStreamToken token;
+            while ((token = source.peek()) != JsonStreamToken.NONE) {
+                switch (token) {
+                    case START_OBJECT:
+                        source.startObject();
+                        break;
+                    case END_OBJECT:
+                        source.endObject();
+                        break;
+                    case START_ARRAY:
+                        source.startArray();
+                        break;
+                    case END_ARRAY:
+                        source.endArray();
+                        break;
+                    case NAME:
+                        source.name();
+                        break;
+                    default:
+                        source.value();
+                        break;
+                }
+                tokens++;
+            }
+        }
+        throughput.add(json.length);
+        return tokens;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamSource;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.json.stream.JsonStreamToken;
+import de.odysseus.staxon.json.stream.impl.JsonStreamFactoryImpl;
+import de.odysseus.staxon.json.stream.jackson.JacksonStreamFactory;
+import de.odysseus.staxon.json.stream.util.AutoPrimitiveTarget;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing of JSON: encoding of strings and writing of values by JSON stream target
+ * (<code>JsonStreamTargetImpl</code> or Jackson), and classification of text values by
+ * {@link AutoPrimitiveTarget}, which is used for XML to JSON conversion.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonTargetBenchmark {
+
+    /**
+     * JSON stream factory: staxon writer or Jackson.
+     */
+    @Param({"default", "jackson"})
+    public String factory;
+
+    /**
+     * Number of records in document.
+     */
+    @Param({"1000"})
+    public int records;
+
+    private JsonStreamFactory streamFactory;
+    private final List<JsonStreamToken> tokens = new ArrayList<>();
+    // typed values (numbers, booleans) for writing, text of values for classification
+    private final List<Object> values = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private int size;
+
+    /**
+     * Reads tokens of document.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, XMLStreamException {
+        byte[] json = Documents.json(records);
+        size = json.length;
+        streamFactory = "jackson".equals(factory) ? new JacksonStreamFactory() : new JsonStreamFactoryImpl();
+        try (JsonStreamSource source = new JsonStreamFactoryImpl().createJsonStreamSource(
+                new ByteArrayInputStream(json))) {
+            JsonStreamToken token;
+            while ((token = source.peek()) != JsonStreamToken.NONE) {
+                tokens.add(token);
+                switch (token) {
+                    case START_OBJECT:
+                        source.startObject();
+                        break;
+                    case END_OBJECT:
+                        source.endObject();
+                        break;
+                    case START_ARRAY:
+                        source.startArray();
+                        break;
+                    case END_ARRAY:
+                        source.endArray();
+                        break;
+                    case NAME:
+                        String name = source.name();
+                        values.add(name);
+                        texts.add(name);
+                        break;
+                    default:
+                        JsonStreamSource.Value value = source.value();
+                        values.add(value.data);
+                        texts.add(value.text);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes typed values.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    public int write(Throughput throughput) throws IOException {
+        output.reset();
+        replay(streamFactory.createJsonStreamTarget(output, true), values);
+        throughput.add(size);
+        return output.size();
+    }
+
+    /**
+     * Writes text values which are converted to numbers and booleans by {@link AutoPrimitiveTarget}.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    public int writeAutoPrimitive(Throughput throughput) throws IOException {
+        output.reset();
+        replay(new AutoPrimitiveTarget(streamFactory.createJsonStreamTarget(output, true), false, "@"), texts);
+        throughput.add(size);
+        return output.size();
+    }
+
+    /**
+     * Writes tokens to target.
+     *
+     * @param target JSON target
+     * @param data names and values of tokens
+     * @throws IOException if an I/O error occurs
+     */
+    private void replay(JsonStreamTarget target, List<?> data) throws IOException {
+        int next = 0;
+        for (JsonStreamToken token : tokens) {
+            switch (token) {
+                case START_OBJECT:
+                    target.startObject();
+                    break;
+                case END_OBJECT:
+                    target.endObject();
+                    break;
+                case START_ARRAY:
+                    target.startArray();
+                    break;
+                case END_ARRAY:
+                    target.endArray();
+                    break;
+                case NAME:
+                    target.name((String) data.get(next++));
+                    break;
+                default:
+                    target.value(data.get(next++));
+                    break;
+            }
+        }
+        target.close();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.type.FileTypeEnum;
+import de.odysseus.staxon.json.util.XMLMultipleStreamWriter;
+import de.odysseus.staxon.util.XMLStreamCopier;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * XML to JSON conversion with known arrays: matching of element paths against multiple paths
+ * (<code>XMLMultipleProcessingInstructionHandler</code>) for every started element.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiplePathBenchmark {
+
+    /**
+     * Number of multiple paths, one of them matches arrays of document.
+     */
+    @Param({"0", "1", "32"})
+    public int paths;
+
+    /**
+     * Number of records in document.
+     */
+    @Param({"1000"})
+    public int records;
+
+    private final ConversionEngine engine = new ConversionEngine();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private byte[] xml;
+    private String[] multiplePaths;
+
+    /**
+     * Creates document and paths.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if document cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, XMLStreamException {
+        xml = Documents.xml(records);
+        multiplePaths = new String[paths];
+        for (int i = 0; i < paths; i++) {
+            multiplePaths[i] = i == 0 ? Documents.RECORD_PATH : Documents.RECORD_PATH + "/field" + i;
+        }
+    }
+
+    /**
+     * Converts document.
+     *
+     * @param throughput counter of processed bytes
+     * @return number of written bytes
+     * @throws XMLStreamException if document cannot be converted
+     */
+    @Benchmark
+    public int convert(Throughput throughput) throws XMLStreamException {
+        output.reset();
+        XMLStreamReader reader = engine.createReader(FileTypeEnum.XML, new ByteArrayInputStream(xml));
+        XMLStreamWriter writer = new XMLMultipleStreamWriter(engine.createJsonWriter(output), true, multiplePaths);
+        new XMLStreamCopier(reader, writer, "UTF-8").copy();
+        writer.close();
+        reader.close();
+        throughput.add(xml.length);
+        return output.size();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counter of processed megabytes, reported by JMH per second (MB/s) next to operations per second.
+ * Bytes allocated per operation are reported by GC profiler (<code>-prof gc</code>, <code>gc.alloc.rate.norm</code>).
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /**
+     * Processed megabytes.
+     */
+    public double megabytes;
+
+    /**
+     * Resets counter before iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+    }
+
+    /**
+     * Adds processed bytes.
+     *
+     * @param bytes number of bytes
+     */
+    public void add(long bytes) {
+        megabytes += bytes / MEGABYTE;
+    }
+}
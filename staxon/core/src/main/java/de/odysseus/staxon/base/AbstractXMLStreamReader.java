@@ -16,6 +16,7 @@
 package de.odysseus.staxon.base;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -27,6 +28,8 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import de.odysseus.staxon.util.SpillableText;
+
 /**
  * Abstract XML stream reader.
  * @param <T> type
@@ -57,6 +60,16 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
             this.characterOffset = locationProvider.getCharacterOffset();
         }
 
+        Event(Event location, String text, Object data) {
+            this.type = location.type;
+            this.scope = location.scope;
+            this.text = text;
+            this.data = data;
+            this.lineNumber = location.lineNumber;
+            this.columnNumber = location.columnNumber;
+            this.characterOffset = location.characterOffset;
+        }
+
         XMLStreamReaderScope<T> getScope() {
             return scope;
         }
@@ -111,6 +124,60 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         }
     }
 
+    /**
+     * Characters event whose text has been moved to temporary file, text is read as several consecutive
+     * characters events.
+     */
+    class SpilledEvent extends Event {
+
+        private final SpillableText spilled;
+        private Reader reader;
+        private long remaining;
+
+        SpilledEvent(Event event, SpillableText spilled) {
+            super(event, null, null);
+            this.spilled = spilled;
+            this.remaining = spilled.length();
+        }
+
+        Event readChunk(int chunkLength) throws IOException {
+            if (reader == null) {
+                reader = spilled.getReader();
+            }
+            int length = (int) Math.min(chunkLength, remaining);
+            char[] chunk = new char[length + 1];
+            int n = 0;
+            while (n < length) {
+                int read = reader.read(chunk, n, length - n);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of spilled text");
+                }
+                n += read;
+            }
+            if (Character.isHighSurrogate(chunk[n - 1]) && remaining > n) { // keep surrogate pair together
+                chunk[n++] = (char) reader.read();
+            }
+            remaining -= n;
+            String text = new String(chunk, 0, n);
+            return new Event(this, text, text);
+        }
+
+        boolean isRead() {
+            return remaining == 0;
+        }
+
+        void dispose() {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+            spilled.dispose();
+        }
+    }
+
     static String getEventName(int type) {
         switch (type) {
             case XMLStreamConstants.ATTRIBUTE:
@@ -184,8 +251,15 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         }
     };
 
+    /*
+     * rough per-event overhead of queued events
+     */
+    private static final int EVENT_OVERHEAD = 64;
+
     private final Queue<Event> queue = new LinkedList<>();
     private final Location locationProvider;
+    private final long memoryLimit;
+    private long queueSize;
 
     private XMLStreamReaderScope<T> scope;
     private boolean moreTokens;
@@ -212,8 +286,73 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
      * @param locationProvider provider
      */
     public AbstractXMLStreamReader(T rootInfo, Location locationProvider) {
+        this(rootInfo, locationProvider, -1);
+    }
+
+    /**
+     * Create new reader instance which keeps queued events within memory limit. Events are queued until
+     * they are read, so queue grows if {@link #consume()} reads many events at once (e.g. large texts).
+     * Text which does not fit into the limit is moved to a temporary file and is read as several
+     * consecutive <code>CHARACTERS</code> events.
+     *
+     * @param rootInfo root scope information
+     * @param locationProvider provider
+     * @param memoryLimit number of (estimated) bytes of queued events (negative means unlimited)
+     */
+    public AbstractXMLStreamReader(T rootInfo, Location locationProvider, long memoryLimit) {
         this.scope = new XMLStreamReaderScope<>(XMLConstants.NULL_NS_URI, rootInfo);
         this.locationProvider = locationProvider;
+        this.memoryLimit = memoryLimit;
+    }
+
+    private void enqueue(Event event) throws XMLStreamException {
+        if (memoryLimit >= 0) {
+            if (queueSize + getEventSize(event) > memoryLimit && isSpillable(event)) {
+                SpillableText spilled = new SpillableText(0, null);
+                try {
+                    spilled.append(event.getText());
+                } catch (IOException e) {
+                    spilled.dispose();
+                    throw new XMLStreamException("Cannot move text to temporary file", locationProvider, e);
+                }
+                event = new SpilledEvent(event, spilled);
+            }
+            queueSize += getEventSize(event);
+        }
+        queue.add(event);
+    }
+
+    private boolean isSpillable(Event event) {
+        return event.getType() == XMLStreamConstants.CHARACTERS && event.getText() != null
+                && !event.getText().isEmpty() && event.getData() == event.getText();
+    }
+
+    private Event dequeue() throws XMLStreamException {
+        Event head = queue.peek();
+        Event next = head;
+        if (head instanceof AbstractXMLStreamReader<?>.SpilledEvent) {
+            SpilledEvent spilled = (SpilledEvent) head;
+            // chunks must fit into memory limit as well
+            long chunkLength = Math.max(1, Math.min(SpillableText.CHUNK_SIZE, (memoryLimit - EVENT_OVERHEAD) / 2));
+            try {
+                next = spilled.readChunk((int) chunkLength);
+            } catch (IOException e) {
+                throw new XMLStreamException("Cannot read text from temporary file", locationProvider, e);
+            }
+            if (!spilled.isRead()) {
+                return next;
+            }
+            spilled.dispose();
+        }
+        queue.remove();
+        if (memoryLimit >= 0) {
+            queueSize -= getEventSize(head);
+        }
+        return next;
+    }
+
+    private long getEventSize(Event event) {
+        return event.getText() == null ? EVENT_OVERHEAD : EVENT_OVERHEAD + 2L * event.getText().length();
     }
 
     private void ensureStartTagClosed() throws XMLStreamException {
@@ -250,7 +389,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         }
 
         if (hasNext()) {
-            event = queue.remove();
+            event = dequeue();
         } else {
             event = new Event(XMLStreamConstants.END_DOCUMENT, scope);
         }
@@ -281,7 +420,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         if (startDocumentRead || !scope.isRoot()) {
             throw new XMLStreamException("Cannot start document", locationProvider);
         }
-        queue.add(new Event(XMLStreamConstants.START_DOCUMENT, scope));
+        enqueue(new Event(XMLStreamConstants.START_DOCUMENT, scope));
         startDocumentRead = true;
 
         this.version = version;
@@ -307,7 +446,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         ensureStartTagClosed();
         scope = new XMLStreamReaderScope<>(scope, prefix, localName, namespaceURI);
         scope.setInfo(scopeInfo);
-        queue.add(new Event(XMLStreamConstants.START_ELEMENT, scope));
+        enqueue(new Event(XMLStreamConstants.START_ELEMENT, scope));
     }
 
     /**
@@ -359,7 +498,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
     protected void readData(String text, Object data, int type) throws XMLStreamException {
         if (hasData(type)) {
             ensureStartTagClosed();
-            queue.add(new Event(type, scope, text, data));
+            enqueue(new Event(type, scope, text, data));
         } else {
             throw new XMLStreamException("Unexpected event type " + getEventName(), locationProvider);
         }
@@ -375,7 +514,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
     protected void readPI(String target, String data) throws XMLStreamException {
         ensureStartTagClosed();
         String text = data == null ? target : target + ':' + data;
-        queue.add(new Event(XMLStreamConstants.PROCESSING_INSTRUCTION, scope, text, null));
+        enqueue(new Event(XMLStreamConstants.PROCESSING_INSTRUCTION, scope, text, null));
     }
 
     /**
@@ -385,7 +524,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
      */
     protected void readEndElementTag() throws XMLStreamException {
         ensureStartTagClosed();
-        queue.add(new Event(XMLStreamConstants.END_ELEMENT, scope));
+        enqueue(new Event(XMLStreamConstants.END_ELEMENT, scope));
         scope = scope.getParent();
     }
 
@@ -397,7 +536,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         if (!startDocumentRead || !scope.isRoot()) {
             throw new XMLStreamException("Cannot end document", locationProvider);
         }
-        queue.add(new Event(XMLStreamConstants.END_DOCUMENT, scope));
+        enqueue(new Event(XMLStreamConstants.END_DOCUMENT, scope));
         startDocumentRead = false;
     }
 
@@ -464,7 +603,7 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
         if (!hasNext()) {
             throw new IllegalStateException("No more events");
         }
-        event = queue.remove();
+        event = dequeue();
         return event.getType();
     }
 
@@ -487,7 +626,13 @@ public abstract class AbstractXMLStreamReader<T> implements XMLStreamReader {
     @Override
     public void close() throws XMLStreamException {
         scope = null;
+        for (Event queued : queue) {
+            if (queued instanceof AbstractXMLStreamReader<?>.SpilledEvent) {
+                ((AbstractXMLStreamReader<?>.SpilledEvent) queued).dispose();
+            }
+        }
         queue.clear();
+        queueSize = 0;
     }
 
     @Override
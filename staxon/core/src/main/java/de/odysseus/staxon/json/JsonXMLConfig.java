@@ -15,6 +15,7 @@
  */
 package de.odysseus.staxon.json;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -34,12 +35,17 @@ public interface JsonXMLConfig {
 	 * <p>Default configuration:</p>
 	 * <ul>
 	 * <li><em>autoArray</em> - <code>false</code></li>
+	 * <li><em>streamingAutoArray</em> - <code>false</code></li>
+	 * <li><em>autoArrayMemoryThreshold</em> - <code>-1</code></li>
 	 * <li><em>autoPrimitive</em> - <code>false</code></li>
 	 * <li><em>multiplePI</em> - <code>true</code></li>
 	 * <li><em>namespaceDeclarations</em> - <code>true</code></li>
 	 * <li><em>namespaceSeparator</em> - <code>':'</code></li>
 	 * <li><em>prettyPrint</em> - <code>false</code></li>
 	 * <li><em>virtualRoot</em> - <code>null</code></li>
+	 * <li><em>jsonLinesPath</em> - <code>null</code></li>
+	 * <li><em>projectionPaths</em> - <code>null</code></li>
+	 * <li><em>memoryLimit</em> - <code>-1</code></li>
 	 * <li><em>repairingNamespaces</em> - <code>false</code></li>
 	 * <li><em>namespaceMappings</em> - <code>null</code></li>
 	 * <li><em>textProperty</em> - <code>$</code></li>
@@ -52,6 +58,14 @@ public interface JsonXMLConfig {
 			return false;
 		}
 		@Override
+		public boolean isStreamingAutoArray() {
+			return false;
+		}
+		@Override
+		public long getAutoArrayMemoryThreshold() {
+			return -1;
+		}
+		@Override
 		public boolean isAutoPrimitive() {
 			return false;
 		}
@@ -76,6 +90,18 @@ public interface JsonXMLConfig {
 			return null;
 		}
 		@Override
+		public String getJsonLinesPath() {
+			return null;
+		}
+		@Override
+		public List<String> getProjectionPaths() {
+			return null;
+		}
+		@Override
+		public long getMemoryLimit() {
+			return -1;
+		}
+		@Override
 		public boolean isRepairingNamespaces() {
 			return false;
 		}
@@ -100,6 +126,21 @@ public interface JsonXMLConfig {
 	 */
 	public boolean isAutoArray();
 
+	/**
+	 * <p>Decide auto array boundaries in a single pass instead of caching the whole document?</p>
+	 * @see JsonXMLOutputFactory#PROP_STREAMING_AUTO_ARRAY
+	 * @return streaming auto array flag
+	 */
+	public boolean isStreamingAutoArray();
+
+	/**
+	 * <p>Number of bytes a streaming auto array writer may hold in memory before spilling
+	 * to a temporary file (negative means never spill).</p>
+	 * @see JsonXMLOutputFactory#PROP_AUTO_ARRAY_MEMORY_THRESHOLD
+	 * @return memory threshold
+	 */
+	public long getAutoArrayMemoryThreshold();
+
 	/**
 	 * <p>Convert element text to number/boolean/null primitives automatically?</p>
 	 * @see JsonXMLOutputFactory#PROP_AUTO_ARRAY
@@ -157,6 +198,33 @@ public interface JsonXMLConfig {
 	 */
 	public QName getVirtualRoot();
 
+	/**
+	 * <p>Path of repeated records which are written as JSON Lines, i.e. one compact
+	 * JSON document per line for every record. Content outside of records is dropped.</p>
+	 * @see JsonXMLOutputFactory#PROP_JSON_LINES_PATH
+	 * @see de.odysseus.staxon.json.stream.util.JsonLinesTarget
+	 * @return record path or <code>null</code> to write a single JSON document
+	 */
+	public String getJsonLinesPath();
+
+	/**
+	 * <p>Paths of elements which are read with their subtrees, other content
+	 * is skipped except ancestors of selected elements.</p>
+	 * @see JsonXMLInputFactory#PROP_PROJECTION_PATHS
+	 * @see de.odysseus.staxon.json.stream.util.ProjectionSource
+	 * @return selected paths or <code>null</code> to read the whole document
+	 */
+	public List<String> getProjectionPaths();
+
+	/**
+	 * <p>Number of bytes which a reader may queue (events) and a writer may buffer
+	 * (text of an element) before reading or writing fails (negative means unlimited).</p>
+	 * @see JsonXMLInputFactory#PROP_MEMORY_LIMIT
+	 * @see JsonXMLOutputFactory#PROP_MEMORY_LIMIT
+	 * @return memory limit
+	 */
+	public long getMemoryLimit();
+
 	/**
 	 * <p>Repair namespaces when writing</+>
 	 * @see XMLOutputFactory#IS_REPAIRING_NAMESPACES
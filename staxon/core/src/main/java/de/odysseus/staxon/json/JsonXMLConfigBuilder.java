@@ -16,6 +16,7 @@
 package de.odysseus.staxon.json;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -60,6 +61,26 @@ public class JsonXMLConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Set streamingAutoArray property and return receiver.
+	 * @param streamingAutoArray
+	 * @return this
+	 */
+	public JsonXMLConfigBuilder streamingAutoArray(boolean streamingAutoArray) {
+		config.setStreamingAutoArray(streamingAutoArray);
+		return this;
+	}
+
+	/**
+	 * Set autoArrayMemoryThreshold property and return receiver.
+	 * @param autoArrayMemoryThreshold
+	 * @return this
+	 */
+	public JsonXMLConfigBuilder autoArrayMemoryThreshold(long autoArrayMemoryThreshold) {
+		config.setAutoArrayMemoryThreshold(autoArrayMemoryThreshold);
+		return this;
+	}
+
 	/**
 	 * Set autoPrimitive property and return receiver.
 	 * @param autoPrimitive
@@ -130,6 +151,36 @@ public class JsonXMLConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Set jsonLinesPath property and return receiver.
+	 * @param jsonLinesPath
+	 * @return this
+	 */
+	public JsonXMLConfigBuilder jsonLinesPath(String jsonLinesPath) {
+		config.setJsonLinesPath(jsonLinesPath);
+		return this;
+	}
+
+	/**
+	 * Set projectionPaths property and return receiver.
+	 * @param projectionPaths
+	 * @return this
+	 */
+	public JsonXMLConfigBuilder projectionPaths(List<String> projectionPaths) {
+		config.setProjectionPaths(projectionPaths);
+		return this;
+	}
+
+	/**
+	 * Set memoryLimit property and return receiver.
+	 * @param memoryLimit
+	 * @return this
+	 */
+	public JsonXMLConfigBuilder memoryLimit(long memoryLimit) {
+		config.setMemoryLimit(memoryLimit);
+		return this;
+	}
+
 	/**
 	 * Set repairingNamespaces property and return receiver.
 	 * @param repairingNamespaces
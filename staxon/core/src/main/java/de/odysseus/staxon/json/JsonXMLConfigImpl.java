@@ -15,6 +15,7 @@
  */
 package de.odysseus.staxon.json;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -27,9 +28,14 @@ import javax.xml.namespace.QName;
  */
 public class JsonXMLConfigImpl implements JsonXMLConfig, Cloneable {
 	private QName virtualRoot = JsonXMLConfig.DEFAULT.getVirtualRoot();
+	private String jsonLinesPath = JsonXMLConfig.DEFAULT.getJsonLinesPath();
+	private List<String> projectionPaths = JsonXMLConfig.DEFAULT.getProjectionPaths();
+	private long memoryLimit = JsonXMLConfig.DEFAULT.getMemoryLimit();
 	private boolean multiplePI = JsonXMLConfig.DEFAULT.isMultiplePI();
 	private boolean prettyPrint = JsonXMLConfig.DEFAULT.isPrettyPrint();
 	private boolean autoArray = JsonXMLConfig.DEFAULT.isAutoArray();
+	private boolean streamingAutoArray = JsonXMLConfig.DEFAULT.isStreamingAutoArray();
+	private long autoArrayMemoryThreshold = JsonXMLConfig.DEFAULT.getAutoArrayMemoryThreshold();
 	private boolean autoPrimitive = JsonXMLConfig.DEFAULT.isAutoPrimitive();
 	private boolean namespaceDeclarations = JsonXMLConfig.DEFAULT.isNamespaceDeclarations();
 	private char namespaceSeparator = JsonXMLConfig.DEFAULT.getNamespaceSeparator();
@@ -56,6 +62,24 @@ public class JsonXMLConfigImpl implements JsonXMLConfig, Cloneable {
 		this.autoArray = autoArray;
 	}
 	
+	@Override
+	public boolean isStreamingAutoArray() {
+		return streamingAutoArray;
+	}
+	
+	public void setStreamingAutoArray(boolean streamingAutoArray) {
+		this.streamingAutoArray = streamingAutoArray;
+	}
+	
+	@Override
+	public long getAutoArrayMemoryThreshold() {
+		return autoArrayMemoryThreshold;
+	}
+	
+	public void setAutoArrayMemoryThreshold(long autoArrayMemoryThreshold) {
+		this.autoArrayMemoryThreshold = autoArrayMemoryThreshold;
+	}
+	
 	@Override
 	public boolean isAutoPrimitive() {
 		return autoPrimitive;
@@ -110,6 +134,33 @@ public class JsonXMLConfigImpl implements JsonXMLConfig, Cloneable {
 		this.virtualRoot = virtualRoot;
 	}
 	
+	@Override
+	public String getJsonLinesPath() {
+		return jsonLinesPath;
+	}
+	
+	public void setJsonLinesPath(String jsonLinesPath) {
+		this.jsonLinesPath = jsonLinesPath;
+	}
+
+	@Override
+	public List<String> getProjectionPaths() {
+		return projectionPaths;
+	}
+
+	public void setProjectionPaths(List<String> projectionPaths) {
+		this.projectionPaths = projectionPaths;
+	}
+
+	@Override
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	public void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+	
 	@Override
 	public boolean isRepairingNamespaces() {
 		return repairingNamespaces;
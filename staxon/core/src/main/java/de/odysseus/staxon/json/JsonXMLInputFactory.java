@@ -21,6 +21,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -38,6 +39,8 @@ import de.odysseus.staxon.event.SimpleXMLFilteredEventReader;
 import de.odysseus.staxon.json.stream.JsonStreamFactory;
 import de.odysseus.staxon.json.stream.JsonStreamSource;
 import de.odysseus.staxon.json.stream.util.AddRootSource;
+import de.odysseus.staxon.json.stream.util.ProjectionSource;
+import de.odysseus.staxon.util.ProjectionPaths;
 
 /**
  * XML input factory for streaming from JSON.
@@ -95,6 +98,23 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 	 */
 	public static final String PROP_ATTRIBUTE_PREFIX = "JsonXMLOutputFactory.attributePrefix";
 
+	/**
+	 * <p>Paths of elements (<code>List&lt;String&gt;</code>) which are read with their subtrees.
+	 * Other content is skipped, except ancestors of selected elements.</p>
+	 * 
+	 * <p>The default value is <code>null</code>.</p>
+	 * @see de.odysseus.staxon.util.ProjectionPaths
+	 */
+	public static final String PROP_PROJECTION_PATHS = "JsonXMLInputFactory.projectionPaths";
+
+	/**
+	 * <p>Number of bytes of events which a reader may queue before reading fails
+	 * with an exception. A negative value means unlimited.</p>
+	 * 
+	 * <p>The default value is <code>-1</code>.</p>
+	 */
+	public static final String PROP_MEMORY_LIMIT = "JsonXMLInputFactory.memoryLimit";
+
 	private final JsonStreamFactory streamFactory;
 
 	private boolean multiplePI;
@@ -103,6 +123,8 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 	private Map<String, String> namespaceMappings;
 	private String textProperty;
 	private String attributePrefix;
+	private List<String> projectionPaths;
+	private long memoryLimit;
 
 	public JsonXMLInputFactory() throws FactoryConfigurationError {
 		this(JsonXMLConfig.DEFAULT);
@@ -123,6 +145,8 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 		this.namespaceMappings = config.getNamespaceMappings();
 		this.textProperty = config.getTextProperty();
 		this.attributePrefix = config.getAttributePrefix();
+		this.projectionPaths = config.getProjectionPaths();
+		this.memoryLimit = config.getMemoryLimit();
 		this.streamFactory = streamFactory;
 		
 		/*
@@ -140,6 +164,9 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 		if (virtualRoot != null) {
 			source = new AddRootSource(source, virtualRoot, namespaceSeparator, attributePrefix);
 		}
+		if (projectionPaths != null) {
+			source = new ProjectionSource(source, new ProjectionPaths(projectionPaths), textProperty, attributePrefix, namespaceSeparator);
+		}
 		return source;
 	}
 	
@@ -165,7 +192,7 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 	@Override
 	public JsonXMLStreamReader createXMLStreamReader(Reader reader) throws XMLStreamException {
 		try {
-			return new JsonXMLStreamReader(decorate(streamFactory.createJsonStreamSource(reader)), multiplePI, namespaceSeparator, namespaceMappings, textProperty, attributePrefix);
+			return new JsonXMLStreamReader(decorate(streamFactory.createJsonStreamSource(reader)), multiplePI, namespaceSeparator, namespaceMappings, textProperty, attributePrefix, memoryLimit);
 		} catch (IOException e) {
 			throw new XMLStreamException(e);
 		}
@@ -174,7 +201,7 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 	@Override
 	public JsonXMLStreamReader createXMLStreamReader(InputStream stream) throws XMLStreamException {
 		try {
-			return new JsonXMLStreamReader(decorate(streamFactory.createJsonStreamSource(stream)), multiplePI, namespaceSeparator, namespaceMappings, textProperty, attributePrefix);
+			return new JsonXMLStreamReader(decorate(streamFactory.createJsonStreamSource(stream)), multiplePI, namespaceSeparator, namespaceMappings, textProperty, attributePrefix, memoryLimit);
 		} catch (IOException e) {
 			throw new XMLStreamException(e);
 		}
@@ -207,7 +234,7 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 	@Override
 	public boolean isPropertySupported(String name) {
 		return super.isPropertySupported(name)
-			|| Arrays.asList(PROP_MULTIPLE_PI, PROP_VIRTUAL_ROOT, PROP_NAMESPACE_SEPARATOR, PROP_NAMESPACE_MAPPINGS, PROP_TEXT_PROPERTY, PROP_ATTRIBUTE_PREFIX).contains(name);
+			|| Arrays.asList(PROP_MULTIPLE_PI, PROP_VIRTUAL_ROOT, PROP_NAMESPACE_SEPARATOR, PROP_NAMESPACE_MAPPINGS, PROP_TEXT_PROPERTY, PROP_ATTRIBUTE_PREFIX, PROP_PROJECTION_PATHS, PROP_MEMORY_LIMIT).contains(name);
 	}
 
 	@Override
@@ -227,6 +254,10 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 				return textProperty;
 			} else if (PROP_ATTRIBUTE_PREFIX.equals(name)) {
 				return attributePrefix;
+			} else if (PROP_PROJECTION_PATHS.equals(name)) {
+				return projectionPaths;
+			} else if (PROP_MEMORY_LIMIT.equals(name)) {
+				return Long.valueOf(memoryLimit);
 			} else {
 				throw new IllegalArgumentException("Unsupported property: " + name);
 			}
@@ -272,6 +303,12 @@ public class JsonXMLInputFactory extends AbstractXMLInputFactory {
 				this.textProperty = (String)value;
 			} else if (PROP_ATTRIBUTE_PREFIX.equals(name)) {
 				this.attributePrefix = (String)value;
+			} else if (PROP_PROJECTION_PATHS.equals(name)) {
+				@SuppressWarnings("unchecked")
+				List<String> list = (List<String>)value;
+				this.projectionPaths = list;
+			} else if (PROP_MEMORY_LIMIT.equals(name)) {
+				this.memoryLimit = ((Number)value).longValue();
 			} else {
 				throw new IllegalArgumentException("Unsupported property: " + name);
 			}
@@ -37,7 +37,9 @@ import de.odysseus.staxon.json.stream.JsonStreamFactory;
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
 import de.odysseus.staxon.json.stream.util.AutoArrayTarget;
 import de.odysseus.staxon.json.stream.util.AutoPrimitiveTarget;
+import de.odysseus.staxon.json.stream.util.JsonLinesTarget;
 import de.odysseus.staxon.json.stream.util.RemoveRootTarget;
+import de.odysseus.staxon.json.stream.util.StreamingAutoArrayTarget;
 
 /**
  * XML output factory for streaming to JSON.
@@ -50,6 +52,26 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	 */
 	public static final String PROP_AUTO_ARRAY = "JsonXMLOutputFactory.autoArray";
 	
+	/**
+	 * <p>Decide auto array boundaries in a single pass?</p>
+	 * 
+	 * <p>If <code>true</code>, the <em>autoArray</em> property only holds back the first
+	 * occurrence of a field until its next sibling is known instead of caching the whole
+	 * document.</p>
+	 * 
+	 * <p>The default value is <code>false</code>.</p>
+	 */
+	public static final String PROP_STREAMING_AUTO_ARRAY = "JsonXMLOutputFactory.streamingAutoArray";
+	
+	/**
+	 * <p>Number of bytes the auto array filters may hold in memory before spilling
+	 * undecided (streaming) or cached content to a temporary file. A negative value
+	 * means never spill.</p>
+	 * 
+	 * <p>The default value is <code>-1</code>.</p>
+	 */
+	public static final String PROP_AUTO_ARRAY_MEMORY_THRESHOLD = "JsonXMLOutputFactory.autoArrayMemoryThreshold";
+	
 	/**
 	 * <p>Convert element text to JSON primitives (number, boolean, null) automatically?</p>
 	 * 
@@ -81,6 +103,24 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	 */
 	public static final String PROP_VIRTUAL_ROOT = "JsonXMLOutputFactory.virtualRoot";
 
+	/**
+	 * <p>Path of repeated records which are written as JSON Lines: one compact JSON
+	 * document per line for every record, content outside of records is dropped.
+	 * Absolute paths start with the root element (<code>/root/record</code>), relative
+	 * paths match trailing names (<code>record</code>).</p>
+	 * 
+	 * <p>The default value is <code>null</code>.</p>
+	 */
+	public static final String PROP_JSON_LINES_PATH = "JsonXMLOutputFactory.jsonLinesPath";
+
+	/**
+	 * <p>Number of bytes of text which a writer may buffer for one element before
+	 * writing fails with an exception. A negative value means unlimited.</p>
+	 * 
+	 * <p>The default value is <code>-1</code>.</p>
+	 */
+	public static final String PROP_MEMORY_LIMIT = "JsonXMLOutputFactory.memoryLimit";
+
 	/**
 	 * <p>Namespace prefix separator.</p>
 	 * 
@@ -127,7 +167,11 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	private JsonStreamFactory streamFactory;
 	private boolean multiplePI;
 	private QName virtualRoot;
+	private String jsonLinesPath;
+	private long memoryLimit;
 	private boolean autoArray;
+	private boolean streamingAutoArray;
+	private long autoArrayMemoryThreshold;
 	private boolean autoPrimitive;
 	private boolean prettyPrint;
 	private char namespaceSeparator;
@@ -151,7 +195,11 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	public JsonXMLOutputFactory(JsonXMLConfig config, JsonStreamFactory streamFactory) {
 		this.multiplePI = config.isMultiplePI();
 		this.virtualRoot = config.getVirtualRoot();
+		this.jsonLinesPath = config.getJsonLinesPath();
+		this.memoryLimit = config.getMemoryLimit();
 		this.autoArray = config.isAutoArray();
+		this.streamingAutoArray = config.isStreamingAutoArray();
+		this.autoArrayMemoryThreshold = config.getAutoArrayMemoryThreshold();
 		this.autoPrimitive = config.isAutoPrimitive();
 		this.prettyPrint = config.isPrettyPrint();
 		this.namespaceSeparator = config.getNamespaceSeparator();
@@ -172,7 +220,11 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 			target = new RemoveRootTarget(target, virtualRoot, namespaceSeparator);
 		}
 		if (autoArray) {
-			target = new AutoArrayTarget(target);
+			if (streamingAutoArray) {
+				target = new StreamingAutoArrayTarget(target, autoArrayMemoryThreshold, null);
+			} else {
+				target = new AutoArrayTarget(target, autoArrayMemoryThreshold, null);
+			}
 		}
 		if (autoPrimitive) {
 			target = new AutoPrimitiveTarget(target, false, attributePrefix);
@@ -207,7 +259,10 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	@Override
 	public JsonXMLStreamWriter createXMLStreamWriter(Writer stream) throws XMLStreamException {
 		try {
-			return new JsonXMLStreamWriter(decorate(streamFactory.createJsonStreamTarget(stream, prettyPrint)), repairNamespacesMap(), multiplePI, namespaceSeparator, namespaceDeclarations, textProperty, attributePrefix);
+			JsonStreamTarget target = jsonLinesPath != null
+					? new JsonLinesTarget(streamFactory, stream, jsonLinesPath)
+					: streamFactory.createJsonStreamTarget(stream, prettyPrint);
+			return new JsonXMLStreamWriter(decorate(target), repairNamespacesMap(), multiplePI, namespaceSeparator, namespaceDeclarations, textProperty, attributePrefix, memoryLimit);
 		} catch (IOException e) {
 			throw new XMLStreamException(e);
 		}
@@ -216,7 +271,10 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	@Override
 	public JsonXMLStreamWriter createXMLStreamWriter(OutputStream stream) throws XMLStreamException {
 		try {
-			return new JsonXMLStreamWriter(decorate(streamFactory.createJsonStreamTarget(stream, prettyPrint)), repairNamespacesMap(), multiplePI, namespaceSeparator, namespaceDeclarations, textProperty, attributePrefix);
+			JsonStreamTarget target = jsonLinesPath != null
+					? new JsonLinesTarget(streamFactory, stream, jsonLinesPath)
+					: streamFactory.createJsonStreamTarget(stream, prettyPrint);
+			return new JsonXMLStreamWriter(decorate(target), repairNamespacesMap(), multiplePI, namespaceSeparator, namespaceDeclarations, textProperty, attributePrefix, memoryLimit);
 		} catch (IOException e) {
 			throw new XMLStreamException(e);
 		}
@@ -230,7 +288,7 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 	@Override
 	public boolean isPropertySupported(String name) {
 		return super.isPropertySupported(name)
-			|| Arrays.asList(PROP_AUTO_ARRAY, PROP_MULTIPLE_PI, PROP_VIRTUAL_ROOT, PROP_NAMESPACE_SEPARATOR, PROP_NAMESPACE_DECLARATIONS, PROP_NAMESPACE_MAPPINGS, PROP_PRETTY_PRINT, PROP_TEXT_PROPERTY, PROP_ATTRIBUTE_PREFIX).contains(name);
+			|| Arrays.asList(PROP_AUTO_ARRAY, PROP_STREAMING_AUTO_ARRAY, PROP_AUTO_ARRAY_MEMORY_THRESHOLD, PROP_MULTIPLE_PI, PROP_VIRTUAL_ROOT, PROP_JSON_LINES_PATH, PROP_MEMORY_LIMIT, PROP_NAMESPACE_SEPARATOR, PROP_NAMESPACE_DECLARATIONS, PROP_NAMESPACE_MAPPINGS, PROP_PRETTY_PRINT, PROP_TEXT_PROPERTY, PROP_ATTRIBUTE_PREFIX).contains(name);
 	}
 
 	@Override
@@ -240,12 +298,20 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 		} else { // proprietary properties
 			if (PROP_AUTO_ARRAY.equals(name)) {
 				return Boolean.valueOf(autoArray);
+			} else if (PROP_STREAMING_AUTO_ARRAY.equals(name)) {
+				return Boolean.valueOf(streamingAutoArray);
+			} else if (PROP_AUTO_ARRAY_MEMORY_THRESHOLD.equals(name)) {
+				return Long.valueOf(autoArrayMemoryThreshold);
 			} else if (PROP_AUTO_PRIMITIVE.equals(name)) {
 				return Boolean.valueOf(autoPrimitive);
 			} else if (PROP_MULTIPLE_PI.equals(name)) {
 				return Boolean.valueOf(multiplePI);
 			} else if (PROP_VIRTUAL_ROOT.equals(name)) {
 				return virtualRoot;
+			} else if (PROP_JSON_LINES_PATH.equals(name)) {
+				return jsonLinesPath;
+			} else if (PROP_MEMORY_LIMIT.equals(name)) {
+				return Long.valueOf(memoryLimit);
 			} else if (PROP_PRETTY_PRINT.equals(name)) {
 				return Boolean.valueOf(prettyPrint);
 			} else if (PROP_NAMESPACE_SEPARATOR.equals(name)) {
@@ -271,12 +337,20 @@ public class JsonXMLOutputFactory extends AbstractXMLOutputFactory {
 		} else { // proprietary properties
 			if (PROP_AUTO_ARRAY.equals(name)) {
 				autoArray = ((Boolean)value).booleanValue();
+			} else if (PROP_STREAMING_AUTO_ARRAY.equals(name)) {
+				streamingAutoArray = ((Boolean)value).booleanValue();
+			} else if (PROP_AUTO_ARRAY_MEMORY_THRESHOLD.equals(name)) {
+				autoArrayMemoryThreshold = ((Number)value).longValue();
 			} else if (PROP_AUTO_PRIMITIVE.equals(name)) {
 				autoPrimitive = ((Boolean)value).booleanValue();
 			} else if (PROP_MULTIPLE_PI.equals(name)) {
 				multiplePI = ((Boolean)value).booleanValue();
 			} else if (PROP_VIRTUAL_ROOT.equals(name)) {
 				virtualRoot = value instanceof String ? QName.valueOf((String)value) : (QName)value;
+			} else if (PROP_JSON_LINES_PATH.equals(name)) {
+				jsonLinesPath = (String)value;
+			} else if (PROP_MEMORY_LIMIT.equals(name)) {
+				memoryLimit = ((Number)value).longValue();
 			} else if (PROP_PRETTY_PRINT.equals(name)) {
 				prettyPrint = ((Boolean)value).booleanValue();
 			} else if (PROP_NAMESPACE_SEPARATOR.equals(name)) {
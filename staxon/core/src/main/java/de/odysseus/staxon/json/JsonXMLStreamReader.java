@@ -87,7 +87,22 @@ public class JsonXMLStreamReader extends AbstractXMLStreamReader<JsonXMLStreamRe
 	 * @throws XMLStreamException
 	 */
 	public JsonXMLStreamReader(JsonStreamSource source, boolean multiplePI, char namespaceSeparator, Map<String, String> namespaceMappings, String textProperty, String attributePrefix) throws XMLStreamException {
-		super(new ScopeInfo(), source);
+		this(source, multiplePI, namespaceSeparator, namespaceMappings, textProperty, attributePrefix, -1);
+	}
+
+	/**
+	 * Create reader instance.
+	 * @param source stream source
+	 * @param multiplePI whether to produce <code>&lt;xml-multiple?&gt;</code> PIs to signal array start
+	 * @param namespaceSeparator namespace prefix separator
+	 * @param namespaceMappings predefined namespaces (may be <code>null</code>)
+	 * @param textProperty name of text field (usually '$')
+	 * @param attributePrefix prefix of attrubute (usually '@')
+	 * @param memoryLimit number of bytes of queued events before reading fails (negative means unlimited)
+	 * @throws XMLStreamException
+	 */
+	public JsonXMLStreamReader(JsonStreamSource source, boolean multiplePI, char namespaceSeparator, Map<String, String> namespaceMappings, String textProperty, String attributePrefix, long memoryLimit) throws XMLStreamException {
+		super(new ScopeInfo(), source, memoryLimit);
 		this.source = source;
 		this.multiplePI = multiplePI;
 		this.namespaceSeparator = namespaceSeparator;
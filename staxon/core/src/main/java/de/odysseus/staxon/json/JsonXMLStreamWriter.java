@@ -24,7 +24,9 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
 import de.odysseus.staxon.base.AbstractXMLStreamWriter;
+import de.odysseus.staxon.base.XMLStreamWriterScope;
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.util.SpillableText;
 
 /**
  * JSON XML stream writer.
@@ -65,7 +67,11 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 		boolean startObjectWritten = false;
 		boolean pendingStartArray = false;
 
-		void addText(String data) {
+		void addText(String data, long memoryLimit) throws IOException {
+			if (leadData instanceof SpillableText) {
+				((SpillableText) leadData).append(data);
+				return;
+			}
 			if (leadData == null) { // first event?
 				this.leadData = data;
 			} else {
@@ -74,6 +80,13 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 				}
 				builder.append(data);
 			}
+			int length = builder == null ? data.length() : builder.length();
+			if (memoryLimit >= 0 && 2L * length > memoryLimit) { // continue in temporary file
+				SpillableText text = new SpillableText(memoryLimit, null);
+				text.append(builder == null ? data : builder);
+				this.leadData = text;
+				this.builder = null;
+			}
 		}
 		boolean hasData() {
 			return leadData != null;
@@ -82,15 +95,24 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 			return builder == null ? (hasData() ? leadData : null) : builder.toString();
 		}
 		void setData(Object data) {
+			disposeText();
 			this.leadData = data;
 			this.builder = null;
 		}
+		void disposeText() {
+			if (leadData instanceof SpillableText) {
+				((SpillableText) leadData).dispose();
+			}
+		}
 	}
 
 	static boolean isWhitespace(Object data) {
 		if (data == null) {
 			return false;
 		}
+		if (data instanceof SpillableText) {
+			return false; // large texts are never insignificant
+		}
 		String text = data.toString();
 		for (int i = 0; i < text.length(); i++) {
 			if (!Character.isWhitespace(text.charAt(i))) {
@@ -108,6 +130,7 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 	private final boolean namespaceDeclarations;
 	private final String textProperty;
 	private final String attributePrefix;
+	private final long memoryLimit;
 
 	private boolean documentArray = false;
 
@@ -146,6 +169,21 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 	 * @param attributePrefix prefix of attrubute (usually '@')
 	 */
 	public JsonXMLStreamWriter(JsonStreamTarget target, Map<String, String> repairNamespaces, boolean multiplePI, char namespaceSeparator, boolean namespaceDeclarations, String textProperty, String attributePrefix) {
+		this(target, repairNamespaces, multiplePI, namespaceSeparator, namespaceDeclarations, textProperty, attributePrefix, -1);
+	}
+
+	/**
+	 * Create writer instance.
+	 * @param target stream target
+	 * @param repairingNamespaces prefix-URI associations used to repair namespaces (<code>null</code> means do not repair)
+	 * @param multiplePI whether to consume <code>&lt;xml-multiple?&gt;</code> PIs to trigger array start
+	 * @param namespaceSeparator namespace prefix separator
+	 * @param namespaceDeclarations whether to write namespace declarations
+	 * @param textProperty name of text field (usually '$')
+	 * @param attributePrefix prefix of attrubute (usually '@')
+	 * @param memoryLimit number of bytes of text buffered in memory for one element, longer text continues in a temporary file (negative means unlimited)
+	 */
+	public JsonXMLStreamWriter(JsonStreamTarget target, Map<String, String> repairNamespaces, boolean multiplePI, char namespaceSeparator, boolean namespaceDeclarations, String textProperty, String attributePrefix, long memoryLimit) {
 		super(new ScopeInfo(), repairNamespaces);
 		this.target = target;
 		this.multiplePI = multiplePI;
@@ -153,6 +191,7 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 		this.namespaceDeclarations = namespaceDeclarations;
 		this.textProperty = textProperty;
 		this.attributePrefix = attributePrefix;
+		this.memoryLimit = memoryLimit;
 		this.autoEndArray = true;
 		this.skipSpace = true;
 	}
@@ -166,7 +205,7 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 		ScopeInfo parentInfo = getScope().getInfo();
 		if (parentInfo.hasData()) {
 			if (!skipSpace || !isWhitespace(parentInfo.getData())) {
-				throw new XMLStreamException("Mixed content is not supported: '" + parentInfo.getData() + "'");
+				throw new XMLStreamException("Mixed content is not supported: '" + describe(parentInfo.getData()) + "'");
 			}
 			parentInfo.setData(null);
 		}
@@ -213,7 +252,11 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 				if (getScope().getInfo().startObjectWritten) {
 					target.name(textProperty);
 				}
-				target.value(getScope().getInfo().getData());
+				try {
+					target.value(getScope().getInfo().getData());
+				} finally {
+					getScope().getInfo().disposeText();
+				}
 			}
 			if (autoEndArray && getScope().getInfo().isArray()) {
 				writeEndArray();
@@ -263,6 +306,21 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 		}
 	}
 	
+	private void addText(String data) throws XMLStreamException {
+		try {
+			getScope().getInfo().addText(data, memoryLimit);
+		} catch (IOException e) {
+			throw new XMLStreamException("Cannot buffer text of element: " + getScope().getLocalName(), e);
+		}
+	}
+
+	private static Object describe(Object data) {
+		if (data instanceof SpillableText) {
+			return "<text of " + ((SpillableText) data).length() + " characters>";
+		}
+		return data;
+	}
+
 	@Override
 	protected void writeData(Object data, int type) throws XMLStreamException {
 		switch(type) {
@@ -284,12 +342,16 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 					}
 				} else if (getScope().getInfo().hasData()) {
 					if (data instanceof String) {
-						getScope().getInfo().addText(data.toString());
+						addText(data.toString());
 					} else {
 						throw new XMLStreamException("Cannot append primitive data: " + data);
 					}
 				} else {
-					getScope().getInfo().setData(data);
+					if (data instanceof String) {
+						addText(data.toString());
+					} else {
+						getScope().getInfo().setData(data);
+					}
 				}
 			}
 			break;
@@ -355,7 +417,13 @@ public class JsonXMLStreamWriter extends AbstractXMLStreamWriter<JsonXMLStreamWr
 
 	@Override
 	public void close() throws XMLStreamException {
-		super.close();
+		try {
+			super.close();
+		} finally {
+			for (XMLStreamWriterScope<ScopeInfo> scope = getScope(); scope != null; scope = scope.getParent()) {
+				scope.getInfo().disposeText();
+			}
+		}
 		try {
 			if (documentArray) {
 				target.endArray();
@@ -16,9 +16,11 @@
 package de.odysseus.staxon.json.stream.impl;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.Writer;
 
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.util.SpillableText;
 
 /**
  * Default <code>JsonStreamTarget</code> implementation.
@@ -149,6 +151,19 @@ class JsonStreamTargetImpl implements JsonStreamTarget {
 			writer.write('"');
 			writer.write(encode((String) value));
 			writer.write('"');
+		} else if (value instanceof SpillableText) {
+			writer.write('"');
+			Reader reader = ((SpillableText) value).getReader();
+			try {
+				char[] chunk = new char[SpillableText.CHUNK_SIZE];
+				int n;
+				while ((n = reader.read(chunk)) >= 0) {
+					writer.write(encode(new String(chunk, 0, n)));
+				}
+			} finally {
+				reader.close();
+			}
+			writer.write('"');
 		} else {
 			writer.write(value.toString());
 		}
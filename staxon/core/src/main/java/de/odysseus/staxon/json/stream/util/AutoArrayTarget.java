@@ -15,7 +15,9 @@
  */
 package de.odysseus.staxon.json.stream.util;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.Stack;
@@ -23,6 +25,7 @@ import java.util.Stack;
 import de.odysseus.staxon.json.JsonXMLStreamWriter;
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
 import de.odysseus.staxon.json.stream.JsonStreamToken;
+import de.odysseus.staxon.util.SpillableText;
 
 /**
  * Target filter to auto-insert array boundaries.
@@ -30,6 +33,9 @@ import de.odysseus.staxon.json.stream.JsonStreamToken;
  * Note: this class caches all events and flushes to the
  * underlying target after receiving the last close-object
  * event, which may cause memory issues for large documents.
+ * If a memory threshold is given, cached events which exceed it
+ * are moved to a temporary file and array boundaries of their
+ * fields are kept in memory (one bit per field).
  * Also, auto-recognition of array boundaries never creates
  * arrays with a single element.
  * 
@@ -95,10 +101,15 @@ public class AutoArrayTarget implements JsonStreamTarget {
 
 	static final class NameEvent implements Event {
 		final String name;
+		final int index;
 		boolean array;
 		
 		NameEvent(String name) {
+			this(name, 0);
+		}
+		NameEvent(String name, int index) {
 			this.name = name;
+			this.index = index;
 		}
 		@Override
 		public void write(JsonStreamTarget target) throws IOException {
@@ -150,6 +161,11 @@ public class AutoArrayTarget implements JsonStreamTarget {
 		}
 	}
 
+	/*
+	 * rough per-event overhead of the in-memory representation
+	 */
+	private static final int EVENT_OVERHEAD = 24;
+
 	/*
 	 * delegate target
 	 */
@@ -164,24 +180,135 @@ public class AutoArrayTarget implements JsonStreamTarget {
 	 * Field stack
 	 */
 	private final Stack<NameEvent> fields = new Stack<NameEvent>();
-	
+
+	private final long memoryThreshold;
+	private final File directory;
+
+	/*
+	 * estimated size of queued events
+	 */
+	private long memorySize;
+
+	/*
+	 * token of the last event
+	 */
+	private JsonStreamToken lastToken;
+
+	/*
+	 * events which exceeded the memory threshold, indices of array fields
+	 */
+	private SpillableEventBuffer spilled;
+	private final BitSet arrays = new BitSet();
+	private int names;
+
+	/**
+	 * Create target which caches all events in memory.
+	 * @param delegate
+	 */
 	public AutoArrayTarget(JsonStreamTarget delegate) {
+		this(delegate, -1, null);
+	}
+
+	/**
+	 * Create target.
+	 * @param delegate
+	 * @param memoryThreshold number of bytes to cache in memory before spilling (negative means never spill)
+	 * @param directory directory for temporary files (<code>null</code> means default temp directory)
+	 */
+	public AutoArrayTarget(JsonStreamTarget delegate, long memoryThreshold, File directory) {
 		this.delegate = delegate;
+		this.memoryThreshold = memoryThreshold;
+		this.directory = directory;
 	}
 
-	private void pushField(String name) {
-		events.add(fields.push(new NameEvent(name)));
+	private void add(Event event) throws IOException {
+		lastToken = event.token();
+		if (spilled != null) {
+			spill(event);
+			return;
+		}
+		events.add(event);
+		if (memoryThreshold >= 0) {
+			if (event instanceof NameEvent) {
+				memorySize += EVENT_OVERHEAD + 2 * ((NameEvent) event).name.length();
+			} else if (event instanceof ValueEvent && ((ValueEvent) event).value != null) {
+				memorySize += EVENT_OVERHEAD + 2 * ((ValueEvent) event).value.toString().length();
+			} else {
+				memorySize += EVENT_OVERHEAD;
+			}
+			if (memorySize > memoryThreshold) {
+				startSpilling();
+			}
+		}
+	}
+
+	private void startSpilling() throws IOException {
+		spilled = new SpillableEventBuffer(0, directory);
+		while (!events.isEmpty()) {
+			spill(events.pollFirst());
+		}
+		memorySize = 0;
+	}
+
+	private void spill(Event event) throws IOException {
+		switch (event.token()) {
+		case START_OBJECT:
+			spilled.startObject();
+			break;
+		case END_OBJECT:
+			spilled.endObject();
+			break;
+		case END_ARRAY:
+			spilled.endArray();
+			break;
+		case NAME:
+			// array start is decided by index of field when events are replayed
+			spilled.name(((NameEvent) event).name());
+			break;
+		default:
+			spilled.value(((ValueEvent) event).value);
+		}
+	}
+
+	private void writeEvents() throws IOException {
+		if (spilled != null) {
+			spilled.replay(new StreamTargetDelegate(delegate) {
+				private int index;
+				@Override
+				public void name(String name) throws IOException {
+					super.name(name);
+					if (arrays.get(index++)) {
+						super.startArray();
+					}
+				}
+			});
+			spilled = null;
+		}
+		while (!events.isEmpty()) {
+			events.pollFirst().write(delegate);
+		}
+		memorySize = 0;
+		arrays.clear();
+		names = 0;
 	}
 
-	private void popField() {
-		if (fields.pop().isArray()) {
-			events.add(END_ARRAY);
+	private void pushField(String name) throws IOException {
+		add(fields.push(new NameEvent(name, names++)));
+	}
+
+	private void popField() throws IOException {
+		NameEvent field = fields.pop();
+		if (field.isArray()) {
+			if (memoryThreshold >= 0) {
+				arrays.set(field.index);
+			}
+			add(END_ARRAY);
 		}
 	}
 	
 	@Override
 	public void name(String name) throws IOException {
-		if (events.peekLast().token() == JsonStreamToken.START_OBJECT) {
+		if (lastToken == JsonStreamToken.START_OBJECT) {
 			pushField(name);
 		} else {
 			if (name.equals(fields.peek().name())) {
@@ -195,24 +322,29 @@ public class AutoArrayTarget implements JsonStreamTarget {
 
 	@Override
 	public void value(Object value) throws IOException {
-		events.add(new ValueEvent(value));
+		if (value instanceof SpillableText) { // text is valid during this call only
+			if (memoryThreshold < 0) {
+				value = value.toString();
+			} else if (spilled == null) {
+				startSpilling();
+			}
+		}
+		add(new ValueEvent(value));
 	}
 
 	@Override
 	public void startObject() throws IOException {
-		events.add(START_OBJECT);
+		add(START_OBJECT);
 	}
 
 	@Override
 	public void endObject() throws IOException {
-		if (events.peekLast().token() != JsonStreamToken.START_OBJECT) {
+		if (lastToken != JsonStreamToken.START_OBJECT) {
 			popField();
 		}
-		events.add(END_OBJECT);
+		add(END_OBJECT);
 		if (fields.isEmpty()) {
-			while (!events.isEmpty()) {
-				events.pollFirst().write(delegate);
-			}
+			writeEvents();
 		}
 	}
 
@@ -234,9 +366,7 @@ public class AutoArrayTarget implements JsonStreamTarget {
 
 	@Override
 	public void close() throws IOException {
-		while (!events.isEmpty()) {
-			events.pollFirst().write(delegate);
-		}
+		writeEvents();
 		delegate.close();
 	}
 
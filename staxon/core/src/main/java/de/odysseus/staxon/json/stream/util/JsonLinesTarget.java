@@ -0,0 +1,107 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+
+/**
+ * Target which writes repeated records as JSON Lines (NDJSON).
+ *
+ * <p>Every record (a value of a field at the given path, usually an element of the
+ * array of repeated elements) is written as compact JSON document on its own line.
+ * Records are written by their own targets, so no state of the enclosing document
+ * (e.g. the array of records) is kept and every line is complete as soon as its
+ * record ends. Content outside of records is dropped.</p>
+ *
+ * <p>Absolute paths start with the name of the root property (<code>/root/record</code>),
+ * relative paths match the trailing names of a field (<code>record</code>).</p>
+ */
+public class JsonLinesTarget extends RecordTarget {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char NEWLINE = '\n';
+
+	/*
+	 * factory of record targets
+	 */
+	private final JsonStreamFactory factory;
+
+	/*
+	 * shared by record targets, flush is done by this target only
+	 */
+	private final Writer writer;
+	private final Writer recordWriter;
+
+	/**
+	 * Create target writing UTF-8.
+	 * @param factory factory of record targets
+	 * @param output output stream
+	 * @param path record path
+	 */
+	public JsonLinesTarget(JsonStreamFactory factory, OutputStream output, String path) {
+		this(factory, new OutputStreamWriter(output, UTF_8), path);
+	}
+
+	/**
+	 * Create target.
+	 * @param factory factory of record targets
+	 * @param writer writer
+	 * @param path record path
+	 */
+	public JsonLinesTarget(JsonStreamFactory factory, Writer writer, String path) {
+		super(null, path);
+		this.factory = factory;
+		this.writer = writer;
+		this.recordWriter = new FilterWriter(writer) {
+			@Override
+			public void flush() {
+				// records are not flushed one by one
+			}
+			@Override
+			public void close() {
+				// writer is shared by records
+			}
+		};
+	}
+
+	@Override
+	protected JsonStreamTarget startRecord() throws IOException {
+		return factory.createJsonStreamTarget(recordWriter, false);
+	}
+
+	@Override
+	protected void endRecord(JsonStreamTarget record) throws IOException {
+		record.close();
+		writer.write(NEWLINE);
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+}
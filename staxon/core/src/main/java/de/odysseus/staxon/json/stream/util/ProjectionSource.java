@@ -0,0 +1,221 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import de.odysseus.staxon.json.stream.JsonStreamSource;
+import de.odysseus.staxon.json.stream.JsonStreamToken;
+import de.odysseus.staxon.util.ProjectionPaths;
+
+/**
+ * Source filter which passes only the subtrees selected by {@link ProjectionPaths}.
+ *
+ * <p>Selected elements are passed with their values. Ancestors of selected elements
+ * (and the root element) are passed with their attributes, but without their text:
+ * the text of a simple value becomes <code>null</code>. Other fields are consumed
+ * from the delegate source and dropped before the XML reader sees them, so no scopes
+ * or events are created for them. Arrays are transparent: every element of an array
+ * has the path of the array's field.</p>
+ */
+public class ProjectionSource extends StreamSourceDelegate {
+	private enum Kind {
+		SELECTED,
+		ANCESTOR,
+		SKIPPED
+	}
+
+	/**
+	 * Open object or array
+	 */
+	private static final class Scope {
+		final String path;
+		final Kind kind; // kind of array elements
+		String fieldPath;
+		Kind fieldKind;
+
+		Scope(String path, Kind kind) {
+			this.path = path;
+			this.kind = kind;
+		}
+	}
+
+	private static final Scope SELECTED = new Scope(null, Kind.SELECTED);
+
+	private final ProjectionPaths paths;
+	private final String textProperty;
+	private final String attributePrefix;
+	private final char namespaceSeparator;
+
+	private final Deque<Scope> scopes = new ArrayDeque<Scope>();
+	private String pendingName;
+
+	/**
+	 * Create source.
+	 * @param delegate
+	 * @param paths selected paths
+	 * @param textProperty name of text property
+	 * @param attributePrefix prefix of attribute names
+	 * @param namespaceSeparator namespace prefix separator
+	 */
+	public ProjectionSource(JsonStreamSource delegate, ProjectionPaths paths, String textProperty, String attributePrefix, char namespaceSeparator) {
+		super(delegate);
+		this.paths = paths;
+		this.textProperty = textProperty;
+		this.attributePrefix = attributePrefix;
+		this.namespaceSeparator = namespaceSeparator;
+	}
+
+	private Kind classify(String path, boolean root) {
+		if (paths.isSelected(path)) {
+			return Kind.SELECTED;
+		}
+		return root || paths.isAncestor(path) ? Kind.ANCESTOR : Kind.SKIPPED;
+	}
+
+	/*
+	 * kind of the value at the current position of an ancestor scope
+	 */
+	private Kind valueKind(Scope scope) {
+		return scope.fieldPath != null ? scope.fieldKind : scope.kind;
+	}
+
+	private String valuePath(Scope scope) {
+		return scope.fieldPath != null ? scope.fieldPath : scope.path;
+	}
+
+	private void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			switch (super.peek()) {
+			case START_OBJECT:
+				super.startObject();
+				depth++;
+				break;
+			case END_OBJECT:
+				super.endObject();
+				depth--;
+				break;
+			case START_ARRAY:
+				super.startArray();
+				depth++;
+				break;
+			case END_ARRAY:
+				super.endArray();
+				depth--;
+				break;
+			case NAME:
+				super.name();
+				break;
+			case VALUE:
+				super.value();
+				break;
+			default:
+				throw new IllegalStateException("Unexpected end of document");
+			}
+		} while (depth > 0);
+	}
+
+	private void push(boolean object) {
+		Scope scope = scopes.peek();
+		if (scope == SELECTED) {
+			scopes.push(SELECTED);
+		} else if (scope == null) {
+			scopes.push(object ? new Scope("", Kind.ANCESTOR) : SELECTED); // document
+		} else if (valueKind(scope) == Kind.ANCESTOR) {
+			scopes.push(new Scope(valuePath(scope), Kind.ANCESTOR));
+		} else {
+			scopes.push(SELECTED); // selected element or attribute
+		}
+	}
+
+	@Override
+	public JsonStreamToken peek() throws IOException {
+		if (pendingName != null) {
+			return JsonStreamToken.NAME;
+		}
+		while (true) {
+			JsonStreamToken token = super.peek();
+			Scope scope = scopes.peek();
+			if (token != JsonStreamToken.NAME || scope == null || scope == SELECTED) {
+				return token;
+			}
+			String name = super.name();
+			scope.fieldPath = scope.path + '/' + name.substring(name.indexOf(namespaceSeparator) + 1);
+			if (name.equals(textProperty)) {
+				scope.fieldKind = Kind.SKIPPED;
+			} else if (name.startsWith(attributePrefix) && !scope.path.isEmpty()) {
+				scope.fieldKind = Kind.SELECTED; // attributes of ancestors are kept
+			} else {
+				scope.fieldKind = classify(scope.fieldPath, scope.path.isEmpty());
+			}
+			if (scope.fieldKind != Kind.SKIPPED) {
+				pendingName = name;
+				return JsonStreamToken.NAME;
+			}
+			skipValue();
+		}
+	}
+
+	@Override
+	public String name() throws IOException {
+		if (pendingName == null) {
+			peek();
+		}
+		if (pendingName != null) {
+			String name = pendingName;
+			pendingName = null;
+			return name;
+		}
+		return super.name();
+	}
+
+	@Override
+	public Value value() throws IOException {
+		Value value = super.value();
+		Scope scope = scopes.peek();
+		if (scope != null && scope != SELECTED && valueKind(scope) == Kind.ANCESTOR) {
+			return NULL; // text of ancestor
+		}
+		return value;
+	}
+
+	@Override
+	public void startObject() throws IOException {
+		super.startObject();
+		push(true);
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		super.endObject();
+		scopes.pop();
+	}
+
+	@Override
+	public void startArray() throws IOException {
+		super.startArray();
+		push(false);
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		super.endArray();
+		scopes.pop();
+	}
+}
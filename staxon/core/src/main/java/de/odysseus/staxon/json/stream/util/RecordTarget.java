@@ -0,0 +1,211 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+
+/**
+ * Target filter which passes repeated records to their own targets.
+ *
+ * <p>Every record (a value of a field at the given path, usually an element of the
+ * array of repeated elements) is written to the target returned by {@link #startRecord()},
+ * {@link #endRecord(JsonStreamTarget)} is called as soon as the record ends. Content outside
+ * of records is passed to the delegate (if any) without the fields of records, so the
+ * delegate receives the remainder of the document.</p>
+ *
+ * <p>Absolute paths start with the name of the root property (<code>/root/record</code>),
+ * relative paths match the trailing names of a field (<code>record</code>).</p>
+ */
+public abstract class RecordTarget implements JsonStreamTarget {
+	/*
+	 * target of content outside of records, may be null
+	 */
+	private final JsonStreamTarget delegate;
+
+	private final String[] path;
+	private final boolean absolute;
+
+	/*
+	 * names of current fields of open objects outside of records
+	 */
+	private final List<String> names = new ArrayList<String>();
+	private int depth;
+
+	/*
+	 * target of current record and nesting within record
+	 */
+	private JsonStreamTarget record;
+	private int recordDepth;
+
+	/**
+	 * Create target.
+	 * @param delegate target of content outside of records (<code>null</code> to drop it)
+	 * @param path record path
+	 */
+	protected RecordTarget(JsonStreamTarget delegate, String path) {
+		if (path == null || path.replace("/", "").isEmpty()) {
+			throw new IllegalArgumentException("Invalid record path: " + path);
+		}
+		this.delegate = delegate;
+		this.absolute = path.startsWith("/");
+		this.path = (absolute ? path.substring(1) : path).split("/");
+	}
+
+	/**
+	 * Start record.
+	 * @return target of record
+	 * @throws IOException
+	 */
+	protected abstract JsonStreamTarget startRecord() throws IOException;
+
+	/**
+	 * End record, all events of the record have been written to its target.
+	 * @param record target returned by {@link #startRecord()}
+	 * @throws IOException
+	 */
+	protected abstract void endRecord(JsonStreamTarget record) throws IOException;
+
+	/**
+	 * Names of the fields enclosing the current record, starting with the name of the root property.
+	 * @return names, the last one is the name of records
+	 */
+	protected List<String> getNames() {
+		return Collections.unmodifiableList(names);
+	}
+
+	private boolean isRecord() {
+		if (names.size() != depth || depth < path.length || absolute && depth != path.length) {
+			return false;
+		}
+		for (int i = 0; i < path.length; i++) {
+			if (!path[i].equals(names.get(depth - path.length + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void end() throws IOException {
+		endRecord(record);
+		record = null;
+	}
+
+	private void truncate() {
+		while (names.size() >= depth && !names.isEmpty()) {
+			names.remove(names.size() - 1);
+		}
+	}
+
+	@Override
+	public void name(String name) throws IOException {
+		if (record != null) {
+			record.name(name);
+		} else {
+			truncate();
+			names.add(name);
+			if (delegate != null && !isRecord()) {
+				delegate.name(name);
+			}
+		}
+	}
+
+	@Override
+	public void value(Object value) throws IOException {
+		if (record != null) {
+			record.value(value);
+		} else if (isRecord()) {
+			record = startRecord();
+			record.value(value);
+			end();
+		} else if (delegate != null) {
+			delegate.value(value);
+		}
+	}
+
+	@Override
+	public void startObject() throws IOException {
+		if (record == null && isRecord()) {
+			record = startRecord();
+			recordDepth = 0;
+		}
+		if (record != null) {
+			record.startObject();
+			recordDepth++;
+		} else {
+			depth++;
+			if (delegate != null) {
+				delegate.startObject();
+			}
+		}
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		if (record != null) {
+			record.endObject();
+			if (--recordDepth == 0) {
+				end();
+			}
+		} else {
+			truncate();
+			depth--;
+			if (delegate != null) {
+				delegate.endObject();
+			}
+		}
+	}
+
+	@Override
+	public void startArray() throws IOException {
+		if (record != null) {
+			record.startArray();
+			recordDepth++;
+		} else if (delegate != null && !isRecord()) {
+			delegate.startArray(); // array of records is dropped
+		}
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		if (record != null) {
+			record.endArray();
+			if (--recordDepth == 0) {
+				end();
+			}
+		} else if (delegate != null && !isRecord()) {
+			delegate.endArray();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (delegate != null) {
+			delegate.close();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (delegate != null) {
+			delegate.flush();
+		}
+	}
+}
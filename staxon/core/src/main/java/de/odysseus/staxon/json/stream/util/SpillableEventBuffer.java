@@ -0,0 +1,327 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.util.SpillableText;
+
+/**
+ * Sequence of JSON stream events, which is kept in memory until a given
+ * number of (estimated) bytes is exceeded and then continues in a temporary file.
+ * Events are replayed to a target in the order they have been added.
+ * Spilled texts ({@link SpillableText}) are copied to the temporary file and
+ * replayed as spilled texts, so they never move to memory.
+ */
+class SpillableEventBuffer {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final byte START_OBJECT = 1;
+	private static final byte END_OBJECT = 2;
+	private static final byte START_ARRAY = 3;
+	private static final byte END_ARRAY = 4;
+	private static final byte NAME = 5;
+	private static final byte NULL = 6;
+	private static final byte STRING = 7;
+	private static final byte TRUE = 8;
+	private static final byte FALSE = 9;
+	private static final byte DECIMAL = 10;
+	private static final byte INTEGER = 11;
+	private static final byte LONG = 12;
+	private static final byte DOUBLE = 13;
+	private static final byte BIG_INTEGER = 14;
+	private static final byte OTHER = 15;
+	private static final byte TEXT = 16;
+
+	/*
+	 * rough per-event overhead of the in-memory representation
+	 */
+	private static final int EVENT_OVERHEAD = 24;
+
+	private final long memoryThreshold;
+	private final File directory;
+
+	private final List<Object> events = new ArrayList<Object>();
+	private long memorySize;
+
+	private File file;
+	private DataOutputStream output;
+
+	/**
+	 * Create buffer.
+	 * @param memoryThreshold number of bytes to keep in memory before spilling (negative means never spill)
+	 * @param directory directory for temporary files (<code>null</code> means default temp directory)
+	 */
+	SpillableEventBuffer(long memoryThreshold, File directory) {
+		this.memoryThreshold = memoryThreshold;
+		this.directory = directory;
+	}
+
+	boolean isSpilled() {
+		return file != null;
+	}
+
+	void startObject() throws IOException {
+		add(START_OBJECT, null);
+	}
+
+	void endObject() throws IOException {
+		add(END_OBJECT, null);
+	}
+
+	void startArray() throws IOException {
+		add(START_ARRAY, null);
+	}
+
+	void endArray() throws IOException {
+		add(END_ARRAY, null);
+	}
+
+	void name(String name) throws IOException {
+		add(NAME, name);
+	}
+
+	void value(Object value) throws IOException {
+		if (value == null) {
+			add(NULL, null);
+		} else if (value instanceof String) {
+			add(STRING, value);
+		} else if (value instanceof SpillableText) {
+			addText((SpillableText) value);
+		} else if (value instanceof Boolean) {
+			add(((Boolean) value).booleanValue() ? TRUE : FALSE, null);
+		} else if (value instanceof BigDecimal) {
+			add(DECIMAL, value);
+		} else if (value instanceof Integer) {
+			add(INTEGER, value);
+		} else if (value instanceof Long) {
+			add(LONG, value);
+		} else if (value instanceof Double) {
+			add(DOUBLE, value);
+		} else if (value instanceof BigInteger) {
+			add(BIG_INTEGER, value);
+		} else {
+			add(OTHER, value);
+		}
+	}
+
+	private void add(byte type, Object data) throws IOException {
+		if (output != null) {
+			write(type, data);
+			return;
+		}
+		events.add(Byte.valueOf(type));
+		if (data != null) {
+			events.add(data);
+			memorySize += EVENT_OVERHEAD + 2 * data.toString().length();
+		} else {
+			memorySize += EVENT_OVERHEAD;
+		}
+		if (memoryThreshold >= 0 && memorySize > memoryThreshold) {
+			spill();
+		}
+	}
+
+	private void addText(SpillableText text) throws IOException {
+		if (memoryThreshold < 0) { // never spills
+			add(STRING, text.toString());
+			return;
+		}
+		if (output == null) {
+			spill();
+		}
+		output.writeByte(TEXT);
+		output.writeLong(text.length());
+		Reader reader = text.getReader();
+		try {
+			char[] chunk = new char[SpillableText.CHUNK_SIZE];
+			int n;
+			while ((n = reader.read(chunk)) >= 0) {
+				for (int i = 0; i < n; i++) {
+					output.writeChar(chunk[i]);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void replayText(DataInputStream input, JsonStreamTarget target) throws IOException {
+		SpillableText text = new SpillableText(memoryThreshold, directory);
+		try {
+			char[] chunk = new char[SpillableText.CHUNK_SIZE];
+			for (long length = input.readLong(); length > 0; length -= chunk.length) {
+				int n = (int) Math.min(chunk.length, length);
+				for (int i = 0; i < n; i++) {
+					chunk[i] = input.readChar();
+				}
+				text.append(new String(chunk, 0, n));
+			}
+			target.value(text);
+		} finally {
+			text.dispose();
+		}
+	}
+
+	private void spill() throws IOException {
+		file = File.createTempFile("staxon", ".buf", directory);
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		for (int i = 0; i < events.size(); i++) {
+			byte type = ((Byte) events.get(i)).byteValue();
+			Object data = null;
+			if (hasData(type)) {
+				data = events.get(++i);
+			}
+			write(type, data);
+		}
+		events.clear();
+		memorySize = 0;
+	}
+
+	private void write(byte type, Object data) throws IOException {
+		output.writeByte(type);
+		if (hasData(type)) {
+			byte[] bytes = data.toString().getBytes(UTF_8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+
+	private static boolean hasData(byte type) {
+		return type == NAME || type >= STRING && type != TRUE && type != FALSE;
+	}
+
+	private static Object toValue(byte type, String data) {
+		switch (type) {
+		case DECIMAL:
+			return new BigDecimal(data);
+		case INTEGER:
+			return Integer.valueOf(data);
+		case LONG:
+			return Long.valueOf(data);
+		case DOUBLE:
+			return Double.valueOf(data);
+		case BIG_INTEGER:
+			return new BigInteger(data);
+		default:
+			return data; // STRING, OTHER: written via toString() anyway
+		}
+	}
+
+	private static void replay(byte type, Object data, JsonStreamTarget target) throws IOException {
+		switch (type) {
+		case START_OBJECT:
+			target.startObject();
+			break;
+		case END_OBJECT:
+			target.endObject();
+			break;
+		case START_ARRAY:
+			target.startArray();
+			break;
+		case END_ARRAY:
+			target.endArray();
+			break;
+		case NAME:
+			target.name((String) data);
+			break;
+		case NULL:
+			target.value(null);
+			break;
+		case TRUE:
+			target.value(Boolean.TRUE);
+			break;
+		case FALSE:
+			target.value(Boolean.FALSE);
+			break;
+		default:
+			target.value(data);
+		}
+	}
+
+	/**
+	 * Write all events to the given target and release resources.
+	 * The target must not add events to this buffer while replaying.
+	 * @param target
+	 * @throws IOException
+	 */
+	void replay(JsonStreamTarget target) throws IOException {
+		if (output == null) {
+			for (int i = 0; i < events.size(); i++) {
+				byte type = ((Byte) events.get(i)).byteValue();
+				replay(type, hasData(type) ? events.get(++i) : null, target);
+			}
+			dispose();
+			return;
+		}
+		output.close();
+		output = null;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			int type;
+			while ((type = input.read()) >= 0) {
+				if (type == TEXT) {
+					replayText(input, target);
+					continue;
+				}
+				Object data = null;
+				if (hasData((byte) type)) {
+					byte[] bytes = new byte[input.readInt()];
+					input.readFully(bytes);
+					data = toValue((byte) type, new String(bytes, UTF_8));
+				}
+				replay((byte) type, data, target);
+			}
+		} finally {
+			input.close();
+			dispose();
+		}
+	}
+
+	/**
+	 * Drop all events and delete the temporary file (if any).
+	 */
+	void dispose() {
+		events.clear();
+		memorySize = 0;
+		if (output != null) {
+			try {
+				output.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			output = null;
+		}
+		if (file != null) {
+			file.delete();
+			file = null;
+		}
+	}
+}
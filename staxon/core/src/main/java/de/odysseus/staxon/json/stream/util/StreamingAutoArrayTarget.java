@@ -0,0 +1,300 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+
+/**
+ * Target filter to auto-insert array boundaries in a single pass.
+ *
+ * <p>Unlike {@link AutoArrayTarget}, which caches the whole document, this
+ * target only holds back the value of a field until its next sibling (or the
+ * end of the enclosing object) shows whether the field repeats. Once decided,
+ * the held value is written and the following repetitions are streamed
+ * straight through. Only the first occurrence of the outermost undecided field
+ * is held back, fields nested in it are decided while it is held back and
+ * their decisions are applied when it is written, so every event is held back
+ * at most once. The memory needed is bounded by the largest such subtree; if
+ * it exceeds the given threshold, it is spilled to a temporary file.</p>
+ *
+ * <p>As with {@link AutoArrayTarget}, a field becomes an array if it is
+ * repeated by its immediate siblings, arrays with a single element are never
+ * created and fields of the document object are never turned into arrays
+ * (XML has a single root element).</p>
+ */
+public class StreamingAutoArrayTarget implements JsonStreamTarget {
+	/**
+	 * Object scope
+	 */
+	private static final class Scope {
+		String field;
+		boolean array;
+		boolean explicitArray;
+		/*
+		 * index of the decision of the field, if its first value is undecided
+		 */
+		int decision = -1;
+	}
+
+	/**
+	 * Writes held back events to the delegate and starts arrays of fields
+	 * which have been decided to repeat.
+	 */
+	private final class DecidedTarget implements JsonStreamTarget {
+		private int nextDecision;
+
+		@Override
+		public void name(String name) throws IOException {
+			delegate.name(name);
+			if (decisions.get(nextDecision++)) {
+				delegate.startArray();
+			}
+		}
+
+		@Override
+		public void value(Object value) throws IOException {
+			delegate.value(value);
+		}
+
+		@Override
+		public void startObject() throws IOException {
+			delegate.startObject();
+		}
+
+		@Override
+		public void endObject() throws IOException {
+			delegate.endObject();
+		}
+
+		@Override
+		public void startArray() throws IOException {
+			delegate.startArray();
+		}
+
+		@Override
+		public void endArray() throws IOException {
+			delegate.endArray();
+		}
+
+		/**
+		 * Does nothing, the outer target owns the delegate and closes it.
+		 */
+		@Override
+		public void close() {
+		}
+
+		/**
+		 * Does nothing, the outer target owns the delegate and flushes it.
+		 */
+		@Override
+		public void flush() {
+		}
+	}
+
+	/*
+	 * delegate target
+	 */
+	private final JsonStreamTarget delegate;
+
+	private final long memoryThreshold;
+	private final File directory;
+
+	/*
+	 * Open objects
+	 */
+	private final Deque<Scope> scopes = new ArrayDeque<Scope>();
+
+	/*
+	 * Held back events (if any), starting with the first value of the undecided field of the owner scope
+	 */
+	private SpillableEventBuffer pending;
+	private Scope pendingOwner;
+
+	/*
+	 * Decisions of held back fields in the order of their names, set bit means array
+	 */
+	private final BitSet decisions = new BitSet();
+	private int decisionCount;
+
+	/*
+	 * Number of events held back so far
+	 */
+	private long pendingEvents;
+
+	/**
+	 * Create target which never spills.
+	 * @param delegate
+	 */
+	public StreamingAutoArrayTarget(JsonStreamTarget delegate) {
+		this(delegate, -1, null);
+	}
+
+	/**
+	 * Create target.
+	 * @param delegate
+	 * @param memoryThreshold number of bytes to hold in memory before spilling (negative means never spill)
+	 * @param directory directory for temporary files (<code>null</code> means default temp directory)
+	 */
+	public StreamingAutoArrayTarget(JsonStreamTarget delegate, long memoryThreshold, File directory) {
+		this.delegate = delegate;
+		this.memoryThreshold = memoryThreshold;
+		this.directory = directory;
+	}
+
+	long getPendingEvents() {
+		return pendingEvents;
+	}
+
+	private void decide(Scope scope, boolean array) throws IOException {
+		if (array) {
+			decisions.set(scope.decision);
+			scope.array = true;
+		}
+		scope.decision = -1;
+		if (scope == pendingOwner) { // all fields held back are decided now
+			SpillableEventBuffer value = pending;
+			pending = null;
+			pendingOwner = null;
+			value.replay(new DecidedTarget());
+			decisions.clear();
+			decisionCount = 0;
+		}
+	}
+
+	private void endArray(Scope scope) throws IOException {
+		if (scope.array) {
+			if (pending != null) {
+				pending.endArray();
+				pendingEvents++;
+			} else {
+				delegate.endArray();
+			}
+			scope.array = false;
+			scope.explicitArray = false;
+		}
+	}
+
+	@Override
+	public void name(String name) throws IOException {
+		Scope scope = scopes.peek();
+		if (scope.decision >= 0) {
+			decide(scope, name.equals(scope.field));
+		}
+		if (name.equals(scope.field) && scope.array) {
+			return; // next element
+		}
+		endArray(scope);
+		scope.field = name;
+		if (scopes.size() > 1) {
+			if (pending == null) {
+				pending = new SpillableEventBuffer(memoryThreshold, directory);
+				pendingOwner = scope;
+			}
+			pending.name(name);
+			pendingEvents++;
+			scope.decision = decisionCount++;
+		} else {
+			delegate.name(name);
+		}
+	}
+
+	@Override
+	public void value(Object value) throws IOException {
+		if (pending != null) {
+			pending.value(value);
+			pendingEvents++;
+		} else {
+			delegate.value(value);
+		}
+	}
+
+	@Override
+	public void startObject() throws IOException {
+		if (pending != null) {
+			pending.startObject();
+			pendingEvents++;
+		} else {
+			delegate.startObject();
+		}
+		scopes.push(new Scope());
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		Scope scope = scopes.peek();
+		if (scope.decision >= 0) {
+			decide(scope, false);
+		}
+		endArray(scopes.pop());
+		if (pending != null) {
+			pending.endObject();
+			pendingEvents++;
+		} else {
+			delegate.endObject();
+		}
+	}
+
+	@Override
+	public void startArray() throws IOException {
+		if (scopes.isEmpty()) {
+			delegate.startArray(); // document array
+			return;
+		}
+		Scope scope = scopes.peek();
+		if (scope.decision >= 0) {
+			decide(scope, true); // explicit array start right after field name
+		} else if (scope.array) {
+			throw new IllegalStateException();
+		} else if (pending != null) {
+			pending.startArray();
+			pendingEvents++;
+			scope.array = true;
+		} else {
+			delegate.startArray();
+			scope.array = true;
+		}
+		scope.explicitArray = true;
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		if (scopes.isEmpty()) {
+			delegate.endArray(); // document array
+		} else if (scopes.peek().explicitArray) {
+			endArray(scopes.peek());
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (pending != null) {
+			pending.dispose();
+			pending = null;
+		}
+		delegate.close();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		delegate.flush();
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Element paths selecting the subtrees of a projection.
+ *
+ * <p>Paths use the syntax of multiple paths (see
+ * {@link de.odysseus.staxon.json.util.XMLMultipleStreamWriter#addMultiplePath(String)}):
+ * absolute paths start with <code>'/'</code> and the name of the root element
+ * (<code>"/foo/bar"</code>), relative paths match the trailing names of an element path
+ * (<code>"bar"</code>, <code>"foo/bar"</code>). Relative paths may also start with
+ * <code>"//"</code> (<code>"//bar"</code>). Element paths are given as
+ * <code>"/root/child"</code>, names are local names.</p>
+ */
+public class ProjectionPaths {
+	private static final Pattern PATH_PATTERN = Pattern.compile("(//?)?[^/\\s]+(/[^/\\s]+)*");
+
+	private final Set<String> absolutePaths = new HashSet<String>();
+	private final Set<String> absolutePrefixes = new HashSet<String>();
+	private final List<String> relativePaths = new ArrayList<String>();
+
+	/**
+	 * Create paths.
+	 * @param paths absolute or relative paths
+	 * @throws IllegalArgumentException if a path is not valid
+	 */
+	public ProjectionPaths(Collection<String> paths) {
+		for (String path : paths) {
+			if (!PATH_PATTERN.matcher(path).matches()) {
+				throw new IllegalArgumentException("projection path does not match " + PATH_PATTERN.pattern() + ": " + path);
+			}
+			if (path.startsWith("//")) {
+				relativePaths.add(path.substring(2));
+			} else if (path.startsWith("/")) {
+				absolutePaths.add(path);
+				for (int index = path.indexOf('/', 1); index > 0; index = path.indexOf('/', index + 1)) {
+					absolutePrefixes.add(path.substring(0, index));
+				}
+			} else {
+				relativePaths.add(path);
+			}
+		}
+	}
+
+	/**
+	 * Answer <code>true</code> if the element at the given path is selected with its subtree.
+	 * @param path element path
+	 * @return <code>true</code> if selected
+	 */
+	public boolean isSelected(String path) {
+		if (absolutePaths.contains(path)) {
+			return true;
+		}
+		for (String suffix : relativePaths) {
+			if (path.endsWith(suffix) && path.length() > suffix.length() && path.charAt(path.length() - suffix.length() - 1) == '/') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Answer <code>true</code> if the subtree of the element at the given path may contain selected elements.
+	 * Every element may contain matches of relative paths.
+	 * @param path element path
+	 * @return <code>true</code> if element has to be kept (without its text)
+	 */
+	public boolean isAncestor(String path) {
+		return !relativePaths.isEmpty() || absolutePrefixes.contains(path);
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.util;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Filter an {@link XMLStreamReader} to the subtrees selected by {@link ProjectionPaths}.
+ *
+ * <p>Selected elements are passed with their subtrees. Ancestors of selected elements
+ * (and the root element) are passed with their attributes, but without their text.
+ * Other elements are skipped with their subtrees by reading through them without
+ * accessing names or text, so a lazy parser does not materialize them.</p>
+ */
+public class ProjectionStreamReader extends StreamReaderDelegate {
+	private final ProjectionPaths paths;
+	private final StringBuilder path = new StringBuilder();
+	private final int[] lengths = new int[64];
+
+	private int depth;
+	private int selectedDepth = -1;
+
+	/**
+	 * Create reader.
+	 * @param reader parent reader
+	 * @param paths selected paths
+	 */
+	public ProjectionStreamReader(XMLStreamReader reader, ProjectionPaths paths) {
+		super(reader);
+		this.paths = paths;
+	}
+
+	private void skipElement() throws XMLStreamException {
+		int level = 1;
+		while (level > 0) {
+			switch (super.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				level++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				level--;
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private boolean push() {
+		int length = path.length();
+		path.append('/').append(getLocalName());
+		boolean selected = paths.isSelected(path.toString());
+		if (!selected && depth > 0 && !paths.isAncestor(path.toString())) {
+			path.setLength(length);
+			return false;
+		}
+		if (selected) {
+			selectedDepth = depth;
+		}
+		if (depth == lengths.length) {
+			throw new IllegalStateException("Element nesting exceeds " + lengths.length);
+		}
+		lengths[depth++] = length;
+		return true;
+	}
+
+	private void pop() {
+		path.setLength(lengths[--depth]);
+	}
+
+	@Override
+	public int next() throws XMLStreamException {
+		while (true) {
+			int event = super.next();
+			if (selectedDepth >= 0) {
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+				} else if (event == XMLStreamConstants.END_ELEMENT && depth - 1 == selectedDepth) {
+					pop(); // end of selected element
+					selectedDepth = -1;
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					depth--;
+				}
+				return event;
+			}
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				if (push()) {
+					return event;
+				}
+				skipElement();
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				pop();
+				return event;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				if (depth == 0) {
+					return event;
+				}
+				break; // text of ancestor
+			default:
+				return event;
+			}
+		}
+	}
+
+	@Override
+	public int nextTag() throws XMLStreamException {
+		int event = next();
+		while (event == XMLStreamConstants.CHARACTERS && isWhiteSpace()
+				|| event == XMLStreamConstants.SPACE
+				|| event == XMLStreamConstants.PROCESSING_INSTRUCTION
+				|| event == XMLStreamConstants.COMMENT) {
+			event = next();
+		}
+		if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+			throw new XMLStreamException("expected start or end tag", getLocation());
+		}
+		return event;
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Text which is kept in memory until a given number of (estimated) bytes is
+ * exceeded and then continues in a temporary file.
+ * <p>JSON writers pass spilled text to
+ * {@link de.odysseus.staxon.json.stream.JsonStreamTarget#value(Object)} instead of a string,
+ * targets which can stream text read it with {@link #getReader()}. Default and Jackson targets stream
+ * spilled text, Gson and JSON-P targets write strings only as a whole and fail with an
+ * <code>IOException</code> instead of loading the text into memory.
+ * Text is valid only during the call it is passed to, targets which keep values must copy it.</p>
+ */
+public final class SpillableText {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Number of characters which are read or written at once.
+	 */
+	public static final int CHUNK_SIZE = 8192;
+
+	private final long memoryThreshold;
+	private final File directory;
+
+	private StringBuilder builder = new StringBuilder();
+	private long length;
+
+	private File file;
+	private Writer writer;
+
+	/**
+	 * Create empty text.
+	 * @param memoryThreshold number of bytes to keep in memory before spilling (negative means never spill)
+	 * @param directory directory for temporary files (<code>null</code> means default temp directory)
+	 */
+	public SpillableText(long memoryThreshold, File directory) {
+		this.memoryThreshold = memoryThreshold;
+		this.directory = directory;
+	}
+
+	/**
+	 * Append text.
+	 * @param text
+	 * @throws IOException if temporary file cannot be written
+	 */
+	public void append(CharSequence text) throws IOException {
+		length += text.length();
+		if (writer != null) {
+			writer.append(text);
+			return;
+		}
+		builder.append(text);
+		if (memoryThreshold >= 0 && 2L * builder.length() > memoryThreshold) {
+			spill();
+		}
+	}
+
+	/**
+	 * Append text read from the given reader.
+	 * @param reader
+	 * @throws IOException
+	 */
+	public void append(Reader reader) throws IOException {
+		char[] chunk = new char[CHUNK_SIZE];
+		int n;
+		while ((n = reader.read(chunk)) >= 0) {
+			append(new String(chunk, 0, n));
+		}
+	}
+
+	private void spill() throws IOException {
+		file = File.createTempFile("staxon", ".txt", directory);
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8), CHUNK_SIZE);
+		writer.append(builder);
+		builder = null;
+	}
+
+	/**
+	 * @return number of characters
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * @return <code>true</code> if text has been moved to a temporary file
+	 */
+	public boolean isSpilled() {
+		return file != null;
+	}
+
+	/**
+	 * Open reader of the text. Text may not be appended while it is read.
+	 * @return reader, which must be closed
+	 * @throws IOException if temporary file cannot be read
+	 */
+	public Reader getReader() throws IOException {
+		if (writer == null) {
+			return new StringReader(builder.toString());
+		}
+		writer.flush();
+		return new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8), CHUNK_SIZE);
+	}
+
+	/**
+	 * Whole text, loads spilled text into memory.
+	 * @throws UncheckedIOException if temporary file cannot be read
+	 */
+	@Override
+	public String toString() {
+		if (writer == null) {
+			return builder.toString();
+		}
+		StringBuilder text = new StringBuilder((int) Math.min(length, Integer.MAX_VALUE - 8));
+		try {
+			Reader reader = getReader();
+			try {
+				char[] chunk = new char[CHUNK_SIZE];
+				int n;
+				while ((n = reader.read(chunk)) >= 0) {
+					text.append(chunk, 0, n);
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Drop the text and delete the temporary file (if any).
+	 */
+	public void dispose() {
+		builder = new StringBuilder();
+		length = 0;
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			writer = null;
+		}
+		if (file != null) {
+			file.delete();
+			file = null;
+		}
+	}
+}
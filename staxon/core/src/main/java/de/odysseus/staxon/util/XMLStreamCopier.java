@@ -0,0 +1,145 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.util;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import de.odysseus.staxon.event.SimpleXMLEventWriter;
+
+/**
+ * Copy a document from an {@link XMLStreamReader} to an {@link XMLStreamWriter}.
+ * 
+ * <p>This is the cursor counterpart to <code>writer.add(reader)</code> with an
+ * {@link XMLEventReader} and {@link XMLEventWriter}: the reader's current event is
+ * passed straight to the writer, without creating event objects. Events are mapped
+ * the same way as by {@link SimpleXMLEventWriter}, text is passed as character
+ * array.</p>
+ */
+public class XMLStreamCopier {
+	/**
+	 * Copy events from the reader's current event up to the end of the document.
+	 * @param reader source
+	 * @param writer target
+	 * @throws XMLStreamException
+	 */
+	public static void copy(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+		new XMLStreamCopier(reader, writer).copy();
+	}
+
+	private final XMLStreamReader reader;
+	private final XMLStreamWriter writer;
+	private final String defaultEncoding;
+
+	/**
+	 * Create instance.
+	 * @param reader source
+	 * @param writer target
+	 */
+	public XMLStreamCopier(XMLStreamReader reader, XMLStreamWriter writer) {
+		this(reader, writer, null);
+	}
+
+	/**
+	 * Create instance.
+	 * @param reader source
+	 * @param writer target
+	 * @param defaultEncoding encoding to declare if the reader doesn't report one
+	 *        (e.g. JSON readers), may be <code>null</code>
+	 */
+	public XMLStreamCopier(XMLStreamReader reader, XMLStreamWriter writer, String defaultEncoding) {
+		this.reader = reader;
+		this.writer = writer;
+		this.defaultEncoding = defaultEncoding;
+	}
+
+	/**
+	 * Copy events from the reader's current event up to the end of the document.
+	 * Neither reader nor writer are closed or flushed.
+	 * @throws XMLStreamException
+	 */
+	public void copy() throws XMLStreamException {
+		int eventType = reader.getEventType();
+		while (true) {
+			write(eventType);
+			if (eventType == XMLStreamConstants.END_DOCUMENT || !reader.hasNext()) {
+				break;
+			}
+			eventType = reader.next();
+		}
+	}
+
+	private void write(int eventType) throws XMLStreamException {
+		switch (eventType) {
+		case XMLStreamConstants.START_DOCUMENT:
+			String version = reader.getVersion() == null ? "1.0" : reader.getVersion();
+			String encoding = reader.getCharacterEncodingScheme() == null ? defaultEncoding : reader.getCharacterEncodingScheme();
+			if (encoding != null) { // encoding defined?
+				writer.writeStartDocument(encoding, version);
+			} else {
+				writer.writeStartDocument(version);
+			}
+			break;
+		case XMLStreamConstants.END_DOCUMENT:
+			writer.writeEndDocument();
+			break;
+		case XMLStreamConstants.START_ELEMENT:
+			writer.writeStartElement(nonNull(reader.getPrefix()), reader.getLocalName(), nonNull(reader.getNamespaceURI()));
+			for (int i = 0; i < reader.getNamespaceCount(); i++) {
+				writer.writeNamespace(nonNull(reader.getNamespacePrefix(i)), reader.getNamespaceURI(i));
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				writer.writeAttribute(nonNull(reader.getAttributePrefix(i)), nonNull(reader.getAttributeNamespace(i)),
+						reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			}
+			break;
+		case XMLStreamConstants.END_ELEMENT:
+			writer.writeEndElement();
+			break;
+		case XMLStreamConstants.CHARACTERS:
+			writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			break;
+		case XMLStreamConstants.CDATA:
+			writer.writeCData(reader.getText());
+			break;
+		case XMLStreamConstants.COMMENT:
+			writer.writeComment(reader.getText());
+			break;
+		case XMLStreamConstants.DTD:
+			writer.writeDTD(reader.getText());
+			break;
+		case XMLStreamConstants.ENTITY_REFERENCE:
+			writer.writeEntityRef(reader.getLocalName());
+			break;
+		case XMLStreamConstants.PROCESSING_INSTRUCTION:
+			writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+			break;
+		case XMLStreamConstants.SPACE:
+			break;
+		default:
+			throw new XMLStreamException("Cannot copy event type " + eventType);
+		}
+	}
+
+	private static String nonNull(String value) {
+		return value == null ? XMLConstants.NULL_NS_URI : value;
+	}
+}
@@ -419,4 +419,34 @@ public class JsonXMLStreamReaderTest {
 		verify(reader, XMLStreamConstants.END_DOCUMENT, null, null);
 		reader.close();
 	}
+
+	@Test
+	public void testMemoryLimit() throws Exception {
+		JsonXMLInputFactory factory = new JsonXMLInputFactory(new JsonXMLConfigBuilder().memoryLimit(1000).build());
+		XMLStreamReader reader = factory.createXMLStreamReader(new StringReader("{\"alice\":\"bob\"}"));
+		while (reader.hasNext()) {
+			reader.next();
+		}
+		reader.close();
+
+		// text exceeding memory limit is read as several consecutive characters events
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			text.append(i % 100 == 99 ? "\ud83d\ude00" : "x");
+		}
+		reader = factory.createXMLStreamReader(new StringReader("{\"alice\":{\"bob\":\"" + text + "\"}}"));
+		reader.nextTag();
+		reader.nextTag();
+		StringBuilder result = new StringBuilder();
+		int events = 0;
+		while (reader.next() == XMLStreamConstants.CHARACTERS) {
+			Assert.assertTrue(reader.getTextLength() <= (1000 - 64) / 2 + 1);
+			result.append(reader.getText());
+			events++;
+		}
+		verify(reader, XMLStreamConstants.END_ELEMENT, "bob", null);
+		Assert.assertTrue(events > 1);
+		Assert.assertEquals(text.toString(), result.toString());
+		reader.close();
+	}
 }
@@ -357,4 +357,24 @@ public class JsonXMLStreamWriterTest {
 		writer.close();
 		Assert.assertEquals("{\"alice\":{\"$charlie\":\"david\",\"$\":\"bob\"}}", result.toString());
 	}
+
+	/**
+	 * <code>&lt;alice&gt;bobbob...&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testMemoryLimit() throws Exception {
+		StringBuilder text = new StringBuilder();
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = new JsonXMLOutputFactory(new JsonXMLConfigBuilder().memoryLimit(20).build()).createXMLStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		for (int i = 0; i < 10000; i++) { // text continues in temporary file
+			writer.writeCharacters("bob\"");
+			text.append("bob\\\"");
+		}
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":\"" + text + "\"}", result.toString());
+	}
 }
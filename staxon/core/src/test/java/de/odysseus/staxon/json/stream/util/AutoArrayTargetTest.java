@@ -181,4 +181,64 @@ public class AutoArrayTargetTest {
 		writer.close();
 		Assert.assertEquals("{\"alice\":null}", result.toString());
 	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;bob&gt;&lt;x&gt;c0&lt;/x&gt;&lt;/bob&gt;&lt;bob&gt;&lt;x&gt;c1&lt;/x&gt;&lt;x&gt;c2&lt;/x&gt;&lt;/bob&gt;&lt;edgar&gt;d&lt;/edgar&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testSpilled() throws Exception {
+		for (long memoryThreshold : new long[]{0, 50, 150}) {
+			StringWriter result = new StringWriter();
+			XMLStreamWriter writer = new JsonXMLStreamWriter(new AutoArrayTarget(new JsonStreamFactoryImpl().createJsonStreamTarget(result, false), memoryThreshold, null), false, true, ':', true);
+			writer.writeStartDocument();
+			writer.writeStartElement("alice");
+			writer.writeStartElement("bob");
+			writer.writeStartElement("x");
+			writer.writeCharacters("c0");
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeStartElement("bob");
+			writer.writeStartElement("x");
+			writer.writeCharacters("c1");
+			writer.writeEndElement();
+			writer.writeStartElement("x");
+			writer.writeCharacters("c2");
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeStartElement("edgar");
+			writer.writeCharacters("d");
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+			Assert.assertEquals("{\"alice\":{\"bob\":[{\"x\":\"c0\"},{\"x\":[\"c1\",\"c2\"]}],\"edgar\":\"d\"}}", result.toString());
+		}
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;bob&gt;xx...&lt;/bob&gt;&lt;bob&gt;y&lt;/bob&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testSpilledText() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			text.append('x');
+		}
+		for (long memoryThreshold : new long[]{-1, 0, 1000000}) {
+			StringWriter result = new StringWriter();
+			XMLStreamWriter writer = new JsonXMLStreamWriter(new AutoArrayTarget(new JsonStreamFactoryImpl().createJsonStreamTarget(result, false), memoryThreshold, null), null, false, ':', true, "$", "@", 100);
+			writer.writeStartDocument();
+			writer.writeStartElement("alice");
+			writer.writeStartElement("bob");
+			writer.writeCharacters(text.toString()); // text continues in temporary file
+			writer.writeEndElement();
+			writer.writeStartElement("bob");
+			writer.writeCharacters("y");
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+			Assert.assertEquals("{\"alice\":{\"bob\":[\"" + text + "\",\"y\"]}}", result.toString());
+		}
+	}
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.odysseus.staxon.json.JsonXMLConfigBuilder;
+import de.odysseus.staxon.json.JsonXMLOutputFactory;
+import de.odysseus.staxon.json.JsonXMLStreamWriter;
+import de.odysseus.staxon.json.stream.impl.JsonStreamFactoryImpl;
+import de.odysseus.staxon.util.XMLStreamCopier;
+
+public class JsonLinesTargetTest {
+	private JsonXMLStreamWriter createXmlStreamWriter(StringWriter result, String path) {
+		return new JsonXMLStreamWriter(new JsonLinesTarget(new JsonStreamFactoryImpl(), result, path), false, true, ':', true);
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;x&gt;y&lt;/x&gt;&lt;bob&gt;&lt;c&gt;1&lt;/c&gt;&lt;/bob&gt;&lt;bob&gt;&lt;c&gt;2&lt;/c&gt;&lt;d&gt;3&lt;/d&gt;&lt;/bob&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testRecords() throws Exception {
+		StringWriter result = new StringWriter();
+		JsonXMLStreamWriter writer = createXmlStreamWriter(result, "/alice/bob");
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartElement("x");
+		writer.writeCharacters("y");
+		writer.writeEndElement();
+		writer.writeStartArray("bob");
+		writer.writeStartElement("bob");
+		writer.writeStartElement("c");
+		writer.writeCharacters("1");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeStartElement("bob");
+		writer.writeStartElement("c");
+		writer.writeCharacters("2");
+		writer.writeEndElement();
+		writer.writeStartElement("d");
+		writer.writeCharacters("3");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndArray();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"c\":\"1\"}\n{\"c\":\"2\",\"d\":\"3\"}\n", result.toString());
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;bob&gt;charlie&lt;/bob&gt;&lt;bob&gt;&lt;david&gt;&lt;bob&gt;x&lt;/bob&gt;&lt;/david&gt;&lt;/bob&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testRelativePath() throws Exception {
+		StringWriter result = new StringWriter();
+		JsonXMLStreamWriter writer = createXmlStreamWriter(result, "bob");
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartArray("bob");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("charlie");
+		writer.writeEndElement();
+		writer.writeStartElement("bob");
+		writer.writeStartElement("david");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("x");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndArray();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("\"charlie\"\n{\"david\":{\"bob\":\"x\"}}\n", result.toString());
+	}
+
+	@Test
+	public void testNoRecords() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result, "/alice/bob");
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartElement("david");
+		writer.writeCharacters("x");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("", result.toString());
+	}
+
+	@Test
+	public void testOutputFactory() throws Exception {
+		String xml = "<alice><bob><c>1</c><c>2</c></bob><bob><c>3</c></bob></alice>";
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		XMLStreamWriter writer = new JsonXMLOutputFactory(new JsonXMLConfigBuilder()
+				.autoArray(true).autoPrimitive(true).prettyPrint(true).jsonLinesPath("/alice/bob").build())
+				.createXMLStreamWriter(result);
+		new XMLStreamCopier(reader, writer).copy();
+		writer.close();
+		Assert.assertEquals("{\"c\":[1,2]}\n{\"c\":3}\n", result.toString("UTF-8"));
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.odysseus.staxon.json.JsonXMLConfigBuilder;
+import de.odysseus.staxon.json.JsonXMLInputFactory;
+import de.odysseus.staxon.json.stream.impl.JsonStreamFactoryImpl;
+import de.odysseus.staxon.util.ProjectionStreamReaderTest;
+
+public class ProjectionSourceTest {
+	private static final String JSON = "{\"a\":{\"@x\":\"1\",\"$\":\"t\",\"b\":{\"c\":1},"
+			+ "\"d\":[{\"e\":2,\"f\":3},{\"e\":4}],\"g\":{\"@y\":\"2\",\"$\":\"5\"},\"h\":[6,7]}}";
+
+	private String project(String... paths) throws Exception {
+		JsonXMLInputFactory factory = new JsonXMLInputFactory(new JsonXMLConfigBuilder()
+				.multiplePI(false).projectionPaths(Arrays.asList(paths)).build(), new JsonStreamFactoryImpl());
+		return ProjectionStreamReaderTest.read(factory.createXMLStreamReader(new StringReader(JSON)));
+	}
+
+	@Test
+	public void testAbsolutePaths() throws Exception {
+		Assert.assertEquals("<a x=1><d><e>2</e></d><d><e>4</e></d><g y=2>5</g></a>", project("/a/d/e", "/a/g"));
+	}
+
+	@Test
+	public void testRelativePath() throws Exception {
+		Assert.assertEquals("<a x=1><b><c></c></b><d><e></e><f>3</f></d><d><e></e></d><g y=2></g><h></h><h></h></a>",
+				project("//f"));
+	}
+
+	@Test
+	public void testArray() throws Exception {
+		Assert.assertEquals("<a x=1><h>6</h><h>7</h></a>", project("/a/h"));
+	}
+
+	@Test
+	public void testRootOnly() throws Exception {
+		Assert.assertEquals("<a x=1></a>", project("/x/y"));
+	}
+}
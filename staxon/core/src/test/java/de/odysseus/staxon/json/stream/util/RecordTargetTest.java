@@ -0,0 +1,97 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.odysseus.staxon.json.JsonXMLStreamWriter;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.json.stream.impl.JsonStreamFactoryImpl;
+
+public class RecordTargetTest {
+	/**
+	 * Collects records as separate documents.
+	 */
+	static class CollectingTarget extends RecordTarget {
+		final List<String> records = new ArrayList<String>();
+		final List<String> names = new ArrayList<String>();
+		StringWriter current;
+
+		CollectingTarget(JsonStreamTarget delegate, String path) {
+			super(delegate, path);
+		}
+
+		@Override
+		protected JsonStreamTarget startRecord() throws IOException {
+			names.add(getNames().toString());
+			current = new StringWriter();
+			return new JsonStreamFactoryImpl().createJsonStreamTarget(current, false);
+		}
+
+		@Override
+		protected void endRecord(JsonStreamTarget record) throws IOException {
+			record.close();
+			records.add(current.toString());
+		}
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;x&gt;y&lt;/x&gt;&lt;bob&gt;1&lt;/bob&gt;&lt;bob&gt;&lt;c&gt;2&lt;/c&gt;&lt;/bob&gt;&lt;z&gt;&lt;v&gt;3&lt;/v&gt;&lt;v&gt;4&lt;/v&gt;&lt;/z&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testRemainder() throws Exception {
+		StringWriter result = new StringWriter();
+		CollectingTarget target = new CollectingTarget(new JsonStreamFactoryImpl().createJsonStreamTarget(result, false), "/alice/bob");
+		JsonXMLStreamWriter writer = new JsonXMLStreamWriter(target, false, true, ':', true);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartElement("x");
+		writer.writeCharacters("y");
+		writer.writeEndElement();
+		writer.writeStartArray("bob");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("1");
+		writer.writeEndElement();
+		writer.writeStartElement("bob");
+		writer.writeStartElement("c");
+		writer.writeCharacters("2");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndArray();
+		writer.writeStartElement("z");
+		writer.writeStartArray("v");
+		writer.writeStartElement("v");
+		writer.writeCharacters("3");
+		writer.writeEndElement();
+		writer.writeStartElement("v");
+		writer.writeCharacters("4");
+		writer.writeEndElement();
+		writer.writeEndArray();
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"x\":\"y\",\"z\":{\"v\":[\"3\",\"4\"]}}}", result.toString());
+		Assert.assertEquals("[\"1\", {\"c\":\"2\"}]", target.records.toString());
+		Assert.assertEquals("[[alice, bob], [alice, bob]]", target.names.toString());
+	}
+}
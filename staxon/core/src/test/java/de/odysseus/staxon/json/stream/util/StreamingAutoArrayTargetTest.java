@@ -0,0 +1,268 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.json.stream.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.odysseus.staxon.json.JsonXMLStreamWriter;
+import de.odysseus.staxon.json.stream.impl.JsonStreamFactoryImpl;
+
+public class StreamingAutoArrayTargetTest {
+	private StreamingAutoArrayTarget createTarget(StringWriter result, long memoryThreshold) throws IOException {
+		return new StreamingAutoArrayTarget(new JsonStreamFactoryImpl().createJsonStreamTarget(result, false), memoryThreshold, null);
+	}
+	
+	private JsonXMLStreamWriter createXmlStreamWriter(StringWriter result, long memoryThreshold) throws IOException {
+		return new JsonXMLStreamWriter(createTarget(result, memoryThreshold), false, true, ':', true);
+	}
+	
+	private JsonXMLStreamWriter createXmlStreamWriter(StringWriter result) throws IOException {
+		return createXmlStreamWriter(result, -1);
+	}
+
+	private void writeRecords(XMLStreamWriter writer) throws Exception {
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		for (int i = 0; i < 3; i++) {
+			writer.writeStartElement("bob");
+			writer.writeAttribute("id", String.valueOf(i));
+			writer.writeStartElement("charlie");
+			writer.writeCharacters("david");
+			writer.writeEndElement();
+			for (int j = 0; j < i; j++) {
+				writer.writeStartElement("edgar");
+				writer.writeCharacters(String.valueOf(j));
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+		}
+		writer.writeEmptyElement("foo");
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+	}
+
+	/**
+	 * Nested repeated elements must give the same result as {@link AutoArrayTarget}.
+	 */
+	@Test
+	public void testNestedArrays() throws Exception {
+		StringWriter expected = new StringWriter();
+		writeRecords(new JsonXMLStreamWriter(new AutoArrayTarget(new JsonStreamFactoryImpl().createJsonStreamTarget(expected, false)), false, true, ':', true));
+		StringWriter result = new StringWriter();
+		writeRecords(createXmlStreamWriter(result));
+		Assert.assertEquals(expected.toString(), result.toString());
+		Assert.assertEquals("{\"alice\":{\"bob\":[{\"@id\":\"0\",\"charlie\":\"david\"},{\"@id\":\"1\",\"charlie\":\"david\",\"edgar\":\"0\"},{\"@id\":\"2\",\"charlie\":\"david\",\"edgar\":[\"0\",\"1\"]}],\"foo\":null}}", result.toString());
+	}
+
+	/**
+	 * Spilling undecided content to a temporary file must not change the result.
+	 */
+	@Test
+	public void testSpill() throws Exception {
+		StringWriter expected = new StringWriter();
+		writeRecords(createXmlStreamWriter(expected));
+		StringWriter result = new StringWriter();
+		writeRecords(createXmlStreamWriter(result, 0));
+		Assert.assertEquals(expected.toString(), result.toString());
+	}
+	
+	/**
+	 * <code>&lt;alice&gt;&lt;w0&gt;...&lt;w9&gt;&lt;bob&gt;0&lt;/bob&gt;...&lt;bob&gt;99&lt;/bob&gt;&lt;/w9&gt;...&lt;/w0&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testDeepWrappers() throws Exception {
+		StringWriter expected = new StringWriter();
+		StringWriter result = new StringWriter();
+		StreamingAutoArrayTarget target = createTarget(result, -1);
+		for (XMLStreamWriter writer : new XMLStreamWriter[]{
+				new JsonXMLStreamWriter(new AutoArrayTarget(new JsonStreamFactoryImpl().createJsonStreamTarget(expected, false)), false, true, ':', true),
+				new JsonXMLStreamWriter(target, false, true, ':', true)}) {
+			writer.writeStartDocument();
+			writer.writeStartElement("alice");
+			for (int i = 0; i < 10; i++) {
+				writer.writeStartElement("w" + i);
+			}
+			for (int i = 0; i < 100; i++) {
+				writer.writeStartElement("bob");
+				writer.writeCharacters(String.valueOf(i));
+				writer.writeEndElement();
+			}
+			for (int i = 0; i < 10; i++) {
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+		}
+		Assert.assertEquals(expected.toString(), result.toString());
+		// every event is held back once: 10 wrappers with name, start and end, array of bob with name, 100 values and end
+		Assert.assertEquals(3 * 10 + 1 + 100 + 1, target.getPendingEvents());
+	}
+
+	/**
+	 * <code>&lt;alice&gt;bob&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testTextContent() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeCharacters("bob");
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":\"bob\"}", result.toString());
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;bob&gt;charlie&lt;/bob&gt;&lt;bob&gt;david&lt;/bob&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testArray() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("charlie");
+		writer.writeEndElement();
+		writer.writeStartElement("bob");
+		writer.writeCharacters("david");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"bob\":[\"charlie\",\"david\"]}}", result.toString());
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;bob&gt;charlie&lt;/bob&gt;&lt;bob&gt;david&lt;/bob&gt;&lt;edgar/&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testArray2() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("charlie");
+		writer.writeEndElement();
+		writer.writeStartElement("bob");
+		writer.writeCharacters("david");
+		writer.writeEndElement();
+		writer.writeEmptyElement("edgar");
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"bob\":[\"charlie\",\"david\"],\"edgar\":null}}", result.toString());
+	}
+
+	@Test
+	public void testArray3() throws Exception {
+		StringWriter result = new StringWriter();
+		JsonXMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartArray("bob");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("charlie");
+		writer.writeEndElement();
+		writer.writeEndArray();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"bob\":[\"charlie\"]}}", result.toString());
+	}
+
+	/**
+	 * <code>&lt;alice&gt;&lt;bob&gt;charlie&lt;/bob&gt;&lt;david&gt;edgar&lt;/david&gt;&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testNested() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeStartElement("bob");
+		writer.writeCharacters("charlie");
+		writer.writeEndElement();
+		writer.writeStartElement("david");
+		writer.writeCharacters("edgar");
+		writer.writeEndElement();
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"bob\":\"charlie\",\"david\":\"edgar\"}}", result.toString());
+	}
+	
+	/**
+	 * <code>&lt;alice charlie="david"&gt;bob&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testAttributes() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeAttribute("charlie", "david");
+		writer.writeCharacters("bob");
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"@charlie\":\"david\",\"$\":\"bob\"}}", result.toString());
+	}
+	
+	/**
+	 * <code>&lt;alice xmlns="http://some-namespace"&gt;bob&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testNamespaces() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.setDefaultNamespace("http://some-namespace");
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeDefaultNamespace("http://some-namespace");
+		writer.writeCharacters("bob");
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":{\"@xmlns\":\"http://some-namespace\",\"$\":\"bob\"}}", result.toString());
+	}
+
+	/**
+	 * <code>&lt;alice&gt;bob&lt;/alice&gt;</code>
+	 */
+	@Test
+	public void testEmpty() throws Exception {
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = createXmlStreamWriter(result);
+		writer.writeStartDocument();
+		writer.writeStartElement("alice");
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+		Assert.assertEquals("{\"alice\":null}", result.toString());
+	}
+}
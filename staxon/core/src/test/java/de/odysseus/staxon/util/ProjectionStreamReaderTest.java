@@ -0,0 +1,82 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.util;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProjectionStreamReaderTest {
+	private static final String XML = "<a x=\"1\">t<b><c>1</c></b><d><e>2</e><f>3</f></d><g y=\"2\">4</g></a>";
+
+	public static String read(XMLStreamReader reader) throws XMLStreamException {
+		StringBuilder result = new StringBuilder();
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				result.append('<').append(reader.getLocalName());
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					result.append(' ').append(reader.getAttributeLocalName(i)).append('=').append(reader.getAttributeValue(i));
+				}
+				result.append('>');
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				result.append("</").append(reader.getLocalName()).append('>');
+				break;
+			case XMLStreamConstants.CHARACTERS:
+				result.append(reader.getText());
+				break;
+			default:
+				break;
+			}
+		}
+		return result.toString();
+	}
+
+	private String project(String... paths) throws XMLStreamException {
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML));
+		return read(new ProjectionStreamReader(reader, new ProjectionPaths(Arrays.asList(paths))));
+	}
+
+	@Test
+	public void testAbsolutePaths() throws Exception {
+		Assert.assertEquals("<a x=1><d><e>2</e></d><g y=2>4</g></a>", project("/a/d/e", "/a/g"));
+	}
+
+	@Test
+	public void testRelativePath() throws Exception {
+		// every element may contain matches of relative paths, so only text is skipped
+		Assert.assertEquals("<a x=1><b><c></c></b><d><e></e><f>3</f></d><g y=2></g></a>", project("//f"));
+		Assert.assertEquals("<a x=1><b><c></c></b><d><e>2</e><f></f></d><g y=2></g></a>", project("d/e"));
+	}
+
+	@Test
+	public void testRootOnly() throws Exception {
+		Assert.assertEquals("<a x=1></a>", project("/x/y"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPath() throws Exception {
+		project("/a//b");
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011, 2012 Odysseus Software GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.odysseus.staxon.util;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.odysseus.staxon.json.JsonXMLConfig;
+import de.odysseus.staxon.json.JsonXMLConfigBuilder;
+import de.odysseus.staxon.json.JsonXMLInputFactory;
+import de.odysseus.staxon.json.JsonXMLOutputFactory;
+import de.odysseus.staxon.json.util.XMLMultipleEventWriter;
+import de.odysseus.staxon.json.util.XMLMultipleStreamWriter;
+
+public class XMLStreamCopierTest {
+	private static final String XML =
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<!-- comment -->"
+			+ "<alice xmlns=\"urn:a\" xmlns:p=\"urn:p\" charlie=\"david\">"
+			+ "<?foo bar?>"
+			+ "<bob p:edgar=\"frank\">1</bob>"
+			+ "<p:bob>text &amp; more</p:bob>"
+			+ "<empty/>"
+			+ "<cdata><![CDATA[<x>]]></cdata>"
+			+ "</alice>";
+
+	private static final String JSON =
+			"{\"alice\":{\"@charlie\":\"david\",\"bob\":[{\"@edgar\":\"frank\",\"$\":1},\"two\"],\"empty\":null}}";
+
+	private String xmlToJsonByEvents(JsonXMLConfig config) throws XMLStreamException {
+		XMLEventReader reader = XMLInputFactory.newInstance().createXMLEventReader(new StringReader(XML));
+		StringWriter result = new StringWriter();
+		XMLEventWriter writer = new JsonXMLOutputFactory(config).createXMLEventWriter(result);
+		writer.add(reader);
+		writer.close();
+		return result.toString();
+	}
+
+	private String xmlToJsonByCursor(JsonXMLConfig config) throws XMLStreamException {
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML));
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = new JsonXMLOutputFactory(config).createXMLStreamWriter(result);
+		XMLStreamCopier.copy(reader, writer);
+		writer.close();
+		return result.toString();
+	}
+
+	@Test
+	public void testXmlToJson() throws XMLStreamException {
+		JsonXMLConfig config = new JsonXMLConfigBuilder().autoArray(true).autoPrimitive(true).build();
+		Assert.assertEquals(xmlToJsonByEvents(config), xmlToJsonByCursor(config));
+	}
+
+	@Test
+	public void testXmlToJsonWithoutNamespaceDeclarations() throws XMLStreamException {
+		JsonXMLConfig config = new JsonXMLConfigBuilder().namespaceDeclarations(false).build();
+		Assert.assertEquals(xmlToJsonByEvents(config), xmlToJsonByCursor(config));
+	}
+
+	@Test
+	public void testJsonToXml() throws XMLStreamException {
+		XMLEventReader eventReader = new JsonXMLInputFactory().createXMLEventReader(new StringReader(JSON));
+		StringWriter expected = new StringWriter();
+		XMLEventWriter eventWriter = XMLOutputFactory.newInstance().createXMLEventWriter(expected);
+		eventWriter.add(eventReader);
+		eventWriter.close();
+
+		XMLStreamReader reader = new JsonXMLInputFactory().createXMLStreamReader(new StringReader(JSON));
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(result);
+		new XMLStreamCopier(reader, writer, "UTF-8").copy(); // JDK event writer declares UTF-8 by default
+		writer.close();
+
+		Assert.assertEquals(expected.toString(), result.toString());
+	}
+
+	@Test
+	public void testJsonToXmlWithoutEncoding() throws XMLStreamException {
+		XMLStreamReader reader = new JsonXMLInputFactory().createXMLStreamReader(new StringReader(JSON));
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(result);
+		XMLStreamCopier.copy(reader, writer);
+		writer.close();
+
+		Assert.assertTrue(result.toString().startsWith("<?xml version=\"1.0\"?><alice"));
+	}
+
+	@Test
+	public void testXmlToJsonWithMultiplePaths() throws XMLStreamException {
+		JsonXMLConfig config = new JsonXMLConfigBuilder().autoPrimitive(true).build();
+
+		XMLEventReader eventReader = XMLInputFactory.newInstance().createXMLEventReader(new StringReader(XML));
+		StringWriter expected = new StringWriter();
+		XMLEventWriter eventWriter = new XMLMultipleEventWriter(new JsonXMLOutputFactory(config).createXMLEventWriter(expected), false, "bob");
+		eventWriter.add(eventReader);
+		eventWriter.close();
+
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML));
+		StringWriter result = new StringWriter();
+		XMLStreamWriter writer = new XMLMultipleStreamWriter(new JsonXMLOutputFactory(config).createXMLStreamWriter(result), false, "bob");
+		XMLStreamCopier.copy(reader, writer);
+		writer.close();
+
+		Assert.assertEquals(expected.toString(), result.toString());
+	}
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 import com.google.gson.stream.JsonWriter;
 
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.util.SpillableText;
 
 class GsonStreamTarget implements JsonStreamTarget {
 
@@ -56,6 +57,10 @@ class GsonStreamTarget implements JsonStreamTarget {
 
     @Override
     public void value(Object value) throws IOException {
+        if (value instanceof SpillableText) { // JsonWriter writes strings only as a whole
+            throw new IOException("Text of " + ((SpillableText) value).length()
+                    + " characters exceeds memory limit, Gson cannot write it in parts");
+        }
         if (value == null) {
             writer.nullValue();
         } else if (value instanceof String) {
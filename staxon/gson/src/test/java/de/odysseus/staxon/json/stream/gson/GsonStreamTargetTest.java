@@ -24,6 +24,8 @@ import org.junit.Test;
 
 import com.google.gson.stream.JsonWriter;
 
+import de.odysseus.staxon.util.SpillableText;
+
 public class GsonStreamTargetTest {
 	@Test
 	public void testObjectValue() throws IOException {
@@ -150,4 +152,18 @@ public class GsonStreamTargetTest {
 		
 		Assert.assertEquals("[\"abc\",1234,true]", writer.toString());
 	}
+
+	@Test(expected = IOException.class)
+	public void testSpilledText() throws IOException {
+		StringWriter writer = new StringWriter();
+		GsonStreamTarget target = new GsonStreamTarget(new JsonWriter(writer));
+		SpillableText text = new SpillableText(8, null);
+		text.append("spilled text");
+		try {
+			target.startArray();
+			target.value(text);
+		} finally {
+			text.dispose();
+		}
+	}
 }
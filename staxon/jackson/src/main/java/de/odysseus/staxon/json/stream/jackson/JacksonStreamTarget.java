@@ -16,12 +16,14 @@
 package de.odysseus.staxon.json.stream.jackson;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.util.SpillableText;
 
 class JacksonStreamTarget implements JsonStreamTarget {
 
@@ -62,6 +64,14 @@ class JacksonStreamTarget implements JsonStreamTarget {
             generator.writeNull();
         } else if (value instanceof String) {
             generator.writeString((String) value);
+        } else if (value instanceof SpillableText) {
+            SpillableText text = (SpillableText) value;
+            Reader reader = text.getReader();
+            try {
+                generator.writeString(reader, text.length() > Integer.MAX_VALUE ? -1 : (int) text.length());
+            } finally {
+                reader.close();
+            }
         } else if (value instanceof Number) {
             if (value instanceof BigDecimal) {
                 generator.writeNumber((BigDecimal) value);
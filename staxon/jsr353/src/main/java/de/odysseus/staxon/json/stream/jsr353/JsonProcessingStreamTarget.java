@@ -23,6 +23,7 @@ import javax.json.JsonException;
 import javax.json.stream.JsonGenerator;
 
 import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.util.SpillableText;
 
 /**
  * JSON-P (<code>javax.json</code>) <code>JsonStreamTarget</code> implementation.
@@ -72,6 +73,10 @@ public class JsonProcessingStreamTarget implements JsonStreamTarget {
 
     @Override
     public void value(Object value) throws IOException {
+        if (value instanceof SpillableText) { // JsonGenerator writes strings only as a whole
+            throw new IOException("Text of " + ((SpillableText) value).length()
+                    + " characters exceeds memory limit, JSON-P cannot write it in parts");
+        }
         try {
             if (name != null) {
                 if (value == null) {
@@ -24,6 +24,8 @@ import junit.framework.Assert;
 
 import org.junit.Test;
 
+import de.odysseus.staxon.util.SpillableText;
+
 public class JsonProcessingStreamTargetTest {
 	@Test
 	public void testObjectValue() throws IOException {
@@ -150,4 +152,18 @@ public class JsonProcessingStreamTargetTest {
 		
 		Assert.assertEquals("[\"abc\",1234,true]", writer.toString());
 	}
+
+	@Test(expected = IOException.class)
+	public void testSpilledText() throws IOException {
+		StringWriter writer = new StringWriter();
+		JsonProcessingStreamTarget target = new JsonProcessingStreamTarget(Json.createGenerator(writer));
+		SpillableText text = new SpillableText(8, null);
+		text.append("spilled text");
+		try {
+			target.startArray();
+			target.value(text);
+		} finally {
+			text.dispose();
+		}
+	}
 }
@@ -18,17 +18,33 @@ package com.fs.xml2json;
 import com.fs.xml2json.cli.ApplicationCommandLine;
 import com.fs.xml2json.filter.CustomPatternFileFilter;
 import com.fs.xml2json.listener.CmdFileReadListener;
+import com.fs.xml2json.listener.CountingFileReadListener;
+import com.fs.xml2json.listener.IFileReadListener;
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.service.ConversionExecutor;
+import com.fs.xml2json.service.ConversionIndex;
+import com.fs.xml2json.service.ConversionServer;
 import com.fs.xml2json.service.ConverterService;
+import com.fs.xml2json.service.FolderWatcher;
 import com.fs.xml2json.util.ApplicationUtils;
 import com.fs.xml2json.util.ConverterUtils;
+import com.fs.xml2json.util.CorpusGenerator;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import javax.xml.stream.XMLStreamException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,10 +59,20 @@ public class Starter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Starter.class);
 
+    // period (in milliseconds) of checking whether server must be stopped
+    private static final long SERVE_POLL_PERIOD = 500;
+
 
     private final String[] args;
     private final AtomicBoolean isCanceled = new AtomicBoolean(false);
+    // number of processed (converted or failed) files
+    private final AtomicInteger convertedFiles = new AtomicInteger();
+    // number of files which failed to convert
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    // number of files skipped because they have not changed since the last conversion
+    private final AtomicInteger upToDateFiles = new AtomicInteger();
     private ConverterService service;
+    private ConversionIndex index;
 
     /**
      * @param args the command line arguments
@@ -82,7 +108,13 @@ public class Starter {
         try {
             ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
 
-            if (cmd.isNoGuiEnabled()) {
+            if (cmd.isNoGuiEnabled() && null != cmd.getGenerateFile()) {
+                generateHandler(cmd);
+            } else if (cmd.isNoGuiEnabled() && null != cmd.getServeAddress()) {
+                serveHandler(cmd);
+            } else if (cmd.isNoGuiEnabled() && cmd.isWatch()) {
+                watchHandler(cmd);
+            } else if (cmd.isNoGuiEnabled()) {
                 noGuiHandler(cmd);
             } else {
                 GuiStarter.main(args);
@@ -96,29 +128,55 @@ public class Starter {
 
     /**
      * Performs converting files in batch mode without GUI.
+     * <p>Questions about overwriting existing files are asked before converting, so files can be
+     * converted simultaneously (see <code>--threads</code>) by one shared {@link ConverterService}.
      *
      * @param cmd application argumants
-     * @throws IOException nested exception from {@link #overwriteFile(java.io.File)}
+     * @throws IOException nested exception from {@link #overwriteFile(java.io.File, java.io.BufferedReader)}
      */
     private void noGuiHandler(ApplicationCommandLine cmd) throws IOException {
         CustomPatternFileFilter filter = new CustomPatternFileFilter(cmd.getPattern());
-        long numberOfFiles = Stream.of(cmd.getSourceFolder().listFiles())
-                .filter(filter::accept).count();
-
-        if (numberOfFiles > 0) {
-            LOGGER.info("Found {} files", numberOfFiles);
-            service = new ConverterService();
-            int numberOfProcessed = 0;
-            for (File file : cmd.getSourceFolder().listFiles()) {
-                if (isCanceled.get()) {
-                    break;
-                }
-                if (filter.accept(file)) {
-                    processFile(file, cmd);
-                    LOGGER.info("Processed {} of {}", ++numberOfProcessed, numberOfFiles);
+        List<File> files = new ArrayList<>();
+        for (File file : cmd.getSourceFolder().listFiles()) {
+            if (filter.accept(file)) {
+                files.add(file);
+            } else {
+                LOGGER.debug("File '{}' will be skipped", file.getAbsolutePath());
+            }
+        }
+
+        if (!files.isEmpty()) {
+            LOGGER.info("Found {} files", files.size());
+            ConversionOptions options = cmd.getConversionOptions();
+            service = new ConverterService(options, ConversionEngine.getInstance());
+            if (cmd.isIncremental()) {
+                index = new ConversionIndex(cmd.getDestinationFolder(), cmd.isIndexHash());
+            }
+            Map<File, File> filesToConvert = getFilesToConvert(files, cmd);
+            try {
+                // split files are converted in several threads one by one
+                if (cmd.getThreads() > 1 && filesToConvert.size() > 1 && null == options.getSplitPath()) {
+                    convertInParallel(filesToConvert, Math.min(cmd.getThreads(), filesToConvert.size()),
+                            cmd.isVirtualThreads() ? cmd.getInFlight() : 0);
                 } else {
-                    LOGGER.debug("File '{}' will be skipped", file.getAbsolutePath());
+                    convertSequentially(filesToConvert);
                 }
+            } finally {
+                if (null != index) {
+                    index.save();
+                }
+            }
+            LOGGER.info("Converted {}, failed {}, skipped {} of {} files", convertedFiles.get() - failedFiles.get(),
+                    failedFiles.get(), files.size() - filesToConvert.size(), files.size());
+            if (null != index) {
+                LOGGER.info("Not changed since last conversion: {} files", upToDateFiles.get());
+            }
+            if (options.isSampling()) {
+                LOGGER.info("Arrays corrected after sample: {}", service.getLateCorrections());
+            }
+            if (null != service.getSchemaCache()) {
+                LOGGER.info("Array schema cache: {} hits, {} misses, {} drifts", service.getSchemaCache().getHits(),
+                        service.getSchemaCache().getMisses(), service.getSchemaCache().getDrifts());
             }
         } else {
             LOGGER.info("No one file found for '{}' pattern", cmd.getPattern());
@@ -126,27 +184,190 @@ public class Starter {
     }
 
     /**
-     * Converts file <code>file</code> and stores converted content in <code>destinationFolder</code>
-     * with same name as source file.
+     * Watches source folder and converts new files until application is stopped.
+     * <p>Files are converted by one shared {@link ConverterService}, so the engine stays warm between files.
      *
-     * @param file file which must be converted
+     * @param cmd application argumants
+     * @throws IOException if file of array hints cannot be read
+     */
+    private void watchHandler(ApplicationCommandLine cmd) throws IOException {
+        ConversionOptions options = cmd.getConversionOptions();
+        service = new ConverterService(options, ConversionEngine.getInstance());
+        // split files are converted in several threads one by one
+        int threads = null == options.getSplitPath() ? cmd.getThreads() : 1;
+        FolderWatcher watcher = new FolderWatcher(cmd.getSourceFolder(), cmd.getDestinationFolder(),
+                new CustomPatternFileFilter(cmd.getPattern()), service, threads, cmd.getQuietPeriod(),
+                cmd.isVirtualThreads() ? cmd.getInFlight() : 0);
+        try {
+            watcher.watch(isCanceled);
+        } catch (IOException ex) {
+            LOGGER.error("Folder '{}' cannot be watched: {}", cmd.getSourceFolder().getAbsolutePath(), ex.toString());
+        }
+    }
+
+    /**
+     * Converts requests posted to HTTP server until application is stopped.
+     * <p>Requests are converted by one shared {@link ConverterService}, so the engine stays warm between requests.
+     *
+     * @param cmd application argumants
+     * @throws IOException if file of array hints cannot be read
+     */
+    private void serveHandler(ApplicationCommandLine cmd) throws IOException {
+        service = new ConverterService(cmd.getConversionOptions(), ConversionEngine.getInstance());
+        try (ConversionServer server = new ConversionServer(cmd.getServeAddress(), service, cmd.getThreads(),
+                cmd.getMaxRequestSize(), cmd.isVirtualThreads() ? cmd.getInFlight() : 0)) {
+            server.start();
+            while (!isCanceled.get()) {
+                Thread.sleep(SERVE_POLL_PERIOD);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            LOGGER.error("Server cannot be started on '{}': {}", cmd.getServeAddress(), ex.toString());
+        }
+    }
+
+    /**
+     * Generates synthetic file for performance tests.
+     *
+     * @param cmd application argumants
+     */
+    private void generateHandler(ApplicationCommandLine cmd) {
+        File file = cmd.getGenerateFile();
+        CorpusGenerator generator = cmd.getCorpusGenerator();
+        long startTime = System.currentTimeMillis();
+        try {
+            long records = generator.generate(file, cmd.getGenerateSize());
+            LOGGER.info("Generated file '{}' ({} records, {} bytes) with shape {}, took {} ms",
+                    file.getAbsolutePath(), records, file.length(), generator,
+                    System.currentTimeMillis() - startTime);
+        } catch (IOException | XMLStreamException ex) {
+            LOGGER.error("File '{}' cannot be generated: {}", file.getAbsolutePath(), ex.toString());
+        }
+    }
+
+    /**
+     * Returns files which must be converted with their converted files. Asks user whether existing
+     * converted files must be overwritten (if overwriting is not forced).
+     * <p>In incremental mode files which have not changed since the last conversion are skipped, converted
+     * files of changed files are overwritten without asking.
+     *
+     * @param files source files
      * @param cmd application arguments
-     * @throws IOException when {@link #overwriteFile(java.io.File)} throw exception
+     * @return map of source files to converted files, in order of source files
+     * @throws IOException when {@link #overwriteFile(java.io.File, java.io.BufferedReader)} throw exception
      */
-    private void processFile(File file, ApplicationCommandLine cmd)
-            throws IOException {
-        LOGGER.debug("Start processing '{}'", file.getAbsolutePath());
-        File convertedFile = ConverterUtils.getConvertedFile(file, cmd.getDestinationFolder());
-        boolean isOverwrite = true;
-        if (convertedFile.exists() && !cmd.isForceOverwrite()) {    // overwrite?
-            isOverwrite = overwriteFile(convertedFile);
+    private Map<File, File> getFilesToConvert(List<File> files, ApplicationCommandLine cmd) throws IOException {
+        Map<File, File> filesToConvert = new LinkedHashMap<>();
+        // not closed, otherwise System.in is closed too
+        BufferedReader br = null;
+        for (File file : files) {
+            if (isCanceled.get()) {
+                break;
+            }
+            File convertedFile = ConverterUtils.getConvertedFile(file, cmd.getDestinationFolder());
+            if (null != index && index.isUpToDate(file, convertedFile)) {
+                upToDateFiles.incrementAndGet();
+                LOGGER.debug("File '{}' has not changed since last conversion", file.getAbsolutePath());
+                continue;
+            }
+            boolean isOverwrite = true;
+            if (convertedFile.exists() && !cmd.isForceOverwrite()
+                    && (null == index || !index.contains(file))) {    // overwrite?
+                if (null == br) {
+                    br = new BufferedReader(new InputStreamReader(System.in));
+                }
+                isOverwrite = overwriteFile(convertedFile, br);
+            }
+            if (isOverwrite) {
+                filesToConvert.put(file, convertedFile);
+            } else {
+                LOGGER.debug("File '{}' will not be overwritten", convertedFile.getAbsolutePath());
+            }
         }
-        if (isOverwrite) {
-            try {
-                service.convert(file, convertedFile, new CmdFileReadListener(file), isCanceled);
-            } catch (IOException | XMLStreamException ex) {
-                LOGGER.error(ex.toString());
+
+        return filesToConvert;
+    }
+
+    /**
+     * Converts files one by one, progress of every file is shown in command line.
+     *
+     * @param filesToConvert map of source files to converted files
+     */
+    private void convertSequentially(Map<File, File> filesToConvert) {
+        for (Map.Entry<File, File> entry : filesToConvert.entrySet()) {
+            if (isCanceled.get()) {
+                break;
+            }
+            processFile(entry.getKey(), entry.getValue(), new CmdFileReadListener(entry.getKey()));
+            LOGGER.info("Processed {} of {}", convertedFiles.get(), filesToConvert.size());
+        }
+    }
+
+    /**
+     * Converts files simultaneously in a pool of worker threads or in virtual threads. Progress is shown per
+     * converted file.
+     *
+     * @param filesToConvert map of source files to converted files
+     * @param threads number of files converted simultaneously
+     * @param inFlight number of files converted simultaneously in virtual threads if JVM has them,
+     * <code>0</code> to convert files in platform threads
+     */
+    private void convertInParallel(Map<File, File> filesToConvert, int threads, int inFlight) {
+        LongAdder readBytes = new LongAdder();
+        ConversionExecutor executor = inFlight > 0
+                ? new ConversionExecutor("ConverterWorker", threads, inFlight, Integer.MAX_VALUE, true)
+                : new ConversionExecutor("ConverterWorker", threads, Integer.MAX_VALUE, false);
+        LOGGER.info("Converting in {} {}threads", threads, executor.isVirtual() ? "virtual " : "");
+        try {
+            List<Future<?>> futures = new ArrayList<>(filesToConvert.size());
+            for (Map.Entry<File, File> entry : filesToConvert.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    if (!isCanceled.get()) {
+                        processFile(entry.getKey(), entry.getValue(), new CountingFileReadListener(readBytes));
+                        LOGGER.info("Processed {} of {}", convertedFiles.get(), filesToConvert.size());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            isCanceled.set(true);
+        } catch (ExecutionException ex) {
+            LOGGER.error(ex.getCause().toString());
+        } finally {
+            executor.shutdown();
+        }
+        LOGGER.debug("Read {} bytes", readBytes.sum());
+    }
+
+    /**
+     * Converts file <code>file</code> and stores converted content in <code>convertedFile</code>.
+     *
+     * @param file file which must be converted
+     * @param convertedFile file for converted content
+     * @param listener read listener
+     */
+    private void processFile(File file, File convertedFile, IFileReadListener listener) {
+        LOGGER.debug("Start processing '{}'", file.getAbsolutePath());
+        try {
+            ConversionIndex.Entry entry = null;
+            if (null != index) {
+                // file stays out of index if conversion fails or is canceled
+                entry = index.createEntry(file);
+                index.remove(file);
+            }
+            service.convert(file, convertedFile, listener, isCanceled);
+            if (null != index && !isCanceled.get()) {
+                index.put(file, entry);
+            }
+        } catch (IOException | XMLStreamException | RuntimeException ex) {
+            failedFiles.incrementAndGet();
+            LOGGER.error(ex.toString());
+        } finally {
+            convertedFiles.incrementAndGet();
         }
     }
 
@@ -154,27 +375,26 @@ public class Starter {
      * Parses input text (expected "Y" or "n") and returns <code>true</code> if file needs to be overwritten.
      *
      * @param destinationFile destination file
+     * @param br reader of user's answers
      * @return <code>true</code> if need to overwrite file, otherwise return <code>false</code>
      * @throws IOException if some errors occurs in buffered reader
      */
-    private boolean overwriteFile(File destinationFile) throws IOException {
+    private boolean overwriteFile(File destinationFile, BufferedReader br) throws IOException {
         boolean isOverwrite = false;
         System.out.print(String.format("%nFile '%s' already exists, overwrite? [y/n]: ",
                                     destinationFile.getAbsolutePath()));
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(System.in))) {
-            boolean isCorrectAnswer = false;
-            while (!isCorrectAnswer) {
-                String answer = br.readLine();
-                if (null != answer) {
-                    if (answer.trim().equalsIgnoreCase("Y")) {
-                        isOverwrite = true;
-                        isCorrectAnswer = true;
-                    } else if (answer.trim().equalsIgnoreCase("n")) {
-                        isCorrectAnswer = true;
-                    } else {
-                        System.out.print("Expected [y/n]: ");
-                    }
+        boolean isCorrectAnswer = false;
+        while (!isCorrectAnswer) {
+            String answer = br.readLine();
+            if (null != answer) {
+                if (answer.trim().equalsIgnoreCase("Y")) {
+                    isOverwrite = true;
+                    isCorrectAnswer = true;
+                } else if (answer.trim().equalsIgnoreCase("n")) {
+                    isCorrectAnswer = true;
+                } else {
+                    System.out.print("Expected [y/n]: ");
                 }
             }
         }
@@ -17,8 +17,22 @@
 package com.fs.xml2json.cli;
 
 import com.fs.xml2json.core.Config;
+import com.fs.xml2json.service.ArraySchemaCache;
+import com.fs.xml2json.service.ConversionExecutor;
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConversionServer;
+import com.fs.xml2json.service.FolderWatcher;
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.util.ApplicationUtils;
+import com.fs.xml2json.util.CorpusGenerator;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -58,6 +72,107 @@ public class ApplicationCommandLine {
                 "Pattern for filtering input files\n\tExample: *.json");
         OPTIONS.addOption("o", Config.PAR_FORCE_OVERWRITE, false,
                 "Force overwrite existing converted files (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_SINGLE_PASS, false,
+                "Convert XML-files in one pass, without determining arrays first (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_MEMORY_BUDGET, true,
+                "Memory for undecided elements in single-pass mode and, with hard memory budget, for every"
+                + " buffer of conversion, the rest is stored in temporary files\n\tExample: 256M (Default: 64M)");
+        OPTIONS.addOption(null, Config.PAR_HARD_MEMORY_BUDGET, false,
+                "Keep every buffer of conversion within memory budget: prescan of XML stops at the budget,"
+                + " undecided elements and long texts spill to temporary files (texts are streamed by the"
+                + " default and Jackson JSON providers, Gson and JSON-P fail on them) (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_SCHEMA_CACHE, true,
+                "Path to folder for caching arrays of XML-files with the same structure"
+                + "\n\tExample: C:\\temp\\cache");
+        OPTIONS.addOption(null, Config.PAR_FINGERPRINT_SIZE, true,
+                "Number of bytes from the beginning of XML-file which identify its structure in cache"
+                + "\n\tExample: 128K (Default: 64K)");
+        OPTIONS.addOption(null, Config.PAR_ARRAY_HINTS, true,
+                "Path to file with paths of elements which are always arrays, one path per line"
+                + "\n\tExample: C:\\temp\\arrays.txt");
+        OPTIONS.addOption(null, Config.PAR_SAMPLE_RECORDS, true,
+                "Determine arrays of XML-file by the first records only, later arrays are detected while converting"
+                + "\n\tExample: 1000");
+        OPTIONS.addOption(null, Config.PAR_SAMPLE_SIZE, true,
+                "Determine arrays of XML-file by the first bytes only, later arrays are detected while converting"
+                + "\n\tExample: 10M");
+        OPTIONS.addOption(null, Config.PAR_THREADS, true,
+                "Number of files which are converted simultaneously, with '--" + Config.PAR_VIRTUAL_THREADS
+                + "' number of conversions in flight is '--" + Config.PAR_IN_FLIGHT + "' and CPU-bound work is"
+                + " limited by processors\n\tExample: 4 (Default: 1)");
+        OPTIONS.addOption(null, Config.PAR_SPLIT_PATH, true,
+                "Path of records (repeated children of the root element) which XML-file is split at for converting "
+                + "in '--" + Config.PAR_THREADS + "' threads, 'auto' to detect records\n\tExample: /root/record");
+        OPTIONS.addOption(null, Config.PAR_MEMORY_MAP, false,
+                "Read source files through memory-mapped windows instead of buffered streams (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_READ_BUFFER, true,
+                "Size of buffer for reading source files\n\tExample: 256K (Default: depends on file size, 8K-1M)");
+        OPTIONS.addOption(null, Config.PAR_WRITE_BUFFER, true,
+                "Size of buffer for writing converted files\n\tExample: 4M (Default: depends on file size, 8K-1M)");
+        OPTIONS.addOption(null, Config.PAR_COMPRESSION_THREADS, true,
+                "Number of threads which compress converted files of compressed files (.xml.gz, .json.gz),"
+                + " shared by all files\n\tExample: 4 (Default: number of processors)");
+        OPTIONS.addOption(null, Config.PAR_WATCH, false,
+                "Watch source folder and convert new files until application is stopped, '--"
+                + Config.PAR_THREADS + "' files are converted simultaneously (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_QUIET_PERIOD, true,
+                "Milliseconds during which new file must not change before it is converted in '--"
+                + Config.PAR_WATCH + "' mode\n\tExample: 5000 (Default: 2000)");
+        OPTIONS.addOption(null, Config.PAR_INCREMENTAL, false,
+                "Skip files which have not changed since the last conversion, conversions are stored in index "
+                + "in destination folder (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_INDEX_HASH, false,
+                "Store content hashes in index, so files which have been touched but not changed are skipped "
+                + "in '--" + Config.PAR_INCREMENTAL + "' mode (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_CHECKPOINT, false,
+                "Convert XML-files in chunks of records and write checkpoint after every chunk, so canceled "
+                + "conversion continues from the last checkpoint (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_JSON_LINES, true,
+                "Path of records which are written as JSON Lines (one compact JSON object per line), content "
+                + "outside of records is dropped. JSON-files are read as JSON Lines, every line becomes a record "
+                + "element at this path (in '--" + Config.PAR_THREADS + "' threads)\n\tExample: /root/record");
+        OPTIONS.addOption(null, Config.PAR_ROLL_PATH, true,
+                "Path of records of XML-file which are written to rolling part files (out-00001.json, ...) "
+                + "limited by '--" + Config.PAR_ROLL_RECORDS + "' and/or '--" + Config.PAR_ROLL_SIZE
+                + "', content outside of records stays in output file\n\tExample: /root/record");
+        OPTIONS.addOption(null, Config.PAR_ROLL_RECORDS, true,
+                "Maximal number of records in part file\n\tExample: 100000");
+        OPTIONS.addOption(null, Config.PAR_ROLL_SIZE, true,
+                "Maximal size of part file (uncompressed), part ends with the record which exceeds it"
+                + "\n\tExample: 100M");
+        OPTIONS.addOption(null, Config.PAR_SELECT, true,
+                "Comma-separated paths of elements which are converted with their subtrees, other elements are "
+                + "skipped except ancestors of selected elements (without text). Absolute path starts with the "
+                + "root element, relative path (optionally starting with '//') matches at any depth"
+                + "\n\tExample: /root/header,/root/record/id");
+        OPTIONS.addOption(null, Config.PAR_GENERATE, true,
+                "Generates synthetic XML- or JSON-file (by extension, '.gz' is compressed) for performance tests "
+                + "instead of conversion, size is limited by '--" + Config.PAR_GENERATE_SIZE + "' and/or number "
+                + "of records of '--" + Config.PAR_GENERATE_SHAPE + "'\n\tExample: C:\\temp\\corpus.xml");
+        OPTIONS.addOption(null, Config.PAR_GENERATE_SIZE, true,
+                "Size of generated file (uncompressed), file ends with the record which exceeds it"
+                + "\n\tExample: 1G");
+        OPTIONS.addOption(null, Config.PAR_GENERATE_SHAPE, true,
+                "Comma-separated shape of generated file: seed, depth, fanOut, arrayDensity (0..1), attributes, "
+                + "textLength, numericRatio (0..1), namespaces (true/false), records"
+                + "\n\tExample: seed=42,depth=4,fanOut=6,arrayDensity=0.5,namespaces=true");
+        OPTIONS.addOption(null, Config.PAR_SERVE, true,
+                "Start HTTP server which converts XML posted to " + ConversionServer.XML_TO_JSON_PATH + " and JSON "
+                + "posted to " + ConversionServer.JSON_TO_XML_PATH + ", '--" + Config.PAR_THREADS + "' requests are "
+                + "converted simultaneously. Address is a port or host:port (Default host: localhost)"
+                + "\n\tExample: 8080");
+        OPTIONS.addOption(null, Config.PAR_MAX_REQUEST_SIZE, true,
+                "Maximum size of request body in '--" + Config.PAR_SERVE + "' mode"
+                + "\n\tExample: 1G (Default: 256M)");
+        OPTIONS.addOption(null, Config.PAR_VIRTUAL_THREADS, false,
+                "Run each conversion in own virtual thread, conversions waiting for I/O do not hold threads, so"
+                + " '--" + Config.PAR_IN_FLIGHT + "' conversions are in flight. Requires Java 21, otherwise"
+                + " platform threads are used (Default: false)");
+        OPTIONS.addOption(null, Config.PAR_IN_FLIGHT, true,
+                "Number of conversions in flight with '--" + Config.PAR_VIRTUAL_THREADS + "', not less than '--"
+                + Config.PAR_THREADS + "', further conversions wait without holding threads"
+                + "\n\tExample: 64 (Default: " + ConversionExecutor.DEFAULT_IN_FLIGHT_PER_THREAD + " per '--"
+                + Config.PAR_THREADS + "')");
     }
 
     private final CommandLine cmd;
@@ -70,6 +185,28 @@ public class ApplicationCommandLine {
     private String pattern = null;
     // flag to overwrite existing files
     private Boolean forceOverwrite;
+    // memory budget in bytes for single-pass conversion
+    private Long memoryBudget;
+    // number of bytes for structure fingerprint
+    private Integer fingerprintSize;
+    // paths of elements which are always arrays
+    private List<String> arrayHints;
+    // number of records for determining arrays
+    private Integer sampleRecords;
+    // number of bytes for determining arrays
+    private Long sampleSize;
+    // number of files converted simultaneously
+    private Integer threads;
+    // number of conversions in flight in virtual threads
+    private Integer inFlight;
+    // size of read buffer in bytes
+    private Integer readBufferSize;
+    // size of write buffer in bytes
+    private Integer writeBufferSize;
+    // number of threads which compress output files
+    private Integer compressionThreads;
+    // milliseconds during which new file must not change in watch mode
+    private Integer quietPeriod;
 
     /**
      * Private constructor.
@@ -133,7 +270,24 @@ public class ApplicationCommandLine {
         String destinationFolderTxt = cmd.getOptionValue(Config.PAR_DESTINATION_FOLDER);
         String patternTxt = cmd.getOptionValue(Config.PAR_SOURCE_FILE_PATTERN);
 
-        if (isNoGuiEnabled) {
+        if (isNoGuiEnabled && null != getGenerateFile()) {
+            // generated file is written instead of conversion
+            if (null == FileTypeEnum.parseByFileName(getGenerateFile().getName())) {
+                throw new IllegalArgumentException(String.format("Parameter '%s' must be XML- or JSON-file: %s",
+                        Config.PAR_GENERATE, getGenerateFile().getName()));
+            }
+            CorpusGenerator generator = getCorpusGenerator();
+            if (null == cmd.getOptionValue(Config.PAR_GENERATE_SIZE) && generator.getRecords() == 0) {
+                throw new IllegalArgumentException(String.format(PARAMETER_MISSING_TEPLATE,
+                        Config.PAR_GENERATE_SIZE));
+            }
+            getGenerateSize();
+        } else if (isNoGuiEnabled && null != cmd.getOptionValue(Config.PAR_SERVE)) {
+            // requests are converted instead of files
+            getServeAddress();
+            getMaxRequestSize();
+            checkConversionParameters();
+        } else if (isNoGuiEnabled) {
             if (null == sourceFolderTxt) {
                 throw new IllegalArgumentException(String.format(PARAMETER_MISSING_TEPLATE,
                         Config.PAR_SOURCE_FOLDER));
@@ -161,6 +315,33 @@ public class ApplicationCommandLine {
             if (!destinationFolder.exists()) {
                 destinationFolder.mkdirs();
             }
+
+            checkConversionParameters();
+        }
+    }
+
+    /**
+     * Checks values of conversion parameters.
+     *
+     * @throws FileNotFoundException if file with array hints is not exist
+     */
+    private void checkConversionParameters() throws FileNotFoundException {
+        getMemoryBudget();
+        getFingerprintSize();
+        getSampleRecords();
+        getSampleSize();
+        getThreads();
+        getInFlight();
+        getReadBufferSize();
+        getWriteBufferSize();
+        getCompressionThreads();
+        getQuietPeriod();
+        getRollRecords();
+        getRollSize();
+        getConversionOptionsBuilder().build();
+        String arrayHintsTxt = cmd.getOptionValue(Config.PAR_ARRAY_HINTS);
+        if (null != arrayHintsTxt && !new File(arrayHintsTxt).isFile()) {
+            throw new FileNotFoundException("File '" + arrayHintsTxt + "' not found");
         }
     }
 
@@ -225,4 +406,528 @@ public class ApplicationCommandLine {
 
         return forceOverwrite;
     }
+
+    /**
+     * Returns <code>true</code> if XML-files must be converted in one pass, othervise returns
+     * <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isSinglePass() {
+        return cmd.hasOption(Config.PAR_SINGLE_PASS);
+    }
+
+    /**
+     * Returns <code>true</code> if memory budget is a hard limit of conversion, othervise returns
+     * <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isHardMemoryBudget() {
+        return cmd.hasOption(Config.PAR_HARD_MEMORY_BUDGET);
+    }
+
+    /**
+     * Returns <code>true</code> if conversions must be run in virtual threads, othervise returns
+     * <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isVirtualThreads() {
+        return cmd.hasOption(Config.PAR_VIRTUAL_THREADS);
+    }
+
+    /**
+     * Returns memory budget (in bytes) for single-pass conversion.
+     *
+     * @return memory budget in bytes
+     * @throws IllegalArgumentException if value has incorrect format
+     */
+    public long getMemoryBudget() {
+        if (null == memoryBudget) {
+            String memoryBudgetTxt = cmd.getOptionValue(Config.PAR_MEMORY_BUDGET);
+            memoryBudget = null == memoryBudgetTxt ? ConversionOptions.DEFAULT_MEMORY_BUDGET
+                    : ApplicationUtils.parseSize(memoryBudgetTxt);
+        }
+
+        return memoryBudget;
+    }
+
+    /**
+     * Returns folder of array schema cache.
+     *
+     * @return link to Folder or <code>null</code> if cache is not enabled
+     */
+    public File getSchemaCacheFolder() {
+        String schemaCacheTxt = cmd.getOptionValue(Config.PAR_SCHEMA_CACHE);
+        return null == schemaCacheTxt ? null : new File(schemaCacheTxt);
+    }
+
+    /**
+     * Returns number of bytes which identify structure of XML-file in array schema cache.
+     *
+     * @return number of bytes
+     * @throws IllegalArgumentException if value has incorrect format
+     */
+    public int getFingerprintSize() {
+        if (null == fingerprintSize) {
+            String fingerprintSizeTxt = cmd.getOptionValue(Config.PAR_FINGERPRINT_SIZE);
+            long size = null == fingerprintSizeTxt ? ArraySchemaCache.DEFAULT_FINGERPRINT_SIZE
+                    : ApplicationUtils.parseSize(fingerprintSizeTxt);
+            if (size <= 0 || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format("Parameter '%s' is out of range: %s",
+                        Config.PAR_FINGERPRINT_SIZE, fingerprintSizeTxt));
+            }
+            fingerprintSize = (int) size;
+        }
+
+        return fingerprintSize;
+    }
+
+    /**
+     * Returns paths of elements which are always arrays, read from file set by
+     * <code>--arrayHints</code> parameter.
+     *
+     * @return list of paths, empty if parameter is not set
+     * @throws IOException if file cannot be read
+     */
+    public List<String> getArrayHints() throws IOException {
+        if (null == arrayHints) {
+            String arrayHintsTxt = cmd.getOptionValue(Config.PAR_ARRAY_HINTS);
+            arrayHints = null == arrayHintsTxt ? Collections.emptyList()
+                    : ArraySchemaCache.readPaths(new File(arrayHintsTxt));
+        }
+
+        return arrayHints;
+    }
+
+    /**
+     * Returns number of records which are used for determining arrays.
+     *
+     * @return number of records, <code>0</code> if not set
+     * @throws IllegalArgumentException if value is not a positive number
+     */
+    public int getSampleRecords() {
+        if (null == sampleRecords) {
+            String sampleRecordsTxt = cmd.getOptionValue(Config.PAR_SAMPLE_RECORDS);
+            sampleRecords = 0;
+            if (null != sampleRecordsTxt) {
+                try {
+                    sampleRecords = Integer.parseInt(sampleRecordsTxt.trim());
+                } catch (NumberFormatException ex) {
+                    sampleRecords = -1;
+                }
+                if (sampleRecords <= 0) {
+                    sampleRecords = null;
+                    throw new IllegalArgumentException(String.format("Parameter '%s' must be a positive number: %s",
+                            Config.PAR_SAMPLE_RECORDS, sampleRecordsTxt));
+                }
+            }
+        }
+
+        return sampleRecords;
+    }
+
+    /**
+     * Returns number of bytes which are used for determining arrays.
+     *
+     * @return number of bytes, <code>0</code> if not set
+     * @throws IllegalArgumentException if value has incorrect format
+     */
+    public long getSampleSize() {
+        if (null == sampleSize) {
+            String sampleSizeTxt = cmd.getOptionValue(Config.PAR_SAMPLE_SIZE);
+            sampleSize = null == sampleSizeTxt ? 0 : ApplicationUtils.parseSize(sampleSizeTxt);
+        }
+
+        return sampleSize;
+    }
+
+    /**
+     * Returns number of files which are converted simultaneously.
+     *
+     * @return number of threads, <code>1</code> if not set
+     * @throws IllegalArgumentException if value is not a positive number
+     */
+    public int getThreads() {
+        if (null == threads) {
+            threads = parsePositiveNumber(Config.PAR_THREADS, 1);
+        }
+
+        return threads;
+    }
+
+    /**
+     * Returns number of conversions which are in flight in virtual threads.
+     *
+     * @return number of conversions, {@link ConversionExecutor#DEFAULT_IN_FLIGHT_PER_THREAD} per thread if not set
+     * @throws IllegalArgumentException if value is not a positive number or is less than number of threads
+     */
+    public int getInFlight() {
+        if (null == inFlight) {
+            int value = parsePositiveNumber(Config.PAR_IN_FLIGHT, 0);
+            if (value > 0 && value < getThreads()) {
+                throw new IllegalArgumentException(String.format("Parameter '%s' cannot be less than '%s': %d",
+                        Config.PAR_IN_FLIGHT, Config.PAR_THREADS, value));
+            }
+            inFlight = value > 0 ? value : (int) Math.min(Integer.MAX_VALUE,
+                    (long) getThreads() * ConversionExecutor.DEFAULT_IN_FLIGHT_PER_THREAD);
+        }
+
+        return inFlight;
+    }
+
+    /**
+     * Returns number of threads which compress output files.
+     *
+     * @return number of threads, <code>0</code> if not set (all available processors are used)
+     * @throws IllegalArgumentException if value is not a positive number
+     */
+    public int getCompressionThreads() {
+        if (null == compressionThreads) {
+            compressionThreads = parsePositiveNumber(Config.PAR_COMPRESSION_THREADS, 0);
+        }
+
+        return compressionThreads;
+    }
+
+    /**
+     * Returns <code>true</code> if source folder must be watched for new files, othervise
+     * returns <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isWatch() {
+        return cmd.hasOption(Config.PAR_WATCH);
+    }
+
+    /**
+     * Returns <code>true</code> if files which have not changed since the last conversion must be skipped,
+     * othervise returns <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isIncremental() {
+        return cmd.hasOption(Config.PAR_INCREMENTAL);
+    }
+
+    /**
+     * Returns <code>true</code> if XML-files must be converted with checkpoints, othervise
+     * returns <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isCheckpoint() {
+        return cmd.hasOption(Config.PAR_CHECKPOINT);
+    }
+
+    /**
+     * Returns <code>true</code> if content hashes must be stored in index, othervise
+     * returns <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isIndexHash() {
+        return cmd.hasOption(Config.PAR_INDEX_HASH);
+    }
+
+    /**
+     * Returns period during which new file must not change before it is converted in watch mode.
+     *
+     * @return number of milliseconds, {@link com.fs.xml2json.service.FolderWatcher#DEFAULT_QUIET_PERIOD}
+     * if not set
+     * @throws IllegalArgumentException if value is not a positive number
+     */
+    public long getQuietPeriod() {
+        if (null == quietPeriod) {
+            quietPeriod = parsePositiveNumber(Config.PAR_QUIET_PERIOD, (int) FolderWatcher.DEFAULT_QUIET_PERIOD);
+        }
+
+        return quietPeriod;
+    }
+
+    /**
+     * Parses positive number.
+     *
+     * @param parameter parameter name
+     * @param defaultValue value if parameter is not set
+     * @return number
+     * @throws IllegalArgumentException if value is not a positive number
+     */
+    private int parsePositiveNumber(String parameter, int defaultValue) {
+        String numberTxt = cmd.getOptionValue(parameter);
+        if (null == numberTxt) {
+            return defaultValue;
+        }
+        int number;
+        try {
+            number = Integer.parseInt(numberTxt.trim());
+        } catch (NumberFormatException ex) {
+            number = -1;
+        }
+        if (number <= 0) {
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be a positive number: %s",
+                    parameter, numberTxt));
+        }
+        return number;
+    }
+
+    /**
+     * Returns <code>true</code> if source files must be read through memory-mapped windows, othervise
+     * returns <code>false</code> (Default value).
+     *
+     * @return <code>true</code> or <code>false</code>
+     */
+    public boolean isMemoryMapped() {
+        return cmd.hasOption(Config.PAR_MEMORY_MAP);
+    }
+
+    /**
+     * Returns size of buffer for reading source files.
+     *
+     * @return number of bytes, <code>0</code> if size depends on file size
+     * @throws IllegalArgumentException if value has incorrect format
+     */
+    public int getReadBufferSize() {
+        if (null == readBufferSize) {
+            readBufferSize = parseBufferSize(Config.PAR_READ_BUFFER);
+        }
+
+        return readBufferSize;
+    }
+
+    /**
+     * Returns size of buffer for writing converted files.
+     *
+     * @return number of bytes, <code>0</code> if size depends on file size
+     * @throws IllegalArgumentException if value has incorrect format
+     */
+    public int getWriteBufferSize() {
+        if (null == writeBufferSize) {
+            writeBufferSize = parseBufferSize(Config.PAR_WRITE_BUFFER);
+        }
+
+        return writeBufferSize;
+    }
+
+    /**
+     * Parses size of buffer.
+     *
+     * @param parameter parameter name
+     * @return number of bytes, <code>0</code> if parameter is not set
+     * @throws IllegalArgumentException if value has incorrect format or is out of range
+     */
+    private int parseBufferSize(String parameter) {
+        String sizeTxt = cmd.getOptionValue(parameter);
+        if (null == sizeTxt) {
+            return 0;
+        }
+        long size = ApplicationUtils.parseSize(sizeTxt);
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Parameter '%s' is out of range: %s",
+                    parameter, sizeTxt));
+        }
+        return (int) size;
+    }
+
+    /**
+     * Returns path of records which XML-files are split at.
+     *
+     * @return path, <code>auto</code> or <code>null</code> if files must not be split
+     */
+    public String getSplitPath() {
+        return cmd.getOptionValue(Config.PAR_SPLIT_PATH);
+    }
+
+    /**
+     * Returns path of records which are written as JSON Lines or read from JSON Lines.
+     *
+     * @return path or <code>null</code> if files are converted as one JSON document
+     */
+    public String getJsonLinesPath() {
+        return cmd.getOptionValue(Config.PAR_JSON_LINES);
+    }
+
+    /**
+     * Returns path of records which are written to rolling part files.
+     *
+     * @return path or <code>null</code> if records are written to output file
+     */
+    public String getRollPath() {
+        return cmd.getOptionValue(Config.PAR_ROLL_PATH);
+    }
+
+    /**
+     * Returns maximal number of records in part file.
+     *
+     * @return number of records, <code>0</code> if not set
+     * @throws IllegalArgumentException if value is not a positive number
+     */
+    public int getRollRecords() {
+        return parsePositiveNumber(Config.PAR_ROLL_RECORDS, 0);
+    }
+
+    /**
+     * Returns maximal size of part file.
+     *
+     * @return number of bytes, <code>0</code> if not set
+     * @throws IllegalArgumentException if value has incorrect format or is not positive
+     */
+    public long getRollSize() {
+        String sizeTxt = cmd.getOptionValue(Config.PAR_ROLL_SIZE);
+        if (null == sizeTxt) {
+            return 0;
+        }
+        long size = ApplicationUtils.parseSize(sizeTxt);
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be a positive size: %s",
+                    Config.PAR_ROLL_SIZE, sizeTxt));
+        }
+        return size;
+    }
+
+    /**
+     * Returns paths of elements which are converted with their subtrees.
+     *
+     * @return paths, empty if whole files are converted
+     */
+    public List<String> getSelectPaths() {
+        String selectTxt = cmd.getOptionValue(Config.PAR_SELECT);
+        List<String> paths = new ArrayList<>();
+        if (null != selectTxt) {
+            for (String path : selectTxt.split(",")) {
+                if (!path.trim().isEmpty()) {
+                    paths.add(path.trim());
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Returns file to which synthetic document is generated.
+     *
+     * @return file or <code>null</code> if files are converted
+     */
+    public File getGenerateFile() {
+        String generateTxt = cmd.getOptionValue(Config.PAR_GENERATE);
+        return null == generateTxt ? null : new File(generateTxt);
+    }
+
+    /**
+     * Returns maximal size of generated document.
+     *
+     * @return number of bytes, <code>Long.MAX_VALUE</code> if not set
+     * @throws IllegalArgumentException if value has incorrect format or is not positive
+     */
+    public long getGenerateSize() {
+        String sizeTxt = cmd.getOptionValue(Config.PAR_GENERATE_SIZE);
+        if (null == sizeTxt) {
+            return Long.MAX_VALUE;
+        }
+        long size = ApplicationUtils.parseSize(sizeTxt);
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be a positive size: %s",
+                    Config.PAR_GENERATE_SIZE, sizeTxt));
+        }
+        return size;
+    }
+
+    /**
+     * Returns generator of synthetic documents with shape from command line arguments.
+     *
+     * @return generator
+     * @throws IllegalArgumentException if shape is incorrect
+     */
+    public CorpusGenerator getCorpusGenerator() {
+        String shapeTxt = cmd.getOptionValue(Config.PAR_GENERATE_SHAPE);
+        return null == shapeTxt ? CorpusGenerator.DEFAULT : CorpusGenerator.builder().shape(shapeTxt).build();
+    }
+
+    /**
+     * Returns address of HTTP conversion server.
+     *
+     * @return address (loopback if only port is set) or <code>null</code> if files are converted
+     * @throws IllegalArgumentException if value has incorrect format
+     */
+    public InetSocketAddress getServeAddress() {
+        String serveTxt = cmd.getOptionValue(Config.PAR_SERVE);
+        if (null == serveTxt) {
+            return null;
+        }
+        int separator = serveTxt.lastIndexOf(':');
+        String host = separator < 0 ? null : serveTxt.substring(0, separator).trim();
+        int port;
+        try {
+            port = Integer.parseInt(serveTxt.substring(separator + 1).trim());
+        } catch (NumberFormatException ex) {
+            port = -1;
+        }
+        if (port < 0 || port > 65535 || (null != host && host.isEmpty())) {
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be a port or host:port: %s",
+                    Config.PAR_SERVE, serveTxt));
+        }
+        return null == host ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                : new InetSocketAddress(host, port);
+    }
+
+    /**
+     * Returns maximum size of request body of HTTP conversion server.
+     *
+     * @return number of bytes, {@link ConversionServer#DEFAULT_MAX_REQUEST_SIZE} if not set
+     * @throws IllegalArgumentException if value has incorrect format or is not positive
+     */
+    public long getMaxRequestSize() {
+        String sizeTxt = cmd.getOptionValue(Config.PAR_MAX_REQUEST_SIZE);
+        if (null == sizeTxt) {
+            return ConversionServer.DEFAULT_MAX_REQUEST_SIZE;
+        }
+        long size = ApplicationUtils.parseSize(sizeTxt);
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be a positive size: %s",
+                    Config.PAR_MAX_REQUEST_SIZE, sizeTxt));
+        }
+        return size;
+    }
+
+    /**
+     * Returns conversion options based on command line arguments.
+     *
+     * @return conversion options
+     * @throws IOException if file with array hints cannot be read
+     */
+    public ConversionOptions getConversionOptions() throws IOException {
+        return getConversionOptionsBuilder()
+                .arrayHints(getArrayHints())
+                .build();
+    }
+
+    /**
+     * Returns builder of conversion options with all values except array hints, which are read from file.
+     *
+     * @return builder
+     * @throws IllegalArgumentException if some value is incorrect
+     */
+    private ConversionOptions.Builder getConversionOptionsBuilder() {
+        return ConversionOptions.builder()
+                .singlePass(isSinglePass())
+                .memoryBudget(getMemoryBudget())
+                .hardMemoryBudget(isHardMemoryBudget())
+                .schemaCacheFolder(getSchemaCacheFolder())
+                .fingerprintSize(getFingerprintSize())
+                .sampleRecords(getSampleRecords())
+                .sampleSize(getSampleSize())
+                .splitPath(getSplitPath())
+                .threads(getThreads())
+                .memoryMapped(isMemoryMapped())
+                .readBufferSize(getReadBufferSize())
+                .writeBufferSize(getWriteBufferSize())
+                .compressionThreads(getCompressionThreads())
+                .checkpoint(isCheckpoint())
+                .jsonLinesPath(getJsonLinesPath())
+                .rollPath(getRollPath())
+                .rollRecords(getRollRecords())
+                .rollSize(getRollSize())
+                .selectPaths(getSelectPaths());
+    }
 }
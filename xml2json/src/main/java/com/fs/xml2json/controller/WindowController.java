@@ -24,6 +24,8 @@ import static com.fs.xml2json.core.Config.START_BUTTON_CANCEL;
 import static com.fs.xml2json.core.Config.START_BUTTON_START;
 import com.fs.xml2json.core.PropertiesLoader;
 import com.fs.xml2json.listener.GuiFileReadListener;
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.service.ConversionOptions;
 import com.fs.xml2json.service.ConverterService;
 import com.fs.xml2json.type.FileTypeEnum;
 import static com.fs.xml2json.type.FileTypeEnum.JSON;
@@ -113,6 +115,9 @@ public class WindowController implements Initializable {
 
     private ApplicationProperties applicationProperties;
 
+    // factories are created once for all conversions
+    private final ConversionEngine engine = ConversionEngine.getInstance();
+
 
     @FXML
     private Button inputBrowseBtn;
@@ -484,7 +489,10 @@ public class WindowController implements Initializable {
     private void convertFile() throws IOException, XMLStreamException {
         LOGGER.info("Converting started");
 
-        ConverterService service = new ConverterService();
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .readBufferSize(applicationProperties.getReadBufferSize())
+                .writeBufferSize(applicationProperties.getWriteBufferSize())
+                .build(), engine);
 
         File inputFile = new File(inputPath.getText());
         File outputFile = new File(outputPath.getText());
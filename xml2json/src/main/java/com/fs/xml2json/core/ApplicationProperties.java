@@ -16,6 +16,7 @@
 
 package com.fs.xml2json.core;
 
+import com.fs.xml2json.util.ApplicationUtils;
 import java.io.File;
 import java.io.IOException;
 import java.util.Properties;
@@ -92,6 +93,24 @@ public class ApplicationProperties {
         }
     }
 
+    /**
+     * Returns size of buffer for reading source files.
+     *
+     * @return number of bytes or <code>0</code> if value is not set or incorrect
+     */
+    public int getReadBufferSize() {
+        return getSize(Config.READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns size of buffer for writing converted files.
+     *
+     * @return number of bytes or <code>0</code> if value is not set or incorrect
+     */
+    public int getWriteBufferSize() {
+        return getSize(Config.WRITE_BUFFER_SIZE);
+    }
+
     /**
      * Sets loader.
      *
@@ -105,6 +124,33 @@ public class ApplicationProperties {
     }
 
 
+    /**
+     * Returns size (like <code>64K</code> or <code>1M</code>) from properties.
+     *
+     * @param key property name
+     * @return number of bytes or <code>0</code> if value is not set or incorrect
+     */
+    private int getSize(String key) {
+        if (!isInitialized) {
+            loadProperties();
+        }
+
+        String value = properties.getProperty(key);
+        if (null == value || value.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            long size = ApplicationUtils.parseSize(value);
+            if (size <= Integer.MAX_VALUE) {
+                return (int) size;
+            }
+            LOGGER.warn("Property '{}' is out of range: {}", key, value);
+        } catch (IllegalArgumentException ex) {
+            LOGGER.warn("Property '{}' is incorrect: {}", key, ex.getMessage());
+        }
+        return 0;
+    }
+
     /**
      * Loads properties from file to current instance of Application properties.
      */
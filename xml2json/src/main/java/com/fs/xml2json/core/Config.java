@@ -59,6 +59,14 @@ public final class Config {
      * Property name in config file which will ocntain last opened directory.
      */
     public static final String LAST_DIRECTORY = "browse.lastDirectory";
+    /**
+     * Property name in config file for size of buffer for reading source files (like <code>256K</code>).
+     */
+    public static final String READ_BUFFER_SIZE = "buffer.read";
+    /**
+     * Property name in config file for size of buffer for writing converted files (like <code>1M</code>).
+     */
+    public static final String WRITE_BUFFER_SIZE = "buffer.write";
 
 
     /******************************************************/
@@ -85,4 +93,128 @@ public final class Config {
      * Parameter name for overwriting converted files.
      */
     public static final String PAR_FORCE_OVERWRITE = "overwrite";
+    /**
+     * Parameter name for converting XML-files in one pass (without determining arrays first).
+     */
+    public static final String PAR_SINGLE_PASS = "singlePass";
+    /**
+     * Parameter name for memory budget of single-pass conversion.
+     */
+    public static final String PAR_MEMORY_BUDGET = "memoryBudget";
+    /**
+     * Parameter name for keeping every buffer of conversion within memory budget.
+     */
+    public static final String PAR_HARD_MEMORY_BUDGET = "hardMemoryBudget";
+    /**
+     * Parameter name for folder of array schema cache.
+     */
+    public static final String PAR_SCHEMA_CACHE = "schemaCache";
+    /**
+     * Parameter name for number of bytes which identify structure of XML-file in array schema cache.
+     */
+    public static final String PAR_FINGERPRINT_SIZE = "fingerprintSize";
+    /**
+     * Parameter name for file with array hints.
+     */
+    public static final String PAR_ARRAY_HINTS = "arrayHints";
+    /**
+     * Parameter name for number of records which are used for determining arrays.
+     */
+    public static final String PAR_SAMPLE_RECORDS = "sampleRecords";
+    /**
+     * Parameter name for number of bytes which are used for determining arrays.
+     */
+    public static final String PAR_SAMPLE_SIZE = "sampleSize";
+    /**
+     * Parameter name for number of files which are converted simultaneously.
+     */
+    public static final String PAR_THREADS = "threads";
+    /**
+     * Parameter name for path of records which XML-files are split at.
+     */
+    public static final String PAR_SPLIT_PATH = "splitPath";
+    /**
+     * Parameter name for reading source files through memory-mapped windows.
+     */
+    public static final String PAR_MEMORY_MAP = "memoryMap";
+    /**
+     * Parameter name for size of buffer for reading source files.
+     */
+    public static final String PAR_READ_BUFFER = "readBuffer";
+    /**
+     * Parameter name for size of buffer for writing converted files.
+     */
+    public static final String PAR_WRITE_BUFFER = "writeBuffer";
+    /**
+     * Parameter name for number of threads which compress output files.
+     */
+    public static final String PAR_COMPRESSION_THREADS = "compressionThreads";
+    /**
+     * Parameter name for watching source folder.
+     */
+    public static final String PAR_WATCH = "watch";
+    /**
+     * Parameter name for period during which new file must not change before it is converted.
+     */
+    public static final String PAR_QUIET_PERIOD = "quietPeriod";
+    /**
+     * Parameter name for skipping files which have not changed since the last conversion.
+     */
+    public static final String PAR_INCREMENTAL = "incremental";
+    /**
+     * Parameter name for comparing content hashes of files in incremental mode.
+     */
+    public static final String PAR_INDEX_HASH = "indexHash";
+    /**
+     * Parameter name for converting XML-files in chunks with checkpoints.
+     */
+    public static final String PAR_CHECKPOINT = "checkpoint";
+    /**
+     * Parameter name for path of records which are written as JSON Lines.
+     */
+    public static final String PAR_JSON_LINES = "jsonLines";
+    /**
+     * Parameter name for path of records which are written to rolling part files.
+     */
+    public static final String PAR_ROLL_PATH = "rollPath";
+    /**
+     * Parameter name for maximal number of records in part file.
+     */
+    public static final String PAR_ROLL_RECORDS = "rollRecords";
+    /**
+     * Parameter name for maximal size of part file.
+     */
+    public static final String PAR_ROLL_SIZE = "rollSize";
+    /**
+     * Parameter name for paths of elements which are converted with their subtrees.
+     */
+    public static final String PAR_SELECT = "select";
+    /**
+     * Parameter name for file to which synthetic document is generated.
+     */
+    public static final String PAR_GENERATE = "generate";
+    /**
+     * Parameter name for size of generated document.
+     */
+    public static final String PAR_GENERATE_SIZE = "generateSize";
+    /**
+     * Parameter name for shape of generated document.
+     */
+    public static final String PAR_GENERATE_SHAPE = "generateShape";
+    /**
+     * Parameter name for address of HTTP conversion server.
+     */
+    public static final String PAR_SERVE = "serve";
+    /**
+     * Parameter name for maximum size of request body of HTTP conversion server.
+     */
+    public static final String PAR_MAX_REQUEST_SIZE = "maxRequestSize";
+    /**
+     * Parameter name for running conversions in virtual threads.
+     */
+    public static final String PAR_VIRTUAL_THREADS = "virtualThreads";
+    /**
+     * Parameter name for number of conversions in flight in virtual threads.
+     */
+    public static final String PAR_IN_FLIGHT = "inFlight";
 }
@@ -0,0 +1,225 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import de.odysseus.staxon.util.StreamWriterDelegate;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Delegate writer which collects paths of repeated elements while events are written.
+ * <p>Paths have the same format as paths returned by
+ * {@link com.fs.xml2json.util.XmlUtils#determineArrays(java.io.InputStream)}, so arrays found during
+ * conversion can be compared with arrays which have been used for conversion.
+ * <p>Writer with known arrays fails on the first repeated element which is not known, so conversion
+ * which would be wrong can be stopped early.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ArrayTrackingStreamWriter extends StreamWriterDelegate {
+
+    private static final String DELIM = "/";
+
+    private final Deque<Element> elements = new ArrayDeque<>();
+    private final Set<String> arrays = new LinkedHashSet<>();
+    private final Collection<String> knownArrays;
+
+    /**
+     * Creates writer which collects all repeated elements.
+     *
+     * @param parent delegate
+     */
+    public ArrayTrackingStreamWriter(XMLStreamWriter parent) {
+        this(parent, null);
+    }
+
+    /**
+     * Creates writer which fails with {@link UnknownArrayException} on the first repeated element which
+     * is not covered by <code>knownArrays</code>.
+     *
+     * @param parent delegate
+     * @param knownArrays absolute or relative paths of known arrays, <code>null</code> to collect all repeated
+     * elements
+     */
+    public ArrayTrackingStreamWriter(XMLStreamWriter parent, Collection<String> knownArrays) {
+        super(parent);
+        this.knownArrays = knownArrays;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        startElement(localName);
+        super.writeStartElement(localName);
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        startElement(localName);
+        super.writeStartElement(namespaceURI, localName);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        startElement(localName);
+        super.writeStartElement(prefix, localName, namespaceURI);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        startElement(localName);
+        elements.pop();
+        super.writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        startElement(localName);
+        elements.pop();
+        super.writeEmptyElement(namespaceURI, localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI)
+            throws XMLStreamException {
+        startElement(localName);
+        elements.pop();
+        super.writeEmptyElement(prefix, localName, namespaceURI);
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        elements.pop();
+        super.writeEndElement();
+    }
+
+    /**
+     * Registers element in its parent and remembers path if element is repeated.
+     *
+     * @param name local name of element
+     * @throws UnknownArrayException if element is repeated and it is not known array
+     */
+    private void startElement(String name) throws UnknownArrayException {
+        Element parent = elements.peek();
+        Element element;
+        if (null == parent) {
+            element = new Element(DELIM + name);
+        } else {
+            element = new Element(parent.path.toLowerCase() + DELIM + name);
+            if (null == parent.occurrences) {
+                parent.occurrences = new HashMap<>();
+            }
+            if (parent.occurrences.merge(element.path, 1, Integer::sum) == 2) {
+                arrays.add(element.path);
+                if (null != knownArrays && knownArrays.stream().noneMatch(known -> matches(element.path, known))) {
+                    throw new UnknownArrayException(element.path);
+                }
+            }
+        }
+        elements.push(element);
+    }
+
+    /**
+     * Returns paths of all repeated elements written so far.
+     *
+     * @return paths of arrays in order of detection
+     */
+    public Set<String> getArrays() {
+        return arrays;
+    }
+
+    /**
+     * Returns paths of repeated elements which are not covered by <code>knownArrays</code>.
+     * <p>Known arrays can be absolute (<code>/root/element</code>) or relative (<code>element</code>)
+     * paths, same as paths accepted by {@link de.odysseus.staxon.json.util.XMLMultipleStreamWriter}.
+     *
+     * @param knownArrays paths of known arrays
+     * @return paths of repeated elements which are not known as arrays
+     */
+    public Set<String> getUnknownArrays(Collection<String> knownArrays) {
+        return arrays.stream()
+                .filter(path -> knownArrays.stream().noneMatch(known -> matches(path, known)))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Returns <code>true</code> if path matches known array path.
+     *
+     * @param path path of element
+     * @param known absolute or relative path of array
+     * @return <code>true</code> if matches
+     */
+    private static boolean matches(String path, String known) {
+        if (known.startsWith(DELIM)) {
+            return path.equals(known);
+        }
+        return path.endsWith(DELIM + known);
+    }
+
+    /**
+     * Exception which is thrown when repeated element is not known array.
+     */
+    public static final class UnknownArrayException extends XMLStreamException {
+        private static final long serialVersionUID = 1L;
+
+        private final String path;
+
+        /**
+         * Constructor.
+         *
+         * @param path path of repeated element
+         */
+        UnknownArrayException(String path) {
+            super("Element '" + path + "' is repeated, but it is not known array");
+            this.path = path;
+        }
+
+        /**
+         * Returns path of repeated element.
+         *
+         * @return path of element
+         */
+        public String getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * Open element.
+     */
+    private static final class Element {
+        private final String path;
+        private Map<String, Integer> occurrences;
+
+        /**
+         * Constructor.
+         *
+         * @param path full path of element
+         */
+        Element(String path) {
+            this.path = path;
+        }
+    }
+}
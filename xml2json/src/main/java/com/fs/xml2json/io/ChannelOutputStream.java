@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output stream which collects bytes in a direct buffer and writes the buffer through {@link FileChannel}
+ * when it is full. Large buffer means few system calls, direct buffer is written without copying it
+ * to native memory first.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ChannelOutputStream extends OutputStream {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean closed;
+
+    /**
+     * Creates (or truncates) file.
+     *
+     * @param file output file
+     * @param bufferSize size of direct buffer in bytes, must be positive
+     * @throws IOException if file cannot be opened
+     */
+    public ChannelOutputStream(Path file, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int length = Math.min(remaining, buffer.remaining());
+            buffer.put(b, offset, length);
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Writes buffered bytes to file. Data is not forced to the storage device.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes buffer to channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void drain() throws IOException {
+        // cast keeps byte code compatible with Java 8 when compiled by newer JDK
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+}
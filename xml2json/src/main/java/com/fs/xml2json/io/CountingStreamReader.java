@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import java.util.Arrays;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Delegate reader which counts events while they are read: elements, attributes, text nodes, arrays
+ * (runs of repeated sibling elements) and maximal depth.
+ * <p>Time spent in parent reader is measured for every {@link #SAMPLE_INTERVAL}-th event only and
+ * extrapolated, so counting costs a few increments per event.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class CountingStreamReader extends StreamReaderDelegate {
+
+    /**
+     * Every N-th event is timed, power of two.
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    private String[] previousSiblings = new String[16];
+    private boolean[] repeated = new boolean[16];
+    private int depth;
+
+    private long events;
+    private long elements;
+    private long attributes;
+    private long textNodes;
+    private long arrays;
+    private int maxDepth;
+    private long sampledNanos;
+
+    /**
+     * Creates reader.
+     *
+     * @param parent delegate
+     */
+    public CountingStreamReader(XMLStreamReader parent) {
+        super(parent);
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int event;
+        if ((++events & (SAMPLE_INTERVAL - 1)) == 0) {
+            long start = System.nanoTime();
+            event = super.next();
+            sampledNanos += System.nanoTime() - start;
+        } else {
+            event = super.next();
+        }
+        switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                startElement();
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                depth--;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+                if (!isWhiteSpace()) {
+                    textNodes++;
+                }
+                break;
+            default:
+                break;
+        }
+        return event;
+    }
+
+    /**
+     * Counts started element, element with the name of its previous sibling starts or continues an array.
+     */
+    private void startElement() {
+        elements++;
+        attributes += getAttributeCount();
+        if (depth + 1 >= previousSiblings.length) {
+            previousSiblings = Arrays.copyOf(previousSiblings, previousSiblings.length * 2);
+            repeated = Arrays.copyOf(repeated, repeated.length * 2);
+        }
+        String name = getLocalName();
+        if (name.equals(previousSiblings[depth])) {
+            if (!repeated[depth]) {
+                repeated[depth] = true;
+                arrays++;
+            }
+        } else {
+            previousSiblings[depth] = name;
+            repeated[depth] = false;
+        }
+        depth++;
+        previousSiblings[depth] = null;
+        repeated[depth] = false;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Returns number of read events.
+     *
+     * @return number of events
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns number of started elements.
+     *
+     * @return number of elements
+     */
+    public long getElements() {
+        return elements;
+    }
+
+    /**
+     * Returns number of attributes of started elements.
+     *
+     * @return number of attributes
+     */
+    public long getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns number of text nodes which are not whitespace.
+     *
+     * @return number of text nodes
+     */
+    public long getTextNodes() {
+        return textNodes;
+    }
+
+    /**
+     * Returns number of arrays - runs of two or more sibling elements with the same name.
+     *
+     * @return number of arrays
+     */
+    public long getArrays() {
+        return arrays;
+    }
+
+    /**
+     * Returns maximal depth of elements, the root element has depth 1.
+     *
+     * @return maximal depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns estimated time spent in parent reader, extrapolated from timed events.
+     *
+     * @return nanoseconds
+     */
+    public long getParseNanos() {
+        return sampledNanos * SAMPLE_INTERVAL;
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream which reads file through memory-mapped windows. Bytes are copied from the page cache
+ * directly, without system calls per read and without an intermediate buffer.
+ * <p>File is mapped by windows, so files larger than 2 GB (limit of {@link MappedByteBuffer}) are
+ * supported. Previous window is released when it is garbage collected.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class MappedFileInputStream extends InputStream {
+
+    /**
+     * Default size of mapped window - 256 MB.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowPosition;
+
+    /**
+     * Opens file with default window size.
+     *
+     * @param file file to read
+     * @throws IOException if file cannot be opened
+     */
+    public MappedFileInputStream(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens file.
+     *
+     * @param file file to read
+     * @param windowSize number of bytes mapped at once, must be positive
+     * @throws IOException if file cannot be opened
+     */
+    public MappedFileInputStream(Path file, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Returns position of the next byte to read.
+     *
+     * @return position in file
+     */
+    public long getPosition() {
+        return null == window ? 0 : windowPosition + window.position();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!hasRemaining()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!hasRemaining()) {
+            return -1;
+        }
+        int read = Math.min(len, window.remaining());
+        window.get(b, off, read);
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = Math.max(0, Math.min(n, size - getPosition()));
+        if (skipped > 0) {
+            map(getPosition() + skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(size - getPosition(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Maps next window if current window has been read.
+     *
+     * @return <code>false</code> if the end of file is reached
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean hasRemaining() throws IOException {
+        if (null != window && window.hasRemaining()) {
+            return true;
+        }
+        long position = getPosition();
+        if (position >= size) {
+            return false;
+        }
+        map(position);
+        return true;
+    }
+
+    /**
+     * Maps window which starts at position.
+     *
+     * @param position position in file
+     * @throws IOException if an I/O error occurs
+     */
+    private void map(long position) throws IOException {
+        windowPosition = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+    }
+}
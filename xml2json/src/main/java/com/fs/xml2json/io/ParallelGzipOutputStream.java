@@ -0,0 +1,244 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream which compresses data to gzip format in several threads.
+ * <p>Data is cut into blocks, every block is compressed independently into its own gzip member and members
+ * are written in order of blocks. Concatenated members are valid gzip file (RFC 1952) which is read by
+ * {@link java.util.zip.GZIPInputStream} and <code>gunzip</code> as a whole. Compressed file is a bit bigger
+ * than file compressed in one stream, because blocks do not share dictionary.
+ * <p>At most two blocks per thread are kept in memory.
+ * <p>Blocks can be compressed by executor which is shared by several streams, so number of compressing
+ * threads does not grow with number of streams written at a time.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * Default size of block - 1 MB.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final OutputStream output;
+    private final ExecutorService executor;
+    private final boolean isOwnExecutor;
+    private final int maxPendingBlocks;
+    private final int blockSize;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private byte[] block;
+    private int count;
+    private boolean isWritten;
+    private boolean closed;
+
+    /**
+     * Creates stream with blocks of {@link #DEFAULT_BLOCK_SIZE}.
+     *
+     * @param output stream for compressed data
+     * @param threads number of threads which compress blocks, <code>1</code> to compress in caller thread
+     */
+    public ParallelGzipOutputStream(OutputStream output, int threads) {
+        this(output, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates stream.
+     *
+     * @param output stream for compressed data
+     * @param threads number of threads which compress blocks, <code>1</code> to compress in caller thread
+     * @param blockSize size of uncompressed block in bytes
+     */
+    public ParallelGzipOutputStream(OutputStream output, int threads, int blockSize) {
+        this(output, threads == 1 ? null : Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "GzipWorker-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), threads, blockSize, true);
+    }
+
+    /**
+     * Creates stream with blocks of {@link #DEFAULT_BLOCK_SIZE} which compresses blocks by shared executor,
+     * executor is not shut down when stream is closed.
+     *
+     * @param output stream for compressed data
+     * @param executor executor which compresses blocks, <code>null</code> to compress in caller thread
+     * @param threads number of threads of executor, at most two blocks per thread are kept in memory
+     */
+    public ParallelGzipOutputStream(OutputStream output, ExecutorService executor, int threads) {
+        this(output, executor, threads, DEFAULT_BLOCK_SIZE, false);
+    }
+
+    /**
+     * Creates stream.
+     *
+     * @param output stream for compressed data
+     * @param executor executor which compresses blocks, <code>null</code> to compress in caller thread
+     * @param threads number of threads of executor
+     * @param blockSize size of uncompressed block in bytes
+     * @param isOwnExecutor <code>true</code> to shut down executor when stream is closed
+     */
+    private ParallelGzipOutputStream(OutputStream output, ExecutorService executor, int threads, int blockSize,
+            boolean isOwnExecutor) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.output = output;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = threads * 2;
+        this.executor = executor;
+        this.isOwnExecutor = isOwnExecutor;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == blockSize) {
+            submitBlock();
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (count == blockSize) {
+                submitBlock();
+            }
+            int length = Math.min(remaining, blockSize - count);
+            System.arraycopy(b, offset, block, count, length);
+            count += length;
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Writes compressed blocks which are ready. Bytes of incomplete block are not compressed
+     * until the block is full or stream is closed.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peek().isDone()) {
+            writeBlock(pendingBlocks.poll());
+        }
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (count > 0 || !isWritten) {
+                // empty data is written as one empty member
+                submitBlock();
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.poll());
+            }
+        } finally {
+            // shared executor keeps running, so blocks which are not written any more are cancelled
+            pendingBlocks.forEach(pending -> pending.cancel(true));
+            pendingBlocks.clear();
+            if (isOwnExecutor && null != executor) {
+                executor.shutdownNow();
+            }
+            output.close();
+        }
+    }
+
+    /**
+     * Compresses current block (in pool if there is one) and writes the oldest blocks
+     * while there are too many pending blocks.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void submitBlock() throws IOException {
+        isWritten = true;
+        byte[] data = block;
+        int length = count;
+        if (null == executor) {
+            output.write(compress(data, length));
+        } else {
+            pendingBlocks.add(executor.submit(() -> compress(data, length)));
+            while (pendingBlocks.size() >= maxPendingBlocks) {
+                writeBlock(pendingBlocks.poll());
+            }
+        }
+        block = null == executor ? block : new byte[blockSize];
+        count = 0;
+    }
+
+    /**
+     * Waits until block is compressed and writes it.
+     *
+     * @param compressedBlock compressed block
+     * @throws IOException if an I/O error occurs, compression failed or waiting has been interrupted
+     */
+    private void writeBlock(Future<byte[]> compressedBlock) throws IOException {
+        try {
+            output.write(compressedBlock.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            throw new IOException("Cannot compress block", ex.getCause());
+        }
+    }
+
+    /**
+     * Compresses data into one gzip member.
+     *
+     * @param data data to compress
+     * @param length number of bytes to compress
+     * @return gzip member
+     * @throws IOException if an I/O error occurs
+     */
+    private static byte[] compress(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream member = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(member, Math.max(512, Math.min(length, 64 * 1024)))) {
+            gzip.write(data, 0, length);
+        }
+        return member.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.json.stream.util.StreamTargetDelegate;
+import java.io.IOException;
+
+/**
+ * Delegate target which marks positions of records - elements of the array of the root element's
+ * field - in the output. Used for stitching JSON of XML-chunks converted separately.
+ * <p>Output of the target which is not the first writes a <code>null</code> element in front of
+ * records, so records between marked positions start with the array separator and can be
+ * appended to records of the previous chunk as is.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class RecordArrayTarget extends StreamTargetDelegate {
+
+    private final String recordName;
+    private final boolean first;
+    private final CountingOutputStream output;
+
+    private int depth;
+    private String field;
+    private boolean started;
+    private boolean finished;
+    private boolean unexpected;
+    private long start = -1;
+    private long end = -1;
+
+    /**
+     * Creates target.
+     *
+     * @param delegate delegate target which writes to <code>output</code>
+     * @param recordName JSON name of records
+     * @param first <code>true</code> if records are the first records of document
+     * @param output output of delegate
+     */
+    public RecordArrayTarget(JsonStreamTarget delegate, String recordName, boolean first,
+            CountingOutputStream output) {
+        super(delegate);
+        this.recordName = recordName;
+        this.first = first;
+        this.output = output;
+    }
+
+    @Override
+    public void name(String name) throws IOException {
+        if (depth == 2) {
+            field = name;
+            unexpected |= finished;
+        }
+        super.name(name);
+    }
+
+    @Override
+    public void startObject() throws IOException {
+        depth++;
+        super.startObject();
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        depth--;
+        super.endObject();
+    }
+
+    @Override
+    public void startArray() throws IOException {
+        super.startArray();
+        if (depth++ == 2 && recordName.equals(field)) {
+            if (started) {
+                unexpected = true;
+                return;
+            }
+            started = true;
+            if (!first) {
+                super.value(null);
+            }
+            flush();
+            start = output.getCount();
+        }
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        if (--depth == 2 && started && !finished) {
+            flush();
+            end = output.getCount();
+            finished = true;
+        }
+        super.endArray();
+    }
+
+    /**
+     * Returns <code>true</code> if the array of records has been written.
+     *
+     * @return <code>true</code> if positions of records are known
+     */
+    public boolean isRecordsFound() {
+        return finished;
+    }
+
+    /**
+     * Returns <code>true</code> if root element has fields after records, e.g. records
+     * are interrupted by other elements.
+     *
+     * @return <code>true</code> if output has fields after records
+     */
+    public boolean hasFieldsAfterRecords() {
+        return unexpected;
+    }
+
+    /**
+     * Returns position in output where records start.
+     *
+     * @return position or <code>-1</code>
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns position in output where records end.
+     *
+     * @return position or <code>-1</code>
+     */
+    public long getEnd() {
+        return end;
+    }
+}
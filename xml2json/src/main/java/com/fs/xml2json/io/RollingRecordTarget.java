@@ -0,0 +1,251 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.io;
+
+import com.fs.xml2json.type.FileTypeEnum;
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.json.stream.util.RecordTarget;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Target which writes repeated records to rolling part files (<code>out-00001.json</code>,
+ * <code>out-00002.json</code>, ...) next to the output file. Content outside of records is written to
+ * the output file.
+ * <p>Every part is a standalone document with the enclosing objects of records and the array of records,
+ * a part is finished when it has the maximal number of records or bytes. Parts are written under hidden
+ * names (starting with dot) and renamed when they are finished, so a part which has its name is complete
+ * and can be loaded before the conversion ends.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class RollingRecordTarget extends RecordTarget {
+
+    /**
+     * Format of number of part.
+     */
+    private static final String NUMBER_FORMAT = "-%05d";
+
+    /**
+     * Opens output stream of part file.
+     */
+    @FunctionalInterface
+    public interface PartOpener {
+
+        /**
+         * Opens output stream.
+         *
+         * @param partFile file to write, hidden name of part has the extension of output file
+         * @return output stream
+         * @throws IOException if an I/O error occurs
+         */
+        OutputStream open(File partFile) throws IOException;
+    }
+
+    private final JsonStreamFactory factory;
+    private final boolean pretty;
+    private final File outputFile;
+    private final int maxRecords;
+    private final long maxBytes;
+    private final PartOpener opener;
+    private final List<File> parts = new ArrayList<>();
+
+    // current part
+    private File partFile;
+    private CountingOutputStream output;
+    private JsonStreamTarget target;
+    private List<String> names;
+    private int records;
+
+    /**
+     * Creates target.
+     *
+     * @param delegate target of output file, receives content outside of records
+     * @param path absolute or relative path of records
+     * @param factory factory of targets of parts
+     * @param pretty <code>true</code> if parts are pretty-printed
+     * @param outputFile output file, parts are named after it
+     * @param maxRecords maximal number of records in part, 0 for no limit
+     * @param maxBytes maximal (uncompressed) size of part, 0 for no limit, the record which exceeds
+     *        the limit is the last one of the part
+     * @param opener opener of output streams of parts
+     */
+    public RollingRecordTarget(JsonStreamTarget delegate, String path, JsonStreamFactory factory, boolean pretty,
+            File outputFile, int maxRecords, long maxBytes, PartOpener opener) {
+        super(delegate, path);
+        this.factory = factory;
+        this.pretty = pretty;
+        this.outputFile = outputFile;
+        this.maxRecords = maxRecords > 0 ? maxRecords : Integer.MAX_VALUE;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        this.opener = opener;
+    }
+
+    /**
+     * Returns file of part with given number, number is inserted in front of extension of output file
+     * (<code>out.json.gz</code> - <code>out-00001.json.gz</code>).
+     *
+     * @param outputFile output file
+     * @param number number of part, starting with 1
+     * @return part file
+     */
+    public static File getPartFile(File outputFile, int number) {
+        String name = outputFile.getName();
+        int end = FileTypeEnum.isCompressed(name) ? name.length() - FileTypeEnum.GZIP_EXTENSION.length()
+                : name.length();
+        int dot = name.lastIndexOf('.', end - 1);
+        if (dot <= 0) {
+            dot = end;
+        }
+        return new File(outputFile.getAbsoluteFile().getParentFile(),
+                name.substring(0, dot) + String.format(NUMBER_FORMAT, number) + name.substring(dot));
+    }
+
+    /**
+     * Returns finished parts.
+     *
+     * @return part files in order of records
+     */
+    public List<File> getParts() {
+        return Collections.unmodifiableList(parts);
+    }
+
+    @Override
+    protected JsonStreamTarget startRecord() throws IOException {
+        if (null != target && !names.equals(getNames())) {
+            finishPart(); // records of another field, part has single array of records
+        }
+        if (null == target) {
+            startPart();
+        }
+        return target;
+    }
+
+    @Override
+    protected void endRecord(JsonStreamTarget record) throws IOException {
+        if (maxBytes != Long.MAX_VALUE) {
+            target.flush(); // counts bytes buffered by target, output stream is not flushed
+        }
+        if (++records >= maxRecords || output.getCount() >= maxBytes) {
+            finishPart();
+        }
+    }
+
+    /**
+     * Starts next part with the enclosing objects and the array of records.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void startPart() throws IOException {
+        File file = getPartFile(outputFile, parts.size() + 1);
+        partFile = new File(file.getParentFile(), "." + file.getName());
+        output = new CountingOutputStream(new UnflushedOutputStream(opener.open(partFile)));
+        target = factory.createJsonStreamTarget(output, pretty);
+        names = new ArrayList<>(getNames());
+        records = 0;
+        target.startObject();
+        for (int i = 0; i < names.size(); i++) {
+            target.name(names.get(i));
+            if (i < names.size() - 1) {
+                target.startObject();
+            }
+        }
+        target.startArray();
+    }
+
+    /**
+     * Ends the array of records and the enclosing objects of current part and gives part its name.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void finishPart() throws IOException {
+        target.endArray();
+        for (int i = 0; i < names.size(); i++) {
+            target.endObject();
+        }
+        target.close();
+        output.close();
+        target = null;
+        File file = getPartFile(outputFile, parts.size() + 1);
+        Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        parts.add(file);
+    }
+
+    /**
+     * Closes unfinished part and deletes it, used if conversion fails.
+     */
+    public void discard() {
+        if (null == target) {
+            return;
+        }
+        target = null;
+        try {
+            output.close();
+        } catch (IOException ex) {
+            // part is deleted anyway
+        }
+        partFile.delete();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null != target) {
+            finishPart();
+        }
+        // parts of previous conversion to the same output
+        for (int number = parts.size() + 1; getPartFile(outputFile, number).delete(); number++) {
+            // next part
+        }
+        super.close();
+    }
+
+    /**
+     * Output stream which is flushed only when it is closed, so flushing target after every record
+     * does not write buffered data to file.
+     */
+    private static final class UnflushedOutputStream extends FilterOutputStream {
+
+        /**
+         * Creates stream.
+         *
+         * @param output target stream
+         */
+        UnflushedOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            // target stream is flushed when it is closed
+        }
+    }
+}
@@ -31,7 +31,8 @@ public abstract class AbstractFileReadListener implements IFileReadListener {
 
     private long readBytes;
     private long buffer;
-    private final long fileSize;
+    private long fileSize;
+    private final long sourceFileSize;
 
     // helper variable for XML, when we need to read file twice
     private int numberOfReads = 1;
@@ -42,15 +43,28 @@ public abstract class AbstractFileReadListener implements IFileReadListener {
      * @param sourceFile source file
      */
     public AbstractFileReadListener(File sourceFile) {
+        this.sourceFileSize = sourceFile.length();
         FileTypeEnum fileType = FileTypeEnum.parseByFileName(sourceFile.getName());
         if (fileType == FileTypeEnum.XML) {
-            this.fileSize = sourceFile.length() * 2;
-            this.numberOfReads += 1;    // XML file will be read twice (first time - for determining arrays)
+            setNumberOfReads(2);    // XML file will be read twice (first time - for determining arrays)
         } else {
-            this.fileSize = sourceFile.length();
+            setNumberOfReads(1);
         }
     }
 
+    /**
+     * Sets number of reads, recalculates total number of bytes to read and starts progress from 0%.
+     *
+     * @param numberOfReads number of times source file will be read
+     */
+    @Override
+    public final void setNumberOfReads(int numberOfReads) {
+        this.numberOfReads = numberOfReads;
+        this.fileSize = sourceFileSize * numberOfReads;
+        this.readBytes = 0;
+        this.buffer = 0;
+    }
+
     /**
      * Will update listener each 1% of data.
      *
@@ -0,0 +1,51 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.fs.xml2json.listener;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener which adds read bytes to a counter shared by several conversions, e.g. when files are
+ * converted simultaneously and per-file progress bars would be mixed up in command line.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class CountingFileReadListener implements IFileReadListener {
+
+    private final LongAdder readBytes;
+
+    /**
+     * Creates listener.
+     *
+     * @param readBytes shared counter of read bytes
+     */
+    public CountingFileReadListener(LongAdder readBytes) {
+        this.readBytes = Objects.requireNonNull(readBytes, "Counter must be not null");
+    }
+
+    @Override
+    public void update(int bytes) {
+        readBytes.add(bytes);
+    }
+
+    @Override
+    public void finished() {
+        // nothing to do
+    }
+}
@@ -35,4 +35,15 @@ public interface IFileReadListener {
      * Updates listener about finishing file processing.
      */
     void finished();
+
+    /**
+     * Updates listener about number of times source file will be read.
+     * <p>By default XML files are read twice (first time - for determining arrays).
+     * Called before file is read, progress is counted from the beginning after the call.
+     *
+     * @param numberOfReads number of reads
+     */
+    default void setNumberOfReads(int numberOfReads) {
+        // nothing to do
+    }
 }
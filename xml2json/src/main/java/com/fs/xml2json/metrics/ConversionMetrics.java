@@ -0,0 +1,194 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Cumulative metrics of conversions. Conversions record their metrics once when finished, so
+ * values can be collected in production without slowing down conversion.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionMetrics implements ConversionMetricsMXBean {
+
+    /**
+     * Name under which metrics of shared engine are registered.
+     */
+    public static final String OBJECT_NAME = "com.fs.xml2json:type=ConversionMetrics";
+
+    private final LongAdder conversions = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder attributes = new LongAdder();
+    private final LongAdder textNodes = new LongAdder();
+    private final LongAdder arrays = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder preScanNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder gcTime = new LongAdder();
+    private final AtomicReference<ConversionStatistics> lastConversion = new AtomicReference<>();
+
+    /**
+     * Adds metrics of finished conversion.
+     *
+     * @param statistics metrics of conversion
+     */
+    public void record(ConversionStatistics statistics) {
+        conversions.increment();
+        bytesIn.add(statistics.getBytesIn());
+        bytesOut.add(statistics.getBytesOut());
+        events.add(statistics.getEvents());
+        elements.add(statistics.getElements());
+        attributes.add(statistics.getAttributes());
+        textNodes.add(statistics.getTextNodes());
+        arrays.add(statistics.getArrays());
+        maxDepth.accumulate(statistics.getMaxDepth());
+        preScanNanos.add(statistics.getPreScanNanos());
+        parseNanos.add(statistics.getParseNanos());
+        writeNanos.add(statistics.getWriteNanos());
+        gcTime.add(statistics.getGcTime());
+        lastConversion.set(statistics);
+    }
+
+    /**
+     * Registers metrics in platform MBean server.
+     *
+     * @param name object name
+     * @throws JMException if metrics can not be registered
+     */
+    public void register(ObjectName name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    }
+
+    /**
+     * Unregisters metrics from platform MBean server.
+     *
+     * @param name object name
+     * @throws JMException if metrics can not be unregistered
+     */
+    public void unregister(ObjectName name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Override
+    public long getConversions() {
+        return conversions.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getEvents() {
+        return events.sum();
+    }
+
+    @Override
+    public long getElements() {
+        return elements.sum();
+    }
+
+    @Override
+    public long getAttributes() {
+        return attributes.sum();
+    }
+
+    @Override
+    public long getTextNodes() {
+        return textNodes.sum();
+    }
+
+    @Override
+    public long getArrays() {
+        return arrays.sum();
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return (int) maxDepth.get();
+    }
+
+    @Override
+    public long getPreScanTime() {
+        return TimeUnit.NANOSECONDS.toMillis(preScanNanos.sum());
+    }
+
+    @Override
+    public long getParseTime() {
+        return TimeUnit.NANOSECONDS.toMillis(parseNanos.sum());
+    }
+
+    @Override
+    public long getWriteTime() {
+        return TimeUnit.NANOSECONDS.toMillis(writeNanos.sum());
+    }
+
+    @Override
+    public long getGcTime() {
+        return gcTime.sum();
+    }
+
+    @Override
+    public long getEventsPerSecond() {
+        return ConversionStatistics.eventsPerSecond(events.sum(), parseNanos.sum() + writeNanos.sum());
+    }
+
+    @Override
+    public ConversionStatistics getLastConversion() {
+        return lastConversion.get();
+    }
+
+    @Override
+    public void reset() {
+        conversions.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+        events.reset();
+        elements.reset();
+        attributes.reset();
+        textNodes.reset();
+        arrays.reset();
+        maxDepth.reset();
+        preScanNanos.reset();
+        parseNanos.reset();
+        writeNanos.reset();
+        gcTime.reset();
+        lastConversion.set(null);
+    }
+}
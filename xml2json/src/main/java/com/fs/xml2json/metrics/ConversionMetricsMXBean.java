@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.metrics;
+
+/**
+ * Management interface of conversion metrics, values are accumulated over all finished conversions.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public interface ConversionMetricsMXBean {
+
+    /**
+     * Returns number of finished conversions.
+     *
+     * @return number of conversions
+     */
+    long getConversions();
+
+    /**
+     * Returns size of converted source files.
+     *
+     * @return number of bytes
+     */
+    long getBytesIn();
+
+    /**
+     * Returns size of written output files.
+     *
+     * @return number of bytes
+     */
+    long getBytesOut();
+
+    /**
+     * Returns number of read events.
+     *
+     * @return number of events
+     */
+    long getEvents();
+
+    /**
+     * Returns number of converted elements.
+     *
+     * @return number of elements
+     */
+    long getElements();
+
+    /**
+     * Returns number of converted attributes.
+     *
+     * @return number of attributes
+     */
+    long getAttributes();
+
+    /**
+     * Returns number of converted text nodes.
+     *
+     * @return number of text nodes
+     */
+    long getTextNodes();
+
+    /**
+     * Returns number of converted arrays.
+     *
+     * @return number of arrays
+     */
+    long getArrays();
+
+    /**
+     * Returns maximal depth of elements over all conversions.
+     *
+     * @return maximal depth
+     */
+    int getMaxDepth();
+
+    /**
+     * Returns time of determining arrays.
+     *
+     * @return milliseconds
+     */
+    long getPreScanTime();
+
+    /**
+     * Returns estimated time of reading sources.
+     *
+     * @return milliseconds
+     */
+    long getParseTime();
+
+    /**
+     * Returns estimated time of writing output.
+     *
+     * @return milliseconds
+     */
+    long getWriteTime();
+
+    /**
+     * Returns time spent in garbage collection during conversions.
+     *
+     * @return milliseconds
+     */
+    long getGcTime();
+
+    /**
+     * Returns number of events read per second of reading and writing.
+     *
+     * @return events per second
+     */
+    long getEventsPerSecond();
+
+    /**
+     * Returns metrics of last finished conversion.
+     *
+     * @return metrics or <code>null</code> if nothing has been converted
+     */
+    ConversionStatistics getLastConversion();
+
+    /**
+     * Resets all values.
+     */
+    void reset();
+}
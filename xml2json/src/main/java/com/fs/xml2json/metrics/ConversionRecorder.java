@@ -0,0 +1,205 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.metrics;
+
+import com.fs.xml2json.io.CountingStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Collects metrics of one file conversion, which may read the file several times (determining arrays,
+ * converting again after drift of arrays). Not thread-safe, used by the thread which converts the file.
+ * <p>Conversion, determining arrays and flushing of output are also emitted as flight recorder events
+ * (category <code>xml2json</code>) if JVM has flight recorder (Java 8u262 and later). Events are created
+ * once per phase and cost nothing but a check when recording is off.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class ConversionRecorder {
+
+    private static final boolean FLIGHT_RECORDER = isFlightRecorderAvailable();
+
+    private final String fileName;
+    private final ConversionEvent conversionEvent;
+    private final long startNanos = System.nanoTime();
+    private final long startGcTime = getGcTime();
+
+    private long partBytes;
+    private long events;
+    private long elements;
+    private long attributes;
+    private long textNodes;
+    private long arrays;
+    private int maxDepth;
+    private long preScanNanos;
+    private long parseNanos;
+    private long writeNanos;
+
+    private long phaseStart;
+    private PreScanEvent preScanEvent;
+    private OutputFlushEvent outputFlushEvent;
+
+    /**
+     * Starts recording of conversion.
+     *
+     * @param fileName name of file to convert, <code>null</code> for streams
+     */
+    public ConversionRecorder(String fileName) {
+        this.fileName = fileName;
+        if (FLIGHT_RECORDER) {
+            conversionEvent = new ConversionEvent();
+            conversionEvent.begin();
+        } else {
+            conversionEvent = null;
+        }
+    }
+
+    /**
+     * Starts determining arrays.
+     */
+    public void startPreScan() {
+        if (FLIGHT_RECORDER) {
+            preScanEvent = new PreScanEvent();
+            preScanEvent.begin();
+        }
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Ends determining arrays.
+     *
+     * @param bytes size of scanned file
+     * @param arrays number of found arrays
+     */
+    public void endPreScan(long bytes, int arrays) {
+        preScanNanos += System.nanoTime() - phaseStart;
+        if (null != preScanEvent && preScanEvent.shouldCommit()) {
+            preScanEvent.fileName = fileName;
+            preScanEvent.bytes = bytes;
+            preScanEvent.arrays = arrays;
+            preScanEvent.commit();
+        }
+        preScanEvent = null;
+    }
+
+    /**
+     * Starts flushing and closing of writer.
+     */
+    public void startOutputFlush() {
+        if (FLIGHT_RECORDER) {
+            outputFlushEvent = new OutputFlushEvent();
+            outputFlushEvent.begin();
+        }
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Ends flushing and closing of writer, time of flushing is time of writing.
+     *
+     * @param bytes number of bytes written to output
+     */
+    public void endOutputFlush(long bytes) {
+        writeNanos += System.nanoTime() - phaseStart;
+        if (null != outputFlushEvent && outputFlushEvent.shouldCommit()) {
+            outputFlushEvent.fileName = fileName;
+            outputFlushEvent.bytes = bytes;
+            outputFlushEvent.elements = elements;
+            outputFlushEvent.commit();
+        }
+        outputFlushEvent = null;
+    }
+
+    /**
+     * Adds copying of reader to writer. Counts of file which is converted again replace counts of previous
+     * conversion, times are added. Time of copying which has not been spent in reader is time of writing.
+     *
+     * @param reader counting reader, <code>null</code> if events have not been counted
+     * @param nanos time of copying
+     */
+    public void addCopy(CountingStreamReader reader, long nanos) {
+        long parse = 0;
+        if (null != reader) {
+            events = reader.getEvents();
+            elements = reader.getElements();
+            attributes = reader.getAttributes();
+            textNodes = reader.getTextNodes();
+            arrays = reader.getArrays();
+            maxDepth = reader.getMaxDepth();
+            parse = Math.min(reader.getParseNanos(), nanos);
+        }
+        parseNanos += parse;
+        writeNanos += nanos - parse;
+    }
+
+    /**
+     * Sets size of files written besides output file (parts of rolling output).
+     *
+     * @param bytes number of bytes
+     */
+    public void setPartBytes(long bytes) {
+        partBytes = bytes;
+    }
+
+    /**
+     * Finishes recording.
+     *
+     * @param bytesIn size of source
+     * @param bytesOut size of output, without parts
+     * @return metrics of conversion
+     */
+    public ConversionStatistics finish(long bytesIn, long bytesOut) {
+        if (null != conversionEvent && conversionEvent.shouldCommit()) {
+            conversionEvent.fileName = fileName;
+            conversionEvent.bytesIn = bytesIn;
+            conversionEvent.bytesOut = partBytes + bytesOut;
+            conversionEvent.elements = elements;
+            conversionEvent.events = events;
+            conversionEvent.commit();
+        }
+        return new ConversionStatistics(fileName, bytesIn, partBytes + bytesOut,
+                events, elements, attributes, textNodes, arrays, maxDepth, preScanNanos, parseNanos, writeNanos,
+                System.nanoTime() - startNanos, Math.max(0, getGcTime() - startGcTime));
+    }
+
+    /**
+     * Returns accumulated time of all garbage collectors.
+     *
+     * @return milliseconds
+     */
+    private static long getGcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Checks whether JVM has flight recorder API, event classes are loaded only if it exists.
+     *
+     * @return <code>true</code> if events can be emitted
+     */
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ConversionRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of one file conversion. Counts of events are zero for conversions which do not read events
+ * in one stream (split into chunks or JSON Lines input).
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class ConversionStatistics {
+
+    private final String fileName;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final long events;
+    private final long elements;
+    private final long attributes;
+    private final long textNodes;
+    private final long arrays;
+    private final int maxDepth;
+    private final long preScanNanos;
+    private final long parseNanos;
+    private final long writeNanos;
+    private final long totalNanos;
+    private final long gcTime;
+
+    /**
+     * Creates statistics.
+     *
+     * @param fileName name of source file
+     * @param bytesIn size of source file
+     * @param bytesOut size of output files
+     * @param events number of read events
+     * @param elements number of elements
+     * @param attributes number of attributes
+     * @param textNodes number of text nodes which are not whitespace
+     * @param arrays number of runs of repeated sibling elements
+     * @param maxDepth maximal depth of elements
+     * @param preScanNanos time of determining arrays before conversion
+     * @param parseNanos time of reading source
+     * @param writeNanos time of writing output
+     * @param totalNanos time of conversion
+     * @param gcTime milliseconds spent in garbage collection during conversion
+     */
+    ConversionStatistics(String fileName, long bytesIn, long bytesOut, long events, long elements, long attributes,
+            long textNodes, long arrays, int maxDepth, long preScanNanos, long parseNanos, long writeNanos,
+            long totalNanos, long gcTime) {
+        this.fileName = fileName;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.events = events;
+        this.elements = elements;
+        this.attributes = attributes;
+        this.textNodes = textNodes;
+        this.arrays = arrays;
+        this.maxDepth = maxDepth;
+        this.preScanNanos = preScanNanos;
+        this.parseNanos = parseNanos;
+        this.writeNanos = writeNanos;
+        this.totalNanos = totalNanos;
+        this.gcTime = gcTime;
+    }
+
+    /**
+     * Returns name of source file.
+     *
+     * @return file name, <code>null</code> for streams
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns size of source file.
+     *
+     * @return number of bytes
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Returns size of output file and its parts.
+     *
+     * @return number of bytes
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * Returns number of read events.
+     *
+     * @return number of events
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns number of elements.
+     *
+     * @return number of elements
+     */
+    public long getElements() {
+        return elements;
+    }
+
+    /**
+     * Returns number of attributes.
+     *
+     * @return number of attributes
+     */
+    public long getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns number of text nodes which are not whitespace.
+     *
+     * @return number of text nodes
+     */
+    public long getTextNodes() {
+        return textNodes;
+    }
+
+    /**
+     * Returns number of arrays (runs of repeated sibling elements).
+     *
+     * @return number of arrays
+     */
+    public long getArrays() {
+        return arrays;
+    }
+
+    /**
+     * Returns maximal depth of elements, the root element has depth 1.
+     *
+     * @return maximal depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns time of determining arrays before conversion.
+     *
+     * @return milliseconds
+     */
+    public long getPreScanTime() {
+        return TimeUnit.NANOSECONDS.toMillis(preScanNanos);
+    }
+
+    /**
+     * Returns estimated time of reading source.
+     *
+     * @return milliseconds
+     */
+    public long getParseTime() {
+        return TimeUnit.NANOSECONDS.toMillis(parseNanos);
+    }
+
+    /**
+     * Returns estimated time of writing output.
+     *
+     * @return milliseconds
+     */
+    public long getWriteTime() {
+        return TimeUnit.NANOSECONDS.toMillis(writeNanos);
+    }
+
+    /**
+     * Returns time of conversion.
+     *
+     * @return milliseconds
+     */
+    public long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+    }
+
+    /**
+     * Returns time spent in garbage collection during conversion, collections caused by simultaneous
+     * conversions are included.
+     *
+     * @return milliseconds
+     */
+    public long getGcTime() {
+        return gcTime;
+    }
+
+    /**
+     * Returns number of events read per second of reading and writing.
+     *
+     * @return events per second, <code>0</code> if no events have been counted
+     */
+    public long getEventsPerSecond() {
+        return eventsPerSecond(events, parseNanos + writeNanos);
+    }
+
+    /**
+     * Returns time of determining arrays.
+     *
+     * @return nanoseconds
+     */
+    long getPreScanNanos() {
+        return preScanNanos;
+    }
+
+    /**
+     * Returns estimated time of reading source.
+     *
+     * @return nanoseconds
+     */
+    long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Returns estimated time of writing output.
+     *
+     * @return nanoseconds
+     */
+    long getWriteNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * Calculates rate of events.
+     *
+     * @param events number of events
+     * @param nanos time of events
+     * @return events per second, <code>0</code> if time is zero
+     */
+    static long eventsPerSecond(long events, long nanos) {
+        return nanos > 0 ? (long) (events * (double) TimeUnit.SECONDS.toNanos(1) / nanos) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{fileName=%s, bytesIn=%d, bytesOut=%d, events=%d, elements=%d, attributes=%d, "
+                + "textNodes=%d, arrays=%d, maxDepth=%d, preScanTime=%d, parseTime=%d, writeTime=%d, totalTime=%d, "
+                + "gcTime=%d}", fileName, bytesIn, bytesOut, events, elements, attributes, textNodes, arrays,
+                maxDepth, getPreScanTime(), getParseTime(), getWriteTime(), getTotalTime(), gcTime);
+    }
+}
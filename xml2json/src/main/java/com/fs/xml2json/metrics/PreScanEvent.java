@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of determining arrays before conversion.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+@Name("com.fs.xml2json.PreScan")
+@Label("Determine Arrays")
+@Category("xml2json")
+@Description("Reading of XML-file which determines arrays before conversion")
+@StackTrace(false)
+class PreScanEvent extends Event {
+
+    @Label("File Name")
+    String fileName;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Arrays")
+    int arrays;
+}
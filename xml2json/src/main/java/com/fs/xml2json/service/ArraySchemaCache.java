@@ -0,0 +1,326 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.util.XmlUtils;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of array paths for XML-files with the same structure.
+ * <p>Files are identified by {@link Key}: name of the root element and fingerprint of element paths
+ * found in the first bytes of the file (of decompressed data for compressed files). Arrays are stored
+ * in the cache folder as text files, one path per line, so cache entries can be reviewed and edited
+ * by hand (same format is used for hint files, see {@link #readPaths(File)}).
+ *
+ * <p>Instances are thread-safe.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ArraySchemaCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArraySchemaCache.class);
+
+    /**
+     * Default number of bytes which are used for fingerprint - 64 KB.
+     */
+    public static final int DEFAULT_FINGERPRINT_SIZE = 64 * 1024;
+
+    private static final String FILE_EXTENSION = ".arrays";
+    private static final String COMMENT = "#";
+    private static final int FINGERPRINT_LENGTH = 16;
+
+    private final File folder;
+    private final int fingerprintSize;
+    private final Map<Key, List<String>> schemas = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder drifts = new LongAdder();
+
+    /**
+     * Creates cache.
+     *
+     * @param folder folder for cache files, will be created if not exists
+     * @param fingerprintSize number of bytes from the beginning of file which are used for fingerprint
+     */
+    public ArraySchemaCache(File folder, int fingerprintSize) {
+        this.folder = Objects.requireNonNull(folder, "Folder must be not null");
+        if (fingerprintSize <= 0) {
+            throw new IllegalArgumentException("Fingerprint size must be positive: " + fingerprintSize);
+        }
+        this.fingerprintSize = fingerprintSize;
+    }
+
+    /**
+     * Creates key for XML-file, compressed file (<code>.xml.gz</code>) is decompressed.
+     *
+     * @param xmlFile XML-file
+     * @return key or <code>null</code> if root element cannot be found in the first bytes of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public Key createKey(File xmlFile) throws IOException {
+        byte[] head = new byte[fingerprintSize];
+        int length = 0;
+        try (InputStream in = FileTypeEnum.isCompressed(xmlFile.getName())
+                ? new GZIPInputStream(Files.newInputStream(xmlFile.toPath()))
+                : Files.newInputStream(xmlFile.toPath())) {
+            int read;
+            while (length < head.length && (read = in.read(head, length, head.length - length)) > 0) {
+                length += read;
+            }
+        }
+
+        SortedSet<String> paths = XmlUtils.determineStructure(new ByteArrayInputStream(head, 0, length));
+        if (paths.isEmpty()) {
+            return null;
+        }
+
+        return new Key(paths.first().substring(1), fingerprint(paths));
+    }
+
+    /**
+     * Returns cached array paths for key.
+     *
+     * @param key key of XML-file
+     * @return list of array paths or <code>null</code> if nothing cached for key
+     * @throws IOException if cache file exists but cannot be read
+     */
+    public List<String> get(Key key) throws IOException {
+        List<String> arrays = schemas.get(key);
+        if (null == arrays) {
+            File cacheFile = getCacheFile(key);
+            if (cacheFile.exists()) {
+                arrays = readPaths(cacheFile);
+                schemas.put(key, arrays);
+            }
+        }
+
+        if (null == arrays) {
+            misses.increment();
+            LOGGER.debug("Array schema cache miss for {}", key);
+        } else {
+            hits.increment();
+            LOGGER.debug("Array schema cache hit for {}", key);
+        }
+        return arrays;
+    }
+
+    /**
+     * Stores array paths for key.
+     *
+     * @param key key of XML-file
+     * @param arrays array paths
+     * @throws IOException if cache file cannot be written
+     */
+    public void put(Key key, Collection<String> arrays) throws IOException {
+        List<String> sortedArrays = Collections.unmodifiableList(arrays.stream()
+                .distinct().sorted().collect(Collectors.toList()));
+
+        List<String> lines = new ArrayList<>();
+        lines.add(COMMENT + " Arrays for root element '" + key.getRootElement() + "', fingerprint "
+                + key.getFingerprint());
+        lines.addAll(sortedArrays);
+
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        Path target = getCacheFile(key).toPath();
+        Path tempFile = Files.createTempFile(folder.toPath(), key.getRootElement(), ".tmp");
+        try {
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        schemas.put(key, sortedArrays);
+    }
+
+    /**
+     * Reports that file with cached schema contains arrays which are absent in cache.
+     *
+     * @param key key of XML-file
+     * @param sourceFile XML-file
+     * @param unknownArrays paths of arrays which are not in cache
+     */
+    public void reportDrift(Key key, File sourceFile, Collection<String> unknownArrays) {
+        drifts.increment();
+        LOGGER.warn("Array schema drift for {} in '{}', new arrays: {}", key, sourceFile.getAbsolutePath(),
+                unknownArrays);
+    }
+
+    /**
+     * Returns number of lookups which found cached arrays.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns number of lookups which did not find cached arrays.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns number of files which contained arrays unknown to the cache.
+     *
+     * @return number of drifts
+     */
+    public long getDrifts() {
+        return drifts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{folder=%s, hits=%d, misses=%d, drifts=%d}", folder, getHits(), getMisses(),
+                getDrifts());
+    }
+
+    /**
+     * Reads array paths from file, one path per line. Empty lines and lines starting with <code>#</code>
+     * are ignored.
+     *
+     * @param file file with array paths
+     * @return list of array paths
+     * @throws IOException if file cannot be read
+     */
+    public static List<String> readPaths(File file) throws IOException {
+        return Collections.unmodifiableList(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns cache file for key.
+     *
+     * @param key key of XML-file
+     * @return cache file
+     */
+    private File getCacheFile(Key key) {
+        return new File(folder, key.getRootElement().replaceAll("[^\\w-]", "_") + "-" + key.getFingerprint()
+                + FILE_EXTENSION);
+    }
+
+    /**
+     * Calculates fingerprint of element paths.
+     *
+     * @param paths element paths
+     * @return hexadecimal fingerprint
+     */
+    private static String fingerprint(Collection<String> paths) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            paths.forEach(path -> digest.update((path + '\n').getBytes(StandardCharsets.UTF_8)));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.substring(0, FINGERPRINT_LENGTH);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);    // SHA-1 is supported by every JVM
+        }
+    }
+
+    /**
+     * Identifies structure of XML-file.
+     */
+    public static final class Key {
+        private final String rootElement;
+        private final String fingerprint;
+
+        /**
+         * Constructor.
+         *
+         * @param rootElement local name of root element
+         * @param fingerprint fingerprint of element paths
+         */
+        Key(String rootElement, String fingerprint) {
+            this.rootElement = rootElement;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Returns local name of root element.
+         *
+         * @return root element name
+         */
+        public String getRootElement() {
+            return rootElement;
+        }
+
+        /**
+         * Returns fingerprint of element paths.
+         *
+         * @return hexadecimal fingerprint
+         */
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return rootElement.equals(other.rootElement) && fingerprint.equals(other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootElement, fingerprint);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{root=%s, fingerprint=%s}", rootElement, fingerprint);
+        }
+    }
+}
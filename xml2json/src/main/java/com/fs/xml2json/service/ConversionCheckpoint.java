@@ -0,0 +1,313 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.util.XmlRecordSplitter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checkpoint of XML-file converted in chunks (see {@link SplitConverter}).
+ * <p>Every chunk is converted to its own part file next to output file, checkpoint records arrays of
+ * the file and, for every converted chunk, length of its part file and positions of records in it.
+ * Chunks start at boundaries of records and every part is a complete JSON document, so input offset
+ * and output length of a chunk is all that has to be kept to continue conversion: the scope of records
+ * (the root element) is opened again by the beginning of every chunk.
+ * <p>Checkpoint is stored as properties file next to output file. It is used only if source file has the
+ * same size and time of last modification and is split into the same chunks, otherwise conversion
+ * starts from the beginning.
+ *
+ * <p>Instances are thread-safe.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+final class ConversionCheckpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionCheckpoint.class);
+
+    /**
+     * Extension of checkpoint file which is added to name of output file.
+     */
+    static final String EXTENSION = ".checkpoint";
+
+    /**
+     * Extension of part files which is added to name of output file and index of chunk.
+     */
+    static final String PART_EXTENSION = ".part";
+
+    private static final String SOURCE = "source";
+    private static final String SOURCE_SIZE = "source.size";
+    private static final String SOURCE_LAST_MODIFIED = "source.lastModified";
+    private static final String SPLIT_PATH = "splitPath";
+    private static final String CHUNKS = "chunks";
+    private static final String ARRAYS = "arrays";
+    private static final String CHUNK_PREFIX = "chunk.";
+    private static final String SEPARATOR = ",";
+
+    private final File outputFile;
+    private final File checkpointFile;
+    private final Properties properties;
+    private final boolean isResumed;
+    private boolean isDeleted = false;
+
+    /**
+     * Private constructor, use {@link #open(File, File, String, XmlRecordSplitter.Chunks)}.
+     *
+     * @param outputFile output file
+     * @param properties content of checkpoint
+     * @param isResumed <code>true</code> if checkpoint has been loaded
+     */
+    private ConversionCheckpoint(File outputFile, Properties properties, boolean isResumed) {
+        this.outputFile = outputFile;
+        this.checkpointFile = getFile(outputFile);
+        this.properties = properties;
+        this.isResumed = isResumed;
+    }
+
+    /**
+     * Returns checkpoint file of output file.
+     *
+     * @param outputFile output file
+     * @return checkpoint file
+     */
+    static File getFile(File outputFile) {
+        return new File(outputFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * Loads checkpoint of output file or creates new one if there is no checkpoint or it has been written
+     * for other source file or other chunks. Part files of not matching checkpoint are deleted.
+     *
+     * @param sourceFile XML-file
+     * @param outputFile output file
+     * @param splitPath path of records which file is split at
+     * @param chunks chunks of XML-file
+     * @return checkpoint
+     * @throws IOException if new checkpoint cannot be written
+     */
+    static ConversionCheckpoint open(File sourceFile, File outputFile, String splitPath,
+            XmlRecordSplitter.Chunks chunks) throws IOException {
+        Properties expected = new Properties();
+        expected.setProperty(SOURCE, sourceFile.getAbsolutePath());
+        expected.setProperty(SOURCE_SIZE, Long.toString(sourceFile.length()));
+        expected.setProperty(SOURCE_LAST_MODIFIED, Long.toString(sourceFile.lastModified()));
+        expected.setProperty(SPLIT_PATH, Objects.toString(splitPath));
+        StringBuilder boundaries = new StringBuilder();
+        for (int i = 0; i < chunks.size(); i++) {
+            boundaries.append(i == 0 ? "" : SEPARATOR).append(chunks.getStart(i)).append(SEPARATOR)
+                    .append(chunks.getEnd(i));
+        }
+        expected.setProperty(CHUNKS, boundaries.toString());
+
+        File checkpointFile = getFile(outputFile);
+        if (checkpointFile.exists()) {
+            Properties loaded = new Properties();
+            try (InputStream input = Files.newInputStream(checkpointFile.toPath())) {
+                loaded.load(input);
+            } catch (IOException | IllegalArgumentException ex) {
+                LOGGER.warn("Checkpoint '{}' cannot be read: {}", checkpointFile.getAbsolutePath(), ex.getMessage());
+            }
+            if (expected.stringPropertyNames().stream()
+                    .allMatch(name -> expected.getProperty(name).equals(loaded.getProperty(name)))) {
+                LOGGER.info("Resuming conversion of '{}' from checkpoint '{}'", sourceFile.getAbsolutePath(),
+                        checkpointFile.getAbsolutePath());
+                return new ConversionCheckpoint(outputFile, loaded, true);
+            }
+            LOGGER.info("Checkpoint '{}' does not match '{}', conversion starts from the beginning",
+                    checkpointFile.getAbsolutePath(), sourceFile.getAbsolutePath());
+            new ConversionCheckpoint(outputFile, loaded, false).delete();
+        }
+        ConversionCheckpoint checkpoint = new ConversionCheckpoint(outputFile, expected, false);
+        checkpoint.save();
+        return checkpoint;
+    }
+
+    /**
+     * Returns <code>true</code> if checkpoint has been loaded, i.e. conversion is resumed.
+     *
+     * @return <code>true</code> if conversion is resumed
+     */
+    boolean isResumed() {
+        return isResumed;
+    }
+
+    /**
+     * Returns part file of chunk.
+     *
+     * @param index index of chunk
+     * @return part file
+     */
+    File getPart(int index) {
+        return new File(outputFile.getPath() + "." + index + PART_EXTENSION);
+    }
+
+    /**
+     * Returns arrays of XML-file.
+     *
+     * @return paths of arrays or <code>null</code> if arrays have not been determined yet
+     */
+    synchronized List<String> getArrays() {
+        String arrays = properties.getProperty(ARRAYS);
+        if (null == arrays) {
+            return null;
+        }
+        return arrays.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(arrays.split(SEPARATOR)));
+    }
+
+    /**
+     * Stores arrays of XML-file and writes checkpoint.
+     *
+     * @param arrays paths of arrays
+     * @throws IOException if checkpoint cannot be written
+     */
+    synchronized void setArrays(Collection<String> arrays) throws IOException {
+        properties.setProperty(ARRAYS, String.join(SEPARATOR, arrays));
+        save();
+    }
+
+    /**
+     * Returns converted chunk.
+     *
+     * @param index index of chunk
+     * @return chunk or <code>null</code> if chunk has not been converted or its part file has been changed
+     */
+    synchronized Chunk getChunk(int index) {
+        String value = properties.getProperty(CHUNK_PREFIX + index);
+        if (null == value) {
+            return null;
+        }
+        String[] values = value.split(SEPARATOR);
+        try {
+            Chunk chunk = new Chunk(Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]));
+            return getPart(index).length() == chunk.getLength() ? chunk : null;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores converted chunk and writes checkpoint.
+     *
+     * @param index index of chunk
+     * @param chunk converted chunk
+     * @throws IOException if checkpoint cannot be written
+     */
+    synchronized void putChunk(int index, Chunk chunk) throws IOException {
+        properties.setProperty(CHUNK_PREFIX + index, chunk.getLength() + SEPARATOR + chunk.getStart()
+                + SEPARATOR + chunk.getEnd());
+        save();
+    }
+
+    /**
+     * Deletes checkpoint and part files of all chunks. Checkpoint is not written after deletion.
+     */
+    synchronized void delete() {
+        isDeleted = true;
+        String chunks = properties.getProperty(CHUNKS, "");
+        int numberOfChunks = chunks.isEmpty() ? 0 : chunks.split(SEPARATOR).length / 2;
+        for (int i = 0; i < numberOfChunks; i++) {
+            getPart(i).delete();
+        }
+        checkpointFile.delete();
+    }
+
+    /**
+     * Writes checkpoint to temporary file and moves it to checkpoint file, so checkpoint is
+     * never left half-written.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void save() throws IOException {
+        if (isDeleted) {
+            return;
+        }
+        Path tempFile = Files.createTempFile(checkpointFile.getAbsoluteFile().getParentFile().toPath(),
+                checkpointFile.getName(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(tempFile)) {
+                properties.store(output, "xml2json checkpoint");
+            }
+            Files.move(tempFile, checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Converted chunk: length of its part file and positions of records in it.
+     */
+    static final class Chunk {
+        private final long length;
+        private final long start;
+        private final long end;
+
+        /**
+         * Constructor.
+         *
+         * @param length length of part file
+         * @param start position of the first record
+         * @param end position after the last record
+         */
+        Chunk(long length, long start, long end) {
+            this.length = length;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Returns length of part file.
+         *
+         * @return number of bytes
+         */
+        long getLength() {
+            return length;
+        }
+
+        /**
+         * Returns position of the first record in part file.
+         *
+         * @return position
+         */
+        long getStart() {
+            return start;
+        }
+
+        /**
+         * Returns position after the last record in part file.
+         *
+         * @return position
+         */
+        long getEnd() {
+            return end;
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.metrics.ConversionMetrics;
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.type.UnsupportedFileType;
+import de.odysseus.staxon.json.JsonXMLConfig;
+import de.odysseus.staxon.json.JsonXMLConfigBuilder;
+import de.odysseus.staxon.json.JsonXMLInputFactory;
+import de.odysseus.staxon.json.JsonXMLOutputFactory;
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.util.ProjectionPaths;
+import de.odysseus.staxon.util.ProjectionStreamReader;
+import de.odysseus.staxon.xml.util.PrettyXMLStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-lived holder of StAX factories and converter configs.
+ * <p>Looking up factories (<code>XMLInputFactory.newInstance()</code>, <code>JsonStreamFactory.newFactory()</code>)
+ * scans the classpath, so for many small files creating them for every file takes more time than conversion.
+ * Engine creates factories once and creates readers and writers with them. Factories are never reconfigured
+ * after creation, so one engine can be shared by all threads and by several {@link ConverterService}s.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class ConversionEngine {
+
+    /**
+     * Indentation of XML output.
+     */
+    public static final String XML_INDENTATION = "\t";
+
+    private static final AtomicInteger WORKER_NUMBER = new AtomicInteger();
+
+    private static final class InstanceHolder {
+        private static final ConversionEngine INSTANCE = new ConversionEngine();
+
+        static {
+            try {
+                INSTANCE.metrics.register(new ObjectName(ConversionMetrics.OBJECT_NAME));
+            } catch (JMException ex) {
+                LoggerFactory.getLogger(ConversionEngine.class).warn("Conversion metrics are not registered: {}",
+                        ex.getMessage());
+            }
+        }
+    }
+
+    private final XMLInputFactory xmlInputFactory;
+    private final XMLOutputFactory xmlOutputFactory;
+    private final JsonStreamFactory jsonStreamFactory;
+    private final JsonXMLConfig jsonConfig;
+    private final JsonXMLInputFactory jsonInputFactory;
+    private final JsonXMLOutputFactory jsonOutputFactory;
+    // factories which decide arrays on the fly, by options of streaming writer
+    private final Map<StreamingKey, JsonXMLOutputFactory> streamingJsonOutputFactories = new ConcurrentHashMap<>();
+    // factories which write records of determined arrays as JSON Lines, by path
+    private final Map<String, JsonXMLOutputFactory> jsonLinesOutputFactories = new ConcurrentHashMap<>();
+    // factories which read lines of JSON Lines as records, by record name
+    private final Map<String, JsonXMLInputFactory> jsonLinesInputFactories = new ConcurrentHashMap<>();
+    // factories which read selected elements of JSON, by paths
+    private final Map<List<String>, JsonXMLInputFactory> projectionInputFactories = new ConcurrentHashMap<>();
+    // factories which read JSON within memory limit, by paths and memory limit
+    private final Map<List<Object>, JsonXMLInputFactory> limitedInputFactories = new ConcurrentHashMap<>();
+
+    // executors which compress gzip output of all conversions, by number of threads
+    private final Map<Integer, ExecutorService> compressionExecutors = new ConcurrentHashMap<>();
+
+    private final ConversionMetrics metrics = new ConversionMetrics();
+
+    /**
+     * Creates engine and looks up factories.
+     */
+    public ConversionEngine() {
+        this.xmlInputFactory = XMLInputFactory.newInstance();
+        this.xmlOutputFactory = XMLOutputFactory.newInstance();
+        this.jsonStreamFactory = JsonStreamFactory.newFactory();
+        /*
+         * If the <code>multiplePI</code> property is
+         * set to <code>true</code>, the StAXON reader will generate
+         * <code>&lt;xml-multiple&gt;</code> processing instructions
+         * which would be copied to the XML output.
+         * Set to <code>false</code> if you don't need to go back to JSON.
+         */
+        this.jsonInputFactory = new JsonXMLInputFactory(new JsonXMLConfigBuilder()
+                .multiplePI(false)
+                .build(), jsonStreamFactory);
+        /*
+         * Arrays are inserted by XMLMultipleStreamWriter for determined arrays, with the
+         * <code>autoPrimitive</code> property set, element text gets automatically converted
+         * to JSON primitives (number, boolean, null).
+         */
+        this.jsonConfig = new JsonXMLConfigBuilder()
+                .autoArray(false)   //  if set to true then memory usage will increase
+                .autoPrimitive(true)
+                .prettyPrint(true)
+                .build();
+        this.jsonOutputFactory = new JsonXMLOutputFactory(jsonConfig, jsonStreamFactory);
+    }
+
+    /**
+     * Returns engine shared by services which are created without engine. Metrics of shared engine are
+     * registered in platform MBean server as {@value ConversionMetrics#OBJECT_NAME}.
+     *
+     * @return shared engine
+     */
+    public static ConversionEngine getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Returns cumulative metrics of conversions which have been done with this engine.
+     *
+     * @return metrics
+     */
+    public ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns executor which compresses gzip output. Executor is shared by all conversions of this engine,
+     * so files written at a time use at most <code>threads</code> compressing threads together.
+     * Idle threads are stopped after a minute.
+     *
+     * @param threads number of compressing threads
+     * @return shared executor
+     */
+    public ExecutorService getCompressionExecutor(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        return compressionExecutors.computeIfAbsent(threads, key -> newWorkerPool("GzipWorker-", key));
+    }
+
+    /**
+     * Creates pool of daemon threads which are stopped after a minute without tasks, so pool which is
+     * never shut down does not keep threads of idle service.
+     *
+     * @param name prefix of names of threads
+     * @param threads number of threads
+     * @return pool
+     */
+    static ExecutorService newWorkerPool(String name, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, name + WORKER_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates reader of XML or JSON.
+     *
+     * @param inputFileType type of input
+     * @param input input stream
+     * @return reader
+     * @throws XMLStreamException if cannot create reader
+     */
+    public XMLStreamReader createReader(FileTypeEnum inputFileType, InputStream input) throws XMLStreamException {
+        switch (inputFileType) {
+            case XML:
+                return xmlInputFactory.createXMLStreamReader(input);
+            case JSON:
+                return jsonInputFactory.createXMLStreamReader(input);
+            default:
+                throw new UnsupportedFileType("Unsupported file type: " + inputFileType);
+        }
+    }
+
+    /**
+     * Creates reader of XML or JSON which reads only selected elements with their subtrees and
+     * their ancestors. XML is filtered by reader, JSON is filtered before events are created.
+     *
+     * @param inputFileType type of input
+     * @param input input stream
+     * @param selectPaths paths of selected elements, empty to read whole input
+     * @return reader
+     * @throws XMLStreamException if cannot create reader
+     * @see de.odysseus.staxon.util.ProjectionPaths
+     */
+    public XMLStreamReader createReader(FileTypeEnum inputFileType, InputStream input, List<String> selectPaths)
+            throws XMLStreamException {
+        if (selectPaths.isEmpty()) {
+            return createReader(inputFileType, input);
+        }
+        switch (inputFileType) {
+            case XML:
+                return new ProjectionStreamReader(xmlInputFactory.createXMLStreamReader(input),
+                        new ProjectionPaths(selectPaths));
+            case JSON:
+                return projectionInputFactories.computeIfAbsent(selectPaths, paths ->
+                        new JsonXMLInputFactory(new JsonXMLConfigBuilder()
+                                .multiplePI(false)
+                                .projectionPaths(paths)
+                                .build(), jsonStreamFactory)).createXMLStreamReader(input);
+            default:
+                throw new UnsupportedFileType("Unsupported file type: " + inputFileType);
+        }
+    }
+
+    /**
+     * Creates reader like {@link #createReader(FileTypeEnum, InputStream, List)} which fails instead of
+     * holding more than given number of bytes of events in memory. XML is read by streaming parser which
+     * does not queue events, so the limit applies to JSON only.
+     *
+     * @param inputFileType type of input
+     * @param input input stream
+     * @param selectPaths paths of selected elements, empty to read whole input
+     * @param memoryLimit maximum number of bytes of queued events, negative for no limit
+     * @return reader
+     * @throws XMLStreamException if cannot create reader
+     * @see JsonXMLInputFactory#PROP_MEMORY_LIMIT
+     */
+    public XMLStreamReader createReader(FileTypeEnum inputFileType, InputStream input, List<String> selectPaths,
+            long memoryLimit) throws XMLStreamException {
+        if (memoryLimit < 0 || inputFileType != FileTypeEnum.JSON) {
+            return createReader(inputFileType, input, selectPaths);
+        }
+        return limitedInputFactories.computeIfAbsent(Arrays.<Object>asList(selectPaths, memoryLimit), key ->
+                new JsonXMLInputFactory(new JsonXMLConfigBuilder()
+                        .multiplePI(false)
+                        .projectionPaths(selectPaths.isEmpty() ? null : selectPaths)
+                        .memoryLimit(memoryLimit)
+                        .build(), jsonStreamFactory)).createXMLStreamReader(input);
+    }
+
+    /**
+     * Creates reader of one line of JSON Lines, the line is read as element with name of record.
+     *
+     * @param input input stream of line
+     * @param recordName name of record element
+     * @return reader
+     * @throws XMLStreamException if cannot create reader
+     */
+    public XMLStreamReader createJsonLinesReader(InputStream input, String recordName) throws XMLStreamException {
+        return jsonLinesInputFactories.computeIfAbsent(recordName, name ->
+                new JsonXMLInputFactory(new JsonXMLConfigBuilder()
+                        .multiplePI(false)
+                        .virtualRoot(name)
+                        .build(), jsonStreamFactory)).createXMLStreamReader(input);
+    }
+
+    /**
+     * Creates JSON writer which does not insert arrays, arrays must be inserted by
+     * {@link de.odysseus.staxon.json.util.XMLMultipleStreamWriter}.
+     *
+     * @param output output stream
+     * @return writer
+     * @throws XMLStreamException if cannot create writer
+     */
+    public XMLStreamWriter createJsonWriter(OutputStream output) throws XMLStreamException {
+        return jsonOutputFactory.createXMLStreamWriter(output);
+    }
+
+    /**
+     * Creates JSON writer which does not insert arrays and writes every record at given path as
+     * compact JSON document on its own line (JSON Lines).
+     *
+     * @param output output stream
+     * @param jsonLinesPath path of records, <code>null</code> to write one JSON document
+     * @return writer
+     * @throws XMLStreamException if cannot create writer
+     * @see de.odysseus.staxon.json.stream.util.JsonLinesTarget
+     */
+    public XMLStreamWriter createJsonWriter(OutputStream output, String jsonLinesPath) throws XMLStreamException {
+        if (null == jsonLinesPath) {
+            return createJsonWriter(output);
+        }
+        return jsonLinesOutputFactories.computeIfAbsent(jsonLinesPath, key ->
+                new JsonXMLOutputFactory(new JsonXMLConfigBuilder()
+                        .autoArray(false)
+                        .autoPrimitive(true)
+                        .jsonLinesPath(jsonLinesPath)
+                        .build(), jsonStreamFactory)).createXMLStreamWriter(output);
+    }
+
+    /**
+     * Creates JSON writer like {@link #createJsonWriter(java.io.OutputStream)} which writes JSON to
+     * targets of given stream factory. Factory may wrap targets of one conversion, so writer is created
+     * by new output factory.
+     *
+     * @param output output stream
+     * @param streamFactory factory of JSON stream targets
+     * @return writer
+     * @throws XMLStreamException if cannot create writer
+     */
+    public XMLStreamWriter createJsonWriter(OutputStream output, JsonStreamFactory streamFactory)
+            throws XMLStreamException {
+        return new JsonXMLOutputFactory(jsonConfig, streamFactory).createXMLStreamWriter(output);
+    }
+
+    /**
+     * Creates JSON writer which decides arrays on the fly, only undecided elements are held back.
+     * Writer holds <code>memoryBudget</code> bytes of undecided elements in memory before spilling them
+     * to disk, fails instead of holding more text of one element in hard memory budget mode and writes
+     * every record as JSON Lines if <code>jsonLinesPath</code> is set.
+     *
+     * @param output output stream
+     * @param options conversion options
+     * @param streamFactory factory of JSON stream targets, <code>null</code> for factory found on classpath.
+     * Factory may wrap targets of one conversion, so writer of given factory is created by new output factory
+     * @return writer
+     * @throws XMLStreamException if cannot create writer
+     * @see JsonXMLOutputFactory#PROP_MEMORY_LIMIT
+     * @see de.odysseus.staxon.json.stream.util.JsonLinesTarget
+     */
+    public XMLStreamWriter createStreamingJsonWriter(OutputStream output, ConversionOptions options,
+            JsonStreamFactory streamFactory) throws XMLStreamException {
+        StreamingKey key = new StreamingKey(options);
+        if (null != streamFactory) {
+            return new JsonXMLOutputFactory(key.createConfig(), streamFactory).createXMLStreamWriter(output);
+        }
+        return streamingJsonOutputFactories.computeIfAbsent(key, k ->
+                new JsonXMLOutputFactory(k.createConfig(), jsonStreamFactory)).createXMLStreamWriter(output);
+    }
+
+    /**
+     * Creates pretty-printing XML writer with UTF-8 encoding.
+     *
+     * @param output output stream
+     * @return writer
+     * @throws XMLStreamException if cannot create writer
+     */
+    public XMLStreamWriter createXmlWriter(OutputStream output) throws XMLStreamException {
+        return new PrettyXMLStreamWriter(xmlOutputFactory.createXMLStreamWriter(output,
+                StandardCharsets.UTF_8.name()));
+    }
+
+    /**
+     * Creates pretty-printing writer of XML fragment with UTF-8 encoding, the fragment is indented as element
+     * at given depth. Document is not started, after the end of the fragment a new line is started
+     * at the same depth.
+     *
+     * @param output output stream
+     * @param depth number of enclosing elements
+     * @return writer
+     * @throws XMLStreamException if cannot create writer
+     */
+    public XMLStreamWriter createXmlFragmentWriter(OutputStream output, int depth) throws XMLStreamException {
+        StringBuilder newline = new StringBuilder("\n");
+        for (int i = 0; i < depth; i++) {
+            newline.append(XML_INDENTATION);
+        }
+        return new PrettyXMLStreamWriter(xmlOutputFactory.createXMLStreamWriter(output,
+                StandardCharsets.UTF_8.name()), XML_INDENTATION, newline.toString());
+    }
+
+    /**
+     * Returns config of JSON writer created by {@link #createJsonWriter(java.io.OutputStream)}.
+     *
+     * @return config
+     */
+    JsonXMLConfig getJsonConfig() {
+        return jsonConfig;
+    }
+
+    /**
+     * Returns JSON stream factory which has been found on classpath.
+     *
+     * @return stream factory
+     */
+    JsonStreamFactory getJsonStreamFactory() {
+        return jsonStreamFactory;
+    }
+
+    /**
+     * Options which configure streaming JSON writer, key of its output factory.
+     */
+    private static final class StreamingKey {
+        private final long memoryBudget;
+        private final long memoryLimit;
+        private final String jsonLinesPath;
+
+        StreamingKey(ConversionOptions options) {
+            this.memoryBudget = options.getMemoryBudget();
+            this.memoryLimit = options.isHardMemoryBudget() ? options.getMemoryBudget() : -1L;
+            this.jsonLinesPath = options.getJsonLinesPath();
+        }
+
+        /**
+         * Creates config of JSON writer which decides arrays on the fly, pretty-printing if it does
+         * not write JSON Lines.
+         *
+         * @return config
+         */
+        JsonXMLConfig createConfig() {
+            return new JsonXMLConfigBuilder()
+                    .autoArray(true)
+                    .streamingAutoArray(true)
+                    .autoArrayMemoryThreshold(memoryBudget)
+                    .memoryLimit(memoryLimit)
+                    .autoPrimitive(true)
+                    .prettyPrint(null == jsonLinesPath)
+                    .jsonLinesPath(jsonLinesPath)
+                    .build();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof StreamingKey)) {
+                return false;
+            }
+            StreamingKey other = (StreamingKey) obj;
+            return memoryBudget == other.memoryBudget && memoryLimit == other.memoryLimit
+                    && Objects.equals(jsonLinesPath, other.jsonLinesPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(memoryBudget, memoryLimit, jsonLinesPath);
+        }
+    }
+}
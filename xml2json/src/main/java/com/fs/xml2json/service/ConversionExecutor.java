@@ -0,0 +1,254 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor of conversions in batch, watch and server modes.
+ * <p>By default tasks are run by a fixed pool of platform threads, a task holds its thread also while it
+ * waits for disk or socket. With virtual threads (Java 21 and later) every task gets its own virtual thread,
+ * which leaves its carrier thread while it waits for socket, so parsing and writing of other tasks go on.
+ * CPU-bound work is limited by the carrier threads of the JVM (one per processor, see system property
+ * <code>jdk.virtualThreadScheduler.parallelism</code>), tasks in flight have own larger limit: a semaphore
+ * admits {@link #DEFAULT_IN_FLIGHT_PER_THREAD} tasks per thread by default, which bounds memory of
+ * conversions, further tasks wait as parked virtual threads.
+ * On older JVMs virtual threads are not available and platform threads are used.
+ * <p>Number of waiting tasks can be limited, further tasks are rejected with {@link RejectedExecutionException}.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class ConversionExecutor extends AbstractExecutorService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionExecutor.class);
+
+    /**
+     * Default number of tasks per thread which are in flight in virtual threads.
+     */
+    public static final int DEFAULT_IN_FLIGHT_PER_THREAD = 8;
+
+    /**
+     * Factory of virtual threads without names, <code>null</code> if JVM has no virtual threads.
+     */
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = getVirtualThreadFactory();
+
+    private final ExecutorService delegate;
+    private final Semaphore admission;
+    private final int maxPendingTasks;
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+
+    /**
+     * Creates executor, in virtual threads {@link #DEFAULT_IN_FLIGHT_PER_THREAD} tasks per thread are in flight.
+     *
+     * @param name prefix of names of threads
+     * @param threads number of tasks run at a time by platform threads
+     * @param queueSize number of tasks which may wait, {@link Integer#MAX_VALUE} for no limit
+     * @param virtualThreads <code>true</code> to run tasks in virtual threads if JVM has them
+     */
+    public ConversionExecutor(String name, int threads, int queueSize, boolean virtualThreads) {
+        this(name, threads, (int) Math.min(Integer.MAX_VALUE, (long) threads * DEFAULT_IN_FLIGHT_PER_THREAD),
+                queueSize, virtualThreads);
+    }
+
+    /**
+     * Creates executor.
+     *
+     * @param name prefix of names of threads
+     * @param threads number of tasks run at a time by platform threads
+     * @param inFlight number of tasks run at a time by virtual threads, they wait for I/O without holding
+     * a thread
+     * @param queueSize number of tasks which may wait, {@link Integer#MAX_VALUE} for no limit
+     * @param virtualThreads <code>true</code> to run tasks in virtual threads if JVM has them
+     */
+    public ConversionExecutor(String name, int threads, int inFlight, int queueSize, boolean virtualThreads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        if (inFlight < threads) {
+            throw new IllegalArgumentException("Number of tasks in flight cannot be less than number of threads: "
+                    + inFlight);
+        }
+        if (queueSize < 0) {
+            throw new IllegalArgumentException("Queue size cannot be negative: " + queueSize);
+        }
+        if (virtualThreads && null == VIRTUAL_THREAD_FACTORY) {
+            LOGGER.warn("Virtual threads are not available in Java {}, platform threads are used",
+                    System.getProperty("java.version"));
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        if (virtualThreads && null != VIRTUAL_THREAD_FACTORY) {
+            this.maxPendingTasks = (int) Math.min(Integer.MAX_VALUE, (long) inFlight + queueSize);
+            admission = new Semaphore(inFlight);
+            delegate = newThreadPerTaskExecutor(task -> {
+                Thread thread = VIRTUAL_THREAD_FACTORY.newThread(task);
+                thread.setName(name + "-" + threadNumber.incrementAndGet());
+                return thread;
+            });
+        } else {
+            this.maxPendingTasks = (int) Math.min(Integer.MAX_VALUE, (long) threads + queueSize);
+            admission = null;
+            BlockingQueue<Runnable> queue = queueSize == Integer.MAX_VALUE ? new LinkedBlockingQueue<>()
+                    : new ArrayBlockingQueue<>(Math.max(1, queueSize));
+            delegate = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                    task -> new Thread(task, name + "-" + threadNumber.incrementAndGet()));
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if JVM has virtual threads (Java 21 and later).
+     *
+     * @return <code>true</code> if virtual threads are available
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return null != VIRTUAL_THREAD_FACTORY;
+    }
+
+    /**
+     * Returns <code>true</code> if tasks are run in virtual threads.
+     *
+     * @return <code>true</code> for virtual threads, <code>false</code> for pool of platform threads
+     */
+    public boolean isVirtual() {
+        return null != admission;
+    }
+
+    /**
+     * Returns number of tasks which are running or waiting.
+     *
+     * @return number of tasks
+     */
+    public int getPendingTasks() {
+        return pendingTasks.get();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (pendingTasks.incrementAndGet() > maxPendingTasks) {
+            pendingTasks.decrementAndGet();
+            throw new RejectedExecutionException(String.format("%d tasks are pending", maxPendingTasks));
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    run(command);
+                } finally {
+                    pendingTasks.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingTasks.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * Runs task, in virtual thread task waits for admission first.
+     *
+     * @param command task
+     */
+    private void run(Runnable command) {
+        if (null == admission) {
+            command.run();
+            return;
+        }
+        try {
+            admission.acquire();
+        } catch (InterruptedException ex) {
+            // executor is shut down
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            command.run();
+        } finally {
+            admission.release();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Creates executor which starts new thread for every task
+     * (<code>Executors.newThreadPerTaskExecutor(factory)</code>), it is called by reflection.
+     *
+     * @param factory factory of threads
+     * @return executor
+     */
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory factory) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create executor of virtual threads", ex);
+        }
+    }
+
+    /**
+     * Looks up factory of virtual threads (<code>Thread.ofVirtual().factory()</code>), the code is compiled
+     * for Java 8, so it is called by reflection.
+     *
+     * @return factory or <code>null</code> if JVM has no virtual threads
+     */
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            return null;
+        }
+    }
+}
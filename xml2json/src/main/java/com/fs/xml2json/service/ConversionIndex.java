@@ -0,0 +1,279 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent index of converted files, which is used to skip files which have not changed since
+ * their last conversion.
+ * <p>Index is stored in destination folder as text file, one source file per line: size, time of last
+ * modification, content hash (<code>-</code> if hashing is disabled) and absolute path of source file,
+ * separated by tabs. Index is loaded once, so checking a file is a lookup in memory.
+ * <p>Source file is up-to-date if its converted file exists and its size and time of last modification
+ * are the same as at the last conversion. If hashing is enabled, file whose time of last modification has
+ * changed, but whose size and content hash are the same, is up-to-date too.
+ *
+ * <p>Instances are thread-safe.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionIndex.class);
+
+    /**
+     * Name of index file in destination folder.
+     */
+    public static final String INDEX_FILE_NAME = ".xml2json.index";
+
+    private static final String COMMENT = "#";
+    private static final String SEPARATOR = "\t";
+    private static final String NO_HASH = "-";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File indexFile;
+    private final boolean isHashing;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates index and loads it from destination folder if index file exists.
+     *
+     * @param destinationFolder folder of converted files
+     * @param isHashing <code>true</code> to store and compare content hashes
+     * @throws IOException if index file exists but cannot be read
+     */
+    public ConversionIndex(File destinationFolder, boolean isHashing) throws IOException {
+        this.indexFile = new File(Objects.requireNonNull(destinationFolder, "Folder must be not null"),
+                INDEX_FILE_NAME);
+        this.isHashing = isHashing;
+        if (indexFile.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if converted file exists and source file has not changed since conversion.
+     *
+     * @param sourceFile source file
+     * @param convertedFile converted file
+     * @return <code>true</code> if file needs not to be converted
+     * @throws IOException if content hash cannot be calculated
+     */
+    public boolean isUpToDate(File sourceFile, File convertedFile) throws IOException {
+        Entry entry = entries.get(getKey(sourceFile));
+        if (null == entry || !convertedFile.exists()) {
+            return false;
+        }
+        long size = sourceFile.length();
+        if (entry.size != size) {
+            return false;
+        }
+        long lastModified = sourceFile.lastModified();
+        if (entry.lastModified == lastModified) {
+            return true;
+        }
+        if (isHashing && null != entry.hash && entry.hash.equals(hash(sourceFile))) {
+            // touched, but not changed
+            entries.put(getKey(sourceFile), new Entry(size, lastModified, entry.hash));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if source file has been converted before (regardless of its changes).
+     *
+     * @param sourceFile source file
+     * @return <code>true</code> if file is in index
+     */
+    public boolean contains(File sourceFile) {
+        return entries.containsKey(getKey(sourceFile));
+    }
+
+    /**
+     * Returns state of source file, must be called before conversion, so changes during conversion
+     * are detected next time.
+     *
+     * @param sourceFile source file
+     * @return state of file
+     * @throws IOException if content hash cannot be calculated
+     */
+    public Entry createEntry(File sourceFile) throws IOException {
+        return new Entry(sourceFile.length(), sourceFile.lastModified(), isHashing ? hash(sourceFile) : null);
+    }
+
+    /**
+     * Stores state of converted file.
+     *
+     * @param sourceFile source file which has been converted
+     * @param entry state of file before conversion
+     */
+    public void put(File sourceFile, Entry entry) {
+        entries.put(getKey(sourceFile), entry);
+    }
+
+    /**
+     * Removes source file from index, e.g. when its conversion failed.
+     *
+     * @param sourceFile source file
+     */
+    public void remove(File sourceFile) {
+        entries.remove(getKey(sourceFile));
+    }
+
+    /**
+     * Returns number of files in index.
+     *
+     * @return number of files
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes index to destination folder (through temporary file, so index is never written partially).
+     *
+     * @throws IOException if index cannot be written
+     */
+    public synchronized void save() throws IOException {
+        List<String> lines = new ArrayList<>(entries.size() + 1);
+        lines.add(COMMENT + " xml2json conversion index: size, last modified, hash, source file");
+        entries.forEach((path, entry) -> lines.add(entry.size + SEPARATOR + entry.lastModified + SEPARATOR
+                + (null == entry.hash ? NO_HASH : entry.hash) + SEPARATOR + path));
+
+        File folder = indexFile.getParentFile();
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        Path tempFile = Files.createTempFile(folder.toPath(), INDEX_FILE_NAME, ".tmp");
+        try {
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        LOGGER.debug("Index of {} files saved to '{}'", entries.size(), indexFile.getAbsolutePath());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{file=%s, hashing=%s, size=%d}", indexFile, isHashing, entries.size());
+    }
+
+    /**
+     * Reads index file, incorrect lines are skipped.
+     *
+     * @throws IOException if index file cannot be read
+     */
+    private void load() throws IOException {
+        for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+            String[] values = line.split(SEPARATOR, 4);
+            try {
+                entries.put(values[3], new Entry(Long.parseLong(values[0]), Long.parseLong(values[1]),
+                        NO_HASH.equals(values[2]) ? null : values[2]));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                LOGGER.warn("Incorrect line in index '{}': {}", indexFile.getAbsolutePath(), line);
+            }
+        }
+        LOGGER.debug("Index of {} files loaded from '{}'", entries.size(), indexFile.getAbsolutePath());
+    }
+
+    /**
+     * Returns key of source file in index.
+     *
+     * @param sourceFile source file
+     * @return absolute path
+     */
+    private static String getKey(File sourceFile) {
+        return sourceFile.getAbsolutePath();
+    }
+
+    /**
+     * Calculates hash of file content.
+     *
+     * @param file file
+     * @return hexadecimal SHA-1 hash
+     * @throws IOException if file cannot be read
+     */
+    private static String hash(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);    // SHA-1 is supported by every JVM
+        }
+    }
+
+    /**
+     * State of source file at its conversion.
+     */
+    public static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        /**
+         * Constructor.
+         *
+         * @param size size of file
+         * @param lastModified time of last modification
+         * @param hash content hash or <code>null</code>
+         */
+        private Entry(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{size=%d, lastModified=%d, hash=%s}", size, lastModified, hash);
+        }
+    }
+}
@@ -0,0 +1,709 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of options for {@link ConverterService}.
+ * <p>Instances are created via {@link #builder()}, default values are available as {@link #DEFAULT}.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class ConversionOptions {
+
+    /**
+     * Default memory budget (in bytes) for single-pass conversion - 64 MB.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /**
+     * Default maximum size (in bytes) of chunk when XML-file is converted in chunks - 32 MB.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 32L * 1024 * 1024;
+
+    /**
+     * Minimum size (in bytes) of read and write buffers chosen by file size - 8 KB.
+     */
+    public static final int MIN_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Maximum size (in bytes) of read and write buffers chosen by file size - 1 MB.
+     */
+    public static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Default options: two-pass XML conversion.
+     */
+    public static final ConversionOptions DEFAULT = builder().build();
+
+    private final boolean singlePass;
+    private final long memoryBudget;
+    private final boolean hardMemoryBudget;
+    private final File schemaCacheFolder;
+    private final int fingerprintSize;
+    private final List<String> arrayHints;
+    private final int sampleRecords;
+    private final long sampleSize;
+    private final String splitPath;
+    private final int threads;
+    private final long chunkSize;
+    private final boolean memoryMapped;
+    private final int readBufferSize;
+    private final int writeBufferSize;
+    private final int compressionThreads;
+    private final boolean checkpoint;
+    private final String jsonLinesPath;
+    private final String rollPath;
+    private final int rollRecords;
+    private final long rollSize;
+    private final List<String> selectPaths;
+
+    /**
+     * Private constructor, use {@link Builder}.
+     *
+     * @param builder builder with values
+     */
+    private ConversionOptions(Builder builder) {
+        this.singlePass = builder.singlePass;
+        this.memoryBudget = builder.memoryBudget;
+        this.hardMemoryBudget = builder.hardMemoryBudget;
+        this.schemaCacheFolder = builder.schemaCacheFolder;
+        this.fingerprintSize = builder.fingerprintSize;
+        this.arrayHints = Collections.unmodifiableList(new ArrayList<>(builder.arrayHints));
+        this.sampleRecords = builder.sampleRecords;
+        this.sampleSize = builder.sampleSize;
+        this.splitPath = builder.splitPath;
+        this.threads = builder.threads;
+        this.chunkSize = builder.chunkSize;
+        this.memoryMapped = builder.memoryMapped;
+        this.readBufferSize = builder.readBufferSize;
+        this.writeBufferSize = builder.writeBufferSize;
+        this.compressionThreads = builder.compressionThreads;
+        this.checkpoint = builder.checkpoint;
+        this.jsonLinesPath = builder.jsonLinesPath;
+        this.rollPath = builder.rollPath;
+        this.rollRecords = builder.rollRecords;
+        this.rollSize = builder.rollSize;
+        this.selectPaths = Collections.unmodifiableList(new ArrayList<>(builder.selectPaths));
+    }
+
+    /**
+     * Creates new builder with default values.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns <code>true</code> if XML files must be converted in one pass, i.e. array boundaries are
+     * determined while converting instead of pre-scanning the whole file.
+     *
+     * @return <code>true</code> for single-pass mode
+     */
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
+    /**
+     * Returns number of bytes which single-pass conversion may hold in memory before spilling
+     * undecided content to a temporary file. In {@link #isHardMemoryBudget() hard budget mode} it is
+     * also the limit of every other buffer of conversion.
+     *
+     * @return memory budget in bytes
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns <code>true</code> if memory budget is a hard limit: arrays are determined by a prescan which
+     * stops when found structure exceeds the budget (remaining arrays are corrected during conversion),
+     * buffered events spill to temporary files and conversion fails with an error instead of buffering
+     * more than the budget (e.g. very long text of one element).
+     *
+     * @return <code>true</code> for hard memory budget
+     */
+    public boolean isHardMemoryBudget() {
+        return hardMemoryBudget;
+    }
+
+    /**
+     * Returns folder of array schema cache.
+     *
+     * @return cache folder or <code>null</code> if cache is disabled
+     * @see ArraySchemaCache
+     */
+    public File getSchemaCacheFolder() {
+        return schemaCacheFolder;
+    }
+
+    /**
+     * Returns number of bytes from the beginning of XML-file which identify its structure in
+     * array schema cache.
+     *
+     * @return number of bytes
+     */
+    public int getFingerprintSize() {
+        return fingerprintSize;
+    }
+
+    /**
+     * Returns paths of elements which are always converted to arrays. If hints are set, XML-files
+     * unknown to the array schema cache are converted without determining arrays first.
+     *
+     * @return unmodifiable list of absolute or relative element paths
+     */
+    public List<String> getArrayHints() {
+        return arrayHints;
+    }
+
+    /**
+     * Returns <code>true</code> if arrays of XML-files are determined by the first records only.
+     * Arrays which appear after the sample are detected during conversion.
+     *
+     * @return <code>true</code> if sample size or number of sample records is set
+     */
+    public boolean isSampling() {
+        return sampleRecords > 0 || sampleSize > 0;
+    }
+
+    /**
+     * Returns maximum number of records (direct children of the root element) used for determining arrays.
+     *
+     * @return number of records, <code>0</code> if not limited
+     */
+    public int getSampleRecords() {
+        return sampleRecords;
+    }
+
+    /**
+     * Returns maximum number of bytes used for determining arrays.
+     *
+     * @return number of bytes, <code>0</code> if not limited
+     */
+    public long getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Returns path of records (repeated children of the root element) which XML-files are split at
+     * for converting in several threads.
+     *
+     * @return path like <code>/root/record</code>, {@link com.fs.xml2json.util.XmlRecordSplitter#AUTO}
+     * or <code>null</code> if files are not split
+     */
+    public String getSplitPath() {
+        return splitPath;
+    }
+
+    /**
+     * Returns number of threads which convert one XML-file split at records.
+     *
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns maximum size of chunk of XML-file split at records. File is split into
+     * at least as many chunks as there are threads.
+     *
+     * @return number of bytes
+     */
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns <code>true</code> if source files are read through memory-mapped windows
+     * instead of buffered streams.
+     *
+     * @return <code>true</code> if files are memory-mapped
+     * @see com.fs.xml2json.io.MappedFileInputStream
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Returns size of buffer for reading source file.
+     *
+     * @param fileSize size of source file
+     * @return configured size or size chosen by file size
+     * @see #getBufferSize(long)
+     */
+    public int getReadBufferSize(long fileSize) {
+        return readBufferSize > 0 ? readBufferSize : getBufferSize(fileSize);
+    }
+
+    /**
+     * Returns size of buffer for writing converted file.
+     *
+     * @param fileSize size of source file
+     * @return configured size or size chosen by file size
+     * @see #getBufferSize(long)
+     */
+    public int getWriteBufferSize(long fileSize) {
+        return writeBufferSize > 0 ? writeBufferSize : getBufferSize(fileSize);
+    }
+
+    /**
+     * Returns number of threads which compress output files (if they are compressed). Threads are shared
+     * by all files which are written at a time.
+     *
+     * @return number of threads, by default number of available processors
+     * @see com.fs.xml2json.io.ParallelGzipOutputStream
+     */
+    public int getCompressionThreads() {
+        return compressionThreads > 0 ? compressionThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns <code>true</code> if XML-files are converted in chunks with a checkpoint after every
+     * converted chunk, so interrupted conversion continues from the last checkpoint.
+     *
+     * @return <code>true</code> if checkpoints are written
+     * @see SplitConverter
+     */
+    public boolean isCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns path of records which are written as JSON Lines: every record of XML-file is converted
+     * to compact JSON document on its own line, content outside of records is dropped. JSON-files are
+     * read as JSON Lines, every line is converted to record element at this path.
+     *
+     * @return path like <code>/root/record</code> or <code>record</code>, <code>null</code> if XML-files
+     * are converted to one JSON document
+     * @see de.odysseus.staxon.json.stream.util.JsonLinesTarget
+     */
+    public String getJsonLinesPath() {
+        return jsonLinesPath;
+    }
+
+    /**
+     * Returns path of records which are written to rolling part files (<code>out-00001.json</code>, ...)
+     * when XML-file is converted, content outside of records stays in output file.
+     *
+     * @return path like <code>/root/record</code> or <code>record</code>, <code>null</code> if records
+     * are written to output file
+     * @see com.fs.xml2json.io.RollingRecordTarget
+     */
+    public String getRollPath() {
+        return rollPath;
+    }
+
+    /**
+     * Returns maximal number of records in part file.
+     *
+     * @return number of records, <code>0</code> for no limit
+     */
+    public int getRollRecords() {
+        return rollRecords;
+    }
+
+    /**
+     * Returns maximal (uncompressed) size of part file, the record which exceeds the size is the last
+     * record of the part.
+     *
+     * @return number of bytes, <code>0</code> for no limit
+     */
+    public long getRollSize() {
+        return rollSize;
+    }
+
+    /**
+     * Returns paths of elements which are converted with their subtrees, other elements are skipped
+     * except ancestors of selected elements (without their text).
+     *
+     * @return absolute (<code>/root/child</code>) or relative (<code>child</code>, <code>//child</code>)
+     * paths, empty if whole files are converted
+     * @see de.odysseus.staxon.util.ProjectionPaths
+     */
+    public List<String> getSelectPaths() {
+        return selectPaths;
+    }
+
+    /**
+     * Returns buffer size for file: 1/1024 of file size rounded down to a power of two,
+     * but not less than {@link #MIN_BUFFER_SIZE} and not more than {@link #MAX_BUFFER_SIZE}.
+     *
+     * @param fileSize size of file in bytes
+     * @return buffer size in bytes
+     */
+    public static int getBufferSize(long fileSize) {
+        long size = Long.highestOneBit(fileSize / 1024);
+        return (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, size));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{singlePass=%s, memoryBudget=%d, hardMemoryBudget=%s, schemaCacheFolder=%s, "
+                + "fingerprintSize=%d, arrayHints=%s, sampleRecords=%d, sampleSize=%d, splitPath=%s, threads=%d, "
+                + "chunkSize=%d, memoryMapped=%s, readBufferSize=%d, writeBufferSize=%d, compressionThreads=%d, "
+                + "checkpoint=%s, jsonLinesPath=%s, rollPath=%s, rollRecords=%d, rollSize=%d, selectPaths=%s}",
+                singlePass, memoryBudget, hardMemoryBudget, schemaCacheFolder, fingerprintSize, arrayHints,
+                sampleRecords, sampleSize, splitPath, threads, chunkSize, memoryMapped, readBufferSize,
+                writeBufferSize, compressionThreads, checkpoint, jsonLinesPath, rollPath, rollRecords, rollSize,
+                selectPaths);
+    }
+
+    /**
+     * Builder for {@link ConversionOptions}.
+     */
+    public static final class Builder {
+        private boolean singlePass = false;
+        private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+        private boolean hardMemoryBudget = false;
+        private File schemaCacheFolder = null;
+        private int fingerprintSize = ArraySchemaCache.DEFAULT_FINGERPRINT_SIZE;
+        private final List<String> arrayHints = new ArrayList<>();
+        private int sampleRecords = 0;
+        private long sampleSize = 0;
+        private String splitPath = null;
+        private int threads = 1;
+        private long chunkSize = DEFAULT_CHUNK_SIZE;
+        private boolean memoryMapped = false;
+        private int readBufferSize = 0;
+        private int writeBufferSize = 0;
+        private int compressionThreads = 0;
+        private boolean checkpoint = false;
+        private String jsonLinesPath = null;
+        private String rollPath = null;
+        private int rollRecords = 0;
+        private long rollSize = 0;
+        private final List<String> selectPaths = new ArrayList<>();
+
+        /**
+         * Private constructor, use {@link ConversionOptions#builder()}.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets single-pass mode for XML files.
+         *
+         * @param singlePass <code>true</code> to convert XML without pre-scan
+         * @return this builder
+         */
+        public Builder singlePass(boolean singlePass) {
+            this.singlePass = singlePass;
+            return this;
+        }
+
+        /**
+         * Sets memory budget for single-pass and hard budget modes.
+         *
+         * @param memoryBudget number of bytes, must not be negative
+         * @return this builder
+         */
+        public Builder memoryBudget(long memoryBudget) {
+            if (memoryBudget < 0) {
+                throw new IllegalArgumentException("Memory budget cannot be negative: " + memoryBudget);
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * Sets hard memory budget mode.
+         *
+         * @param hardMemoryBudget <code>true</code> to keep every buffer of conversion within memory budget
+         * @return this builder
+         */
+        public Builder hardMemoryBudget(boolean hardMemoryBudget) {
+            this.hardMemoryBudget = hardMemoryBudget;
+            return this;
+        }
+
+        /**
+         * Enables array schema cache.
+         *
+         * @param schemaCacheFolder folder for cache files or <code>null</code> to disable cache
+         * @return this builder
+         */
+        public Builder schemaCacheFolder(File schemaCacheFolder) {
+            this.schemaCacheFolder = schemaCacheFolder;
+            return this;
+        }
+
+        /**
+         * Sets number of bytes which identify structure of XML-file in array schema cache.
+         *
+         * @param fingerprintSize number of bytes, must be positive
+         * @return this builder
+         */
+        public Builder fingerprintSize(int fingerprintSize) {
+            if (fingerprintSize <= 0) {
+                throw new IllegalArgumentException("Fingerprint size must be positive: " + fingerprintSize);
+            }
+            this.fingerprintSize = fingerprintSize;
+            return this;
+        }
+
+        /**
+         * Adds paths of elements which are always converted to arrays.
+         *
+         * @param arrayHints absolute or relative element paths
+         * @return this builder
+         */
+        public Builder arrayHints(Collection<String> arrayHints) {
+            this.arrayHints.addAll(arrayHints);
+            return this;
+        }
+
+        /**
+         * Sets maximum number of records used for determining arrays.
+         *
+         * @param sampleRecords number of records, <code>0</code> to not limit
+         * @return this builder
+         */
+        public Builder sampleRecords(int sampleRecords) {
+            if (sampleRecords < 0) {
+                throw new IllegalArgumentException("Number of sample records cannot be negative: " + sampleRecords);
+            }
+            this.sampleRecords = sampleRecords;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of bytes used for determining arrays.
+         *
+         * @param sampleSize number of bytes, <code>0</code> to not limit
+         * @return this builder
+         */
+        public Builder sampleSize(long sampleSize) {
+            if (sampleSize < 0) {
+                throw new IllegalArgumentException("Sample size cannot be negative: " + sampleSize);
+            }
+            this.sampleSize = sampleSize;
+            return this;
+        }
+
+        /**
+         * Sets path of records which XML-files are split at.
+         *
+         * @param splitPath path like <code>/root/record</code> or <code>record</code>,
+         * {@link com.fs.xml2json.util.XmlRecordSplitter#AUTO} to detect records
+         * or <code>null</code> to not split files
+         * @return this builder
+         */
+        public Builder splitPath(String splitPath) {
+            if (null != splitPath && !splitPath.matches("/?[^/\\s]+(/[^/\\s]+)?")) {
+                throw new IllegalArgumentException("Split path must be a name or a path of two elements: "
+                        + splitPath);
+            }
+            this.splitPath = splitPath;
+            return this;
+        }
+
+        /**
+         * Sets number of threads which convert one XML-file split at records.
+         *
+         * @param threads number of threads, must be positive
+         * @return this builder
+         */
+        public Builder threads(int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets maximum size of chunk of XML-file split at records.
+         *
+         * @param chunkSize number of bytes, must be positive
+         * @return this builder
+         */
+        public Builder chunkSize(long chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets reading of source files through memory-mapped windows.
+         *
+         * @param memoryMapped <code>true</code> to memory-map files
+         * @return this builder
+         */
+        public Builder memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
+        /**
+         * Sets size of buffer for reading source files.
+         *
+         * @param readBufferSize number of bytes, <code>0</code> to choose size by file size
+         * @return this builder
+         */
+        public Builder readBufferSize(int readBufferSize) {
+            if (readBufferSize < 0) {
+                throw new IllegalArgumentException("Read buffer size cannot be negative: " + readBufferSize);
+            }
+            this.readBufferSize = readBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets size of buffer for writing converted files.
+         *
+         * @param writeBufferSize number of bytes, <code>0</code> to choose size by file size
+         * @return this builder
+         */
+        public Builder writeBufferSize(int writeBufferSize) {
+            if (writeBufferSize < 0) {
+                throw new IllegalArgumentException("Write buffer size cannot be negative: " + writeBufferSize);
+            }
+            this.writeBufferSize = writeBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets number of threads which compress output files, threads are shared by all files written at a time.
+         *
+         * @param compressionThreads number of threads, <code>0</code> to use all available processors
+         * @return this builder
+         */
+        public Builder compressionThreads(int compressionThreads) {
+            if (compressionThreads < 0) {
+                throw new IllegalArgumentException("Number of compression threads cannot be negative: "
+                        + compressionThreads);
+            }
+            this.compressionThreads = compressionThreads;
+            return this;
+        }
+
+        /**
+         * Sets conversion of XML-files in chunks with checkpoints. Files are split at
+         * {@link #splitPath(String) split path} or at detected records if split path is not set.
+         *
+         * @param checkpoint <code>true</code> to write checkpoints
+         * @return this builder
+         */
+        public Builder checkpoint(boolean checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
+        /**
+         * Sets path of records which are written as JSON Lines.
+         *
+         * @param jsonLinesPath path like <code>/root/record</code> or <code>record</code>,
+         * <code>null</code> to convert XML-files to one JSON document
+         * @return this builder
+         */
+        public Builder jsonLinesPath(String jsonLinesPath) {
+            if (null != jsonLinesPath && !jsonLinesPath.matches("/?[^/\\s]+(/[^/\\s]+)*")) {
+                throw new IllegalArgumentException("JSON Lines path must be a name or a path of elements: "
+                        + jsonLinesPath);
+            }
+            this.jsonLinesPath = jsonLinesPath;
+            return this;
+        }
+
+        /**
+         * Sets path of records which are written to rolling part files.
+         *
+         * @param rollPath path like <code>/root/record</code> or <code>record</code>,
+         * <code>null</code> to write records to output file
+         * @return this builder
+         */
+        public Builder rollPath(String rollPath) {
+            if (null != rollPath && !rollPath.matches("/?[^/\\s]+(/[^/\\s]+)*")) {
+                throw new IllegalArgumentException("Roll path must be a name or a path of elements: " + rollPath);
+            }
+            this.rollPath = rollPath;
+            return this;
+        }
+
+        /**
+         * Sets maximal number of records in part file.
+         *
+         * @param rollRecords number of records, <code>0</code> for no limit
+         * @return this builder
+         */
+        public Builder rollRecords(int rollRecords) {
+            if (rollRecords < 0) {
+                throw new IllegalArgumentException("Number of records in part cannot be negative: " + rollRecords);
+            }
+            this.rollRecords = rollRecords;
+            return this;
+        }
+
+        /**
+         * Sets maximal (uncompressed) size of part file.
+         *
+         * @param rollSize number of bytes, <code>0</code> for no limit
+         * @return this builder
+         */
+        public Builder rollSize(long rollSize) {
+            if (rollSize < 0) {
+                throw new IllegalArgumentException("Size of part cannot be negative: " + rollSize);
+            }
+            this.rollSize = rollSize;
+            return this;
+        }
+
+        /**
+         * Adds paths of elements which are converted with their subtrees.
+         *
+         * @param selectPaths absolute or relative element paths
+         * @return this builder
+         */
+        public Builder selectPaths(Collection<String> selectPaths) {
+            for (String path : selectPaths) {
+                if (!path.matches("(//?)?[^/\\s]+(/[^/\\s]+)*")) {
+                    throw new IllegalArgumentException("Select path must be a name or a path of elements: " + path);
+                }
+            }
+            this.selectPaths.addAll(selectPaths);
+            return this;
+        }
+
+        /**
+         * Creates options.
+         *
+         * @return options
+         * @throws IllegalArgumentException if rolling output is combined with JSON Lines or has no limit
+         */
+        public ConversionOptions build() {
+            if (null != rollPath && null != jsonLinesPath) {
+                throw new IllegalArgumentException("Rolling output cannot be combined with JSON Lines");
+            }
+            if (null != rollPath && 0 == rollRecords && 0 == rollSize) {
+                throw new IllegalArgumentException("Rolling output needs number of records or size of part");
+            }
+            return new ConversionOptions(this);
+        }
+    }
+}
@@ -0,0 +1,591 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.io.CountingOutputStream;
+import com.fs.xml2json.type.FileTypeEnum;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.xml.stream.XMLStreamException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP server which converts bodies of <code>POST</code> requests: XML posted to {@value #XML_TO_JSON_PATH}
+ * is converted to JSON, JSON posted to {@value #JSON_TO_XML_PATH} is converted to XML.
+ * <p>Request body is streamed through {@link ConverterService#convert(InputStream, OutputStream, FileTypeEnum)}
+ * to response body (chunked), nothing is stored in temporary files or buffered in full. Response status
+ * is sent with the first converted bytes, so errors found before that are answered with
+ * <code>400 Bad Request</code> (invalid XML/JSON) or <code>413 Payload Too Large</code> (body exceeds
+ * maximum request size), later errors abort the response.
+ * <p>Requests are converted by a bounded pool of worker threads (or in virtual threads, see
+ * {@link ConversionExecutor}, then more requests are in flight), a limited number of requests waits in
+ * queue, further requests are answered with <code>503 Service Unavailable</code> by one rejecting thread.
+ * If rejected requests pile up faster than they are answered, connections of further requests are closed
+ * without answer. Every request is logged with status, read and written bytes and duration, totals are
+ * available from the server and conversions are recorded in metrics of the engine.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionServer implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionServer.class);
+
+    /**
+     * Default port - 8080.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Default maximum size (in bytes) of request body - 256 MB.
+     */
+    public static final long DEFAULT_MAX_REQUEST_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Path which converts XML to JSON.
+     */
+    public static final String XML_TO_JSON_PATH = "/xml2json";
+
+    /**
+     * Path which converts JSON to XML.
+     */
+    public static final String JSON_TO_XML_PATH = "/json2xml";
+
+    /**
+     * Number of requests per worker thread which wait in queue.
+     */
+    private static final int QUEUED_REQUESTS_PER_THREAD = 4;
+
+    /**
+     * Seconds during which running requests may finish when server is stopped.
+     */
+    private static final int STOP_DELAY = 5;
+
+    private final InetSocketAddress address;
+    private final ConverterService service;
+    private final int threads;
+    private final long maxRequestSize;
+    private final int inFlight;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder readBytes = new LongAdder();
+    private final LongAdder writtenBytes = new LongAdder();
+
+    private HttpServer server;
+    private ConversionExecutor executor;
+    private ThreadPoolExecutor rejector;
+
+    /**
+     * Creates server, server is started by {@link #start()}.
+     *
+     * @param address address to listen on, port <code>0</code> picks a free port
+     * @param service service which converts requests
+     * @param threads number of requests converted simultaneously
+     * @param maxRequestSize maximum number of bytes of request body
+     */
+    public ConversionServer(InetSocketAddress address, ConverterService service, int threads, long maxRequestSize) {
+        this(address, service, threads, maxRequestSize, 0);
+    }
+
+    /**
+     * Creates server, server is started by {@link #start()}.
+     *
+     * @param address address to listen on, port <code>0</code> picks a free port
+     * @param service service which converts requests
+     * @param threads number of requests converted simultaneously
+     * @param maxRequestSize maximum number of bytes of request body
+     * @param inFlight number of requests converted simultaneously in virtual threads if JVM has them, not less
+     * than <code>threads</code>, <code>0</code> to convert requests in platform threads
+     */
+    public ConversionServer(InetSocketAddress address, ConverterService service, int threads, long maxRequestSize,
+            int inFlight) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        if (inFlight != 0 && inFlight < threads) {
+            throw new IllegalArgumentException("Number of requests in flight cannot be less than number of threads: "
+                    + inFlight);
+        }
+        if (maxRequestSize <= 0) {
+            throw new IllegalArgumentException("Maximum request size must be positive: " + maxRequestSize);
+        }
+        this.address = address;
+        this.service = service;
+        this.threads = threads;
+        this.maxRequestSize = maxRequestSize;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Starts listening and converting requests.
+     *
+     * @throws IOException if server cannot listen on address
+     */
+    public synchronized void start() throws IOException {
+        if (null != server) {
+            throw new IllegalStateException("Server is already started");
+        }
+        int queueSize = threads * QUEUED_REQUESTS_PER_THREAD;
+        // requests which do not fit into queue are answered by rejecting thread, if it cannot keep up
+        // connections are closed without answer
+        rejector = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                RejectingThread::new, (task, pool) -> dropRequest());
+        ConversionExecutor workers = inFlight > 0
+                ? new ConversionExecutor("ServeWorker", threads, inFlight, queueSize, true)
+                : new ConversionExecutor("ServeWorker", threads, queueSize, false);
+        executor = workers;
+
+        HttpServer httpServer = HttpServer.create(address, 0);
+        httpServer.createContext(XML_TO_JSON_PATH, exchange -> handle(exchange, FileTypeEnum.XML));
+        httpServer.createContext(JSON_TO_XML_PATH, exchange -> handle(exchange, FileTypeEnum.JSON));
+        httpServer.setExecutor(task -> {
+            try {
+                workers.execute(task);
+            } catch (RejectedExecutionException ex) {
+                rejector.execute(task);
+            }
+        });
+        httpServer.start();
+        server = httpServer;
+        LOGGER.info("Listening on http://{}:{} ({} {}threads, maximum request size {} bytes)",
+                server.getAddress().getHostString(), server.getAddress().getPort(), threads,
+                workers.isVirtual() ? "virtual " : "", maxRequestSize);
+    }
+
+    /**
+     * Drops request which cannot be queued by rejecting thread. HTTP server closes connection when
+     * dispatching of request fails with I/O error (Java 11 and later close it on any error, Java 8 only
+     * logs other errors and keeps connection open).
+     */
+    private void dropRequest() {
+        requests.increment();
+        rejectedRequests.increment();
+        LOGGER.debug("Request is dropped, all threads are busy and queues are full");
+        ConversionServer.<RuntimeException>rethrow(new IOException("Request is dropped, server is overloaded"));
+    }
+
+    /**
+     * Throws checked exception where it cannot be declared.
+     *
+     * @param <T> type which exception is thrown as
+     * @param ex exception
+     * @throws T always
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> void rethrow(Throwable ex) throws T {
+        throw (T) ex;
+    }
+
+    /**
+     * Returns address which server listens on.
+     *
+     * @return address with actual port
+     * @throws IllegalStateException if server is not started
+     */
+    public synchronized InetSocketAddress getAddress() {
+        if (null == server) {
+            throw new IllegalStateException("Server is not started");
+        }
+        return server.getAddress();
+    }
+
+    /**
+     * Stops server, running requests may finish within a few seconds.
+     */
+    @Override
+    public synchronized void close() {
+        if (null != server) {
+            server.stop(STOP_DELAY);
+            executor.shutdownNow();
+            rejector.shutdownNow();
+            server = null;
+            LOGGER.info("Server stopped: {} requests, {} failed, {} rejected", getRequests(), getFailedRequests(),
+                    getRejectedRequests());
+        }
+    }
+
+    /**
+     * Returns number of requests which have been handled (including failed and rejected).
+     *
+     * @return number of requests
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns number of requests which have been answered with error status or aborted (rejected requests
+     * are not counted).
+     *
+     * @return number of failed requests
+     */
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    /**
+     * Returns number of requests which have been rejected, because all threads were busy and queue was full
+     * (including requests which were dropped without answer, because rejecting thread could not keep up).
+     *
+     * @return number of rejected requests
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /**
+     * Returns number of bytes read from request bodies.
+     *
+     * @return number of bytes
+     */
+    public long getReadBytes() {
+        return readBytes.sum();
+    }
+
+    /**
+     * Returns number of bytes written to response bodies.
+     *
+     * @return number of bytes
+     */
+    public long getWrittenBytes() {
+        return writtenBytes.sum();
+    }
+
+    /**
+     * Converts request body to response body.
+     *
+     * @param exchange request and response
+     * @param inputFileType type of request body
+     * @throws IOException if conversion fails after response has been started, connection is closed
+     */
+    private void handle(HttpExchange exchange, FileTypeEnum inputFileType) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+        LimitedInputStream input = new LimitedInputStream(exchange.getRequestBody(), maxRequestSize);
+        ResponseStream output = new ResponseStream(exchange, inputFileType == FileTypeEnum.XML
+                ? "application/json; charset=UTF-8" : "application/xml; charset=UTF-8");
+        int status = 200;
+        try {
+            try {
+                String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                long length = null == contentLength ? 0 : parseContentLength(contentLength);
+                if (Thread.currentThread() instanceof RejectingThread) {
+                    rejectedRequests.increment();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    status = sendError(exchange, 503, "Too many requests");
+                } else if (!"POST".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", "POST");
+                    status = sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+                } else if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                    status = sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+                } else if (length < 0) {
+                    status = sendError(exchange, 400, "Invalid Content-Length: " + contentLength);
+                } else if (length > maxRequestSize) {
+                    status = sendError(exchange, 413, "Request body exceeds " + maxRequestSize + " bytes");
+                } else {
+                    service.convert(input, output, inputFileType);
+                }
+            } catch (XMLStreamException ex) {
+                // parser wraps exceptions of input stream
+                status = fail(exchange, output, isRequestTooLarge(ex) ? 413 : 400, ex);
+            } catch (RequestTooLargeException ex) {
+                status = fail(exchange, output, 413, ex);
+            } catch (IOException | RuntimeException ex) {
+                status = fail(exchange, output, 500, ex);
+            } finally {
+                readBytes.add(input.getCount());
+                writtenBytes.add(output.getCount());
+                LOGGER.info("{} {} {} - read {} bytes, written {} bytes in {} ms", exchange.getRequestMethod(),
+                        exchange.getRequestURI().getPath(), status, input.getCount(), output.getCount(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            if (200 == status) {
+                // finishes chunked response, counters are updated before client gets the end of response
+                output.close();
+            }
+        } finally {
+            // aborted response is closed too, otherwise connection is kept by HTTP server
+            exchange.close();
+        }
+    }
+
+    /**
+     * Parses value of Content-Length header. Built-in HTTP server rejects malformed values itself,
+     * other server providers may pass them to handler.
+     *
+     * @param contentLength value of header
+     * @return length or <code>-1</code> if value is not a non-negative number
+     */
+    static long parseContentLength(String contentLength) {
+        try {
+            return Math.max(-1, Long.parseLong(contentLength.trim()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if exception is caused by request body which exceeds maximum size.
+     *
+     * @param ex exception
+     * @return <code>true</code> if request is too large
+     */
+    private static boolean isRequestTooLarge(Throwable ex) {
+        for (Throwable cause = ex; null != cause; cause = cause.getCause()) {
+            if (cause instanceof RequestTooLargeException
+                    || (cause instanceof XMLStreamException
+                    && ((XMLStreamException) cause).getNestedException() instanceof RequestTooLargeException)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Answers failed request with error status, if response has been started connection is closed instead.
+     *
+     * @param exchange request and response
+     * @param output response stream
+     * @param status error status
+     * @param ex error
+     * @return status
+     * @throws IOException if response has been started
+     */
+    private int fail(HttpExchange exchange, ResponseStream output, int status, Exception ex) throws IOException {
+        if (output.isStarted()) {
+            failedRequests.increment();
+            LOGGER.warn("Conversion of {} failed after response has been started: {}",
+                    exchange.getRequestURI().getPath(), ex.toString());
+            // HTTP server closes connection without finishing chunked response
+            throw new IOException("Response aborted: " + ex.getMessage(), ex);
+        }
+        return sendError(exchange, status, ex.getMessage());
+    }
+
+    /**
+     * Sends error response with message as plain text.
+     *
+     * @param exchange request and response
+     * @param status error status
+     * @param message error message
+     * @return status
+     * @throws IOException if response cannot be sent
+     */
+    private int sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (status != 503) {
+            failedRequests.increment();
+        }
+        byte[] body = (null == message ? "" : message).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+        return status;
+    }
+
+    /**
+     * Thread which answers requests rejected by worker pool.
+     */
+    private static final class RejectingThread extends Thread {
+
+        /**
+         * Constructor.
+         *
+         * @param task task of thread
+         */
+        RejectingThread(Runnable task) {
+            super(task, "ServeRejector");
+        }
+    }
+
+    /**
+     * Exception which is thrown when request body exceeds maximum request size.
+     */
+    private static final class RequestTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor.
+         *
+         * @param message message
+         */
+        RequestTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Input stream of request body which counts read bytes and fails when body exceeds maximum size.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long count;
+
+        /**
+         * Constructor.
+         *
+         * @param input request body
+         * @param maxSize maximum number of bytes
+         */
+        LimitedInputStream(InputStream input, long maxSize) {
+            super(input);
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Returns number of read bytes.
+         *
+         * @return number of bytes
+         */
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        /**
+         * Counts read bytes.
+         *
+         * @param n number of read bytes
+         * @throws RequestTooLargeException if maximum size is exceeded
+         */
+        private void count(long n) throws RequestTooLargeException {
+            count += n;
+            if (count > maxSize) {
+                throw new RequestTooLargeException("Request body exceeds " + maxSize + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Output stream of response body which sends response headers (status <code>200</code>, chunked body)
+     * when the first bytes are written, so errors found before can be answered with error status.
+     */
+    private static final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final String contentType;
+        private CountingOutputStream body;
+
+        /**
+         * Constructor.
+         *
+         * @param exchange request and response
+         * @param contentType content type of response
+         */
+        ResponseStream(HttpExchange exchange, String contentType) {
+            this.exchange = exchange;
+            this.contentType = contentType;
+        }
+
+        /**
+         * Returns <code>true</code> if response headers have been sent.
+         *
+         * @return <code>true</code> if response is started
+         */
+        boolean isStarted() {
+            return null != body;
+        }
+
+        /**
+         * Returns number of written bytes.
+         *
+         * @return number of bytes
+         */
+        long getCount() {
+            return null == body ? 0 : body.getCount();
+        }
+
+        /**
+         * Returns response body, sends response headers first.
+         *
+         * @return response body
+         * @throws IOException if headers cannot be sent
+         */
+        private OutputStream body() throws IOException {
+            if (null == body) {
+                exchange.getResponseHeaders().set("Content-Type", contentType);
+                exchange.sendResponseHeaders(200, 0);
+                body = new CountingOutputStream(exchange.getResponseBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            body().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                body().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // headers are not sent by flush, converter flushes output at the end
+            if (null != body) {
+                body.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            body().close();
+        }
+    }
+}
@@ -16,30 +16,50 @@
 
 package com.fs.xml2json.service;
 
+import com.fs.xml2json.io.ArrayTrackingStreamWriter;
+import com.fs.xml2json.io.ArrayTrackingStreamWriter.UnknownArrayException;
+import com.fs.xml2json.io.ChannelOutputStream;
+import com.fs.xml2json.io.CountingOutputStream;
+import com.fs.xml2json.io.CountingStreamReader;
+import com.fs.xml2json.io.MappedFileInputStream;
+import com.fs.xml2json.io.ParallelGzipOutputStream;
+import com.fs.xml2json.io.RollingRecordTarget;
 import com.fs.xml2json.io.WrappedInputStream;
+import com.fs.xml2json.metrics.ConversionRecorder;
 import com.fs.xml2json.type.FileTypeEnum;
 import com.fs.xml2json.util.XmlUtils;
-import de.odysseus.staxon.json.JsonXMLConfig;
-import de.odysseus.staxon.json.JsonXMLConfigBuilder;
-import de.odysseus.staxon.json.JsonXMLInputFactory;
-import de.odysseus.staxon.json.JsonXMLOutputFactory;
-import de.odysseus.staxon.json.util.XMLMultipleEventWriter;
-import de.odysseus.staxon.xml.util.PrettyXMLEventWriter;
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamSource;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.json.util.XMLMultipleStreamWriter;
+import de.odysseus.staxon.util.XMLStreamCopier;
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLOutputFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +69,8 @@ import java.util.Objects;
 
 /**
  * Service which responsible for file conversion from JSON to XML and vise versa.
+ * <p>Service is thread-safe: one instance can convert several files simultaneously, every conversion
+ * uses its own readers and writers, while array schema cache and statistics are shared.
  *
  * @author Anton Mykolaienko
  * @since 1.2.0
@@ -59,8 +81,73 @@ public class ConverterService {
 
     private static final String UNSUPPORTED_FILE_TYPE_TEMPLATE = "Unsupported file type: '%s'";
 
+    private final ConversionOptions options;
+    private final ConversionEngine engine;
+    private final ArraySchemaCache schemaCache;
+    private final LongAdder lateCorrections = new LongAdder();
+    private final SplitConverter splitConverter;
+    private final JsonLinesConverter jsonLinesConverter;
+
+    /**
+     * Creates service with default options.
+     */
+    public ConverterService() {
+        this(ConversionOptions.DEFAULT);
+    }
+
+    /**
+     * Creates service with custom options and shared engine.
+     *
+     * @param options conversion options
+     * @see ConversionEngine#getInstance()
+     */
+    public ConverterService(ConversionOptions options) {
+        this(options, ConversionEngine.getInstance());
+    }
+
+    /**
+     * Creates service with custom options and engine.
+     *
+     * @param options conversion options
+     * @param engine engine which creates readers and writers
+     */
+    public ConverterService(ConversionOptions options, ConversionEngine engine) {
+        this.options = Objects.requireNonNull(options, "Options must be not null");
+        this.engine = Objects.requireNonNull(engine, "Engine must be not null");
+        this.schemaCache = null == options.getSchemaCacheFolder() ? null
+                : new ArraySchemaCache(options.getSchemaCacheFolder(), options.getFingerprintSize());
+        this.splitConverter = options.isCheckpoint()
+                || (null != options.getSplitPath() && options.getThreads() >= 2)
+                ? new SplitConverter(options, engine) : null;
+        this.jsonLinesConverter = null == options.getJsonLinesPath() ? null
+                : new JsonLinesConverter(options, engine);
+    }
+
+    /**
+     * Returns array schema cache.
+     *
+     * @return cache or <code>null</code> if cache is disabled
+     */
+    public ArraySchemaCache getSchemaCache() {
+        return schemaCache;
+    }
+
     /**
      * Converts file from XML to JSON or vise versa and returns link to converted file.
+     * <p>If arrays of XML-file are known from array schema cache or hints, the file is converted
+     * without determining arrays first. When conversion finds an array which is not known, it stops,
+     * the drift is reported and file is converted again with determined arrays.
+     * <p>In sampling mode arrays are determined by the first records of XML-file. Arrays which appear
+     * later are detected during conversion (late corrections), so the file is never converted again.
+     * <p>If split path is set, XML-file is split at records and converted in several threads, arrays are
+     * determined in chunks simultaneously. If the file cannot be split, it is converted as usual.
+     * <p>With checkpoints XML-file is converted in chunks even in one thread and a checkpoint is written
+     * after every converted chunk, so canceled or killed conversion continues from the last checkpoint.
+     * <p>Compressed files (<code>.gz</code>) are decompressed on the fly, output file with <code>.gz</code>
+     * extension is compressed in several threads. Compressed XML-files are not split.
+     * <p>If JSON Lines path is set, every record of XML-file is written as compact JSON document on its own
+     * line. Such files are converted in one thread. JSON-file is read as JSON Lines, every line is converted
+     * to record element, lines are converted in several threads.
      *
      * @param sourceFile file to convert
      * @param outputFile output file
@@ -75,6 +162,7 @@ public class ConverterService {
         StopWatch sw = new StopWatch();
 
         Objects.requireNonNull(listener, "Listener must be not null");
+        ConversionRecorder recorder = new ConversionRecorder(sourceFile.getName());
 
         FileTypeEnum inputFileType = FileTypeEnum.parseByFileName(sourceFile.getName());
 
@@ -87,39 +175,342 @@ public class ConverterService {
             parentFolder.mkdirs();
         }
 
-        try (InputStream input = getWrappedInputStream(sourceFile, listener, isCanceled);
-                OutputStream output = getOutputStream(outputFile)) {
+        if (inputFileType == FileTypeEnum.XML && null != splitConverter && null == options.getJsonLinesPath()
+                && null == options.getRollPath() && options.getSelectPaths().isEmpty()
+                && !FileTypeEnum.isCompressed(sourceFile.getName())
+                && !FileTypeEnum.isCompressed(outputFile.getName())) {
+            sw.start();
+            List<String> arrays = splitConverter.convert(sourceFile, outputFile, listener, isCanceled);
+            if (null != arrays) {
+                ArraySchemaCache.Key schemaKey = null == schemaCache ? null : schemaCache.createKey(sourceFile);
+                if (null != schemaKey) {
+                    schemaCache.put(schemaKey, arrays);
+                }
+                if (!isCanceled.get()) {
+                    engine.getMetrics().record(recorder.finish(sourceFile.length(), outputFile.length()));
+                }
+                LOGGER.info("Taken time: {}", sw);
+                return outputFile;
+            }
+            LOGGER.info("File '{}' is converted in one thread", sourceFile.getAbsolutePath());
+            sw.reset();
+            listener.setNumberOfReads(2);
+        }
 
+        ArraySchemaCache.Key schemaKey = null;
+        List<String> knownArrays = null;
+        boolean isCacheHit = false;
+        if (inputFileType == FileTypeEnum.XML && !options.isSinglePass()) {
+            if (null != schemaCache) {
+                schemaKey = schemaCache.createKey(sourceFile);
+                knownArrays = null == schemaKey ? null : schemaCache.get(schemaKey);
+                isCacheHit = null != knownArrays;
+            }
+            if (null == knownArrays && isPreScanBounded()) {
+                recorder.startPreScan();
+                knownArrays = determineSampleArrays(sourceFile);
+                recorder.endPreScan(sourceFile.length(), knownArrays.size());
+            }
+            if (null == knownArrays && !options.getArrayHints().isEmpty()) {
+                knownArrays = Collections.emptyList();
+            }
+        }
+
+        if (inputFileType == FileTypeEnum.XML && (options.isSinglePass() || null != knownArrays)) {
+            listener.setNumberOfReads(1);
+        }
+
+        try {
             sw.start();
 
-            // converter config
-            JsonXMLConfig config = createConfig(inputFileType);
+            Set<String> unknownArrays = convert(sourceFile, outputFile, inputFileType, listener, isCanceled,
+                    recorder, schemaKey, knownArrays, isCacheHit);
+
+            if (!unknownArrays.isEmpty() && !isCanceled.get()) {
+                if (isCacheHit) {
+                    schemaCache.reportDrift(schemaKey, sourceFile, unknownArrays);
+                }
+                if (isPreScanBounded()) {
+                    // arrays have been corrected during conversion
+                    lateCorrections.add(unknownArrays.size());
+                    LOGGER.info("Arrays corrected after sample in '{}': {}", sourceFile.getAbsolutePath(),
+                            unknownArrays);
+                } else {
+                    if (!isCacheHit) {
+                        LOGGER.warn("Array hints do not cover arrays {} in '{}'", unknownArrays,
+                                sourceFile.getAbsolutePath());
+                    }
+                    // convert again, determining arrays first
+                    listener.setNumberOfReads(2);
+                    convert(sourceFile, outputFile, inputFileType, listener, isCanceled, recorder, schemaKey,
+                            null, false);
+                }
+            }
+            if (!isCanceled.get()) {
+                engine.getMetrics().record(recorder.finish(sourceFile.length(), outputFile.length()));
+            }
+        } finally {
+            LOGGER.info("Taken time: {}", sw);
+            sw.stop();
+        }
+
+        return outputFile;
+    }
+
+    /**
+     * Converts XML from input stream to JSON or vise versa without touching disk.
+     * <p>XML is converted in one pass: arrays from array hints are started immediately, other arrays are
+     * detected on the fly (only undecided elements are held back within memory budget), so XML does not
+     * need to be read twice. Sample, array schema cache and split path are not used.
+     * <p>If JSON Lines path is set, records of XML are written as JSON Lines and JSON is read as JSON Lines.
+     * <p>Streams are not closed, caller owns them. Method can be called simultaneously from several threads.
+     *
+     * @param input source data
+     * @param output stream for converted data
+     * @param inputFileType type of source data, JSON is converted to XML and XML to JSON
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if source data is not valid XML/JSON
+     */
+    public void convert(InputStream input, OutputStream output, FileTypeEnum inputFileType)
+            throws IOException, XMLStreamException {
+        Objects.requireNonNull(input, "Input must be not null");
+        Objects.requireNonNull(output, "Output must be not null");
+        Objects.requireNonNull(inputFileType, "Input type must be not null");
+
+        if (inputFileType == FileTypeEnum.JSON && null != jsonLinesConverter) {
+            jsonLinesConverter.convert(input, output, new AtomicBoolean(false));
+            return;
+        }
+
+        ConversionRecorder recorder = new ConversionRecorder(null);
+        UnclosableInputStream source = new UnclosableInputStream(input);
+        CountingOutputStream counter = new CountingOutputStream(output);
+        UnclosableOutputStream target = new UnclosableOutputStream(counter);
+        CountingStreamReader reader = new CountingStreamReader(engine.createReader(inputFileType, source,
+                options.getSelectPaths(), getMemoryLimit()));
+        XMLStreamWriter writer = null;
+        boolean isClosed = false;
+        try {
+            if (inputFileType == FileTypeEnum.XML) {
+                XMLMultipleStreamWriter multipleWriter = new XMLMultipleStreamWriter(
+                        engine.createStreamingJsonWriter(target, options, null), true);
+                for (String hint : options.getArrayHints()) {
+                    multipleWriter.addMultiplePath(hint);
+                }
+                writer = new ArrayTrackingStreamWriter(multipleWriter);
+            } else {
+                writer = engine.createXmlWriter(target);
+            }
+
+            long start = System.nanoTime();
+            new XMLStreamCopier(reader, writer, StandardCharsets.UTF_8.name()).copy();
+            recorder.addCopy(reader, System.nanoTime() - start);
+
+            recorder.startOutputFlush();
+            writer.flush();
+            writer.close();
+            reader.close();
+            isClosed = true;
+        } finally {
+            if (!isClosed) {
+                // release temporary files of failed conversion, nothing more is written to output
+                target.detach();
+                closeQuietly(writer);
+                closeQuietly(reader);
+            }
+        }
+        output.flush();
+        recorder.endOutputFlush(counter.getCount());
+        engine.getMetrics().record(recorder.finish(source.getCount(), counter.getCount()));
+
+        if (writer instanceof ArrayTrackingStreamWriter) {
+            Set<String> unknownArrays = ((ArrayTrackingStreamWriter) writer)
+                    .getUnknownArrays(options.getArrayHints());
+            if (!unknownArrays.isEmpty()) {
+                lateCorrections.add(unknownArrays.size());
+                LOGGER.debug("Arrays detected on the fly in stream: {}", unknownArrays);
+            }
+        }
+    }
+
+    /**
+     * Converts data from readable channel to writable channel without touching disk.
+     *
+     * @param input source data
+     * @param output channel for converted data
+     * @param inputFileType type of source data, JSON is converted to XML and XML to JSON
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if source data is not valid XML/JSON
+     * @see #convert(InputStream, OutputStream, FileTypeEnum)
+     */
+    public void convert(ReadableByteChannel input, WritableByteChannel output, FileTypeEnum inputFileType)
+            throws IOException, XMLStreamException {
+        Objects.requireNonNull(input, "Input must be not null");
+        Objects.requireNonNull(output, "Output must be not null");
+        convert(Channels.newInputStream(input), Channels.newOutputStream(output), inputFileType);
+    }
+
+    /**
+     * Returns total number of arrays which were not found in samples and have been detected during conversion.
+     *
+     * @return number of late array corrections
+     */
+    public long getLateCorrections() {
+        return lateCorrections.sum();
+    }
+
+    /**
+     * Converts file and returns paths of arrays which were found in XML-file but are not in
+     * <code>knownArrays</code>.
+     *
+     * @param sourceFile file to convert
+     * @param outputFile output file
+     * @param inputFileType type of source file
+     * @param listener read listener
+     * @param isCanceled flag to stop process
+     * @param recorder recorder of conversion metrics
+     * @param schemaKey key of source file in array schema cache, can be <code>null</code>
+     * @param knownArrays arrays of XML-file or <code>null</code> if arrays must be determined first
+     * @param isCacheHit <code>true</code> if known arrays have been taken from cache
+     * @return paths of unknown arrays, empty if all arrays are known
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if cannot create XML/JSON writer
+     */
+    private Set<String> convert(File sourceFile, File outputFile, FileTypeEnum inputFileType,
+            IFileReadListener listener, AtomicBoolean isCanceled, ConversionRecorder recorder,
+            ArraySchemaCache.Key schemaKey, List<String> knownArrays, boolean isCacheHit)
+            throws IOException, XMLStreamException {
+        try (InputStream input = getWrappedInputStream(sourceFile, listener, isCanceled);
+                OutputStream output = getOutputStream(sourceFile, outputFile);
+                RollingStreamFactory parts = inputFileType == FileTypeEnum.XML && null != options.getRollPath()
+                        ? new RollingStreamFactory(engine.getJsonStreamFactory(), outputFile,
+                                partFile -> getOutputStream(sourceFile, partFile)) : null) {
+
+            if (inputFileType == FileTypeEnum.JSON && null != jsonLinesConverter) {
+                jsonLinesConverter.convert(input, output, isCanceled);
+                listener.finished();
+                return Collections.emptySet();
+            }
 
             // Create reader.
-            XMLEventReader reader = createReader(config, inputFileType, input);
+            CountingStreamReader reader = new CountingStreamReader(engine.createReader(inputFileType, input,
+                    options.getSelectPaths(), getMemoryLimit()));
             // Create writer.
-            XMLEventWriter writer = createWriter(config, sourceFile, output, isCanceled, listener);
+            CountingOutputStream counter = new CountingOutputStream(output);
+            XMLStreamWriter writer = createWriter(sourceFile, counter, parts, isCanceled, listener,
+                    recorder, schemaKey, knownArrays);
 
-            // Copy events from reader to writer.
-            writer.add(reader);
+            // Copy events from reader to writer (without creating event objects).
+            long start = System.nanoTime();
+            new XMLStreamCopier(reader, writer, StandardCharsets.UTF_8.name()).copy();
+            recorder.addCopy(reader, System.nanoTime() - start);
 
             listener.finished();
 
+            recorder.startOutputFlush();
             writer.flush();
             writer.close();
             reader.close();
+            recorder.endOutputFlush(counter.getCount());
+            if (null != parts) {
+                LOGGER.info("Records of '{}' are written to {} parts", sourceFile.getAbsolutePath(),
+                        parts.getParts().size());
+                recorder.setPartBytes(parts.getParts().stream().mapToLong(File::length).sum());
+            }
+
+            if (writer instanceof ArrayTrackingStreamWriter) {
+                ArrayTrackingStreamWriter trackingWriter = (ArrayTrackingStreamWriter) writer;
+                List<String> coveredArrays = new ArrayList<>(knownArrays);
+                coveredArrays.addAll(options.getArrayHints());
+                Set<String> unknownArrays = trackingWriter.getUnknownArrays(coveredArrays);
+                if (null != schemaKey && (unknownArrays.isEmpty() || isPreScanBounded())) {
+                    // store arrays learned from sample, hints or corrections
+                    Set<String> arrays = new TreeSet<>(knownArrays);
+                    arrays.addAll(trackingWriter.getArrays());
+                    if (!isCacheHit || !knownArrays.containsAll(arrays)) {
+                        schemaCache.put(schemaKey, arrays);
+                    }
+                }
+                return unknownArrays;
+            }
+            return Collections.emptySet();
+        } catch (UnknownArrayException ex) {
+            // conversion is stopped on the first unknown array, output file is written again
+            return Collections.singleton(ex.getPath());
         } catch (XMLStreamException ex) {
             throw new XMLStreamException(ex.getMessage());
-        } finally {
-            LOGGER.info("Taken time: {}", sw);
-            sw.stop();
         }
+    }
 
-        return outputFile;
+    /**
+     * Closes writer and ignores exceptions.
+     *
+     * @param writer writer to close, can be <code>null</code>
+     */
+    private static void closeQuietly(XMLStreamWriter writer) {
+        if (null != writer) {
+            try {
+                writer.close();
+            } catch (XMLStreamException ex) {
+                LOGGER.trace(ex.toString());
+            }
+        }
     }
 
     /**
-     * Returns wrapped input stream.
+     * Closes reader and ignores exceptions.
+     *
+     * @param reader reader to close
+     */
+    private static void closeQuietly(XMLStreamReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException ex) {
+            LOGGER.trace(ex.toString());
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if arrays are determined by prescan which may stop before the end of
+     * XML-file (by sample or by memory budget), so arrays found later are corrected during conversion.
+     *
+     * @return <code>true</code> in sampling and hard memory budget modes
+     */
+    private boolean isPreScanBounded() {
+        return options.isSampling() || options.isHardMemoryBudget();
+    }
+
+    /**
+     * Returns limit of memory which reader and writer of one conversion may hold.
+     *
+     * @return memory budget in hard memory budget mode, otherwise <code>-1</code>
+     */
+    private long getMemoryLimit() {
+        return options.isHardMemoryBudget() ? options.getMemoryBudget() : -1L;
+    }
+
+    /**
+     * Determines arrays by the first records of XML-file. In hard memory budget mode reading stops
+     * when found structure exceeds memory budget.
+     *
+     * @param sourceFile XML-file
+     * @return paths of arrays found in sample
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if sample is not valid XML
+     */
+    private List<String> determineSampleArrays(File sourceFile) throws IOException, XMLStreamException {
+        int maxRecords = options.getSampleRecords() > 0 ? options.getSampleRecords() : Integer.MAX_VALUE;
+        long maxBytes = options.getSampleSize() > 0 ? options.getSampleSize() : Long.MAX_VALUE;
+        long maxMemory = options.isHardMemoryBudget() ? options.getMemoryBudget() : Long.MAX_VALUE;
+        try (InputStream input = decompress(sourceFile, new BufferedInputStream(Files.newInputStream(
+                sourceFile.toPath(), StandardOpenOption.READ), options.getReadBufferSize(sourceFile.length())))) {
+            return XmlUtils.determineArrays(input, maxRecords, maxBytes, maxMemory);
+        }
+    }
+
+    /**
+     * Returns wrapped input stream, file is memory-mapped if it is enabled by options.
+     * Compressed file is decompressed, progress is counted by compressed bytes.
      *
      * @param sourceFile file to read
      * @param listener progress listener
@@ -130,108 +521,300 @@ public class ConverterService {
     private InputStream getWrappedInputStream(File sourceFile, IFileReadListener listener,
             AtomicBoolean isCanceled) throws IOException {
 
-        return new WrappedInputStream(new BufferedInputStream(
-                Files.newInputStream(sourceFile.toPath(), StandardOpenOption.READ)),
-                listener, isCanceled);
+        InputStream input = options.isMemoryMapped() ? new MappedFileInputStream(sourceFile.toPath())
+                : new BufferedInputStream(Files.newInputStream(sourceFile.toPath(), StandardOpenOption.READ),
+                        options.getReadBufferSize(sourceFile.length()));
+        return decompress(sourceFile, new WrappedInputStream(input, listener, isCanceled));
+    }
+
+    /**
+     * Returns stream which decompresses input if source file is compressed.
+     *
+     * @param sourceFile source file
+     * @param input input stream of source file
+     * @return decompressing stream or <code>input</code> if file is not compressed
+     * @throws IOException if gzip header is incorrect
+     */
+    private InputStream decompress(File sourceFile, InputStream input) throws IOException {
+        if (!FileTypeEnum.isCompressed(sourceFile.getName())) {
+            return input;
+        }
+        try {
+            return new GZIPInputStream(input, options.getReadBufferSize(sourceFile.length()));
+        } catch (IOException ex) {
+            input.close();
+            throw ex;
+        }
     }
 
     /**
-     * Returns output stream.
+     * Returns output stream which writes through file channel. If output file is compressed,
+     * data is compressed in several threads of engine, which are shared by all files written at a time.
      *
+     * @param sourceFile file to convert, buffer size depends on its size
      * @param outputFile file for output
      * @return output stream
      * @throws IOException if an I/O error occurs
      */
-    private OutputStream getOutputStream(File outputFile) throws IOException {
-        return new BufferedOutputStream(Files.newOutputStream(outputFile.toPath(),
-                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE));
-    }
-
-    /**
-     * Creates {@link JsonXMLConfig} based on input file type.
-     *
-     * @param inputFileType type of input file
-     * @return {@link JsonXMLConfig}
-     */
-    private JsonXMLConfig createConfig(FileTypeEnum inputFileType) {
-        switch (inputFileType) {
-            case JSON:
-                /*
-                * If the <code>multiplePI</code> property is
-                * set to <code>true</code>, the StAXON reader will generate
-                * <code>&lt;xml-multiple&gt;</code> processing instructions
-                * which would be copied to the XML output.
-                * These can be used by StAXON when converting back to JSON
-                * to trigger array starts.
-                * Set to <code>false</code> if you don't need to go back to JSON.
-                 */
-                return new JsonXMLConfigBuilder()
-                        .multiplePI(false)
-                        .build();
-            case XML:
-                /*
-                * If we want to insert JSON array boundaries for multiple elements,
-                * we need to set the <code>autoArray</code> property.
-                * If our XML source was decorated with <code>&lt;?xml-multiple?&gt;</code>
-                * processing instructions, we'd set the <code>multiplePI</code>
-                * property instead.
-                * With the <code>autoPrimitive</code> property set, element text gets
-                * automatically converted to JSON primitives (number, boolean, null).
-                 */
-                return new JsonXMLConfigBuilder()
-                        .autoArray(false)   //  if set to true then memory usage will increase
-                        .autoPrimitive(true)
-                        .prettyPrint(true)
-                        .build();
-            default:
-                throw new UnsupportedFileType(String.format(UNSUPPORTED_FILE_TYPE_TEMPLATE, inputFileType.toString()));
-        }
-    }
-
-    /**
-     * Creates specific reader based on input type.
-     *
-     * @param config config
-     * @param inputFileType input file type
-     * @param input input stream
-     * @return implementation of {@link XMLEventReader}
-     * @throws XMLStreamException if cannot create reader
-     */
-    private XMLEventReader createReader(JsonXMLConfig config, FileTypeEnum inputFileType, InputStream input)
-            throws XMLStreamException {
-        if (inputFileType == FileTypeEnum.XML) {
-            return XMLInputFactory.newInstance().createXMLEventReader(input);
-        } else {    // json
-            return new JsonXMLInputFactory(config).createXMLEventReader(input);
+    private OutputStream getOutputStream(File sourceFile, File outputFile) throws IOException {
+        OutputStream output = new ChannelOutputStream(outputFile.toPath(),
+                options.getWriteBufferSize(sourceFile.length()));
+        if (FileTypeEnum.isCompressed(outputFile.getName())) {
+            int threads = options.getCompressionThreads();
+            return threads == 1 ? new ParallelGzipOutputStream(output, 1)
+                    : new ParallelGzipOutputStream(output, engine.getCompressionExecutor(threads), threads);
         }
+        return output;
     }
 
     /**
      * Creates writer based on source file.
-     * <p>Is source file is XML, then arrays will be determined first.
+     * <p>Is source file is XML, then arrays will be determined first (unless single-pass mode is enabled
+     * or arrays are known). Writer for known arrays tracks arrays which are not known, it fails on the first
+     * one unless arrays are corrected on the fly.
      *
-     * @param config converter config
      * @param sourceFile file to convert
      * @param output output stream
+     * @param parts factory of JSON targets which write records to rolling parts, can be <code>null</code>
      * @param isCanceled object for canceling process
      * @param listener progress listener
+     * @param recorder recorder of conversion metrics, determining of arrays is recorded
+     * @param schemaKey key of source file in array schema cache, can be <code>null</code>
+     * @param knownArrays known arrays or <code>null</code> if arrays must be determined
      * @return file writer
      * @throws XMLStreamException if cannot create writer
      * @throws IOException if an I/O error occurs or if source file not found
      */
-    private XMLEventWriter createWriter(JsonXMLConfig config, File sourceFile, OutputStream output,
-            AtomicBoolean isCanceled, IFileReadListener listener)
-            throws XMLStreamException, IOException {
+    private XMLStreamWriter createWriter(File sourceFile, OutputStream output, RollingStreamFactory parts,
+            AtomicBoolean isCanceled, IFileReadListener listener, ConversionRecorder recorder,
+            ArraySchemaCache.Key schemaKey, List<String> knownArrays) throws XMLStreamException, IOException {
 
         FileTypeEnum inputFileType = FileTypeEnum.parseByFileName(sourceFile.getName());
         if (inputFileType == FileTypeEnum.XML) {
-            XMLEventWriter sourceWriter = new JsonXMLOutputFactory(config).createXMLEventWriter(output);
+            // in single-pass, sampling and hard memory budget modes arrays are decided on the fly, only
+            // undecided elements are held back (arrays found by prescan are started immediately)
+            XMLStreamWriter sourceWriter;
+            if (null != parts) {
+                sourceWriter = options.isSinglePass() || isPreScanBounded()
+                        ? engine.createStreamingJsonWriter(output, options, parts)
+                        : engine.createJsonWriter(output, parts);
+            } else {
+                sourceWriter = options.isSinglePass() || isPreScanBounded()
+                        ? engine.createStreamingJsonWriter(output, options, null)
+                        : engine.createJsonWriter(output, options.getJsonLinesPath());
+            }
+            if (options.isSinglePass()) {
+                return sourceWriter;
+            }
+            List<String> hints = options.getArrayHints();
+            if (null != knownArrays) {
+                XMLMultipleStreamWriter writer = new XMLMultipleStreamWriter(sourceWriter, true,
+                        knownArrays.toArray(new String[]{}));
+                for (String hint : hints) {
+                    writer.addMultiplePath(hint);
+                }
+                if (isPreScanBounded()) {
+                    // unknown arrays are corrected on the fly
+                    return new ArrayTrackingStreamWriter(writer);
+                }
+                List<String> coveredArrays = new ArrayList<>(knownArrays);
+                coveredArrays.addAll(hints);
+                return new ArrayTrackingStreamWriter(writer, coveredArrays);
+            }
             try (InputStream input = getWrappedInputStream(sourceFile, listener, isCanceled)) {
+                recorder.startPreScan();
                 List<String> fileArrays = XmlUtils.determineArrays(input);
-                return new XMLMultipleEventWriter(sourceWriter, true, fileArrays.toArray(new String[]{}));
+                recorder.endPreScan(sourceFile.length(), fileArrays.size());
+                if (null != schemaKey) {
+                    schemaCache.put(schemaKey, fileArrays);
+                }
+                XMLMultipleStreamWriter writer = new XMLMultipleStreamWriter(sourceWriter, true,
+                        fileArrays.toArray(new String[]{}));
+                for (String hint : hints) {
+                    writer.addMultiplePath(hint);
+                }
+                return writer;
             }
         } else { // json
-            return new PrettyXMLEventWriter(XMLOutputFactory.newInstance().createXMLEventWriter(output));
+            return engine.createXmlWriter(output);
+        }
+    }
+
+    /**
+     * Input stream which is not closed by readers, caller closes source stream. Read bytes are counted.
+     */
+    private static final class UnclosableInputStream extends FilterInputStream {
+        private long count;
+
+        /**
+         * Creates stream.
+         *
+         * @param input source stream
+         */
+        UnclosableInputStream(InputStream input) {
+            super(input);
+        }
+
+        /**
+         * Returns number of read bytes.
+         *
+         * @return number of bytes
+         */
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+            // source stream is closed by caller
+        }
+    }
+
+    /**
+     * Output stream which is not closed by writers, caller closes target stream.
+     */
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+        private boolean isDetached;
+
+        /**
+         * Creates stream.
+         *
+         * @param output target stream
+         */
+        UnclosableOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        /**
+         * Discards all further data, so writer of failed conversion can be closed without writing to target.
+         */
+        void detach() {
+            isDetached = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!isDetached) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!isDetached) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!isDetached) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // target stream is closed by caller
+            flush();
+        }
+    }
+
+    /**
+     * Factory of JSON targets which write records to rolling part files of one conversion.
+     * Closing the factory deletes unfinished part if conversion fails.
+     */
+    private final class RollingStreamFactory extends JsonStreamFactory implements Closeable {
+        private final JsonStreamFactory delegate;
+        private final File outputFile;
+        private final RollingRecordTarget.PartOpener opener;
+        private RollingRecordTarget target;
+
+        /**
+         * Constructor.
+         *
+         * @param delegate factory of JSON streams
+         * @param outputFile output file, parts are named after it
+         * @param opener opener of output streams of parts
+         */
+        RollingStreamFactory(JsonStreamFactory delegate, File outputFile, RollingRecordTarget.PartOpener opener) {
+            this.delegate = delegate;
+            this.outputFile = outputFile;
+            this.opener = opener;
+        }
+
+        /**
+         * Returns finished parts.
+         *
+         * @return part files, empty if target has not been created
+         */
+        List<File> getParts() {
+            return null == target ? Collections.emptyList() : target.getParts();
+        }
+
+        @Override
+        public JsonStreamSource createJsonStreamSource(InputStream input) throws IOException {
+            return delegate.createJsonStreamSource(input);
+        }
+
+        @Override
+        public JsonStreamSource createJsonStreamSource(Reader reader) throws IOException {
+            return delegate.createJsonStreamSource(reader);
+        }
+
+        @Override
+        public JsonStreamTarget createJsonStreamTarget(OutputStream output, boolean pretty) throws IOException {
+            return createRollingTarget(delegate.createJsonStreamTarget(output, pretty), pretty);
+        }
+
+        @Override
+        public JsonStreamTarget createJsonStreamTarget(Writer writer, boolean pretty) throws IOException {
+            return createRollingTarget(delegate.createJsonStreamTarget(writer, pretty), pretty);
+        }
+
+        /**
+         * Creates target which writes records to parts and the rest to output file.
+         *
+         * @param outputTarget target of output file
+         * @param pretty <code>true</code> if parts are pretty-printed
+         * @return rolling target
+         */
+        private JsonStreamTarget createRollingTarget(JsonStreamTarget outputTarget, boolean pretty) {
+            target = new RollingRecordTarget(outputTarget, options.getRollPath(), delegate, pretty, outputFile,
+                    options.getRollRecords(), options.getRollSize(), opener);
+            return target;
+        }
+
+        @Override
+        public void close() {
+            if (null != target) {
+                target.discard();
+            }
         }
     }
 }
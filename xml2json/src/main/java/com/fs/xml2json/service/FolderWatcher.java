@@ -0,0 +1,362 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.listener.CountingFileReadListener;
+import com.fs.xml2json.util.ConverterUtils;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.xml.stream.XMLStreamException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches source folder and converts files which appear in it until process is canceled.
+ * <p>Files which exist when watching starts are converted if they have no converted file or converted
+ * file is older. New and changed files are converted when they have not changed (size and time of last
+ * modification) during quiet period, so files which are still being written are not converted.
+ * Files are converted by a pool of worker threads (or in virtual threads, see {@link ConversionExecutor})
+ * with one shared {@link ConverterService}, so factories and JIT-compiled code stay warm between files.
+ * Converted files are always overwritten.
+ * <p>Throughput and queue depth are logged periodically.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class FolderWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FolderWatcher.class);
+
+    /**
+     * Default period (in milliseconds) during which file must not change before it is converted - 2 seconds.
+     */
+    public static final long DEFAULT_QUIET_PERIOD = 2000;
+
+    /**
+     * Period (in milliseconds) of logging statistics - 1 minute.
+     */
+    private static final long STATISTICS_PERIOD = TimeUnit.MINUTES.toMillis(1);
+    private static final double BYTES_IN_MB = 1024 * 1024;
+
+    private final File sourceFolder;
+    private final File destinationFolder;
+    private final FileFilter filter;
+    private final ConverterService service;
+    private final int threads;
+    private final long quietPeriod;
+    private final int inFlight;
+
+    // files which are waiting for quiet period, in order of arrival
+    private final Map<Path, PendingFile> pendingFiles = new LinkedHashMap<>();
+    private final boolean isSameFolder;
+    // converted files written by watcher, they are ignored when destination folder is source folder
+    private final Set<Path> convertedFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger processedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    private final LongAdder readBytes = new LongAdder();
+
+    /**
+     * Creates watcher.
+     *
+     * @param sourceFolder folder to watch
+     * @param destinationFolder folder for converted files
+     * @param filter filter of files which must be converted
+     * @param service service which converts files
+     * @param threads number of files converted simultaneously
+     * @param quietPeriod period (in milliseconds) during which file must not change before it is converted
+     */
+    public FolderWatcher(File sourceFolder, File destinationFolder, FileFilter filter, ConverterService service,
+            int threads, long quietPeriod) {
+        this(sourceFolder, destinationFolder, filter, service, threads, quietPeriod, 0);
+    }
+
+    /**
+     * Creates watcher.
+     *
+     * @param sourceFolder folder to watch
+     * @param destinationFolder folder for converted files
+     * @param filter filter of files which must be converted
+     * @param service service which converts files
+     * @param threads number of files converted simultaneously
+     * @param quietPeriod period (in milliseconds) during which file must not change before it is converted
+     * @param inFlight number of files converted simultaneously in virtual threads if JVM has them, not less
+     * than <code>threads</code>, <code>0</code> to convert files in platform threads
+     */
+    public FolderWatcher(File sourceFolder, File destinationFolder, FileFilter filter, ConverterService service,
+            int threads, long quietPeriod, int inFlight) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        if (inFlight != 0 && inFlight < threads) {
+            throw new IllegalArgumentException("Number of files in flight cannot be less than number of threads: "
+                    + inFlight);
+        }
+        if (quietPeriod < 0) {
+            throw new IllegalArgumentException("Quiet period cannot be negative: " + quietPeriod);
+        }
+        this.sourceFolder = sourceFolder;
+        this.destinationFolder = destinationFolder;
+        this.filter = filter;
+        this.service = service;
+        this.threads = threads;
+        this.quietPeriod = quietPeriod;
+        this.inFlight = inFlight;
+        this.isSameFolder = sourceFolder.getAbsoluteFile().equals(destinationFolder.getAbsoluteFile());
+    }
+
+    /**
+     * Watches source folder and converts files until process is canceled. Conversions which are running
+     * when process is canceled are canceled too.
+     *
+     * @param isCanceled flag to stop watching
+     * @throws IOException if source folder cannot be watched
+     */
+    public void watch(AtomicBoolean isCanceled) throws IOException {
+        ConversionExecutor executor = inFlight > 0
+                ? new ConversionExecutor("WatchWorker", threads, inFlight, Integer.MAX_VALUE, true)
+                : new ConversionExecutor("WatchWorker", threads, Integer.MAX_VALUE, false);
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Path folder = sourceFolder.toPath();
+            // register before scanning, so files which appear during scan are not missed
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            LOGGER.info("Watching '{}' (quiet period {} ms, {} {}threads)", sourceFolder.getAbsolutePath(),
+                    quietPeriod, threads, executor.isVirtual() ? "virtual " : "");
+            scanFolder(true);
+
+            long nextStatistics = System.currentTimeMillis() + STATISTICS_PERIOD;
+            int lastProcessedFiles = 0;
+            long lastReadBytes = 0;
+            while (!isCanceled.get()) {
+                // wake up regularly to check quiet periods and to log statistics
+                WatchKey key = watchService.poll(Math.max(10, Math.min(quietPeriod, 1000)), TimeUnit.MILLISECONDS);
+                if (null != key) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            LOGGER.warn("Events of '{}' have been lost, folder is scanned again",
+                                    sourceFolder.getAbsolutePath());
+                            scanFolder(false);
+                        } else {
+                            addPendingFile(folder.resolve((Path) event.context()).toFile());
+                        }
+                    }
+                    if (!key.reset()) {
+                        LOGGER.error("Folder '{}' cannot be watched anymore", sourceFolder.getAbsolutePath());
+                        break;
+                    }
+                }
+                submitQuietFiles(executor, isCanceled);
+
+                long now = System.currentTimeMillis();
+                if (now >= nextStatistics) {
+                    int processed = processedFiles.get();
+                    long bytes = readBytes.sum();
+                    double seconds = (now - nextStatistics + STATISTICS_PERIOD) / 1000.0;
+                    LOGGER.info(String.format("Converted %d files (%.2f files/s, %.2f MB/s), failed %d in total, "
+                            + "queue depth %d, waiting for quiet period %d", processed - lastProcessedFiles,
+                            (processed - lastProcessedFiles) / seconds, (bytes - lastReadBytes) / BYTES_IN_MB / seconds,
+                            failedFiles.get(), executor.getPendingTasks(),
+                            pendingFiles.size()));
+                    lastProcessedFiles = processed;
+                    lastReadBytes = bytes;
+                    nextStatistics = now + STATISTICS_PERIOD;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            isCanceled.set(true);
+        } catch (ClosedWatchServiceException ex) {
+            LOGGER.debug(ex.toString());
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.info("Watching stopped: converted {} files, failed {}", processedFiles.get() - failedFiles.get(),
+                    failedFiles.get());
+        }
+    }
+
+    /**
+     * Returns number of files which have been converted or failed.
+     *
+     * @return number of processed files
+     */
+    public int getProcessedFiles() {
+        return processedFiles.get();
+    }
+
+    /**
+     * Returns number of files which failed to convert.
+     *
+     * @return number of failed files
+     */
+    public int getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    /**
+     * Adds files of source folder to pending files.
+     *
+     * @param isStart <code>true</code> if watching starts, files which have up-to-date converted file are skipped
+     */
+    private void scanFolder(boolean isStart) {
+        File[] files = sourceFolder.listFiles();
+        if (null == files) {
+            return;
+        }
+        for (File file : files) {
+            if (isStart && filter.accept(file)) {
+                File convertedFile = ConverterUtils.getConvertedFile(file, destinationFolder);
+                if (convertedFile.lastModified() >= file.lastModified()) {
+                    LOGGER.debug("File '{}' is already converted", file.getAbsolutePath());
+                    continue;
+                }
+            }
+            addPendingFile(file);
+        }
+    }
+
+    /**
+     * Adds file to pending files (or restarts its quiet period) if file must be converted.
+     *
+     * @param file new or changed file
+     */
+    private void addPendingFile(File file) {
+        Path path = file.toPath();
+        if (!filter.accept(file) || !file.isFile() || convertedFiles.contains(path)) {
+            return;
+        }
+        PendingFile pendingFile = pendingFiles.get(path);
+        if (null == pendingFile) {
+            LOGGER.debug("File '{}' is waiting for quiet period", file.getAbsolutePath());
+            pendingFiles.put(path, new PendingFile(file));
+        } else {
+            pendingFile.check();
+        }
+    }
+
+    /**
+     * Submits files which have not changed during quiet period.
+     *
+     * @param executor pool of workers
+     * @param isCanceled flag to stop conversions
+     */
+    private void submitQuietFiles(ConversionExecutor executor, AtomicBoolean isCanceled) {
+        Iterator<PendingFile> iterator = pendingFiles.values().iterator();
+        while (iterator.hasNext()) {
+            PendingFile pendingFile = iterator.next();
+            if (!pendingFile.file.exists()) {
+                iterator.remove();
+            } else if (pendingFile.isQuiet()) {
+                iterator.remove();
+                File file = pendingFile.file;
+                File convertedFile = ConverterUtils.getConvertedFile(file, destinationFolder);
+                if (isSameFolder) {
+                    convertedFiles.add(convertedFile.toPath());
+                }
+                executor.execute(() -> convert(file, convertedFile, isCanceled));
+            }
+        }
+    }
+
+    /**
+     * Converts file.
+     *
+     * @param file file to convert
+     * @param convertedFile converted file
+     * @param isCanceled flag to stop conversion
+     */
+    private void convert(File file, File convertedFile, AtomicBoolean isCanceled) {
+        if (isCanceled.get()) {
+            return;
+        }
+        LOGGER.debug("Start processing '{}'", file.getAbsolutePath());
+        try {
+            service.convert(file, convertedFile, new CountingFileReadListener(readBytes), isCanceled);
+            LOGGER.info("File '{}' converted to '{}'", file.getAbsolutePath(), convertedFile.getAbsolutePath());
+        } catch (IOException | XMLStreamException | RuntimeException ex) {
+            failedFiles.incrementAndGet();
+            LOGGER.error("File '{}' failed: {}", file.getAbsolutePath(), ex.toString());
+        } finally {
+            processedFiles.incrementAndGet();
+        }
+    }
+
+    /**
+     * File which is waiting until it stops changing.
+     */
+    private final class PendingFile {
+        private final File file;
+        private long size;
+        private long lastModified;
+        private long changedAt;
+
+        /**
+         * Constructor.
+         *
+         * @param file new file
+         */
+        PendingFile(File file) {
+            this.file = file;
+            this.size = file.length();
+            this.lastModified = file.lastModified();
+            this.changedAt = System.nanoTime();
+        }
+
+        /**
+         * Restarts quiet period if file has changed.
+         */
+        void check() {
+            long currentSize = file.length();
+            long currentLastModified = file.lastModified();
+            if (currentSize != size || currentLastModified != lastModified) {
+                size = currentSize;
+                lastModified = currentLastModified;
+                changedAt = System.nanoTime();
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if file has not changed during quiet period.
+         *
+         * @return <code>true</code> if file can be converted
+         */
+        boolean isQuiet() {
+            check();
+            return System.nanoTime() - changedAt >= TimeUnit.MILLISECONDS.toNanos(quietPeriod);
+        }
+    }
+}
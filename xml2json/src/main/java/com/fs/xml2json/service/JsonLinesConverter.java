@@ -0,0 +1,391 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import de.odysseus.staxon.util.StreamWriterDelegate;
+import de.odysseus.staxon.util.XMLStreamCopier;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Converts JSON Lines (NDJSON) to XML. Every line is converted to a record element, records are children
+ * of elements of JSON Lines path: <code>/root/record</code> gives
+ * <code>&lt;root&gt;&lt;record&gt;...&lt;/record&gt;...&lt;/root&gt;</code>, a single name gives records
+ * in element {@link #DEFAULT_ROOT_NAME}.
+ * <p>Lines are independent, so input is read in blocks of whole lines and blocks are converted in
+ * several threads. Converted blocks are written in order of blocks, at most two blocks per thread
+ * are kept in memory.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+final class JsonLinesConverter {
+
+    /**
+     * Name of root element if JSON Lines path has one name.
+     */
+    static final String DEFAULT_ROOT_NAME = "root";
+
+    /**
+     * Minimum number of bytes of input in one block - 1 MB.
+     */
+    static final int BLOCK_SIZE = 1024 * 1024;
+
+    private final ConversionEngine engine;
+    private final int threads;
+    private final String[] parents;
+    private final String recordName;
+    // threads of converter are shared by all files converted at a time
+    private final ExecutorService executor;
+
+    /**
+     * Creates converter.
+     *
+     * @param options conversion options with JSON Lines path and number of threads
+     * @param engine engine which creates readers and writers
+     */
+    JsonLinesConverter(ConversionOptions options, ConversionEngine engine) {
+        this.engine = engine;
+        this.threads = options.getThreads();
+        String[] names = options.getJsonLinesPath().replaceFirst("^/", "").split("/");
+        this.parents = names.length > 1 ? Arrays.copyOf(names, names.length - 1) : new String[]{DEFAULT_ROOT_NAME};
+        this.recordName = names[names.length - 1];
+        this.executor = threads < 2 ? null : ConversionEngine.newWorkerPool("LinesWorker-", threads);
+    }
+
+    /**
+     * Converts JSON Lines to XML. Streams are not closed. Cancellation is checked before every block,
+     * so canceled conversion stops reading input and blocks which are not written are dropped.
+     *
+     * @param input JSON Lines
+     * @param output output stream for XML
+     * @param isCanceled flag to stop process
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if a line is not valid JSON or conversion has been canceled
+     */
+    void convert(InputStream input, OutputStream output, AtomicBoolean isCanceled)
+            throws IOException, XMLStreamException {
+        Deque<Future<ByteArrayOutputStream>> blocks = new ArrayDeque<>();
+        try {
+            output.write(getHead());
+            byte[] rest = new byte[0];
+            long firstLine = 1;
+            while (true) {
+                checkIfCanceled(isCanceled);
+                byte[] block = readBlock(input, rest);
+                if (block.length == 0) {
+                    break;
+                }
+                int end = lastIndexOf(block, 0, block.length, (byte) '\n') + 1;
+                if (end == 0 || end == block.length) {
+                    // line without new line at the end of input or block of whole lines
+                    end = block.length;
+                }
+                rest = Arrays.copyOfRange(block, end, block.length);
+                byte[] lines = end == block.length ? block : Arrays.copyOf(block, end);
+                long blockFirstLine = firstLine;
+                Callable<ByteArrayOutputStream> task = () -> convertBlock(lines, blockFirstLine);
+                if (null == executor) {
+                    call(task).writeTo(output);
+                } else {
+                    blocks.add(executor.submit(task));
+                    while (blocks.size() > 2 * threads) {
+                        get(blocks.poll()).writeTo(output);
+                    }
+                }
+                firstLine += count(lines, (byte) '\n');
+            }
+            while (!blocks.isEmpty()) {
+                checkIfCanceled(isCanceled);
+                get(blocks.poll()).writeTo(output);
+            }
+            // canceled input ends as if it is read
+            checkIfCanceled(isCanceled);
+            output.write(getTail());
+            output.flush();
+        } finally {
+            // blocks which are not written any more
+            blocks.forEach(block -> block.cancel(true));
+        }
+    }
+
+    /**
+     * Throws exception if conversion has been canceled.
+     *
+     * @param isCanceled flag to stop process
+     * @throws XMLStreamException if conversion has been canceled
+     */
+    private static void checkIfCanceled(AtomicBoolean isCanceled) throws XMLStreamException {
+        if (isCanceled.get()) {
+            throw new XMLStreamException("Conversion has been canceled");
+        }
+    }
+
+    /**
+     * Reads at least {@link #BLOCK_SIZE} bytes (unless input ends) which end with a new line.
+     *
+     * @param input input stream
+     * @param rest bytes of the last line of previous block
+     * @return block starting with <code>rest</code>, empty if input ends and there is no rest
+     * @throws IOException if an I/O error occurs
+     */
+    private static byte[] readBlock(InputStream input, byte[] rest) throws IOException {
+        byte[] block = Arrays.copyOf(rest, rest.length + BLOCK_SIZE);
+        int length = rest.length;
+        int searched = rest.length;
+        while (true) {
+            int read = input.read(block, length, block.length - length);
+            if (read < 0) {
+                return Arrays.copyOf(block, length);
+            }
+            length += read;
+            if (length == block.length) {
+                if (lastIndexOf(block, searched, length, (byte) '\n') >= 0) {
+                    return block;
+                }
+                // line is longer than block
+                searched = length;
+                block = Arrays.copyOf(block, block.length + BLOCK_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Converts lines of block to XML fragment.
+     *
+     * @param lines whole lines
+     * @param firstLine number of the first line in input
+     * @return XML of records, starts and ends with indentation of records
+     * @throws XMLStreamException if a line is not valid JSON
+     */
+    private ByteArrayOutputStream convertBlock(byte[] lines, long firstLine) throws XMLStreamException {
+        BlockOutputStream output = new BlockOutputStream(lines.length + lines.length / 2);
+        byte[] indentation = getIndentation(parents.length);
+        output.write(indentation, 0, indentation.length);
+        long lineNumber = firstLine;
+        int start = 0;
+        while (start < lines.length) {
+            int end = start;
+            while (end < lines.length && lines[end] != '\n') {
+                end++;
+            }
+            if (!isBlank(lines, start, end)) {
+                try {
+                    XMLStreamReader reader = engine.createJsonLinesReader(
+                            new ByteArrayInputStream(lines, start, end - start), recordName);
+                    XMLStreamWriter writer = engine.createXmlFragmentWriter(output, parents.length);
+                    reader.next(); // fragment is written without start of document
+                    new XMLStreamCopier(reader, new StreamWriterDelegate(writer) {
+                        @Override
+                        public void writeEndDocument() {
+                            // fragment is not a document
+                        }
+                    }).copy();
+                    writer.flush();
+                    reader.close();
+                } catch (XMLStreamException | RuntimeException ex) {
+                    throw new XMLStreamException("Line " + lineNumber + " is not valid JSON: " + ex.getMessage(), ex);
+                }
+            }
+            lineNumber++;
+            start = end + 1;
+        }
+        output.truncate(indentation.length);
+        return output;
+    }
+
+    /**
+     * Returns start of document with start tags of parents of records.
+     *
+     * @return bytes in UTF-8
+     */
+    private byte[] getHead() {
+        StringBuilder head = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?>\n");
+        for (int i = 0; i < parents.length; i++) {
+            head.append(new String(getIndentation(i), StandardCharsets.UTF_8)).append('<').append(parents[i])
+                    .append(">\n");
+        }
+        return head.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns end tags of parents of records.
+     *
+     * @return bytes in UTF-8
+     */
+    private byte[] getTail() {
+        StringBuilder tail = new StringBuilder();
+        for (int i = parents.length - 1; i >= 0; i--) {
+            tail.append(new String(getIndentation(i), StandardCharsets.UTF_8)).append("</").append(parents[i])
+                    .append(">\n");
+        }
+        return tail.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns indentation of element.
+     *
+     * @param depth number of enclosing elements
+     * @return bytes in UTF-8
+     */
+    private static byte[] getIndentation(int depth) {
+        StringBuilder indentation = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            indentation.append(ConversionEngine.XML_INDENTATION);
+        }
+        return indentation.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns <code>true</code> if bytes contain only whitespaces.
+     *
+     * @param bytes bytes
+     * @param start start index (inclusive)
+     * @param end end index (exclusive)
+     * @return <code>true</code> if line is blank
+     */
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t' && bytes[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns index of the last occurrence of byte in range.
+     *
+     * @param bytes bytes
+     * @param start start index (inclusive)
+     * @param end end index (exclusive)
+     * @param value byte to find
+     * @return index or <code>-1</code> if not found
+     */
+    private static int lastIndexOf(byte[] bytes, int start, int end, byte value) {
+        for (int i = end - 1; i >= start; i--) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns number of occurrences of byte.
+     *
+     * @param bytes bytes
+     * @param value byte to count
+     * @return number of occurrences
+     */
+    private static long count(byte[] bytes, byte value) {
+        long count = 0;
+        for (byte b : bytes) {
+            if (b == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Converts block in current thread.
+     *
+     * @param task conversion of block
+     * @return converted block
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if a line is not valid JSON
+     */
+    private static ByteArrayOutputStream call(Callable<ByteArrayOutputStream> task)
+            throws IOException, XMLStreamException {
+        try {
+            return task.call();
+        } catch (IOException | XMLStreamException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Waits for converted block.
+     *
+     * @param future conversion of block
+     * @return converted block
+     * @throws IOException if conversion failed with I/O error or waiting has been interrupted
+     * @throws XMLStreamException if a line is not valid JSON
+     */
+    private static ByteArrayOutputStream get(Future<ByteArrayOutputStream> future)
+            throws IOException, XMLStreamException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Output stream of converted block which can drop trailing bytes.
+     */
+    private static final class BlockOutputStream extends ByteArrayOutputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param size initial size
+         */
+        BlockOutputStream(int size) {
+            super(size);
+        }
+
+        /**
+         * Drops trailing bytes.
+         *
+         * @param length number of bytes to drop
+         */
+        void truncate(int length) {
+            count = Math.max(0, count - length);
+        }
+    }
+}
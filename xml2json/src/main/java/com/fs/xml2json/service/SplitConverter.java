@@ -0,0 +1,456 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.io.ChannelOutputStream;
+import com.fs.xml2json.io.CountingOutputStream;
+import com.fs.xml2json.io.RecordArrayTarget;
+import com.fs.xml2json.io.WrappedInputStream;
+import com.fs.xml2json.listener.IFileReadListener;
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.util.XmlRecordSplitter;
+import com.fs.xml2json.util.XmlUtils;
+import de.odysseus.staxon.json.JsonXMLOutputFactory;
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamSource;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import de.odysseus.staxon.json.util.XMLMultipleStreamWriter;
+import de.odysseus.staxon.util.XMLStreamCopier;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts XML-file to JSON in several threads. The file is split into chunks at boundaries of records
+ * (see {@link XmlRecordSplitter}), every chunk is converted by its own writer and converted chunks are
+ * stitched into one array of records in order of chunks.
+ * <p>Arrays of all chunks are determined simultaneously before conversion and used by every chunk,
+ * so chunks are converted consistently and output is the same as output of conversion in one thread.
+ * <p>In hard memory budget mode structure of every chunk must fit into memory budget, otherwise the file
+ * is converted in one thread, where arrays which do not fit are corrected during conversion.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+final class SplitConverter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SplitConverter.class);
+
+    private final ConversionOptions options;
+    private final ConversionEngine engine;
+    // threads of converter are shared by all files converted at a time
+    private final ExecutorService executor;
+
+    /**
+     * Creates converter.
+     *
+     * @param options conversion options with split path and number of threads
+     * @param engine engine which creates readers and writers
+     */
+    SplitConverter(ConversionOptions options, ConversionEngine engine) {
+        this.options = options;
+        this.engine = engine;
+        this.executor = ConversionEngine.newWorkerPool("SplitWorker-", options.getThreads());
+    }
+
+    /**
+     * Converts XML-file in chunks. Returns <code>null</code> if file cannot be split or records
+     * are interrupted by other elements, such file must be converted in one thread.
+     * <p>With checkpoints (see {@link ConversionCheckpoint}) arrays and every converted chunk are recorded,
+     * part files and checkpoint are kept if conversion is canceled or fails with I/O error, and next
+     * conversion of the same file to the same output file converts only remaining chunks.
+     * <p>Listener is not updated after the method returns, so file which is converted again starts
+     * progress from the beginning.
+     *
+     * @param sourceFile XML-file
+     * @param outputFile output file
+     * @param listener read listener
+     * @param isCanceled flag to stop process
+     * @return paths of arrays used for conversion or <code>null</code> if file has not been converted
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if conversion has been canceled
+     */
+    List<String> convert(File sourceFile, File outputFile, IFileReadListener listener, AtomicBoolean isCanceled)
+            throws IOException, XMLStreamException {
+        String splitPath = null == options.getSplitPath() ? XmlRecordSplitter.AUTO : options.getSplitPath();
+        long numberOfChunks = Math.max(options.getThreads(),
+                (sourceFile.length() + options.getChunkSize() - 1) / options.getChunkSize());
+        XmlRecordSplitter.Chunks chunks = XmlRecordSplitter.split(sourceFile, splitPath,
+                (int) Math.min(numberOfChunks, Integer.MAX_VALUE));
+        if (null == chunks) {
+            return null;
+        }
+        LOGGER.info("Converting '{}' in {} chunks of '{}' records", sourceFile.getAbsolutePath(), chunks.size(),
+                chunks.getRecordName());
+
+        ConversionCheckpoint checkpoint = options.isCheckpoint()
+                ? ConversionCheckpoint.open(sourceFile, outputFile, splitPath, chunks) : null;
+        listener.setNumberOfReads(2);
+        SynchronizedListener chunkListener = new SynchronizedListener(listener);
+        List<Future<?>> tasks = new ArrayList<>();
+        List<File> parts = new ArrayList<>();
+        boolean isResumable = false;
+        try {
+            Set<String> arrays = new TreeSet<>();
+            List<String> checkpointArrays = null == checkpoint ? null : checkpoint.getArrays();
+            if (null != checkpointArrays) {
+                arrays.addAll(checkpointArrays);
+                skip(chunkListener, sourceFile.length());
+            } else {
+                // arrays are found inside records or are children of the root element which are read by
+                // every chunk, so arrays of chunks together are arrays of the whole file
+                List<Future<List<String>>> chunkArrays = new ArrayList<>();
+                for (int i = 0; i < chunks.size(); i++) {
+                    int index = i;
+                    chunkArrays.add(submit(tasks, () -> {
+                        try (InputStream input = chunks.open(index,
+                                in -> new WrappedInputStream(in, chunkListener, isCanceled))) {
+                            return options.isHardMemoryBudget()
+                                    ? XmlUtils.determineAllArrays(input, options.getMemoryBudget())
+                                    : XmlUtils.determineArrays(input);
+                        }
+                    }));
+                }
+                arrays.add(chunks.getRecordPath());
+                for (Future<List<String>> future : chunkArrays) {
+                    arrays.addAll(get(future));
+                }
+                checkIfCanceled(isCanceled);
+                if (null != checkpoint) {
+                    checkpoint.setArrays(arrays);
+                }
+            }
+            listener.finished();
+
+            List<Future<ConversionCheckpoint.Chunk>> convertedChunks = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                int index = i;
+                File part = null == checkpoint
+                        ? File.createTempFile(outputFile.getName() + ".", ".part", outputFile.getParentFile())
+                        : checkpoint.getPart(index);
+                parts.add(part);
+                convertedChunks.add(submit(tasks, () -> {
+                    ConversionCheckpoint.Chunk chunk = null == checkpoint ? null : checkpoint.getChunk(index);
+                    if (null != chunk) {
+                        skip(chunkListener, chunks.getEnd(index) - chunks.getStart(index));
+                        return chunk;
+                    }
+                    RecordArrayTarget target = convertChunk(chunks, index, part, arrays, chunkListener, isCanceled);
+                    // canceled chunk may look complete, because its records end at a record boundary
+                    checkIfCanceled(isCanceled);
+                    if (!target.isRecordsFound() || (index < chunks.size() - 1 && target.hasFieldsAfterRecords())) {
+                        return null;
+                    }
+                    chunk = new ConversionCheckpoint.Chunk(part.length(), target.getStart(), target.getEnd());
+                    if (null != checkpoint) {
+                        checkpoint.putChunk(index, chunk);
+                    }
+                    return chunk;
+                }));
+            }
+            List<ConversionCheckpoint.Chunk> converted = new ArrayList<>();
+            for (Future<ConversionCheckpoint.Chunk> future : convertedChunks) {
+                converted.add(get(future));
+            }
+            if (converted.contains(null)) {
+                LOGGER.warn("Records of '{}' are interrupted by other elements", sourceFile.getAbsolutePath());
+                return null;
+            }
+
+            stitch(parts, converted, outputFile);
+            listener.finished();
+            return new ArrayList<>(arrays);
+        } catch (XMLStreamException ex) {
+            if (isCanceled.get()) {
+                isResumable = null != checkpoint;
+                throw ex;
+            }
+            LOGGER.warn("File '{}' cannot be converted in chunks: {}", sourceFile.getAbsolutePath(), ex.getMessage());
+            return null;
+        } catch (IOException ex) {
+            isResumable = null != checkpoint;
+            throw ex;
+        } finally {
+            // chunks which are still converted must not update listener of file converted again
+            tasks.forEach(task -> task.cancel(true));
+            chunkListener.detach();
+            if (isResumable) {
+                LOGGER.info("Conversion of '{}' can be resumed from checkpoint '{}'", sourceFile.getAbsolutePath(),
+                        ConversionCheckpoint.getFile(outputFile).getAbsolutePath());
+            } else if (null != checkpoint) {
+                checkpoint.delete();
+            } else {
+                parts.forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Submits task of chunk to executor of converter.
+     *
+     * @param <T> type of result
+     * @param tasks submitted tasks of file
+     * @param task task
+     * @return future of task
+     */
+    private <T> Future<T> submit(List<Future<?>> tasks, Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        tasks.add(future);
+        return future;
+    }
+
+    /**
+     * Throws exception if conversion has been canceled.
+     *
+     * @param isCanceled flag to stop process
+     * @throws XMLStreamException if conversion has been canceled
+     */
+    private static void checkIfCanceled(AtomicBoolean isCanceled) throws XMLStreamException {
+        if (isCanceled.get()) {
+            throw new XMLStreamException("Conversion has been canceled");
+        }
+    }
+
+    /**
+     * Passes bytes which are not read again, because they have been converted before checkpoint,
+     * to listener.
+     *
+     * @param listener read listener
+     * @param bytes number of skipped bytes
+     */
+    private static void skip(IFileReadListener listener, long bytes) {
+        for (long remaining = bytes; remaining > 0; remaining -= Integer.MAX_VALUE) {
+            listener.update((int) Math.min(remaining, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Converts chunk to part file.
+     *
+     * @param chunks chunks of XML-file
+     * @param index index of chunk
+     * @param part part file
+     * @param arrays paths of arrays
+     * @param listener read listener
+     * @param isCanceled flag to stop process
+     * @return target with positions of records in part file
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if chunk is not well-formed
+     */
+    private RecordArrayTarget convertChunk(XmlRecordSplitter.Chunks chunks, int index, File part, Set<String> arrays,
+            IFileReadListener listener, AtomicBoolean isCanceled) throws IOException, XMLStreamException {
+        try (InputStream input = chunks.open(index, in -> new WrappedInputStream(in, listener, isCanceled));
+                CountingOutputStream output = new CountingOutputStream(new ChannelOutputStream(part.toPath(),
+                        options.getWriteBufferSize(chunks.getEnd(index) - chunks.getStart(index))))) {
+            RecordStreamFactory streamFactory = new RecordStreamFactory(engine.getJsonStreamFactory(),
+                    chunks.getRecordName(), index == 0, output);
+            XMLStreamReader reader = engine.createReader(FileTypeEnum.XML, input);
+            // same config as for two-pass conversion, writer of chunk is created for its own stream factory
+            JsonXMLOutputFactory outputFactory = new JsonXMLOutputFactory(engine.getJsonConfig(), streamFactory);
+            if (options.isHardMemoryBudget()) {
+                outputFactory.setProperty(JsonXMLOutputFactory.PROP_MEMORY_LIMIT, options.getMemoryBudget());
+            }
+            XMLMultipleStreamWriter writer = new XMLMultipleStreamWriter(outputFactory.createXMLStreamWriter(output),
+                    true, arrays.toArray(new String[]{}));
+            for (String hint : options.getArrayHints()) {
+                writer.addMultiplePath(hint);
+            }
+
+            new XMLStreamCopier(reader, writer, StandardCharsets.UTF_8.name()).copy();
+
+            writer.flush();
+            writer.close();
+            reader.close();
+            return streamFactory.target;
+        }
+    }
+
+    /**
+     * Writes JSON of the first chunk up to the end of its records, records of other chunks
+     * and the rest of JSON of the last chunk to output file.
+     *
+     * @param parts converted chunks
+     * @param chunks positions of records in converted chunks
+     * @param outputFile output file
+     * @throws IOException if an I/O error occurs
+     */
+    private static void stitch(List<File> parts, List<ConversionCheckpoint.Chunk> chunks, File outputFile)
+            throws IOException {
+        try (FileChannel output = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < parts.size(); i++) {
+                try (FileChannel part = FileChannel.open(parts.get(i).toPath(), StandardOpenOption.READ)) {
+                    long position = i == 0 ? 0 : chunks.get(i).getStart();
+                    long end = i == parts.size() - 1 ? part.size() : chunks.get(i).getEnd();
+                    while (position < end) {
+                        position += part.transferTo(position, end - position, output);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for result of task.
+     *
+     * @param <T> type of result
+     * @param future task
+     * @return result
+     * @throws IOException if task failed with I/O error or waiting has been interrupted
+     * @throws XMLStreamException if task failed with XML error
+     */
+    private static <T> T get(Future<T> future) throws IOException, XMLStreamException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Stream factory which creates {@link RecordArrayTarget}.
+     */
+    private static final class RecordStreamFactory extends JsonStreamFactory {
+        private final JsonStreamFactory delegate;
+        private final String recordName;
+        private final boolean first;
+        private final CountingOutputStream output;
+        private RecordArrayTarget target;
+
+        /**
+         * Constructor.
+         *
+         * @param delegate factory of JSON streams
+         * @param recordName JSON name of records
+         * @param first <code>true</code> for the first chunk
+         * @param output output of chunk
+         */
+        RecordStreamFactory(JsonStreamFactory delegate, String recordName, boolean first,
+                CountingOutputStream output) {
+            this.delegate = delegate;
+            this.recordName = recordName;
+            this.first = first;
+            this.output = output;
+        }
+
+        @Override
+        public JsonStreamSource createJsonStreamSource(InputStream input) throws IOException {
+            return delegate.createJsonStreamSource(input);
+        }
+
+        @Override
+        public JsonStreamSource createJsonStreamSource(Reader reader) throws IOException {
+            return delegate.createJsonStreamSource(reader);
+        }
+
+        @Override
+        public JsonStreamTarget createJsonStreamTarget(OutputStream output, boolean pretty) throws IOException {
+            return createRecordTarget(delegate.createJsonStreamTarget(output, pretty));
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>Writer must write to output of chunk, otherwise positions of records are not known.
+         */
+        @Override
+        public JsonStreamTarget createJsonStreamTarget(Writer writer, boolean pretty) throws IOException {
+            return createRecordTarget(delegate.createJsonStreamTarget(writer, pretty));
+        }
+
+        /**
+         * Creates target which finds records in output of chunk.
+         *
+         * @param chunkTarget target which writes to output of chunk
+         * @return record target
+         */
+        private JsonStreamTarget createRecordTarget(JsonStreamTarget chunkTarget) {
+            target = new RecordArrayTarget(chunkTarget, recordName, first, output);
+            return target;
+        }
+    }
+
+    /**
+     * Listener which passes read bytes of all chunks to listener of file. Finishing of chunks is ignored.
+     */
+    private static final class SynchronizedListener implements IFileReadListener {
+        private final IFileReadListener listener;
+        private boolean isDetached;
+
+        /**
+         * Constructor.
+         *
+         * @param listener listener of file
+         */
+        SynchronizedListener(IFileReadListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void update(int bytes) {
+            synchronized (listener) {
+                if (!isDetached) {
+                    listener.update(bytes);
+                }
+            }
+        }
+
+        /**
+         * Stops passing read bytes, after return listener of file is not updated any more.
+         */
+        void detach() {
+            synchronized (listener) {
+                isDetached = true;
+            }
+        }
+
+        @Override
+        public void finished() {
+            // file is finished when all chunks are finished
+        }
+    }
+}
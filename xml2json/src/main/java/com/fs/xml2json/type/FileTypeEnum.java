@@ -34,6 +34,11 @@ public enum FileTypeEnum {
      */
     JSON(".json");
 
+    /**
+     * Extension of gzip-compressed files (example: data.xml.gz).
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
     private final String extension;
 
     /**
@@ -57,17 +62,32 @@ public enum FileTypeEnum {
 
     /**
      * Return file's type (XML or JSON) or return <code>null</code> if not XML and not JSON.
+     * <p>Type of compressed file is type of its content (data.xml.gz is XML).
      *
      * @param fileName file's name
      * @return fyles type or null if cannot determine
      */
     public static final FileTypeEnum parseByFileName(String fileName) {
+        String name = fileName.toLowerCase();
+        if (isCompressed(name)) {
+            name = name.substring(0, name.length() - GZIP_EXTENSION.length());
+        }
         for (FileTypeEnum type : FileTypeEnum.values()) {
-            if (fileName.toLowerCase().endsWith(type.extension)) {
+            if (name.endsWith(type.extension)) {
                 return type;
             }
         }
 
         return null;
     }
+
+    /**
+     * Returns <code>true</code> if file is gzip-compressed (has extension {@link #GZIP_EXTENSION}).
+     *
+     * @param fileName file's name
+     * @return <code>true</code> if file is compressed
+     */
+    public static boolean isCompressed(String fileName) {
+        return fileName.toLowerCase().endsWith(GZIP_EXTENSION);
+    }
 }
@@ -29,12 +29,52 @@ public final class ApplicationUtils {
      */
     public static final String UNNOWN_VERSION = "unknown";
 
+    private static final long KILOBYTE = 1024L;
+
     /**
      * Private constructor.
      */
     private ApplicationUtils() {
     }
 
+    /**
+     * Parses size like <code>1024</code>, <code>512K</code>, <code>64M</code> or <code>2G</code>
+     * (suffixes are case-insensitive and may end with <code>B</code>) and returns number of bytes.
+     *
+     * @param value size to parse
+     * @return number of bytes
+     * @throws IllegalArgumentException if value cannot be parsed or is negative
+     */
+    public static long parseSize(String value) {
+        if (null == value || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Size is empty");
+        }
+        String size = value.trim().toUpperCase();
+        if (size.endsWith("B")) {
+            size = size.substring(0, size.length() - 1);
+        }
+        long multiplier = 1;
+        if (size.endsWith("K")) {
+            multiplier = KILOBYTE;
+        } else if (size.endsWith("M")) {
+            multiplier = KILOBYTE * KILOBYTE;
+        } else if (size.endsWith("G")) {
+            multiplier = KILOBYTE * KILOBYTE * KILOBYTE;
+        }
+        if (multiplier > 1) {
+            size = size.substring(0, size.length() - 1);
+        }
+        try {
+            long number = Long.parseLong(size.trim());
+            if (number < 0) {
+                throw new IllegalArgumentException("Size cannot be negative: '" + value + "'");
+            }
+            return number * multiplier;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Incorrect size: '" + value + "'", ex);
+        }
+    }
+
     /**
      * Returns application version from Manifest-file.
      *
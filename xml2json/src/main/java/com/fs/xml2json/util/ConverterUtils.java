@@ -36,9 +36,10 @@ public final class ConverterUtils {
 
     /**
      * Returns link to converted file with same name as source file, but with
-     * another extension (xml -> json, json -> xml).
-     * <p>Note: only .json and .xml supported, caller method should pass only these files.
-     * Supported extensions can be found in {@link FileTypeEnum}.
+     * another extension (xml -> json, json -> xml). Converted file of compressed file is compressed too
+     * (xml.gz -> json.gz).
+     * <p>Note: only .json and .xml (and compressed .json.gz and .xml.gz) supported, caller method should
+     * pass only these files. Supported extensions can be found in {@link FileTypeEnum}.
      *
      * @param sourceFile file to convert
      * @param destinationFolder path to destination folder
@@ -47,7 +48,12 @@ public final class ConverterUtils {
     public static File getConvertedFile(File sourceFile, File destinationFolder) {
         FileTypeEnum fileType = FileTypeEnum.parseByFileName(sourceFile.getName());
         String convertedFileName = "";
-        String fileNameWithoutExtension = sourceFile.getName().substring(0, sourceFile.getName().lastIndexOf('.'));
+        String fileName = sourceFile.getName();
+        boolean isCompressed = FileTypeEnum.isCompressed(fileName);
+        if (isCompressed) {
+            fileName = fileName.substring(0, fileName.length() - FileTypeEnum.GZIP_EXTENSION.length());
+        }
+        String fileNameWithoutExtension = fileName.substring(0, fileName.lastIndexOf('.'));
         switch (fileType) {
             case JSON:
                 convertedFileName = fileNameWithoutExtension + FileTypeEnum.XML.getExtension();
@@ -59,6 +65,10 @@ public final class ConverterUtils {
                 throw new UnsupportedFileType("Unsupported file's extension");
         }
 
+        if (isCompressed) {
+            convertedFileName += FileTypeEnum.GZIP_EXTENSION;
+        }
+
         return new File(destinationFolder, convertedFileName);
     }
 
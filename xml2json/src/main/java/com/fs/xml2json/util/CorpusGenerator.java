@@ -0,0 +1,863 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.util;
+
+import com.fs.xml2json.io.CountingOutputStream;
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.type.FileTypeEnum;
+import com.fs.xml2json.type.UnsupportedFileType;
+import de.odysseus.staxon.json.stream.JsonStreamFactory;
+import de.odysseus.staxon.json.stream.JsonStreamTarget;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Generator of synthetic XML and JSON documents for performance tests.
+ * <p>Document is a root element {@value #ROOT} with repeated {@value #RECORD} elements, all records have the
+ * same structure (schema), which is derived from the seed and the shape: depth and fan-out of nested
+ * elements, share of repeated elements (arrays), number of attributes, length of texts, share of numeric
+ * values and usage of namespaces. Values of records are random too, so the same seed and shape always
+ * produce the same document. XML and JSON documents of the same generator have the same data: JSON is
+ * written as XML would be converted to JSON (attributes with prefix <code>@</code>, numbers without quotes).
+ * <p>Documents are streamed, size of document is limited by number of records and/or number of bytes.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class CorpusGenerator {
+
+    /**
+     * Name of root element.
+     */
+    public static final String ROOT = "corpus";
+
+    /**
+     * Name of record element.
+     */
+    public static final String RECORD = "record";
+
+    /**
+     * Generator with default shape and seed.
+     */
+    public static final CorpusGenerator DEFAULT = builder().build();
+
+    private static final String NAMESPACE_URI = "urn:xml2json:corpus:";
+    private static final String[] PREFIXES = {"a", "b"};
+    private static final String[] NAMES = {"id", "name", "type", "code", "status", "value", "amount", "date",
+        "note", "ref", "item", "entry", "group", "detail", "owner", "tag"};
+    private static final String[] ATTRIBUTE_NAMES = {"key", "lang", "unit", "version", "source", "kind"};
+    private static final String[] SPECIALS = {"&", "<", ">", "\""};
+    private static final String ATTRIBUTE_PREFIX = "@";
+
+    private final long seed;
+    private final int depth;
+    private final int fanOut;
+    private final double arrayDensity;
+    private final int attributes;
+    private final int textLength;
+    private final double numericRatio;
+    private final boolean namespaces;
+    private final long records;
+
+    /**
+     * Element of schema.
+     */
+    private static final class Field {
+        private final String prefix;
+        private final String name;
+        private final boolean array;
+        private final boolean numeric;
+        private final List<Field> children = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param prefix namespace prefix or <code>null</code>
+         * @param name local name
+         * @param array <code>true</code> if element is repeated
+         * @param numeric <code>true</code> if text of leaf element is a number
+         */
+        Field(String prefix, String name, boolean array, boolean numeric) {
+            this.prefix = prefix;
+            this.name = name;
+            this.array = array;
+            this.numeric = numeric;
+        }
+
+        /**
+         * Returns qualified name.
+         *
+         * @return name with prefix
+         */
+        String getQualifiedName() {
+            return null == prefix ? name : prefix + ':' + name;
+        }
+    }
+
+    /**
+     * Writer of document, XML or JSON.
+     */
+    private interface Sink {
+
+        /**
+         * Starts element with attributes and child elements.
+         *
+         * @param field element
+         * @param attributeValues values of attributes
+         * @throws IOException if an I/O error occurs
+         * @throws XMLStreamException if XML cannot be written
+         */
+        void startObject(Field field, String[] attributeValues) throws IOException, XMLStreamException;
+
+        /**
+         * Ends element with child elements.
+         *
+         * @throws IOException if an I/O error occurs
+         * @throws XMLStreamException if XML cannot be written
+         */
+        void endObject() throws IOException, XMLStreamException;
+
+        /**
+         * Starts occurrences of child element.
+         *
+         * @param field child element
+         * @throws IOException if an I/O error occurs
+         */
+        void startField(Field field) throws IOException;
+
+        /**
+         * Ends occurrences of child element.
+         *
+         * @param field child element
+         * @throws IOException if an I/O error occurs
+         */
+        void endField(Field field) throws IOException;
+
+        /**
+         * Writes leaf element.
+         *
+         * @param field element
+         * @param value text or number
+         * @throws IOException if an I/O error occurs
+         * @throws XMLStreamException if XML cannot be written
+         */
+        void leaf(Field field, Object value) throws IOException, XMLStreamException;
+
+        /**
+         * Flushes written data to output.
+         *
+         * @throws IOException if an I/O error occurs
+         * @throws XMLStreamException if XML cannot be written
+         */
+        void flush() throws IOException, XMLStreamException;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param builder builder with values
+     */
+    private CorpusGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.depth = builder.depth;
+        this.fanOut = builder.fanOut;
+        this.arrayDensity = builder.arrayDensity;
+        this.attributes = builder.attributes;
+        this.textLength = builder.textLength;
+        this.numericRatio = builder.numericRatio;
+        this.namespaces = builder.namespaces;
+        this.records = builder.records;
+    }
+
+    /**
+     * Creates builder with default values.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns seed of random values.
+     *
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns maximal depth of elements below record.
+     *
+     * @return depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns number of child elements of every element which is not a leaf.
+     *
+     * @return fan-out
+     */
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * Returns share of child elements which are repeated (arrays of 2 to fan-out + 1 elements).
+     *
+     * @return share from 0 to 1
+     */
+    public double getArrayDensity() {
+        return arrayDensity;
+    }
+
+    /**
+     * Returns number of attributes of every element which is not a leaf.
+     *
+     * @return number of attributes
+     */
+    public int getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns average length of texts.
+     *
+     * @return number of characters
+     */
+    public int getTextLength() {
+        return textLength;
+    }
+
+    /**
+     * Returns share of leaf elements which have numeric values.
+     *
+     * @return share from 0 to 1
+     */
+    public double getNumericRatio() {
+        return numericRatio;
+    }
+
+    /**
+     * Returns <code>true</code> if elements have namespace prefixes.
+     *
+     * @return <code>true</code> if namespaces are used
+     */
+    public boolean isNamespaces() {
+        return namespaces;
+    }
+
+    /**
+     * Returns maximal number of records.
+     *
+     * @return number of records, <code>0</code> if only size limits document
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes document to file, type of document is defined by file extension, file with <code>.gz</code>
+     * extension is compressed.
+     *
+     * @param file output file
+     * @param size maximal size of uncompressed document, document ends after the record which exceeds it
+     * @return number of written records
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if XML cannot be written
+     * @throws UnsupportedFileType if file is not XML- or JSON-file
+     */
+    public long generate(File file, long size) throws IOException, XMLStreamException {
+        FileTypeEnum type = FileTypeEnum.parseByFileName(file.getName());
+        if (null == type) {
+            throw new UnsupportedFileType("Unsupported type of file: " + file.getName());
+        }
+        OutputStream output = new BufferedOutputStream(Files.newOutputStream(file.toPath()));
+        if (FileTypeEnum.isCompressed(file.getName())) {
+            output = new GZIPOutputStream(output);
+        }
+        try (OutputStream stream = output) {
+            return write(stream, type, size);
+        }
+    }
+
+    /**
+     * Writes document to output stream. Stream is flushed but not closed.
+     *
+     * @param output output stream
+     * @param type type of document
+     * @param size maximal size of document, document ends after the record which exceeds it
+     * @return number of written records
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if XML cannot be written
+     */
+    public long write(OutputStream output, FileTypeEnum type, long size) throws IOException, XMLStreamException {
+        UnclosableCountingOutputStream counter = new UnclosableCountingOutputStream(output);
+        Random random = new Random(seed);
+        Field record = new Field(null, RECORD, true, false);
+        addChildren(record, 1, random);
+
+        long count = 0;
+        if (type == FileTypeEnum.XML) {
+            XMLStreamWriter writer = ConversionEngine.getInstance().createXmlWriter(counter);
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(ROOT);
+            for (int i = 0; namespaces && i < PREFIXES.length; i++) {
+                writer.writeNamespace(PREFIXES[i], NAMESPACE_URI + PREFIXES[i]);
+            }
+            count = writeRecords(new XmlSink(writer), record, random, counter, size);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } else {
+            JsonStreamTarget target = JsonStreamFactory.newFactory().createJsonStreamTarget(counter, true);
+            target.startObject();
+            target.name(ROOT);
+            target.startObject();
+            for (int i = 0; namespaces && i < PREFIXES.length; i++) {
+                target.name(ATTRIBUTE_PREFIX + "xmlns:" + PREFIXES[i]);
+                target.value(NAMESPACE_URI + PREFIXES[i]);
+            }
+            target.name(RECORD);
+            target.startArray();
+            count = writeRecords(new JsonSink(target), record, random, counter, size);
+            target.endArray();
+            target.endObject();
+            target.endObject();
+            target.close();
+        }
+        output.flush();
+        return count;
+    }
+
+    /**
+     * Writes records until number of records or size is reached.
+     *
+     * @param sink writer of document
+     * @param record schema of record
+     * @param random random values
+     * @param counter counter of written bytes
+     * @param size maximal size of document
+     * @return number of written records
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if XML cannot be written
+     */
+    private long writeRecords(Sink sink, Field record, Random random, CountingOutputStream counter, long size)
+            throws IOException, XMLStreamException {
+        long count = 0;
+        while ((records <= 0 || count < records) && counter.getCount() < size) {
+            writeObject(sink, record, random);
+            count++;
+            sink.flush();
+        }
+        return count;
+    }
+
+    /**
+     * Adds child elements to schema.
+     *
+     * @param parent parent element
+     * @param level depth of child elements below record
+     * @param random random values
+     */
+    private void addChildren(Field parent, int level, Random random) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < fanOut; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)];
+            if (!names.add(name)) {
+                name = name + i;
+                names.add(name);
+            }
+            String prefix = namespaces && random.nextBoolean() ? PREFIXES[random.nextInt(PREFIXES.length)] : null;
+            boolean array = random.nextDouble() < arrayDensity;
+            // the first child reaches maximal depth
+            boolean object = level < depth && (i == 0 || random.nextBoolean());
+            Field child = new Field(prefix, name, array, !object && random.nextDouble() < numericRatio);
+            if (object) {
+                addChildren(child, level + 1, random);
+            }
+            parent.children.add(child);
+        }
+    }
+
+    /**
+     * Writes element with attributes and child elements.
+     *
+     * @param sink writer of document
+     * @param field element
+     * @param random random values
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if XML cannot be written
+     */
+    private void writeObject(Sink sink, Field field, Random random) throws IOException, XMLStreamException {
+        String[] attributeValues = new String[attributes];
+        for (int i = 0; i < attributes; i++) {
+            attributeValues[i] = word(random, 2 + random.nextInt(6));
+        }
+        sink.startObject(field, attributeValues);
+        for (Field child : field.children) {
+            int occurrences = child.array ? 2 + random.nextInt(fanOut) : 1;
+            sink.startField(child);
+            for (int i = 0; i < occurrences; i++) {
+                if (child.children.isEmpty()) {
+                    sink.leaf(child, child.numeric ? number(random) : text(random));
+                } else {
+                    writeObject(sink, child, random);
+                }
+            }
+            sink.endField(child);
+        }
+        sink.endObject();
+    }
+
+    /**
+     * Returns random number, integer or decimal with two fraction digits.
+     *
+     * @param random random values
+     * @return number
+     */
+    private static BigDecimal number(Random random) {
+        return random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(1000000))
+                : BigDecimal.valueOf(random.nextInt(10000000), 2);
+    }
+
+    /**
+     * Returns random text of words, some words contain characters which must be escaped.
+     *
+     * @param random random values
+     * @return text
+     */
+    private String text(Random random) {
+        int length = Math.max(1, textLength / 2 + random.nextInt(textLength + 1));
+        StringBuilder sb = new StringBuilder(length + 8);
+        while (sb.length() < length) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(word(random, 1 + random.nextInt(8)));
+            if (random.nextInt(16) == 0) {
+                sb.append(SPECIALS[random.nextInt(SPECIALS.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns random word of lowercase letters.
+     *
+     * @param random random values
+     * @param length number of letters
+     * @return word
+     */
+    private static String word(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        String word = new String(chars);
+        // words which are converted to primitive values
+        return "true".equals(word) || "false".equals(word) || "null".equals(word) ? word + 's' : word;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "{seed=%d, depth=%d, fanOut=%d, arrayDensity=%.2f, attributes=%d, "
+                + "textLength=%d, numericRatio=%.2f, namespaces=%s, records=%d}", seed, depth, fanOut, arrayDensity,
+                attributes, textLength, numericRatio, namespaces, records);
+    }
+
+    /**
+     * Writer of XML document.
+     */
+    private static final class XmlSink implements Sink {
+        private final XMLStreamWriter writer;
+
+        /**
+         * Constructor.
+         *
+         * @param writer XML writer
+         */
+        XmlSink(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void startObject(Field field, String[] attributeValues) throws XMLStreamException {
+            startElement(field);
+            for (int i = 0; i < attributeValues.length; i++) {
+                writer.writeAttribute(getAttributeName(i), attributeValues[i]);
+            }
+        }
+
+        @Override
+        public void endObject() throws XMLStreamException {
+            writer.writeEndElement();
+        }
+
+        @Override
+        public void startField(Field field) {
+            // elements are repeated
+        }
+
+        @Override
+        public void endField(Field field) {
+            // elements are repeated
+        }
+
+        @Override
+        public void leaf(Field field, Object value) throws XMLStreamException {
+            startElement(field);
+            writer.writeCharacters(value.toString());
+            writer.writeEndElement();
+        }
+
+        @Override
+        public void flush() throws XMLStreamException {
+            writer.flush();
+        }
+
+        /**
+         * Starts element.
+         *
+         * @param field element
+         * @throws XMLStreamException if XML cannot be written
+         */
+        private void startElement(Field field) throws XMLStreamException {
+            if (null == field.prefix) {
+                writer.writeStartElement(field.name);
+            } else {
+                writer.writeStartElement(field.prefix, field.name, NAMESPACE_URI + field.prefix);
+            }
+        }
+    }
+
+    /**
+     * Writer of JSON document.
+     */
+    private static final class JsonSink implements Sink {
+        private final JsonStreamTarget target;
+
+        /**
+         * Constructor.
+         *
+         * @param target JSON target
+         */
+        JsonSink(JsonStreamTarget target) {
+            this.target = target;
+        }
+
+        @Override
+        public void startObject(Field field, String[] attributeValues) throws IOException {
+            target.startObject();
+            for (int i = 0; i < attributeValues.length; i++) {
+                target.name(ATTRIBUTE_PREFIX + getAttributeName(i));
+                target.value(attributeValues[i]);
+            }
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            target.endObject();
+        }
+
+        @Override
+        public void startField(Field field) throws IOException {
+            target.name(field.getQualifiedName());
+            if (field.array) {
+                target.startArray();
+            }
+        }
+
+        @Override
+        public void endField(Field field) throws IOException {
+            if (field.array) {
+                target.endArray();
+            }
+        }
+
+        @Override
+        public void leaf(Field field, Object value) throws IOException {
+            target.value(value);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+
+    /**
+     * Returns name of attribute.
+     *
+     * @param index index of attribute
+     * @return name
+     */
+    private static String getAttributeName(int index) {
+        return index < ATTRIBUTE_NAMES.length ? ATTRIBUTE_NAMES[index]
+                : ATTRIBUTE_NAMES[index % ATTRIBUTE_NAMES.length] + index;
+    }
+
+    /**
+     * Counting stream which is neither flushed nor closed by writers, so written bytes can be counted
+     * after every record without flushing output.
+     */
+    private static final class UnclosableCountingOutputStream extends CountingOutputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param output output stream
+         */
+        UnclosableCountingOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void flush() {
+            // output is flushed by generator
+        }
+
+        @Override
+        public void close() {
+            // output is closed by caller
+        }
+    }
+
+    /**
+     * Builder for {@link CorpusGenerator}.
+     */
+    public static final class Builder {
+        private long seed = 0;
+        private int depth = 3;
+        private int fanOut = 4;
+        private double arrayDensity = 0.25;
+        private int attributes = 1;
+        private int textLength = 16;
+        private double numericRatio = 0.3;
+        private boolean namespaces = false;
+        private long records = 0;
+
+        /**
+         * Private constructor, use {@link CorpusGenerator#builder()}.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets seed of random values.
+         *
+         * @param seed seed
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets maximal depth of elements below record.
+         *
+         * @param depth depth, must be positive
+         * @return this builder
+         */
+        public Builder depth(int depth) {
+            if (depth < 1) {
+                throw new IllegalArgumentException("Depth must be positive: " + depth);
+            }
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * Sets number of child elements of every element which is not a leaf.
+         *
+         * @param fanOut number of child elements, must be positive
+         * @return this builder
+         */
+        public Builder fanOut(int fanOut) {
+            if (fanOut < 1) {
+                throw new IllegalArgumentException("Fan-out must be positive: " + fanOut);
+            }
+            this.fanOut = fanOut;
+            return this;
+        }
+
+        /**
+         * Sets share of child elements which are repeated.
+         *
+         * @param arrayDensity share from 0 to 1
+         * @return this builder
+         */
+        public Builder arrayDensity(double arrayDensity) {
+            if (!(arrayDensity >= 0 && arrayDensity <= 1)) {
+                throw new IllegalArgumentException("Array density must be from 0 to 1: " + arrayDensity);
+            }
+            this.arrayDensity = arrayDensity;
+            return this;
+        }
+
+        /**
+         * Sets number of attributes of every element which is not a leaf.
+         *
+         * @param attributes number of attributes, must not be negative
+         * @return this builder
+         */
+        public Builder attributes(int attributes) {
+            if (attributes < 0) {
+                throw new IllegalArgumentException("Number of attributes cannot be negative: " + attributes);
+            }
+            this.attributes = attributes;
+            return this;
+        }
+
+        /**
+         * Sets average length of texts.
+         *
+         * @param textLength number of characters, must be positive
+         * @return this builder
+         */
+        public Builder textLength(int textLength) {
+            if (textLength < 1) {
+                throw new IllegalArgumentException("Text length must be positive: " + textLength);
+            }
+            this.textLength = textLength;
+            return this;
+        }
+
+        /**
+         * Sets share of leaf elements which have numeric values.
+         *
+         * @param numericRatio share from 0 to 1
+         * @return this builder
+         */
+        public Builder numericRatio(double numericRatio) {
+            if (!(numericRatio >= 0 && numericRatio <= 1)) {
+                throw new IllegalArgumentException("Numeric ratio must be from 0 to 1: " + numericRatio);
+            }
+            this.numericRatio = numericRatio;
+            return this;
+        }
+
+        /**
+         * Enables namespace prefixes of elements.
+         *
+         * @param namespaces <code>true</code> to use namespaces
+         * @return this builder
+         */
+        public Builder namespaces(boolean namespaces) {
+            this.namespaces = namespaces;
+            return this;
+        }
+
+        /**
+         * Sets maximal number of records.
+         *
+         * @param records number of records, <code>0</code> if only size limits document
+         * @return this builder
+         */
+        public Builder records(long records) {
+            if (records < 0) {
+                throw new IllegalArgumentException("Number of records cannot be negative: " + records);
+            }
+            this.records = records;
+            return this;
+        }
+
+        /**
+         * Sets values from comma-separated list of <code>name=value</code> pairs, names are names of
+         * builder methods.
+         *
+         * @param shape list of values, e.g. <code>seed=42,depth=4,fanOut=6,namespaces=true</code>
+         * @return this builder
+         * @throws IllegalArgumentException if name is unknown or value is incorrect
+         */
+        public Builder shape(String shape) {
+            for (String pair : shape.split(",")) {
+                if (pair.trim().isEmpty()) {
+                    continue;
+                }
+                int index = pair.indexOf('=');
+                if (index < 0) {
+                    throw new IllegalArgumentException("Value must be 'name=value': " + pair.trim());
+                }
+                String name = pair.substring(0, index).trim();
+                String value = pair.substring(index + 1).trim();
+                try {
+                    switch (name) {
+                        case "seed":
+                            seed(Long.parseLong(value));
+                            break;
+                        case "depth":
+                            depth(Integer.parseInt(value));
+                            break;
+                        case "fanOut":
+                            fanOut(Integer.parseInt(value));
+                            break;
+                        case "arrayDensity":
+                            arrayDensity(Double.parseDouble(value));
+                            break;
+                        case "attributes":
+                            attributes(Integer.parseInt(value));
+                            break;
+                        case "textLength":
+                            textLength(Integer.parseInt(value));
+                            break;
+                        case "numericRatio":
+                            numericRatio(Double.parseDouble(value));
+                            break;
+                        case "namespaces":
+                            namespaces(Boolean.parseBoolean(value));
+                            break;
+                        case "records":
+                            records(Long.parseLong(value));
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown value of shape: " + name);
+                    }
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Value of '" + name + "' must be a number: " + value);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Creates generator.
+         *
+         * @return generator
+         */
+        public CorpusGenerator build() {
+            return new CorpusGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,612 @@
+/**
+ * Copyright © 2016-2017 Anton Mykolaienko. All rights reserved. Contacts: <amykolaienko@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fs.xml2json.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits XML-file into chunks at boundaries of records - repeated children of the root element.
+ * <p>Every chunk is read as a separate XML document: the beginning of the file up to the first
+ * record (XML declaration, root element with its attributes and namespaces) is followed by
+ * records of the chunk and by the end tag of the root element.
+ * <p>Boundaries are found by searching for start tags of records in bytes, so the file must be in
+ * an ASCII compatible encoding (like UTF-8 or ISO-8859-1). Start tag which appears inside comment
+ * or CDATA section of a record can be taken as a boundary, such chunks are not well-formed and
+ * fail to parse.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public final class XmlRecordSplitter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XmlRecordSplitter.class);
+
+    /**
+     * Split path which means that the record element must be detected: the first child of the root
+     * element which is repeated.
+     */
+    public static final String AUTO = "auto";
+
+    /**
+     * Maximum number of bytes which are read to find the first record.
+     */
+    private static final long MAX_HEAD_SIZE = 16L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DELIM = "/";
+
+    /**
+     * Private constructor.
+     */
+    private XmlRecordSplitter() {
+    }
+
+    /**
+     * Splits file into (at most) <code>numberOfChunks</code> chunks of about the same size.
+     *
+     * @param file XML-file
+     * @param splitPath path of record element (like <code>/root/record</code> or <code>record</code>)
+     * or {@link #AUTO}
+     * @param numberOfChunks number of chunks
+     * @return chunks or <code>null</code> if the file cannot be split into two or more chunks
+     * @throws IOException if an I/O error occurs
+     */
+    public static Chunks split(File file, String splitPath, int numberOfChunks) throws IOException {
+        long length = file.length();
+        Head head;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file.toPath(),
+                StandardOpenOption.READ), BUFFER_SIZE)) {
+            head = readHead(input, splitPath);
+        }
+        if (null == head) {
+            return null;
+        }
+
+        byte[] startTag = ("<" + head.recordName).getBytes(StandardCharsets.UTF_8);
+        List<Long> starts = new ArrayList<>();
+        starts.add(head.firstRecord);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int i = 1; i < numberOfChunks; i++) {
+                long position = Math.max(head.firstRecord + 1, length / numberOfChunks * i);
+                if (position > starts.get(starts.size() - 1)) {
+                    long start = findStartTag(channel, position, startTag);
+                    if (start < 0) {
+                        break;
+                    }
+                    if (start > starts.get(starts.size() - 1)) {
+                        starts.add(start);
+                    }
+                }
+            }
+        }
+        if (starts.size() < 2) {
+            LOGGER.debug("File '{}' cannot be split at '{}' records", file.getAbsolutePath(), head.recordName);
+            return null;
+        }
+
+        return new Chunks(file, head, starts);
+    }
+
+    /**
+     * Reads the beginning of XML up to the first record.
+     *
+     * @param input XML
+     * @param splitPath path of record element or {@link #AUTO}
+     * @return head or <code>null</code> if record not found
+     * @throws IOException if an I/O error occurs
+     */
+    private static Head readHead(InputStream input, String splitPath) throws IOException {
+        Lexer lexer = new Lexer(input);
+        int first = lexer.peek();
+        if (first == 0 || first == 0xFE || first == 0xFF) {    // UTF-16 or UTF-32
+            LOGGER.debug("Encoding is not supported for splitting");
+            return null;
+        }
+        String[] path = AUTO.equalsIgnoreCase(splitPath) ? null : splitPath.replaceFirst("^" + DELIM, "").split(DELIM);
+        String rootName = null;
+        Map<String, Long> firstOccurrences = new HashMap<>();
+        int depth = 0;
+        while (lexer.getPosition() < MAX_HEAD_SIZE) {
+            long tagStart = lexer.nextTag();
+            if (tagStart < 0) {
+                break;
+            }
+            if (lexer.isEndTag()) {
+                if (--depth == 0) {
+                    break;  // end of root element
+                }
+            } else {
+                if (depth == 0) {
+                    rootName = lexer.getName();
+                    if (null != path && path.length > 1 && !path[0].equals(localName(rootName))) {
+                        LOGGER.debug("Root element '{}' does not match '{}'", rootName, splitPath);
+                        return null;
+                    }
+                } else if (depth == 1) {
+                    String name = lexer.getName();
+                    if (null != path && path[path.length - 1].equals(localName(name))) {
+                        return new Head(lexer.getHead(tagStart), rootName, name, tagStart);
+                    } else if (null == path) {
+                        Long firstOccurrence = firstOccurrences.putIfAbsent(name, tagStart);
+                        if (null != firstOccurrence) {
+                            return new Head(lexer.getHead(firstOccurrence), rootName, name, firstOccurrence);
+                        }
+                    }
+                }
+                if (!lexer.isEmptyElement()) {
+                    depth++;
+                }
+            }
+        }
+        LOGGER.debug("Records '{}' not found", splitPath);
+        return null;
+    }
+
+    /**
+     * Returns position of the first start tag at or after <code>position</code>.
+     *
+     * @param channel file
+     * @param position position to search from
+     * @param startTag bytes of start tag without closing bracket, like <code>&lt;record</code>
+     * @return position of start tag or <code>-1</code> if not found
+     * @throws IOException if an I/O error occurs
+     */
+    private static long findStartTag(FileChannel channel, long position, byte[] startTag) throws IOException {
+        channel.position(position);
+        InputStream input = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+        long current = position;
+        int matched = 0;
+        int b;
+        while ((b = input.read()) >= 0) {
+            current++;
+            if (matched == startTag.length) {
+                if (isNameEnd(b)) {
+                    return current - 1 - startTag.length;
+                }
+                matched = 0;
+            }
+            if (b == startTag[matched]) {
+                matched++;
+            } else {
+                matched = b == startTag[0] ? 1 : 0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns local part of qualified name.
+     *
+     * @param name qualified name
+     * @return name without prefix
+     */
+    private static String localName(String name) {
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    /**
+     * Returns <code>true</code> if character ends name in a tag.
+     *
+     * @param b character
+     * @return <code>true</code> for white space, <code>/</code> and <code>&gt;</code>
+     */
+    private static boolean isNameEnd(int b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '/' || b == '>';
+    }
+
+    /**
+     * Beginning of XML up to the first record.
+     */
+    private static final class Head {
+        private final byte[] bytes;
+        private final String rootName;
+        private final String recordName;
+        private final long firstRecord;
+
+        /**
+         * Constructor.
+         *
+         * @param bytes bytes before the first record
+         * @param rootName qualified name of the root element
+         * @param recordName qualified name of records
+         * @param firstRecord position of the first record
+         */
+        Head(byte[] bytes, String rootName, String recordName, long firstRecord) {
+            this.bytes = bytes;
+            this.rootName = rootName;
+            this.recordName = recordName;
+            this.firstRecord = firstRecord;
+        }
+    }
+
+    /**
+     * Chunks of XML-file.
+     */
+    public static final class Chunks {
+        private final File file;
+        private final Head head;
+        private final List<Long> starts;
+        private final byte[] rootEndTag;
+
+        /**
+         * Constructor.
+         *
+         * @param file XML-file
+         * @param head beginning of XML
+         * @param starts positions where chunks start
+         */
+        Chunks(File file, Head head, List<Long> starts) {
+            this.file = file;
+            this.head = head;
+            this.starts = Collections.unmodifiableList(starts);
+            this.rootEndTag = ("</" + head.rootName + ">").getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns number of chunks.
+         *
+         * @return number of chunks
+         */
+        public int size() {
+            return starts.size();
+        }
+
+        /**
+         * Returns qualified name of the root element.
+         *
+         * @return name like <code>root</code> or <code>ns:root</code>
+         */
+        public String getRootName() {
+            return head.rootName;
+        }
+
+        /**
+         * Returns qualified name of records.
+         *
+         * @return name like <code>record</code> or <code>ns:record</code>
+         */
+        public String getRecordName() {
+            return head.recordName;
+        }
+
+        /**
+         * Returns path of records, like <code>/root/record</code>.
+         *
+         * @return absolute path with local names
+         */
+        public String getRecordPath() {
+            return DELIM + localName(head.rootName) + DELIM + localName(head.recordName);
+        }
+
+        /**
+         * Returns position in file where chunk starts.
+         *
+         * @param index index of chunk
+         * @return position of the first record of chunk
+         */
+        public long getStart(int index) {
+            return starts.get(index);
+        }
+
+        /**
+         * Returns position in file where chunk ends.
+         *
+         * @param index index of chunk
+         * @return position of the first record of the next chunk or length of file for the last chunk
+         */
+        public long getEnd(int index) {
+            return index + 1 < starts.size() ? starts.get(index + 1) : file.length();
+        }
+
+        /**
+         * Opens chunk as separate XML document.
+         *
+         * @param index index of chunk
+         * @param wrapper wrapper for stream of chunk's bytes (without the beginning of XML and
+         * the end tag of the root element), e.g. for tracking progress
+         * @return input stream which must be closed
+         * @throws IOException if an I/O error occurs
+         */
+        public InputStream open(int index, StreamWrapper wrapper) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            channel.position(getStart(index));
+            InputStream records = wrapper.wrap(new BoundedInputStream(Channels.newInputStream(channel),
+                    getEnd(index) - getStart(index)));
+            InputStream end = new ByteArrayInputStream(index + 1 < starts.size() ? rootEndTag : new byte[0]);
+            return new BufferedInputStream(new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                    new ByteArrayInputStream(head.bytes), records, end))), BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Wrapper of input stream.
+     */
+    @FunctionalInterface
+    public interface StreamWrapper {
+
+        /**
+         * Wraps input stream.
+         *
+         * @param input input stream
+         * @return wrapped stream
+         */
+        InputStream wrap(InputStream input);
+    }
+
+    /**
+     * Input stream which reads at most given number of bytes.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream input;
+        private long remaining;
+
+        /**
+         * Constructor.
+         *
+         * @param input input stream
+         * @param length number of bytes to read
+         */
+        BoundedInputStream(InputStream input, long length) {
+            this.input = input;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = input.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = input.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * Simple lexer which finds start and end tags and skips comments, CDATA sections, processing
+     * instructions and DTD. Read bytes are kept, so the beginning of XML can be returned.
+     */
+    private static final class Lexer {
+        private final InputStream input;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream name = new ByteArrayOutputStream();
+        private boolean endTag;
+        private boolean emptyElement;
+
+        /**
+         * Constructor.
+         *
+         * @param input XML
+         */
+        Lexer(InputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Returns next byte without reading it.
+         *
+         * @return next byte or <code>-1</code>
+         * @throws IOException if an I/O error occurs
+         */
+        int peek() throws IOException {
+            input.mark(1);
+            int b = input.read();
+            input.reset();
+            return b;
+        }
+
+        /**
+         * Returns number of read bytes.
+         *
+         * @return position
+         */
+        long getPosition() {
+            return bytes.size();
+        }
+
+        /**
+         * Returns read bytes before position.
+         *
+         * @param position position
+         * @return bytes
+         */
+        byte[] getHead(long position) {
+            return Arrays.copyOf(bytes.toByteArray(), (int) position);
+        }
+
+        /**
+         * Returns name of the last read tag.
+         *
+         * @return qualified name
+         */
+        String getName() {
+            return new String(name.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns <code>true</code> if the last read tag is an end tag.
+         *
+         * @return <code>true</code> for end tag
+         */
+        boolean isEndTag() {
+            return endTag;
+        }
+
+        /**
+         * Returns <code>true</code> if the last read tag is an empty-element tag (like <code>&lt;a/&gt;</code>).
+         *
+         * @return <code>true</code> for empty element
+         */
+        boolean isEmptyElement() {
+            return emptyElement;
+        }
+
+        /**
+         * Reads next start or end tag.
+         *
+         * @return position of tag or <code>-1</code> if there are no more tags
+         * @throws IOException if an I/O error occurs
+         */
+        long nextTag() throws IOException {
+            int b;
+            while ((b = read()) >= 0) {
+                if (b != '<') {
+                    continue;
+                }
+                long start = getPosition() - 1;
+                b = read();
+                if (b == '!') {
+                    b = read();
+                    if (b == '-') {
+                        skipUntil("-->");
+                    } else if (b == '[') {
+                        skipUntil("]]>");
+                    } else {
+                        skipDeclaration();
+                    }
+                } else if (b == '?') {
+                    skipUntil("?>");
+                } else if (b >= 0) {
+                    endTag = b == '/';
+                    name.reset();
+                    if (!endTag) {
+                        name.write(b);
+                    }
+                    while ((b = read()) >= 0 && !isNameEnd(b)) {
+                        name.write(b);
+                    }
+                    emptyElement = skipTag(b);
+                    return start;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Skips the rest of tag, values of attributes can contain <code>&gt;</code>.
+         *
+         * @param last last read byte
+         * @return <code>true</code> if tag is an empty-element tag
+         * @throws IOException if an I/O error occurs
+         */
+        private boolean skipTag(int last) throws IOException {
+            int previous = -1;
+            int b = last;
+            int quote = -1;
+            while (b >= 0 && (b != '>' || quote >= 0)) {
+                if (quote >= 0) {
+                    if (b == quote) {
+                        quote = -1;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                }
+                previous = b;
+                b = read();
+            }
+            return previous == '/';
+        }
+
+        /**
+         * Skips document type declaration with internal subset.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void skipDeclaration() throws IOException {
+            int brackets = 0;
+            int b;
+            while ((b = read()) >= 0 && (b != '>' || brackets > 0)) {
+                if (b == '[') {
+                    brackets++;
+                } else if (b == ']') {
+                    brackets--;
+                }
+            }
+        }
+
+        /**
+         * Skips bytes until <code>end</code> has been read.
+         *
+         * @param end ASCII string
+         * @throws IOException if an I/O error occurs
+         */
+        private void skipUntil(String end) throws IOException {
+            StringBuilder last = new StringBuilder();
+            int b;
+            while ((b = read()) >= 0) {
+                last.append((char) b);
+                if (last.length() > end.length()) {
+                    last.deleteCharAt(0);
+                }
+                if (last.length() == end.length() && last.indexOf(end) == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Reads and keeps byte.
+         *
+         * @return byte or <code>-1</code>
+         * @throws IOException if an I/O error occurs
+         */
+        private int read() throws IOException {
+            int b = input.read();
+            if (b >= 0) {
+                bytes.write(b);
+            }
+            return b;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.fs.xml2json.util;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -23,6 +25,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.LongAdder;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -43,6 +47,9 @@ public final class XmlUtils {
 
     private static final String DELIM = "/";
 
+    // factory is looked up once, creating readers is thread-safe
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+
     /**
      * Private constructor.
      */
@@ -55,16 +62,91 @@ public final class XmlUtils {
      * @param in input stream (will be closed at the end)
      * @return list of paths of arrays in xml or empty list of arrays not found
      * @throws XMLStreamException if exception occurs in
-     * {@link #getObjectElements(XmlUtils.XmlNode, XMLStreamReader, LongAdder, Set)}
+     * {@link #getObjectElements(XmlUtils.XmlNode, XMLStreamReader, LongAdder, Set, XmlUtils.Sample)}
      */
     public static List<String> determineArrays(InputStream in) throws XMLStreamException {
+        return determineArrays(in, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a list of paths of arrays found in the first records of XML. Record is a direct child of
+     * the root element, reading stops after the record which reaches one of the limits.
+     * <p>Arrays which appear later in XML are not returned, so the result should be used together
+     * with a writer which is able to detect such arrays during conversion.
+     *
+     * @param in input stream (will be closed at the end)
+     * @param maxRecords maximum number of records to read
+     * @param maxBytes maximum number of bytes to read (approximately, parser reads ahead)
+     * @return list of paths of arrays in sample or empty list of arrays not found
+     * @throws XMLStreamException if exception occurs in
+     * {@link #getObjectElements(XmlUtils.XmlNode, XMLStreamReader, LongAdder, Set, XmlUtils.Sample)}
+     */
+    public static List<String> determineArrays(InputStream in, int maxRecords, long maxBytes)
+            throws XMLStreamException {
+        return determineArrays(in, maxRecords, maxBytes, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a list of paths of arrays found in the first records of XML, reading stops after the record
+     * which reaches one of the limits or immediately when estimated size of found structure (distinct
+     * element paths) exceeds memory limit.
+     * <p>Arrays which appear later in XML are not returned, so the result should be used together
+     * with a writer which is able to detect such arrays during conversion.
+     *
+     * @param in input stream (will be closed at the end)
+     * @param maxRecords maximum number of records to read
+     * @param maxBytes maximum number of bytes to read (approximately, parser reads ahead)
+     * @param memoryLimit maximum number of bytes of found structure
+     * @return list of paths of arrays in sample or empty list of arrays not found
+     * @throws XMLStreamException if exception occurs in
+     * {@link #getObjectElements(XmlUtils.XmlNode, XMLStreamReader, LongAdder, Set, XmlUtils.Sample)}
+     */
+    public static List<String> determineArrays(InputStream in, int maxRecords, long maxBytes, long memoryLimit)
+            throws XMLStreamException {
+        return determineArrays(new Sample(in, maxRecords, maxBytes, memoryLimit));
+    }
+
+    /**
+     * Returns a list of paths of all arrays in XML, fails if estimated size of found structure (distinct
+     * element paths) exceeds memory limit.
+     *
+     * @param in input stream (will be closed at the end)
+     * @param memoryLimit maximum number of bytes of found structure
+     * @return list of paths of arrays in xml or empty list of arrays not found
+     * @throws XMLStreamException if structure exceeds memory limit or if exception occurs in
+     * {@link #getObjectElements(XmlUtils.XmlNode, XMLStreamReader, LongAdder, Set, XmlUtils.Sample)}
+     */
+    public static List<String> determineAllArrays(InputStream in, long memoryLimit) throws XMLStreamException {
+        Sample sample = new Sample(in, Integer.MAX_VALUE, Long.MAX_VALUE, memoryLimit);
+        List<String> arrays = determineArrays(sample);
+        if (sample.isMemoryLimitReached()) {
+            throw new XMLStreamException("Structure of XML exceeds memory limit of " + memoryLimit + " bytes");
+        }
+        return arrays;
+    }
+
+    /**
+     * Returns a list of paths of arrays found in sample.
+     *
+     * @param sample input stream with limits (will be closed at the end)
+     * @return list of paths of arrays in sample or empty list of arrays not found
+     * @throws XMLStreamException if exception occurs in
+     * {@link #getObjectElements(XmlUtils.XmlNode, XMLStreamReader, LongAdder, Set, XmlUtils.Sample)}
+     */
+    private static List<String> determineArrays(Sample sample) throws XMLStreamException {
         Set<String> arrayKeys = new HashSet<>();
         XMLStreamReader sr = null;
         try {
-            XMLInputFactory f = XMLInputFactory.newFactory();
-            sr = f.createXMLStreamReader(in);
+            sr = INPUT_FACTORY.createXMLStreamReader(sample);
 
-            getObjectElements(null, sr, new LongAdder(), arrayKeys);
+            getObjectElements(null, sr, new LongAdder(), arrayKeys, sample);
+
+            if (sample.isMemoryLimitReached()) {
+                LOGGER.debug("Arrays determined by {} records ({} bytes), structure exceeds memory limit",
+                        sample.records, sample.bytes);
+            } else if (sample.isLimitReached()) {
+                LOGGER.debug("Arrays determined by {} records ({} bytes)", sample.records, sample.bytes);
+            }
 
             if (LOGGER.isDebugEnabled()) {
                 StringBuilder sb = new StringBuilder();
@@ -81,6 +163,52 @@ public final class XmlUtils {
         return new ArrayList<>(arrayKeys);
     }
 
+    /**
+     * Returns sorted set of distinct element paths (like <code>/root/element/nested</code>) found in XML.
+     * <p>Reading stops silently at the first malformed or truncated part of the input, so the method
+     * can be used to describe structure of the first N bytes of a large file.
+     *
+     * @param in input stream (will not be closed)
+     * @return sorted set of element paths, first path is the path of the root element
+     */
+    public static SortedSet<String> determineStructure(InputStream in) {
+        SortedSet<String> paths = new TreeSet<>();
+        XMLStreamReader sr = null;
+        StringBuilder path = new StringBuilder();
+        try {
+            sr = INPUT_FACTORY.createXMLStreamReader(in);
+            while (sr.hasNext()) {
+                int event = sr.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    path.append(DELIM).append(sr.getLocalName());
+                    paths.add(path.toString());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.setLength(path.lastIndexOf(DELIM));
+                }
+            }
+        } catch (XMLStreamException ex) {
+            LOGGER.trace("Structure determined up to: {}", ex.getMessage());
+        } finally {
+            closeQuietly(sr);
+        }
+        return paths;
+    }
+
+    /**
+     * Closes reader and ignores exceptions.
+     *
+     * @param sr reader to close, can be <code>null</code>
+     */
+    private static void closeQuietly(XMLStreamReader sr) {
+        if (null != sr) {
+            try {
+                sr.close();
+            } catch (XMLStreamException ex) {
+                LOGGER.trace(ex.toString());
+            }
+        }
+    }
+
     /**
      * Counts arrays and populates {@code arrayKeys}.
      *
@@ -88,13 +216,14 @@ public final class XmlUtils {
      * @param sr stream reader
      * @param level nesting level
      * @param arrayKeys kays to hold counters
+     * @param sample limits of reading
      * @throws XMLStreamException if exception occurs in XMLStreamReader
      */
     private static void getObjectElements(XmlNode parentNode, XMLStreamReader sr, LongAdder level,
-            Set<String> arrayKeys) throws XMLStreamException {
+            Set<String> arrayKeys, Sample sample) throws XMLStreamException {
         XmlNode node;
         boolean levelFinished = false;
-        while (sr.hasNext() && !levelFinished) {
+        while (sr.hasNext() && !levelFinished && !sample.isLimitReached()) {
             switch (sr.next()) {
                 case XMLStreamConstants.START_ELEMENT:
                     level.increment();
@@ -105,17 +234,22 @@ public final class XmlUtils {
                         XmlNode elementNode = parentNode.nestedNode.get(node.getFullPath());
                         if (null == elementNode) {
                             parentNode.nestedNode.put(node.getFullPath(), node);
+                            sample.structureAdded(node.getFullPath());
                         } else {
                             if (++elementNode.occurrence > 1 && !arrayKeys.contains(elementNode.getFullPath())) {
                                 arrayKeys.add(elementNode.getFullPath());
+                                sample.structureAdded(elementNode.getFullPath());
                             }
                         }
                     }
-                    getObjectElements(node, sr, level, arrayKeys);
+                    getObjectElements(node, sr, level, arrayKeys, sample);
 
                     break;
                 case XMLStreamConstants.END_ELEMENT:
                     level.decrement();
+                    if (level.intValue() == 1) {
+                        sample.recordRead();
+                    }
                     if (parentNode.nodeName.equalsIgnoreCase(sr.getLocalName())) {
                         levelFinished = true;
                     }
@@ -130,6 +264,96 @@ public final class XmlUtils {
         }
     }
 
+    /**
+     * Input stream which counts read bytes and records, and estimates size of found structure.
+     */
+    private static final class Sample extends FilterInputStream {
+        // rough size of node (object, map entry and path) without characters of path
+        private static final int NODE_OVERHEAD = 160;
+
+        private final int maxRecords;
+        private final long maxBytes;
+        private final long memoryLimit;
+        private int records;
+        private long bytes;
+        private long structureSize;
+        private boolean limitReached;
+        private boolean memoryLimitReached;
+
+        /**
+         * Constructor.
+         *
+         * @param in input stream
+         * @param maxRecords maximum number of records
+         * @param maxBytes maximum number of bytes
+         * @param memoryLimit maximum number of bytes of found structure
+         */
+        Sample(InputStream in, int maxRecords, long maxBytes, long memoryLimit) {
+            super(in);
+            this.maxRecords = maxRecords;
+            this.maxBytes = maxBytes;
+            this.memoryLimit = memoryLimit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+
+        /**
+         * Counts record and checks limits, so sample always contains whole records.
+         */
+        void recordRead() {
+            records++;
+            limitReached = memoryLimitReached || records >= maxRecords || bytes >= maxBytes;
+        }
+
+        /**
+         * Counts node or array path which is kept in memory and checks memory limit, reading stops
+         * immediately if it is reached.
+         *
+         * @param path path of node
+         */
+        void structureAdded(String path) {
+            structureSize += NODE_OVERHEAD + 2L * path.length();
+            if (structureSize > memoryLimit) {
+                memoryLimitReached = true;
+                limitReached = true;
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if enough records have been read.
+         *
+         * @return <code>true</code> if one of the limits is reached
+         */
+        boolean isLimitReached() {
+            return limitReached;
+        }
+
+        /**
+         * Returns <code>true</code> if reading has been stopped, because found structure exceeds memory limit.
+         *
+         * @return <code>true</code> if memory limit is reached
+         */
+        boolean isMemoryLimitReached() {
+            return memoryLimitReached;
+        }
+    }
+
     /**
      * Xml node.
      */
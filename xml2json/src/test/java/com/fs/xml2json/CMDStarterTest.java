@@ -1,5 +1,6 @@
 package com.fs.xml2json;
 
+import com.fs.xml2json.service.ConversionIndex;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.lang.reflect.Field;
@@ -83,6 +84,20 @@ public class CMDStarterTest {
         Stream.of(destinationFolder.listFiles()).forEach(file -> Assert.assertTrue(file.length() > 0));
     }
     
+    @Test
+    public void testStartNoGuiConvertFewXmlsInThreads() throws FileNotFoundException {
+        File sourceFolder = new File("src/test/resources/xml");
+        Assert.assertTrue(sourceFolder.exists());
+        
+        String[] args = new String[]{"--noGui", "--sourceFolder", sourceFolder.getAbsolutePath(), 
+            "--destinationFolder", destinationFolder.getAbsolutePath(), "--pattern", "*.xml", "--threads", "2"};
+        Starter.main(args);
+        
+        Assert.assertTrue(destinationFolder.exists());
+        Assert.assertEquals(2, destinationFolder.listFiles().length);
+        Stream.of(destinationFolder.listFiles()).forEach(file -> Assert.assertTrue(file.length() > 0));
+    }
+    
     @Test
     public void testStartNoGuiConvertFewXmlsAndIncorrectPattern() throws FileNotFoundException {
         File sourceFolder = new File("src/test/resources/xml");
@@ -154,6 +169,26 @@ public class CMDStarterTest {
         Starter.main(args);
     }
     
+    @Test
+    public void testStartNoGuiConvertIncrementally() throws FileNotFoundException {
+        File sourceFolder = new File("src/test/resources/xml");
+        Assert.assertTrue(sourceFolder.exists());
+        
+        String[] args = new String[]{"--noGui", "--sourceFolder", sourceFolder.getAbsolutePath(), 
+            "--destinationFolder", destinationFolder.getAbsolutePath(), "--pattern", "*.xml", "--incremental"};
+        Starter.main(args);
+        
+        Assert.assertTrue(new File(destinationFolder, ConversionIndex.INDEX_FILE_NAME).exists());
+        Assert.assertEquals(3, destinationFolder.listFiles().length);
+        Stream.of(destinationFolder.listFiles()).forEach(file -> file.setLastModified(1000));
+        
+        // nothing changed, so converted files are not written again
+        Starter.main(args);
+        Stream.of(destinationFolder.listFiles())
+                .filter(file -> !file.getName().equals(ConversionIndex.INDEX_FILE_NAME))
+                .forEach(file -> Assert.assertEquals(1000, file.lastModified()));
+    }
+    
     @Test
     public void testStartNoGuiAndCancelIsTrue() throws FileNotFoundException, NoSuchFieldException, 
             IllegalArgumentException, IllegalAccessException {
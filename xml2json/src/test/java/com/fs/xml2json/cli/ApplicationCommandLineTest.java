@@ -1,9 +1,17 @@
 
 package com.fs.xml2json.cli;
 
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConversionServer;
+import com.fs.xml2json.service.FolderWatcher;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.stream.Stream;
 import org.junit.After;
 import org.junit.Assert;
@@ -155,6 +163,334 @@ public class ApplicationCommandLineTest {
         Assert.assertTrue(sourceFolder.delete());
     }
 
+    @Test
+    public void testParseNoGuiAndSinglePass() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--singlePass", "--memoryBudget", "16M"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertTrue(cmd.isSinglePass());
+        Assert.assertEquals(16L * 1024 * 1024, cmd.getMemoryBudget());
+        Assert.assertTrue(cmd.getConversionOptions().isSinglePass());
+        Assert.assertEquals(16L * 1024 * 1024, cmd.getConversionOptions().getMemoryBudget());
+    }
+
+    @Test
+    public void testParseNoGuiWithoutSinglePass() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertFalse(cmd.isSinglePass());
+        Assert.assertFalse(cmd.isHardMemoryBudget());
+        Assert.assertEquals(ConversionOptions.DEFAULT_MEMORY_BUDGET, cmd.getMemoryBudget());
+    }
+
+    @Test
+    public void testParseNoGuiAndHardMemoryBudget() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--hardMemoryBudget", "--memoryBudget", "8M"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertTrue(cmd.isHardMemoryBudget());
+        Assert.assertTrue(cmd.getConversionOptions().isHardMemoryBudget());
+        Assert.assertEquals(8L * 1024 * 1024, cmd.getConversionOptions().getMemoryBudget());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectMemoryBudget() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--singlePass", "--memoryBudget", "lots"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndSchemaCache() throws ParseException, IOException {
+        File hintsFile = File.createTempFile("arrayHints", ".txt");
+        hintsFile.deleteOnExit();
+        Files.write(hintsFile.toPath(), Arrays.asList("# hints", "/root/item"));
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--schemaCache", "cache", "--fingerprintSize", "16K",
+            "--arrayHints", hintsFile.getAbsolutePath()};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(new File("cache"), cmd.getSchemaCacheFolder());
+        Assert.assertEquals(16 * 1024, cmd.getFingerprintSize());
+        Assert.assertEquals(Arrays.asList("/root/item"), cmd.getArrayHints());
+        Assert.assertEquals(Arrays.asList("/root/item"), cmd.getConversionOptions().getArrayHints());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testParseNoGuiAndMissingArrayHints() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--arrayHints", "nonExistingHints.txt"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectFingerprintSize() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--fingerprintSize", "0"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndSample() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--sampleRecords", "1000", "--sampleSize", "1M"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(1000, cmd.getSampleRecords());
+        Assert.assertEquals(1024L * 1024, cmd.getSampleSize());
+        Assert.assertTrue(cmd.getConversionOptions().isSampling());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectSampleRecords() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--sampleRecords", "many"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndThreads() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--threads", "4"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(4, cmd.getThreads());
+    }
+
+    @Test
+    public void testParseNoGuiWithoutThreads() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(1, cmd.getThreads());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectThreads() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--threads", "0"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndInFlight() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--threads", "4", "--virtualThreads", "--inFlight", "100"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(100, cmd.getInFlight());
+    }
+
+    @Test
+    public void testParseNoGuiWithoutInFlight() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--threads", "4", "--virtualThreads"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(32, cmd.getInFlight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndInFlightLessThanThreads() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--threads", "4", "--virtualThreads", "--inFlight", "2"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndSplitPath() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--splitPath", "/root/record", "--threads", "8"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals("/root/record", cmd.getConversionOptions().getSplitPath());
+        Assert.assertEquals(8, cmd.getConversionOptions().getThreads());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectSplitPath() throws ParseException, FileNotFoundException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--splitPath", "/root/record/value"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndMemoryMap() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--memoryMap"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertTrue(cmd.isMemoryMapped());
+        Assert.assertTrue(cmd.getConversionOptions().isMemoryMapped());
+    }
+
+    @Test
+    public void testParseNoGuiAndBufferSizes() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--readBuffer", "64K", "--writeBuffer", "2M"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(64 * 1024, cmd.getReadBufferSize());
+        Assert.assertEquals(2 * 1024 * 1024, cmd.getWriteBufferSize());
+        Assert.assertEquals(64 * 1024, cmd.getConversionOptions().getReadBufferSize(1L << 40));
+        Assert.assertEquals(2 * 1024 * 1024, cmd.getConversionOptions().getWriteBufferSize(0));
+    }
+
+    @Test
+    public void testParseNoGuiAndDefaultBufferSizes() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(0, cmd.getReadBufferSize());
+        Assert.assertEquals(0, cmd.getWriteBufferSize());
+        Assert.assertEquals(8 * 1024, cmd.getConversionOptions().getReadBufferSize(1024));
+        Assert.assertEquals(256 * 1024, cmd.getConversionOptions().getWriteBufferSize(300L * 1024 * 1024));
+        Assert.assertEquals(1024 * 1024, cmd.getConversionOptions().getWriteBufferSize(1L << 40));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectBufferSize() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--writeBuffer", "0"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndCompressionThreads() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml.gz", "--compressionThreads", "3"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(3, cmd.getCompressionThreads());
+        Assert.assertEquals(3, cmd.getConversionOptions().getCompressionThreads());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectCompressionThreads() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml.gz", "--compressionThreads", "none"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndWatch() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--watch", "--quietPeriod", "5000"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertTrue(cmd.isWatch());
+        Assert.assertEquals(5000, cmd.getQuietPeriod());
+    }
+
+    @Test
+    public void testParseNoGuiAndDefaultQuietPeriod() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertFalse(cmd.isWatch());
+        Assert.assertEquals(FolderWatcher.DEFAULT_QUIET_PERIOD, cmd.getQuietPeriod());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectQuietPeriod() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--watch", "--quietPeriod", "-1"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndCheckpoint() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--checkpoint"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertTrue(cmd.isCheckpoint());
+        Assert.assertTrue(cmd.getConversionOptions().isCheckpoint());
+    }
+
+    @Test
+    public void testParseNoGuiAndJsonLines() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--jsonLines", "/root/record"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals("/root/record", cmd.getJsonLinesPath());
+        Assert.assertEquals("/root/record", cmd.getConversionOptions().getJsonLinesPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectJsonLines() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--jsonLines", "/root//record"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndRolling() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--rollPath", "/root/record", "--rollRecords", "1000", "--rollSize", "10M"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals("/root/record", cmd.getConversionOptions().getRollPath());
+        Assert.assertEquals(1000, cmd.getConversionOptions().getRollRecords());
+        Assert.assertEquals(10L * 1024 * 1024, cmd.getConversionOptions().getRollSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndRollingWithoutLimit() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--rollPath", "/root/record"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndSelect() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--select", "/root/header, //id"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(Arrays.asList("/root/header", "//id"), cmd.getConversionOptions().getSelectPaths());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndIncorrectSelect() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--sourceFolder", ".", "--destinationFolder", DESTINATION_FOLDER_PATH,
+            "--pattern", "*.xml", "--select", "/root///header"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndGenerate() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--generate", "corpus.json.gz", "--generateSize", "1G",
+            "--generateShape", "seed=42,depth=5,namespaces=true"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(new File("corpus.json.gz"), cmd.getGenerateFile());
+        Assert.assertEquals(1024L * 1024 * 1024, cmd.getGenerateSize());
+        Assert.assertEquals(42, cmd.getCorpusGenerator().getSeed());
+        Assert.assertEquals(5, cmd.getCorpusGenerator().getDepth());
+        Assert.assertTrue(cmd.getCorpusGenerator().isNamespaces());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndGenerateWithoutLimit() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--generate", "corpus.xml", "--generateShape", "seed=42"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndGenerateUnsupportedFile() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--generate", "corpus.txt", "--generateShape", "records=10"};
+        ApplicationCommandLine.parse(args);
+    }
+
+    @Test
+    public void testParseNoGuiAndServe() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--serve", "9090", "--maxRequestSize", "10M", "--threads", "4"};
+        ApplicationCommandLine cmd = ApplicationCommandLine.parse(args);
+        Assert.assertEquals(new InetSocketAddress(InetAddress.getLoopbackAddress(), 9090), cmd.getServeAddress());
+        Assert.assertEquals(10L * 1024 * 1024, cmd.getMaxRequestSize());
+        Assert.assertEquals(4, cmd.getThreads());
+        Assert.assertFalse(cmd.isVirtualThreads());
+
+        cmd = ApplicationCommandLine.parse(new String[]{"--noGui", "--serve", "0.0.0.0:8080", "--virtualThreads"});
+        Assert.assertEquals(new InetSocketAddress("0.0.0.0", 8080), cmd.getServeAddress());
+        Assert.assertEquals(ConversionServer.DEFAULT_MAX_REQUEST_SIZE, cmd.getMaxRequestSize());
+        Assert.assertTrue(cmd.isVirtualThreads());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNoGuiAndServeIncorrectPort() throws ParseException, IOException {
+        String[] args = new String[]{"--noGui", "--serve", "localhost:http"};
+        ApplicationCommandLine.parse(args);
+    }
+
     @Test
     public void testPrintHelp() {
         ApplicationCommandLine.printHelp();
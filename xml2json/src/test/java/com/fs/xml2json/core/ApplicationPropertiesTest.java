@@ -163,6 +163,35 @@ public class ApplicationPropertiesTest {
         Assert.assertNull(path);
     }
     
+    @Test
+    public void testGetBufferSizes() throws IOException {
+        File propsFile = new File(getDestinationDirectory(), TEST_FILE);
+        PropertiesLoader loader = new PropertiesLoader(propsFile);
+        ApplicationProperties appProps = new ApplicationProperties(loader);
+        
+        Properties props = loader.load();
+        props.put(Config.READ_BUFFER_SIZE, "64K");
+        props.put(Config.WRITE_BUFFER_SIZE, "1M");
+        loader.saveProperties(props);
+        
+        Assert.assertEquals(64 * 1024, appProps.getReadBufferSize());
+        Assert.assertEquals(1024 * 1024, appProps.getWriteBufferSize());
+    }
+    
+    @Test
+    public void testGetBufferSizesNotSetOrIncorrect() throws IOException {
+        File propsFile = new File(getDestinationDirectory(), TEST_FILE);
+        PropertiesLoader loader = new PropertiesLoader(propsFile);
+        ApplicationProperties appProps = new ApplicationProperties(loader);
+        
+        Properties props = loader.load();
+        props.put(Config.WRITE_BUFFER_SIZE, "big");
+        loader.saveProperties(props);
+        
+        Assert.assertEquals(0, appProps.getReadBufferSize());
+        Assert.assertEquals(0, appProps.getWriteBufferSize());
+    }
+    
     @Test
     public void testGetPropertiesAndCorrectPath() throws IOException {
         File propsFile = new File(getDestinationDirectory(), TEST_FILE);
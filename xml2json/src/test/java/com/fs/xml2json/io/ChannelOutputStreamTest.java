@@ -0,0 +1,69 @@
+package com.fs.xml2json.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for ChannelOutputStream.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ChannelOutputStreamTest {
+
+    private static final byte[] CONTENT = "{\"root\":{\"item\":[1,2,3]}}".getBytes(StandardCharsets.UTF_8);
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("xml2jsonChannel", ".json");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testWriteAcrossBuffers() throws IOException {
+        try (OutputStream out = new ChannelOutputStream(file.toPath(), 4)) {
+            out.write(CONTENT, 0, 3);
+            out.write(CONTENT, 3, CONTENT.length - 3);
+        }
+        assertArrayEquals(CONTENT, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testWriteByBytes() throws IOException {
+        try (OutputStream out = new ChannelOutputStream(file.toPath(), 3)) {
+            for (byte b : CONTENT) {
+                out.write(b);
+            }
+            out.flush();
+            assertArrayEquals(CONTENT, Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    @Test
+    public void testTruncateExistingFileAndCloseTwice() throws IOException {
+        Files.write(file.toPath(), new byte[CONTENT.length * 2]);
+        OutputStream out = new ChannelOutputStream(file.toPath(), 1024);
+        out.write(CONTENT);
+        out.close();
+        out.close();
+        assertArrayEquals(CONTENT, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectBufferSize() throws IOException {
+        new ChannelOutputStream(file.toPath(), 0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.fs.xml2json.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for MappedFileInputStream.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class MappedFileInputStreamTest {
+
+    private static final byte[] CONTENT = "<root><item>1</item><item>2</item></root>".getBytes(StandardCharsets.UTF_8);
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("xml2jsonMapped", ".xml");
+        Files.write(file.toPath(), CONTENT);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testReadAcrossWindows() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[5];
+        try (InputStream in = new MappedFileInputStream(file.toPath(), 7)) {
+            int read;
+            while ((read = in.read(buffer, 0, buffer.length)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(CONTENT, output.toByteArray());
+    }
+
+    @Test
+    public void testReadByBytes() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (MappedFileInputStream in = new MappedFileInputStream(file.toPath(), 4)) {
+            assertEquals(CONTENT.length, in.available());
+            int b;
+            while ((b = in.read()) >= 0) {
+                output.write(b);
+            }
+            assertEquals(CONTENT.length, in.getPosition());
+            assertEquals(0, in.available());
+        }
+        assertArrayEquals(CONTENT, output.toByteArray());
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(file.toPath(), 4)) {
+            assertEquals(6, in.skip(6));
+            assertEquals('<', in.read());
+            assertEquals('i', in.read());
+            assertEquals(CONTENT.length - 8, in.skip(Long.MAX_VALUE));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Files.write(file.toPath(), new byte[0]);
+        try (InputStream in = new MappedFileInputStream(file.toPath())) {
+            assertEquals(0, in.available());
+            assertEquals(-1, in.read());
+            assertEquals(-1, in.read(new byte[8], 0, 8));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectWindowSize() throws IOException {
+        new MappedFileInputStream(file.toPath(), 0).close();
+    }
+}
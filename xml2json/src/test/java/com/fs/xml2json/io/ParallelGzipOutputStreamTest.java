@@ -0,0 +1,108 @@
+package com.fs.xml2json.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+/**
+ * Tests for ParallelGzipOutputStream.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ParallelGzipOutputStreamTest {
+
+    private static final byte[] CONTENT;
+
+    static {
+        StringBuilder json = new StringBuilder("{\"root\":{\"item\":[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"Item ").append(i)
+                    .append("\"}");
+        }
+        CONTENT = json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCompressInSeveralThreads() throws IOException {
+        byte[] compressed = compress(4, 1000);
+        assertArrayEquals(CONTENT, decompress(compressed));
+        // blocks are compressed independently, so result does not depend on number of threads
+        assertArrayEquals(compressed, compress(1, 1000));
+    }
+
+    @Test
+    public void testCompressByBytes() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGzipOutputStream(output, 2, 7)) {
+            for (byte b : CONTENT) {
+                out.write(b);
+            }
+        }
+        assertArrayEquals(CONTENT, decompress(output.toByteArray()));
+    }
+
+    @Test
+    public void testCompressEmptyData() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(output, 2).close();
+        assertEquals(0, decompress(output.toByteArray()).length);
+    }
+
+    @Test
+    public void testCompressWithSharedExecutor() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ByteArrayOutputStream first = new ByteArrayOutputStream();
+            ByteArrayOutputStream second = new ByteArrayOutputStream();
+            try (OutputStream out1 = new ParallelGzipOutputStream(first, executor, 2);
+                    OutputStream out2 = new ParallelGzipOutputStream(second, executor, 2)) {
+                out1.write(CONTENT);
+                out2.write(CONTENT);
+            }
+            // shared executor is not shut down by streams
+            assertFalse(executor.isShutdown());
+            assertArrayEquals(CONTENT, decompress(first.toByteArray()));
+            assertArrayEquals(CONTENT, decompress(second.toByteArray()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectNumberOfThreads() {
+        new ParallelGzipOutputStream(new ByteArrayOutputStream(), 0);
+    }
+
+    private static byte[] compress(int threads, int blockSize) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGzipOutputStream(output, threads, blockSize)) {
+            out.write(CONTENT, 0, 100);
+            out.flush();
+            out.write(CONTENT, 100, CONTENT.length - 100);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[512];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+package com.fs.xml2json.metrics;
+
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConverterService;
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Tests for ConversionMetrics.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionMetricsTest {
+
+    private static final String XML = "<root a=\"1\"><b>x</b><b>y</b><c><d/></c></root>";
+
+    @Test
+    public void testRecordConversion() throws Exception {
+        ConversionEngine engine = new ConversionEngine();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] xml = XML.getBytes(StandardCharsets.UTF_8);
+        new ConverterService(ConversionOptions.DEFAULT, engine).convert(new ByteArrayInputStream(xml), output,
+                FileTypeEnum.XML);
+
+        ConversionMetrics metrics = engine.getMetrics();
+        assertEquals(1, metrics.getConversions());
+        assertEquals(xml.length, metrics.getBytesIn());
+        assertEquals(output.size(), metrics.getBytesOut());
+        assertEquals(5, metrics.getElements());
+        assertEquals(1, metrics.getAttributes());
+        assertEquals(2, metrics.getTextNodes());
+        assertEquals(1, metrics.getArrays());
+        assertEquals(3, metrics.getMaxDepth());
+        assertEquals(5, metrics.getLastConversion().getElements());
+        assertNull(metrics.getLastConversion().getFileName());
+
+        metrics.reset();
+        assertEquals(0, metrics.getConversions());
+        assertEquals(0, metrics.getElements());
+        assertNull(metrics.getLastConversion());
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        ConversionEngine engine = new ConversionEngine();
+        new ConverterService(ConversionOptions.DEFAULT, engine).convert(
+                new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream(),
+                FileTypeEnum.XML);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.fs.xml2json:type=ConversionMetrics,name=test");
+        engine.getMetrics().register(name);
+        try {
+            assertEquals(1L, server.getAttribute(name, "Conversions"));
+            assertEquals(5L, server.getAttribute(name, "Elements"));
+            assertEquals(3, server.getAttribute(name, "MaxDepth"));
+            assertEquals(1L, ((CompositeData) server.getAttribute(name, "LastConversion")).get("arrays"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Conversions"));
+        } finally {
+            engine.getMetrics().unregister(name);
+        }
+    }
+}
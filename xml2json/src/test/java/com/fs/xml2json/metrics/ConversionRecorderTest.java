@@ -0,0 +1,79 @@
+package com.fs.xml2json.metrics;
+
+import com.fs.xml2json.listener.CmdFileReadListener;
+import com.fs.xml2json.service.ConversionEngine;
+import com.fs.xml2json.service.ConversionOptions;
+import com.fs.xml2json.service.ConverterService;
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for ConversionRecorder.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionRecorderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        File sourceFile = temporaryFolder.newFile("source.xml");
+        byte[] xml = "<root><b>x</b><b>y</b></root>".getBytes(StandardCharsets.UTF_8);
+        Files.write(sourceFile.toPath(), xml);
+        File outputFile = new File(temporaryFolder.getRoot(), "source.json");
+        Path recordingFile = temporaryFolder.newFile("conversion.jfr").toPath();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.fs.xml2json.Conversion");
+            recording.enable("com.fs.xml2json.PreScan");
+            recording.enable("com.fs.xml2json.OutputFlush");
+            recording.start();
+            ConverterService service = new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine());
+            service.convert(sourceFile, outputFile, new CmdFileReadListener(sourceFile),
+                    new AtomicBoolean(false));
+            service.convert(new ByteArrayInputStream(xml), new ByteArrayOutputStream(), FileTypeEnum.XML);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        Map<String, Integer> counts = new HashMap<>();
+        for (RecordedEvent event : events) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+            if ("com.fs.xml2json.Conversion".equals(event.getEventType().getName())
+                    && null != event.getString("fileName")) {
+                assertEquals("source.xml", event.getString("fileName"));
+                assertEquals(xml.length, event.getLong("bytesIn"));
+                assertEquals(outputFile.length(), event.getLong("bytesOut"));
+                assertEquals(3, event.getLong("elements"));
+            }
+            if ("com.fs.xml2json.PreScan".equals(event.getEventType().getName())) {
+                assertEquals(1, event.getInt("arrays"));
+            }
+        }
+        assertEquals(Integer.valueOf(2), counts.get("com.fs.xml2json.Conversion"));
+        assertEquals(Integer.valueOf(1), counts.get("com.fs.xml2json.PreScan"));
+        assertEquals(Integer.valueOf(2), counts.get("com.fs.xml2json.OutputFlush"));
+        assertTrue(outputFile.exists());
+    }
+}
@@ -0,0 +1,119 @@
+package com.fs.xml2json.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for ArraySchemaCache.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ArraySchemaCacheTest {
+
+    private File cacheFolder;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheFolder = Files.createTempDirectory("xml2jsonCache").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        Stream.of(cacheFolder.listFiles()).forEach(File::delete);
+        cacheFolder.delete();
+    }
+
+    @Test
+    public void testKeyIgnoresContent() throws IOException {
+        File first = writeFile("first.xml", "<root><item><id>1</id></item><item><id>2</id></item></root>");
+        File second = writeFile("second.xml", "<root><item><id>3</id></item></root>");
+        File third = writeFile("third.xml", "<root><item><name>3</name></item></root>");
+
+        ArraySchemaCache cache = new ArraySchemaCache(cacheFolder, ArraySchemaCache.DEFAULT_FINGERPRINT_SIZE);
+        ArraySchemaCache.Key key = cache.createKey(first);
+
+        Assert.assertEquals("root", key.getRootElement());
+        Assert.assertEquals(key, cache.createKey(second));
+        Assert.assertNotEquals(key, cache.createKey(third));
+    }
+
+    @Test
+    public void testKeyUsesFirstBytesOnly() throws IOException {
+        File first = writeFile("first.xml", "<root><item><id>1</id></item><item><id>2</id></item></root>");
+        File second = writeFile("second.xml", "<root><item><id>1</id></item><other>2</other></root>");
+
+        ArraySchemaCache cache = new ArraySchemaCache(cacheFolder, 28);
+
+        Assert.assertEquals(cache.createKey(first), cache.createKey(second));
+    }
+
+    @Test
+    public void testKeyForCompressedFile() throws IOException {
+        String xml = "<root><item><id>1</id></item><item><id>2</id></item></root>";
+        File file = writeFile("first.xml", xml);
+        File compressedFile = new File(cacheFolder, "first.xml.gz");
+        try (OutputStream output = new GZIPOutputStream(new FileOutputStream(compressedFile))) {
+            output.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ArraySchemaCache cache = new ArraySchemaCache(cacheFolder, ArraySchemaCache.DEFAULT_FINGERPRINT_SIZE);
+        Assert.assertEquals(cache.createKey(file), cache.createKey(compressedFile));
+    }
+
+    @Test
+    public void testKeyForNonXml() throws IOException {
+        File file = writeFile("notXml.xml", "not xml");
+
+        Assert.assertNull(new ArraySchemaCache(cacheFolder, 1024).createKey(file));
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        File file = writeFile("first.xml", "<root><item/><item/></root>");
+
+        ArraySchemaCache cache = new ArraySchemaCache(cacheFolder, 1024);
+        ArraySchemaCache.Key key = cache.createKey(file);
+        Assert.assertNull(cache.get(key));
+
+        cache.put(key, Arrays.asList("/root/item"));
+        Assert.assertEquals(Arrays.asList("/root/item"), cache.get(key));
+
+        // new instance reads from disk
+        ArraySchemaCache newCache = new ArraySchemaCache(cacheFolder, 1024);
+        Assert.assertEquals(Arrays.asList("/root/item"), newCache.get(key));
+
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, newCache.getHits());
+    }
+
+    @Test
+    public void testReadPaths() throws IOException {
+        File file = writeFile("hints.txt", "# comment\n/root/item\n\n  item/value  \n");
+
+        Assert.assertEquals(Arrays.asList("/root/item", "item/value"), ArraySchemaCache.readPaths(file));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectFingerprintSize() {
+        new ArraySchemaCache(cacheFolder, 0);
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(cacheFolder, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,119 @@
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * Tests for ConversionEngine.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionEngineTest {
+
+    @Test
+    public void testSharedEngine() {
+        assertSame(ConversionEngine.getInstance(), ConversionEngine.getInstance());
+    }
+
+    @Test
+    public void testSharedCompressionExecutor() {
+        ConversionEngine engine = new ConversionEngine();
+        assertSame(engine.getCompressionExecutor(2), engine.getCompressionExecutor(2));
+        assertNotSame(engine.getCompressionExecutor(2), engine.getCompressionExecutor(3));
+    }
+
+    @Test
+    public void testCreateReaders() throws Exception {
+        ConversionEngine engine = new ConversionEngine();
+        XMLStreamReader reader = engine.createReader(FileTypeEnum.XML,
+                new ByteArrayInputStream("<root><a>1</a></root>".getBytes(StandardCharsets.UTF_8)));
+        reader.nextTag();
+        assertEquals("root", reader.getLocalName());
+        reader.close();
+
+        reader = engine.createReader(FileTypeEnum.JSON,
+                new ByteArrayInputStream("{\"root\":{\"a\":1}}".getBytes(StandardCharsets.UTF_8)));
+        reader.nextTag();
+        assertEquals("root", reader.getLocalName());
+        reader.close();
+    }
+
+    @Test
+    public void testCreateStreamingJsonWriters() throws Exception {
+        ConversionEngine engine = new ConversionEngine();
+        assertEquals("{\n  \"root\" : {\n    \"a\" : [ 1, 2 ]\n  }\n}",
+                writeStreaming(engine, ConversionOptions.DEFAULT));
+        assertEquals("1\n2\n",
+                writeStreaming(engine, ConversionOptions.builder().jsonLinesPath("/root/a").build()));
+        // writers of equal options share output factory
+        assertEquals("1\n2\n",
+                writeStreaming(engine, ConversionOptions.builder().jsonLinesPath("/root/a").build()));
+    }
+
+    @Test
+    public void testConvertSimultaneouslyWithOneEngine() throws Exception {
+        byte[] xml = Files.readAllBytes(new File(this.getClass().getClassLoader()
+                .getResource("SampleXml.xml").getFile()).toPath());
+        byte[] json = Files.readAllBytes(new File(this.getClass().getClassLoader()
+                .getResource("SampleJson.json").getFile()).toPath());
+        String expectedJson = convert(new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine()), xml,
+                FileTypeEnum.XML);
+        String expectedXml = convert(new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine()), json,
+                FileTypeEnum.JSON);
+
+        ConverterService service = new ConverterService(ConversionOptions.DEFAULT, new ConversionEngine());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> jsons = new ArrayList<>();
+            List<Future<String>> xmls = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                jsons.add(executor.submit(() -> convert(service, xml, FileTypeEnum.XML)));
+                xmls.add(executor.submit(() -> convert(service, json, FileTypeEnum.JSON)));
+            }
+            for (int i = 0; i < jsons.size(); i++) {
+                assertEquals(expectedJson, jsons.get(i).get());
+                assertEquals(expectedXml, xmls.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String writeStreaming(ConversionEngine engine, ConversionOptions options) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        XMLStreamWriter writer = engine.createStreamingJsonWriter(output, options, null);
+        writer.writeStartDocument();
+        writer.writeStartElement("root");
+        for (int i = 1; i <= 2; i++) {
+            writer.writeStartElement("a");
+            writer.writeCharacters(String.valueOf(i));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String convert(ConverterService service, byte[] data, FileTypeEnum type) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.convert(new ByteArrayInputStream(data), output, type);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
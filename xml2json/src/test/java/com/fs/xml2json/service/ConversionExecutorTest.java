@@ -0,0 +1,120 @@
+package com.fs.xml2json.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests for ConversionExecutor.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionExecutorTest {
+
+    @Test
+    public void testPlatformThreads() throws InterruptedException {
+        ConversionExecutor executor = new ConversionExecutor("Test", 2, 2, false);
+        Assert.assertFalse(executor.isVirtual());
+        checkConcurrency(executor);
+    }
+
+    @Test
+    public void testVirtualThreads() throws InterruptedException {
+        Assume.assumeTrue(ConversionExecutor.isVirtualThreadsAvailable());
+        ConversionExecutor executor = new ConversionExecutor("Test", 1, 2, 2, true);
+        Assert.assertTrue(executor.isVirtual());
+        checkConcurrency(executor);
+    }
+
+    @Test
+    public void testVirtualThreadsInFlight() throws InterruptedException {
+        Assume.assumeTrue(ConversionExecutor.isVirtualThreadsAvailable());
+        CountDownLatch started = new CountDownLatch(2 * ConversionExecutor.DEFAULT_IN_FLIGHT_PER_THREAD);
+        CountDownLatch release = new CountDownLatch(1);
+        ConversionExecutor executor = new ConversionExecutor("Test", 2, 0, true);
+        try {
+            // tasks waiting for I/O do not hold threads
+            for (int i = 0; i < 2 * ConversionExecutor.DEFAULT_IN_FLIGHT_PER_THREAD; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            release.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPlatformThreadsIfVirtualThreadsAreNotAvailable() {
+        Assume.assumeFalse(ConversionExecutor.isVirtualThreadsAvailable());
+        ConversionExecutor executor = new ConversionExecutor("Test", 2, 2, true);
+        Assert.assertFalse(executor.isVirtual());
+        executor.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectThreads() {
+        new ConversionExecutor("Test", 0, 2, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectInFlight() {
+        new ConversionExecutor("Test", 2, 1, 2, true);
+    }
+
+    /**
+     * Checks that executor runs 2 tasks at a time, keeps 2 tasks waiting and rejects further tasks.
+     *
+     * @param executor executor which runs 2 tasks at a time and has queue of 2 tasks
+     */
+    private static void checkConcurrency(ConversionExecutor executor) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        try {
+            for (int i = 0; i < 4; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                });
+            }
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(4, executor.getPendingTasks());
+            try {
+                executor.execute(completed::incrementAndGet);
+                Assert.fail("Task must be rejected");
+            } catch (RejectedExecutionException ex) {
+                Assert.assertEquals(4, executor.getPendingTasks());
+            }
+            release.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(4, completed.get());
+        Assert.assertEquals(2, maxRunning.get());
+        Assert.assertEquals(0, executor.getPendingTasks());
+    }
+}
@@ -0,0 +1,101 @@
+package com.fs.xml2json.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for ConversionIndex.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionIndexTest {
+
+    private File folder;
+    private File sourceFile;
+    private File convertedFile;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xml2jsonIndex").toFile();
+        sourceFile = new File(folder, "source\tfile.xml");
+        convertedFile = new File(folder, "source\tfile.json");
+        Files.write(sourceFile.toPath(), "<root><a>1</a></root>".getBytes(StandardCharsets.UTF_8));
+        Files.write(convertedFile.toPath(), "{\"root\":{\"a\":1}}".getBytes(StandardCharsets.UTF_8));
+        sourceFile.setLastModified(10000);
+    }
+
+    @After
+    public void tearDown() {
+        Stream.of(folder.listFiles()).forEach(File::delete);
+        folder.delete();
+    }
+
+    @Test
+    public void testUpToDateAfterReload() throws IOException {
+        ConversionIndex index = new ConversionIndex(folder, false);
+        assertFalse(index.isUpToDate(sourceFile, convertedFile));
+        index.put(sourceFile, index.createEntry(sourceFile));
+        assertTrue(index.isUpToDate(sourceFile, convertedFile));
+        index.save();
+
+        ConversionIndex loadedIndex = new ConversionIndex(folder, false);
+        assertEquals(1, loadedIndex.size());
+        assertTrue(loadedIndex.isUpToDate(sourceFile, convertedFile));
+
+        // touched
+        sourceFile.setLastModified(20000);
+        assertFalse(loadedIndex.isUpToDate(sourceFile, convertedFile));
+        assertTrue(loadedIndex.contains(sourceFile));
+    }
+
+    @Test
+    public void testChangedOrNotConverted() throws IOException {
+        ConversionIndex index = new ConversionIndex(folder, false);
+        index.put(sourceFile, index.createEntry(sourceFile));
+
+        convertedFile.delete();
+        assertFalse(index.isUpToDate(sourceFile, convertedFile));
+
+        Files.write(convertedFile.toPath(), "{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(sourceFile.toPath(), "<root><a>12</a></root>".getBytes(StandardCharsets.UTF_8));
+        sourceFile.setLastModified(10000);
+        assertFalse(index.isUpToDate(sourceFile, convertedFile));
+
+        index.remove(sourceFile);
+        assertFalse(index.contains(sourceFile));
+    }
+
+    @Test
+    public void testTouchedFileWithSameHash() throws IOException {
+        ConversionIndex index = new ConversionIndex(folder, true);
+        index.put(sourceFile, index.createEntry(sourceFile));
+        index.save();
+
+        ConversionIndex loadedIndex = new ConversionIndex(folder, true);
+        sourceFile.setLastModified(20000);
+        assertTrue(loadedIndex.isUpToDate(sourceFile, convertedFile));
+
+        Files.write(sourceFile.toPath(), "<root><a>2</a></root>".getBytes(StandardCharsets.UTF_8));
+        assertFalse(loadedIndex.isUpToDate(sourceFile, convertedFile));
+    }
+
+    @Test
+    public void testSkipIncorrectLines() throws IOException {
+        Files.write(new File(folder, ConversionIndex.INDEX_FILE_NAME).toPath(),
+                ("# comment\nincorrect line\n21\t10000\t-\t" + sourceFile.getAbsolutePath() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        ConversionIndex index = new ConversionIndex(folder, false);
+        assertEquals(1, index.size());
+        assertTrue(index.isUpToDate(sourceFile, convertedFile));
+    }
+}
@@ -0,0 +1,194 @@
+package com.fs.xml2json.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for ConversionServer.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class ConversionServerTest {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<root><a>1</a><a>2</a></root>";
+
+    private ConversionServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ConversionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                new ConverterService(), 2, 1024);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testConvertXmlToJsonAndBack() throws IOException, XMLStreamException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new ConverterService().convert(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), expected,
+                FileTypeEnum.XML);
+
+        HttpURLConnection connection = post(ConversionServer.XML_TO_JSON_PATH, XML.getBytes(StandardCharsets.UTF_8));
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("application/json"));
+        byte[] json = read(connection.getInputStream());
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(expected.toByteArray()), mapper.readTree(json));
+
+        connection = post(ConversionServer.JSON_TO_XML_PATH, json);
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(new String(read(connection.getInputStream()), StandardCharsets.UTF_8).contains("<a>2</a>"));
+
+        assertEquals(2, server.getRequests());
+        assertEquals(0, server.getFailedRequests());
+        assertEquals(XML.length() + json.length, server.getReadBytes());
+        assertTrue(server.getWrittenBytes() > json.length);
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        assertEquals(400, post(ConversionServer.XML_TO_JSON_PATH,
+                "<root><a>".getBytes(StandardCharsets.UTF_8)).getResponseCode());
+        assertEquals(413, post(ConversionServer.XML_TO_JSON_PATH, new byte[2048]).getResponseCode());
+        assertEquals(404, post(ConversionServer.XML_TO_JSON_PATH + "/other",
+                XML.getBytes(StandardCharsets.UTF_8)).getResponseCode());
+
+        HttpURLConnection connection = (HttpURLConnection) getUrl(ConversionServer.JSON_TO_XML_PATH)
+                .openConnection();
+        assertEquals(405, connection.getResponseCode());
+        assertEquals("POST", connection.getHeaderField("Allow"));
+
+        assertEquals(4, server.getRequests());
+        assertEquals(4, server.getFailedRequests());
+        assertEquals(0, server.getRejectedRequests());
+    }
+
+    @Test
+    public void testParseContentLength() {
+        assertEquals(7, ConversionServer.parseContentLength(" 7"));
+        assertEquals(-1, ConversionServer.parseContentLength("abc"));
+        assertEquals(-1, ConversionServer.parseContentLength("-5"));
+        assertEquals(-1, ConversionServer.parseContentLength("99999999999999999999"));
+    }
+
+    @Test
+    public void testStreamedRequestExceedsMaxSize() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) getUrl(ConversionServer.XML_TO_JSON_PATH)
+                .openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(256);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write("<root>".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 200; i++) {
+                output.write("<a>1</a>".getBytes(StandardCharsets.UTF_8));
+            }
+            output.write("</root>".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(413, connection.getResponseCode());
+    }
+
+    @Test
+    public void testFloodClosesConnections() throws IOException, InterruptedException {
+        // 2 converting and 8 queued requests wait for bodies, 1 rejected request waits until its body is
+        // drained and 8 wait for rejecting thread, connections of further requests are closed
+        byte[] headers = ("POST " + ConversionServer.XML_TO_JSON_PATH + " HTTP/1.1\r\nHost: localhost\r\n"
+                + "Content-Length: 100\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        List<Socket> sockets = new ArrayList<>();
+        int closed = 0;
+        try {
+            for (int i = 0; i < 40; i++) {
+                Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort());
+                sockets.add(socket);
+                socket.getOutputStream().write(headers);
+                socket.getOutputStream().flush();
+            }
+            for (Socket socket : sockets) {
+                socket.setSoTimeout(200);
+                try {
+                    if (socket.getInputStream().read() < 0) {
+                        closed++;
+                    }
+                } catch (SocketTimeoutException ex) {
+                    // request waits
+                } catch (IOException ex) {
+                    // connection is reset
+                    closed++;
+                }
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        assertTrue("Closed connections: " + closed, closed > 0);
+        assertTrue(server.getRejectedRequests() >= closed);
+
+        // server works when requests of flood are finished
+        int status = 0;
+        for (int i = 0; i < 50 && status != 200; i++) {
+            try {
+                status = post(ConversionServer.XML_TO_JSON_PATH, XML.getBytes(StandardCharsets.UTF_8))
+                        .getResponseCode();
+            } catch (IOException ex) {
+                // connection is closed, queues are still full
+            }
+            if (status != 200) {
+                Thread.sleep(100);
+            }
+        }
+        assertEquals(200, status);
+    }
+
+    private URL getUrl(String path) throws IOException {
+        return new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+    }
+
+    private HttpURLConnection post(String path, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) getUrl(path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+        return connection;
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = input) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toByteArray();
+    }
+}
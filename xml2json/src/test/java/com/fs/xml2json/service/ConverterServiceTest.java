@@ -5,22 +5,43 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fs.xml2json.io.RollingRecordTarget;
+import com.fs.xml2json.listener.CountingFileReadListener;
 import com.fs.xml2json.listener.IFileReadListener;
 import com.fs.xml2json.model.ComplexObject;
 import com.fs.xml2json.model.SimpleObject;
+import com.fs.xml2json.type.FileTypeEnum;
 import com.fs.xml2json.type.UnsupportedFileType;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import javax.xml.stream.XMLStreamException;
 import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 /**
@@ -69,6 +90,569 @@ public class ConverterServiceTest {
         System.out.println("destinationFile = " + destinationFile.getAbsolutePath());
     }
     
+    @Test
+    public void testConvertXmlToJsonSinglePass() throws IOException, XMLStreamException {
+        File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedFileTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        // spill everything to temporary files
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .singlePass(true).memoryBudget(0).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        assertTrue(destinationFile.exists());
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+    }
+
+    @Test
+    public void testConvertXmlToJsonWithSchemaCache() throws IOException, XMLStreamException {
+        File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedFileTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        File cacheFolder = new File(getTempDirectory(), "xml2jsonSchemaCache");
+        filesToDelete.add(cacheFolder);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .schemaCacheFolder(cacheFolder).build());
+        ObjectMapper mapper = new ObjectMapper();
+
+        // miss, arrays are determined and stored
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+        assertEquals(1, cacheFolder.listFiles().length);
+
+        // hit, arrays are taken from cache (in new service as well)
+        service = new ConverterService(ConversionOptions.builder().schemaCacheFolder(cacheFolder).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+        assertEquals(1, service.getSchemaCache().getHits());
+        assertEquals(0, service.getSchemaCache().getMisses());
+        assertEquals(0, service.getSchemaCache().getDrifts());
+    }
+
+    @Test
+    public void testConvertXmlToJsonWithSchemaDrift() throws IOException, XMLStreamException {
+        File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedFileTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        File cacheFolder = new File(getTempDirectory(), "xml2jsonSchemaCache");
+        filesToDelete.add(cacheFolder);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .schemaCacheFolder(cacheFolder).build());
+        ArraySchemaCache cache = service.getSchemaCache();
+        cache.put(cache.createKey(sourceFile), Arrays.asList("/root/channel"));  // outdated schema
+
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+        assertEquals(1, cache.getDrifts());
+        assertEquals(Arrays.asList("/root/channel", "/root/channel/formats/format"),
+                cache.get(cache.createKey(sourceFile)));
+    }
+
+    @Test
+    public void testConvertXmlToJsonWithSchemaDriftStopsEarly() throws IOException, XMLStreamException {
+        File sourceFile = new File(getTempDirectory(), "SchemaDrift.xml");
+        filesToDelete.add(sourceFile);
+        File cacheFolder = new File(getTempDirectory(), "xml2jsonSchemaCache");
+        filesToDelete.add(cacheFolder);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(sourceFile))) {
+            writer.write("<root><first>1</first><first>2</first>");
+            for (int i = 0; i < 100000; i++) {
+                writer.write("<item>" + i + "</item>");
+            }
+            writer.write("</root>");
+        }
+
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .schemaCacheFolder(cacheFolder).build());
+        ArraySchemaCache cache = service.getSchemaCache();
+        cache.put(cache.createKey(sourceFile), Arrays.asList("/root/item"));  // outdated schema
+
+        LongAdder readBytes = new LongAdder();
+        service.convert(sourceFile, destinationFile, new CountingFileReadListener(readBytes),
+                new AtomicBoolean(false));
+
+        assertEquals(1, cache.getDrifts());
+        assertEquals(2, new ObjectMapper().readTree(destinationFile).path("root").path("first").size());
+        // conversion with outdated schema stops at the first unknown array, file is read twice more
+        assertTrue(readBytes.sum() < 2.5 * sourceFile.length());
+    }
+
+    @Test
+    public void testConvertXmlToJsonWithArrayHints() throws IOException, XMLStreamException {
+        File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedFileTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .arrayHints(Arrays.asList("channel", "format")).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+    }
+
+    @Test
+    public void testConvertXmlToJsonBySample() throws IOException, XMLStreamException {
+        File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedFileTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        // second channel is not in sample
+        ConverterService service = new ConverterService(ConversionOptions.builder().sampleRecords(1).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+        assertEquals(1, service.getLateCorrections());
+
+        service = new ConverterService(ConversionOptions.builder().sampleRecords(2).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+        assertEquals(0, service.getLateCorrections());
+    }
+
+    @Test
+    public void testConvertXmlToJsonWithHardMemoryBudget() throws IOException, XMLStreamException {
+        File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedFileTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        // prescan stops before arrays are found, they are corrected during conversion
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .hardMemoryBudget(true).memoryBudget(400).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(twoPassFile), mapper.readTree(destinationFile));
+        assertTrue(service.getLateCorrections() > 0);
+    }
+
+    @Test
+    public void testConvertTextExceedingHardMemoryBudget() throws IOException, XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("text ");
+        }
+        String xml = "<root><text>" + text + "</text></root>";
+
+        // text is spilled to temporary file
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .hardMemoryBudget(true).memoryBudget(1000).build());
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        service.convert(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), json, FileTypeEnum.XML);
+        assertEquals(text.toString(),
+                new ObjectMapper().readTree(json.toByteArray()).path("root").path("text").asText());
+
+        // and read by chunks
+        ByteArrayOutputStream converted = new ByteArrayOutputStream();
+        service.convert(new ByteArrayInputStream(json.toByteArray()), converted, FileTypeEnum.JSON);
+        assertTrue(new String(converted.toByteArray(), StandardCharsets.UTF_8).contains(text));
+    }
+
+    @Test
+    public void testConvertMemoryMapped() throws IOException, XMLStreamException {
+        File xmlFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File jsonFile = new File(this.getClass().getClassLoader().getResource("SampleJson.json").getFile());
+        File expectedFile = new File(getTempDirectory(), "ConvertedFileBuffered.json");
+        filesToDelete.add(expectedFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        ConverterService service = new ConverterService(ConversionOptions.builder().memoryMapped(true).build());
+        for (File sourceFile : Arrays.asList(xmlFile, jsonFile)) {
+            new ConverterService().convert(sourceFile, expectedFile, new CustomFileReadListener(), isCanceled);
+            service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+            assertEquals(new String(Files.readAllBytes(expectedFile.toPath()), StandardCharsets.UTF_8),
+                    new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testConvertCompressed() throws IOException, XMLStreamException {
+        File xmlFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File jsonFile = new File(this.getClass().getClassLoader().getResource("SampleJson.json").getFile());
+        File expectedFile = new File(getTempDirectory(), "ConvertedFileUncompressed.txt");
+        filesToDelete.add(expectedFile);
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        ConverterService service = new ConverterService(ConversionOptions.builder().compressionThreads(2).build());
+        for (File sourceFile : Arrays.asList(xmlFile, jsonFile)) {
+            File compressedFile = new File(getTempDirectory(), sourceFile.getName() + ".gz");
+            filesToDelete.add(compressedFile);
+            try (OutputStream output = new GZIPOutputStream(new FileOutputStream(compressedFile))) {
+                Files.copy(sourceFile.toPath(), output);
+            }
+            destinationFile = new File(getTempDirectory(), "ConvertedFile" + (sourceFile == xmlFile ? ".json.gz"
+                    : ".xml.gz"));
+            filesToDelete.add(destinationFile);
+            new ConverterService().convert(sourceFile, expectedFile, new CustomFileReadListener(), isCanceled);
+            service.convert(compressedFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+            ByteArrayOutputStream converted = new ByteArrayOutputStream();
+            try (InputStream input = new GZIPInputStream(new FileInputStream(destinationFile))) {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = input.read(buffer)) >= 0) {
+                    converted.write(buffer, 0, read);
+                }
+            }
+            assertEquals(new String(Files.readAllBytes(expectedFile.toPath()), StandardCharsets.UTF_8),
+                    new String(converted.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testConvertStreams() throws IOException, XMLStreamException {
+        File xmlFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
+        File jsonFile = new File(this.getClass().getClassLoader().getResource("SampleJson.json").getFile());
+        destinationFile = new File(getTempDirectory(), "ConvertedFile.txt");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .arrayHints(Arrays.asList("/root/channel")).build());
+
+        new ConverterService().convert(xmlFile, destinationFile, new CustomFileReadListener(), isCanceled);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (InputStream input = new FileInputStream(xmlFile)) {
+            service.convert(input, json, FileTypeEnum.XML);
+            // stream is still open
+            assertEquals(-1, input.read());
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(destinationFile), mapper.readTree(json.toByteArray()));
+
+        new ConverterService().convert(jsonFile, destinationFile, new CustomFileReadListener(), isCanceled);
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        try (ReadableByteChannel input = Files.newByteChannel(jsonFile.toPath())) {
+            service.convert(input, Channels.newChannel(xml), FileTypeEnum.JSON);
+        }
+        assertEquals(new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8),
+                new String(xml.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConvertCorruptedStream() throws IOException {
+        byte[] xml = "<root><item>1</item><item>".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try {
+            new ConverterService().convert(new ByteArrayInputStream(xml), json, FileTypeEnum.XML);
+            fail("Corrupted XML must not be converted");
+        } catch (XMLStreamException ex) {
+            // writer is closed without writing rest of document
+            assertEquals(0, json.size());
+        }
+    }
+
+    @Test
+    public void testConvertXmlToJsonInChunks() throws IOException, XMLStreamException {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<catalog version=\"2\">\n  <header><created>2017-12-01</created></header>\n");
+        for (int i = 0; i < 300; i++) {
+            xml.append("  <item id=\"").append(i).append("\">\n    <name>Item ").append(i).append("</name>\n")
+                    .append("    <price>").append(i % 7 == 0 ? "true" : i + ".5").append("</price>\n");
+            if (i == 123) {
+                xml.append("    <tag>a</tag><tag>b</tag>\n");
+            } else if (i % 10 == 0) {
+                xml.append("    <tag>c</tag>\n");
+            }
+            xml.append("  </item>\n");
+        }
+        xml.append("</catalog>\n");
+        File sourceFile = writeFile("Catalog.xml", xml.toString());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedCatalogTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedCatalog.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .splitPath("auto").threads(4).chunkSize(1024).build());
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), isCanceled);
+
+        // arrays of records and tags are the same in every chunk
+        assertEquals(new String(Files.readAllBytes(twoPassFile.toPath()), StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, destinationFile.getParentFile().listFiles(
+                (dir, name) -> name.startsWith("ConvertedCatalog.json")).length);
+    }
+
+    @Test
+    public void testConvertXmlToJsonInChunksWithInterruptedRecords() throws IOException, XMLStreamException {
+        StringBuilder xml = new StringBuilder("<root>");
+        for (int i = 0; i < 100; i++) {
+            xml.append(i == 50 ? "<note>middle</note>" : "").append("<item><id>").append(i).append("</id></item>");
+        }
+        xml.append("</root>");
+        File sourceFile = writeFile("Interrupted.xml", xml.toString());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedInterruptedTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedInterrupted.json");
+
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(), isCanceled);
+
+        // records are split into chunks, but file is converted in one thread
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .splitPath("/root/item").threads(2).build());
+        ProgressListener listener = new ProgressListener(sourceFile.length());
+        service.convert(sourceFile, destinationFile, listener, isCanceled);
+
+        assertEquals(new String(Files.readAllBytes(twoPassFile.toPath()), StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+        // progress starts again after chunks, it does not exceed 100%
+        assertTrue(listener.maxProgress <= 1.0);
+        assertEquals(1.0, listener.progress, 0.0);
+    }
+
+    @Test
+    public void testConvertXmlToJsonResumedFromCheckpoint() throws IOException, XMLStreamException {
+        StringBuilder xml = new StringBuilder("<catalog><header>h</header>");
+        for (int i = 0; i < 300; i++) {
+            xml.append("<item><name>Item ").append(i).append("</name>")
+                    .append(i % 10 == 0 ? "<tag>a</tag><tag>b</tag>" : "<tag>c</tag>").append("</item>");
+        }
+        xml.append("</catalog>");
+        File sourceFile = writeFile("Resumed.xml", xml.toString());
+        File twoPassFile = new File(getTempDirectory(), "ConvertedResumedTwoPass.json");
+        filesToDelete.add(twoPassFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedResumed.json");
+        File checkpointFile = new File(destinationFile.getPath() + ConversionCheckpoint.EXTENSION);
+        filesToDelete.add(checkpointFile);
+        new ConverterService().convert(sourceFile, twoPassFile, new CustomFileReadListener(),
+                new AtomicBoolean(false));
+
+        ConverterService service = new ConverterService(ConversionOptions.builder()
+                .checkpoint(true).chunkSize(1024).build());
+        // cancel in the middle of conversion (the second read of file)
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        IFileReadListener cancelingListener = new IFileReadListener() {
+            private int finished = 0;
+            private long bytes = 0;
+
+            @Override
+            public void update(int bytes) {
+                this.bytes += bytes;
+                if (finished == 1 && this.bytes > sourceFile.length() * 3 / 2) {
+                    isCanceled.set(true);
+                }
+            }
+
+            @Override
+            public void finished() {
+                finished++;
+            }
+        };
+        try {
+            service.convert(sourceFile, destinationFile, cancelingListener, isCanceled);
+            fail("Conversion must be canceled");
+        } catch (XMLStreamException ex) {
+            // expected
+        }
+        assertTrue(checkpointFile.exists());
+        File[] parts = getTempDirectory().listFiles((dir, name) -> name.startsWith(destinationFile.getName())
+                && name.endsWith(ConversionCheckpoint.PART_EXTENSION));
+        assertTrue(parts.length > 0);
+        filesToDelete.addAll(Arrays.asList(parts));
+        Properties checkpoint = new Properties();
+        try (InputStream input = new FileInputStream(checkpointFile)) {
+            checkpoint.load(input);
+        }
+        assertNotNull(checkpoint.getProperty("arrays"));
+        assertNotNull(checkpoint.getProperty("chunk.0"));
+
+        service.convert(sourceFile, destinationFile, new CustomFileReadListener(), new AtomicBoolean(false));
+
+        assertEquals(new String(Files.readAllBytes(twoPassFile.toPath()), StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+        assertFalse(checkpointFile.exists());
+        assertEquals(1, getTempDirectory().listFiles((dir, name) -> name.startsWith(destinationFile.getName()))
+                .length);
+    }
+
+    @Test
+    public void testConvertXmlToJsonLines() throws IOException, XMLStreamException {
+        File sourceFile = writeFile("Lines.xml", "<catalog><header>h</header>"
+                + "<item id=\"1\"><name>a</name><tag>x</tag><tag>y</tag></item>"
+                + "<item id=\"2\"><name>b</name><tag>z</tag></item></catalog>");
+        destinationFile = new File(getTempDirectory(), "ConvertedLines.json");
+        String firstLine = "{\"@id\":\"1\",\"name\":\"a\",\"tag\":[\"x\",\"y\"]}\n";
+
+        // arrays determined for the whole file are arrays in every record
+        new ConverterService(ConversionOptions.builder().jsonLinesPath("/catalog/item").build())
+                .convert(sourceFile, destinationFile, new CustomFileReadListener(), new AtomicBoolean(false));
+        assertEquals(firstLine + "{\"@id\":\"2\",\"name\":\"b\",\"tag\":[\"z\"]}\n",
+                new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+
+        // in single-pass mode arrays are decided in every record
+        new ConverterService(ConversionOptions.builder().jsonLinesPath("item").singlePass(true).build())
+                .convert(sourceFile, destinationFile, new CustomFileReadListener(), new AtomicBoolean(false));
+        assertEquals(firstLine + "{\"@id\":\"2\",\"name\":\"b\",\"tag\":\"z\"}\n",
+                new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConvertXmlToRollingParts() throws IOException, XMLStreamException {
+        StringBuilder xml = new StringBuilder("<catalog><header>h</header>");
+        for (int i = 1; i <= 5; i++) {
+            xml.append("<item><id>").append(i).append("</id></item>");
+        }
+        File sourceFile = writeFile("Rolling.xml", xml.append("</catalog>").toString());
+        destinationFile = new File(getTempDirectory(), "ConvertedRolling.json");
+        for (int i = 1; i <= 3; i++) {
+            filesToDelete.add(RollingRecordTarget.getPartFile(destinationFile, i));
+        }
+
+        new ConverterService(ConversionOptions.builder().rollPath("/catalog/item").rollRecords(2).build())
+                .convert(sourceFile, destinationFile, new CustomFileReadListener(), new AtomicBoolean(false));
+        assertEquals("{\"catalog\":{\"header\":\"h\"}}", readCompact(destinationFile));
+        assertEquals("ConvertedRolling-00001.json", RollingRecordTarget.getPartFile(destinationFile, 1).getName());
+        assertEquals("{\"catalog\":{\"item\":[{\"id\":1},{\"id\":2}]}}",
+                readCompact(RollingRecordTarget.getPartFile(destinationFile, 1)));
+        assertEquals("{\"catalog\":{\"item\":[{\"id\":3},{\"id\":4}]}}",
+                readCompact(RollingRecordTarget.getPartFile(destinationFile, 2)));
+        assertEquals("{\"catalog\":{\"item\":[{\"id\":5}]}}",
+                readCompact(RollingRecordTarget.getPartFile(destinationFile, 3)));
+
+        // parts of previous conversion are replaced
+        new ConverterService(ConversionOptions.builder().rollPath("item").rollSize(1).singlePass(true).build())
+                .convert(sourceFile, destinationFile, new CustomFileReadListener(), new AtomicBoolean(false));
+        assertEquals("{\"catalog\":{\"item\":[{\"id\":5}]}}",
+                readCompact(RollingRecordTarget.getPartFile(destinationFile, 5)));
+        filesToDelete.add(RollingRecordTarget.getPartFile(destinationFile, 4));
+        filesToDelete.add(RollingRecordTarget.getPartFile(destinationFile, 5));
+        assertFalse(RollingRecordTarget.getPartFile(destinationFile, 6).exists());
+        assertFalse(new File(getTempDirectory(), ".ConvertedRolling-00005.json").exists());
+    }
+
+    @Test
+    public void testConvertSelectedElements() throws IOException, XMLStreamException {
+        File sourceFile = writeFile("Select.xml", "<catalog id=\"c\"><header><name>n</name><size>2</size></header>"
+                + "<item><id>1</id><name>a</name></item><item><id>2</id><name>b</name></item>"
+                + "<footer>f</footer></catalog>");
+        destinationFile = new File(getTempDirectory(), "ConvertedSelect.json");
+        ConversionOptions options = ConversionOptions.builder()
+                .selectPaths(Arrays.asList("/catalog/header/name", "/catalog/item/id"))
+                .build();
+
+        new ConverterService(options).convert(sourceFile, destinationFile, new CustomFileReadListener(),
+                new AtomicBoolean(false));
+        String json = "{\"catalog\":{\"@id\":\"c\",\"header\":{\"name\":\"n\"},"
+                + "\"item\":[{\"id\":1},{\"id\":2}]}}";
+        assertEquals(json, readCompact(destinationFile));
+
+        // JSON is filtered in the same way
+        File jsonFile = writeFile("Select.json", "{\"catalog\":{\"@id\":\"c\",\"header\":{\"name\":\"n\","
+                + "\"size\":2},\"item\":[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}],"
+                + "\"footer\":\"f\"}}");
+        File xmlFile = new File(getTempDirectory(), "ConvertedSelect.xml");
+        filesToDelete.add(xmlFile);
+        new ConverterService(options).convert(jsonFile, xmlFile, new CustomFileReadListener(),
+                new AtomicBoolean(false));
+        assertEquals("<?xmlversion='1.0'encoding='UTF-8'?><catalogid=\"c\"><header><name>n</name></header>"
+                + "<item><id>1</id></item><item><id>2</id></item></catalog>", readCompact(xmlFile));
+    }
+
+    @Test
+    public void testConvertJsonLinesToXml() throws IOException, XMLStreamException {
+        StringBuilder lines = new StringBuilder();
+        StringBuilder array = new StringBuilder("{\"events\":{\"event\":[");
+        for (int i = 0; i < 40000; i++) {
+            String line = "{\"id\":" + i + ",\"name\":\"Event <" + i + ">\",\"tags\":[\"a\",\"b\"]}";
+            lines.append(line).append(i % 1000 == 0 ? "\r\n\n" : "\n");
+            array.append(i == 0 ? "" : ",").append(line);
+        }
+        array.append("]}}");
+        File sourceFile = writeFile("Events.json", lines.toString());
+        File arrayFile = writeFile("EventsArray.json", array.toString());
+        File arrayXmlFile = new File(getTempDirectory(), "ConvertedEventsArray.xml");
+        filesToDelete.add(arrayXmlFile);
+        destinationFile = new File(getTempDirectory(), "ConvertedEvents.xml");
+
+        new ConverterService().convert(arrayFile, arrayXmlFile, new CustomFileReadListener(),
+                new AtomicBoolean(false));
+        // blocks of lines are converted simultaneously, but written in order
+        new ConverterService(ConversionOptions.builder().jsonLinesPath("/events/event").threads(4).build())
+                .convert(sourceFile, destinationFile, new CustomFileReadListener(), new AtomicBoolean(false));
+
+        assertEquals(new String(Files.readAllBytes(arrayXmlFile.toPath()), StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCancelJsonLinesToXml() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            lines.append("{\"id\":").append(i).append(",\"name\":\"Event ").append(i).append("\"}\n");
+        }
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        // conversion is canceled while the first block is read
+        ByteArrayInputStream input = new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                isCanceled.set(true);
+                return super.read(b, off, len);
+            }
+        };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            new JsonLinesConverter(ConversionOptions.builder().jsonLinesPath("/events/event").threads(2).build(),
+                    ConversionEngine.getInstance()).convert(input, output, isCanceled);
+            fail("Conversion must be canceled");
+        } catch (XMLStreamException ex) {
+            // expected
+        }
+        // the rest of input is not read
+        assertTrue(input.available() > 0);
+        assertFalse(new String(output.toByteArray(), StandardCharsets.UTF_8).contains("</events>"));
+    }
+
+    @Test
+    public void testConvertInvalidJsonLinesToXml() throws IOException {
+        ConverterService service = new ConverterService(ConversionOptions.builder().jsonLinesPath("event").build());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            service.convert(new ByteArrayInputStream("{\"id\":1}\n{\"id\":\n".getBytes(StandardCharsets.UTF_8)),
+                    output, FileTypeEnum.JSON);
+            fail("Invalid line must be reported");
+        } catch (XMLStreamException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Line 2 "));
+        }
+    }
+
     @Test
     public void testConvertXmlToJsonToNonExistingDirectory() throws IOException, XMLStreamException {
         File sourceFile = new File(this.getClass().getClassLoader().getResource("SampleXml.xml").getFile());
@@ -216,12 +800,56 @@ public class ConverterServiceTest {
     }
     
     
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(getTempDirectory(), name);
+        filesToDelete.add(file);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String readCompact(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replaceAll("\\s", "");
+    }
+
     private File getTempDirectory() {
         return new File(System.getProperty("java.io.tmpdir"));
     }
     
     
     
+    /**
+     * Listener which counts progress like {@link com.fs.xml2json.listener.AbstractFileReadListener}.
+     */
+    private static class ProgressListener implements IFileReadListener {
+        private final long sourceSize;
+        private long fileSize;
+        private long readBytes;
+        private double progress;
+        private double maxProgress;
+
+        ProgressListener(long sourceSize) {
+            this.sourceSize = sourceSize;
+            setNumberOfReads(2);
+        }
+
+        @Override
+        public synchronized void setNumberOfReads(int numberOfReads) {
+            fileSize = sourceSize * numberOfReads;
+            readBytes = 0;
+        }
+
+        @Override
+        public synchronized void update(int bytes) {
+            readBytes += bytes;
+            progress = (double) readBytes / fileSize;
+            maxProgress = Math.max(maxProgress, progress);
+        }
+
+        @Override
+        public void finished() {
+        }
+    }
+
     private class CustomFileReadListener implements IFileReadListener {
 
         @Override
@@ -0,0 +1,107 @@
+package com.fs.xml2json.service;
+
+import com.fs.xml2json.filter.CustomPatternFileFilter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for FolderWatcher.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class FolderWatcherTest {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<root><a>1</a><a>2</a></root>";
+
+    private File sourceFolder;
+    private File destinationFolder;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Before
+    public void setUp() throws IOException {
+        sourceFolder = Files.createTempDirectory("xml2jsonWatchSource").toFile();
+        destinationFolder = Files.createTempDirectory("xml2jsonWatchDestination").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        Stream.of(sourceFolder, destinationFolder).forEach(folder -> {
+            Stream.of(folder.listFiles()).forEach(File::delete);
+            folder.delete();
+        });
+    }
+
+    @Test
+    public void testConvertExistingAndNewFiles() throws Exception {
+        Files.write(new File(sourceFolder, "existing.xml").toPath(), XML.getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(sourceFolder, "ignored.txt").toPath(), XML.getBytes(StandardCharsets.UTF_8));
+
+        FolderWatcher watcher = new FolderWatcher(sourceFolder, destinationFolder,
+                new CustomPatternFileFilter("*.xml"), new ConverterService(), 2, 100);
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        Future<?> watching = executor.submit(() -> {
+            watcher.watch(isCanceled);
+            return null;
+        });
+
+        waitFor(() -> watcher.getProcessedFiles() == 1);
+        assertTrue(new File(destinationFolder, "existing.json").exists());
+
+        Files.write(new File(sourceFolder, "new.xml").toPath(), XML.getBytes(StandardCharsets.UTF_8));
+        waitFor(() -> watcher.getProcessedFiles() == 2);
+        String json = new String(Files.readAllBytes(new File(destinationFolder, "new.json").toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(json.contains("["));
+
+        isCanceled.set(true);
+        watching.get(10, TimeUnit.SECONDS);
+        assertEquals(0, watcher.getFailedFiles());
+        assertFalse(new File(destinationFolder, "ignored.json").exists());
+    }
+
+    @Test
+    public void testSkipConvertedFilesInSameFolder() throws Exception {
+        Files.write(new File(sourceFolder, "data.xml").toPath(), XML.getBytes(StandardCharsets.UTF_8));
+
+        FolderWatcher watcher = new FolderWatcher(sourceFolder, sourceFolder,
+                new CustomPatternFileFilter("*"), new ConverterService(), 1, 100);
+        AtomicBoolean isCanceled = new AtomicBoolean(false);
+        Future<?> watching = executor.submit(() -> {
+            watcher.watch(isCanceled);
+            return null;
+        });
+
+        waitFor(() -> watcher.getProcessedFiles() == 1);
+        // converted file is not converted back
+        Thread.sleep(500);
+        isCanceled.set(true);
+        watching.get(10, TimeUnit.SECONDS);
+        assertEquals(1, watcher.getProcessedFiles());
+        assertTrue(new File(sourceFolder, "data.json").exists());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timeout", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
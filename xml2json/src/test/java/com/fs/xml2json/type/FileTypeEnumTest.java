@@ -35,4 +35,13 @@ public class FileTypeEnumTest {
     public void testValueOfIncorrectValue() {
         FileTypeEnum.valueOf("txt");
     }
+    
+    @Test
+    public void testParseCompressedFileName() {
+        Assert.assertEquals(FileTypeEnum.XML, FileTypeEnum.parseByFileName("data.xml.gz"));
+        Assert.assertEquals(FileTypeEnum.JSON, FileTypeEnum.parseByFileName("DATA.JSON.GZ"));
+        Assert.assertNull(FileTypeEnum.parseByFileName("data.gz"));
+        Assert.assertTrue(FileTypeEnum.isCompressed("data.xml.GZ"));
+        Assert.assertFalse(FileTypeEnum.isCompressed("data.xml"));
+    }
 }
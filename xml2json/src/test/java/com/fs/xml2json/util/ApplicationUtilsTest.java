@@ -56,6 +56,25 @@ public class ApplicationUtilsTest {
     }
     
     
+    @Test
+    public void testParseSize() {
+        Assert.assertEquals(1000L, ApplicationUtils.parseSize("1000"));
+        Assert.assertEquals(512L * 1024, ApplicationUtils.parseSize("512k"));
+        Assert.assertEquals(64L * 1024 * 1024, ApplicationUtils.parseSize("64M"));
+        Assert.assertEquals(64L * 1024 * 1024, ApplicationUtils.parseSize(" 64mb "));
+        Assert.assertEquals(2L * 1024 * 1024 * 1024, ApplicationUtils.parseSize("2G"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseIncorrectSize() {
+        ApplicationUtils.parseSize("64X");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNegativeSize() {
+        ApplicationUtils.parseSize("-1M");
+    }
+    
     @Test
     public void testCallDefaultPrivateConstructor() throws NoSuchMethodException, InstantiationException, 
             IllegalAccessException, IllegalArgumentException, InvocationTargetException {
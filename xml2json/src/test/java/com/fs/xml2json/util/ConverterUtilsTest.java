@@ -33,6 +33,16 @@ public class ConverterUtilsTest {
         Assert.assertEquals("someFile.json", outFile.getName());
     }
     
+    @Test
+    public void testGetConvertedFileForCompressedFile() {
+        File outputDirectory = new File(".");
+        
+        Assert.assertEquals("someFile.json.gz",
+                ConverterUtils.getConvertedFile(new File("someFile.xml.gz"), outputDirectory).getName());
+        Assert.assertEquals("some.file.xml.gz",
+                ConverterUtils.getConvertedFile(new File("some.file.json.gz"), outputDirectory).getName());
+    }
+    
     @Test(expected = NullPointerException.class)
     public void testGetConvertedFileWithUnsupportedFile() {
         File sourceFile = new File("someIncorrectFile.txt");
@@ -0,0 +1,116 @@
+package com.fs.xml2json.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fs.xml2json.service.ConverterService;
+import com.fs.xml2json.type.FileTypeEnum;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for CorpusGenerator class.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class CorpusGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameSeedSameDocument() throws Exception {
+        CorpusGenerator generator = CorpusGenerator.builder().seed(42).records(50).build();
+
+        Assert.assertArrayEquals(write(generator, FileTypeEnum.XML), write(generator, FileTypeEnum.XML));
+        Assert.assertArrayEquals(write(generator, FileTypeEnum.JSON), write(generator, FileTypeEnum.JSON));
+        Assert.assertFalse(new String(write(generator, FileTypeEnum.XML), "UTF-8").equals(
+                new String(write(CorpusGenerator.builder().seed(43).records(50).build(), FileTypeEnum.XML),
+                        "UTF-8")));
+    }
+
+    @Test
+    public void testSizeLimit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long records = CorpusGenerator.DEFAULT.write(out, FileTypeEnum.XML, 100 * 1024);
+
+        Assert.assertTrue(records > 1);
+        Assert.assertTrue(out.size() >= 100 * 1024);
+        Assert.assertTrue(out.size() < 110 * 1024);
+    }
+
+    @Test
+    public void testJsonEqualsConvertedXml() throws Exception {
+        CorpusGenerator generator = CorpusGenerator.builder().seed(7).depth(4).fanOut(5).arrayDensity(0.5)
+                .attributes(2).numericRatio(0.5).namespaces(true).records(20).build();
+        ByteArrayOutputStream converted = new ByteArrayOutputStream();
+        new ConverterService().convert(new ByteArrayInputStream(write(generator, FileTypeEnum.XML)), converted,
+                FileTypeEnum.XML);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode expected = mapper.readTree(converted.toByteArray());
+        JsonNode actual = mapper.readTree(write(generator, FileTypeEnum.JSON));
+
+        Assert.assertEquals(20, actual.get(CorpusGenerator.ROOT).get(CorpusGenerator.RECORD).size());
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testGenerateCompressedFile() throws Exception {
+        File file = new File(folder.getRoot(), "corpus.json.gz");
+        CorpusGenerator generator = CorpusGenerator.builder().records(10).build();
+
+        Assert.assertEquals(10, generator.generate(file, Long.MAX_VALUE));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        Assert.assertArrayEquals(write(generator, FileTypeEnum.JSON), out.toByteArray());
+    }
+
+    @Test
+    public void testShape() {
+        CorpusGenerator generator = CorpusGenerator.builder()
+                .shape("seed=5, depth=6,fanOut=2,arrayDensity=1,attributes=0,textLength=3,numericRatio=0,"
+                        + "namespaces=true,records=9").build();
+
+        Assert.assertEquals(5, generator.getSeed());
+        Assert.assertEquals(6, generator.getDepth());
+        Assert.assertEquals(2, generator.getFanOut());
+        Assert.assertEquals(1.0, generator.getArrayDensity(), 0);
+        Assert.assertEquals(0, generator.getAttributes());
+        Assert.assertEquals(3, generator.getTextLength());
+        Assert.assertEquals(0.0, generator.getNumericRatio(), 0);
+        Assert.assertTrue(generator.isNamespaces());
+        Assert.assertEquals(9, generator.getRecords());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownShape() {
+        CorpusGenerator.builder().shape("width=5");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectShape() {
+        CorpusGenerator.builder().shape("arrayDensity=2");
+    }
+
+    private static byte[] write(CorpusGenerator generator, FileTypeEnum type) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.write(out, type, Long.MAX_VALUE);
+        return out.toByteArray();
+    }
+}
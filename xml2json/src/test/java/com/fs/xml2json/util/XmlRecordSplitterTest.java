@@ -0,0 +1,139 @@
+package com.fs.xml2json.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.stream.Stream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for XmlRecordSplitter.
+ *
+ * @author Anton Mykolaienko
+ * @since 1.3.0
+ */
+public class XmlRecordSplitterTest {
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xml2jsonSplit").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        Stream.of(folder.listFiles()).forEach(File::delete);
+        folder.delete();
+    }
+
+    @Test
+    public void testSplitByPath() throws IOException, XMLStreamException {
+        File file = writeRecords("records.xml", "root", "record", 100);
+
+        XmlRecordSplitter.Chunks chunks = XmlRecordSplitter.split(file, "/root/record", 4);
+
+        Assert.assertEquals(4, chunks.size());
+        Assert.assertEquals("/root/record", chunks.getRecordPath());
+        int records = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Assert.assertTrue(chunks.getStart(i) < chunks.getEnd(i));
+            records += countRecords(chunks, i, "record");
+        }
+        Assert.assertEquals(100, records);
+        Assert.assertEquals(file.length(), chunks.getEnd(chunks.size() - 1));
+    }
+
+    @Test
+    public void testSplitDetectsRecords() throws IOException, XMLStreamException {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<!-- <item> -->\n"
+                + "<ns:root xmlns:ns=\"urn:test\" version=\"1\"><ns:header><item/></ns:header>");
+        for (int i = 0; i < 50; i++) {
+            xml.append("<ns:item id=\"").append(i).append("\"><![CDATA[<b>]]></ns:item>\n");
+        }
+        xml.append("</ns:root>");
+        File file = writeFile("auto.xml", xml.toString());
+
+        XmlRecordSplitter.Chunks chunks = XmlRecordSplitter.split(file, XmlRecordSplitter.AUTO, 2);
+
+        Assert.assertEquals(2, chunks.size());
+        Assert.assertEquals("ns:item", chunks.getRecordName());
+        Assert.assertEquals("/root/item", chunks.getRecordPath());
+        Assert.assertEquals(50, countRecords(chunks, 0, "item") + countRecords(chunks, 1, "item"));
+    }
+
+    @Test
+    public void testSplitByRecordName() throws IOException {
+        File file = writeRecords("records.xml", "root", "record", 10);
+
+        Assert.assertNotNull(XmlRecordSplitter.split(file, "record", 2));
+        Assert.assertNull(XmlRecordSplitter.split(file, "/other/record", 2));
+        Assert.assertNull(XmlRecordSplitter.split(file, "value", 2));
+    }
+
+    @Test
+    public void testSplitIntoOneChunk() throws IOException {
+        File file = writeRecords("records.xml", "root", "record", 1);
+
+        Assert.assertNull(XmlRecordSplitter.split(file, XmlRecordSplitter.AUTO, 4));
+        Assert.assertNull(XmlRecordSplitter.split(file, "record", 4));
+    }
+
+    @Test
+    public void testSplitUtf16() throws IOException {
+        File file = new File(folder, "utf16.xml");
+        Files.write(file.toPath(), "<root><record/><record/></root>".getBytes(StandardCharsets.UTF_16));
+
+        Assert.assertNull(XmlRecordSplitter.split(file, "record", 2));
+    }
+
+    private int countRecords(XmlRecordSplitter.Chunks chunks, int index, String recordName)
+            throws IOException, XMLStreamException {
+        int records = 0;
+        try (InputStream input = chunks.open(index, in -> in)) {
+            XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(input);
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (++depth == 2 && recordName.equals(reader.getLocalName())) {
+                        records++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            reader.close();
+        }
+        return records;
+    }
+
+    private File writeRecords(String name, String root, String record, int count) throws IOException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        xml.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<" + root + ">\n").getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < count; i++) {
+            xml.write(("  <" + record + "><value>" + i + "</value><records>x</records></" + record + ">\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        xml.write(("</" + root + ">\n").getBytes(StandardCharsets.UTF_8));
+        File file = new File(folder, name);
+        Files.write(file.toPath(), xml.toByteArray());
+        return file;
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
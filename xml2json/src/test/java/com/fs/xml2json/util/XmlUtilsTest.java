@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -35,5 +36,43 @@ public class XmlUtilsTest {
                 
         sr.close();
     }
+
+    @Test
+    public void testDetermineArraysBySample() throws FileNotFoundException, XMLStreamException {
+        File inputFile = new File(getClass().getResource("/SampleXml.xml").getFile());
+
+        List<String> arrays = XmlUtils.determineArrays(new FileInputStream(inputFile), 1, Long.MAX_VALUE);
+        Assert.assertEquals(Arrays.asList("/root/channel/formats/format"), arrays);
+
+        arrays = XmlUtils.determineArrays(new FileInputStream(inputFile), 2, Long.MAX_VALUE);
+        Assert.assertEquals(2, arrays.size());
+
+        // at least one record is read
+        arrays = XmlUtils.determineArrays(new FileInputStream(inputFile), Integer.MAX_VALUE, 1);
+        Assert.assertEquals(Arrays.asList("/root/channel/formats/format"), arrays);
+    }
+
+    @Test
+    public void testDetermineArraysByMemoryLimit() throws FileNotFoundException, XMLStreamException {
+        File inputFile = new File(getClass().getResource("/SampleXml.xml").getFile());
+
+        List<String> arrays = XmlUtils.determineArrays(new FileInputStream(inputFile), Integer.MAX_VALUE,
+                Long.MAX_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(2, arrays.size());
+
+        // reading stops on the first found element
+        arrays = XmlUtils.determineArrays(new FileInputStream(inputFile), Integer.MAX_VALUE, Long.MAX_VALUE, 0);
+        Assert.assertTrue(arrays.isEmpty());
+
+        arrays = XmlUtils.determineAllArrays(new FileInputStream(inputFile), Long.MAX_VALUE);
+        Assert.assertEquals(2, arrays.size());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testDetermineAllArraysExceedsMemoryLimit() throws FileNotFoundException, XMLStreamException {
+        File inputFile = new File(getClass().getResource("/SampleXml.xml").getFile());
+
+        XmlUtils.determineAllArrays(new FileInputStream(inputFile), 100);
+    }
     
 }